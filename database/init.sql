@@ -16,15 +16,29 @@ CREATE TABLE IF NOT EXISTS eventos_monitoreo (
     metadata JSONB,
     user_id VARCHAR(100),
     session_id VARCHAR(100),
+    masked_message VARCHAR(1000),
+    masked_metadata JSONB,
+    message_sensitive BOOLEAN,
+    metadata_sensitive BOOLEAN,
+    masking_version INTEGER,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Enmascaramiento al guardar: columnas para bases creadas antes de su introducción.
+-- Las filas existentes quedan con masking_version NULL y las completa el backfill (monitoreo.masking.backfill)
+ALTER TABLE eventos_monitoreo ADD COLUMN IF NOT EXISTS masked_message VARCHAR(1000);
+ALTER TABLE eventos_monitoreo ADD COLUMN IF NOT EXISTS masked_metadata JSONB;
+ALTER TABLE eventos_monitoreo ADD COLUMN IF NOT EXISTS message_sensitive BOOLEAN;
+ALTER TABLE eventos_monitoreo ADD COLUMN IF NOT EXISTS metadata_sensitive BOOLEAN;
+ALTER TABLE eventos_monitoreo ADD COLUMN IF NOT EXISTS masking_version INTEGER;
+
 -- Índices para optimizar consultas
 CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_timestamp ON eventos_monitoreo(timestamp DESC);
 CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_event_type ON eventos_monitoreo(event_type);
 CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_service_name ON eventos_monitoreo(service_name);
 CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_user_id ON eventos_monitoreo(user_id);
 CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_level ON eventos_monitoreo(level);
+CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_masking_version ON eventos_monitoreo(masking_version);
 
 -- Índices compuestos para consultas frecuentes
 CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_service_timestamp ON eventos_monitoreo(service_name, timestamp DESC);
@@ -35,6 +49,43 @@ CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_level_timestamp ON eventos_moni
 -- Índices para búsquedas de texto completo
 CREATE INDEX IF NOT EXISTS idx_eventos_monitoreo_message_gin ON eventos_monitoreo USING gin(to_tsvector('spanish', message));
 
+-- Rastro de auditoría (AuditService): tabla de solo anexado, escrita en lotes por AuditTrailWriter
+CREATE TABLE IF NOT EXISTS auditoria_eventos (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    severity VARCHAR(20),
+    user_id VARCHAR(100),
+    session_id VARCHAR(100),
+    correlation_id VARCHAR(100),
+    data_type VARCHAR(100),
+    source VARCHAR(200),
+    operation VARCHAR(100),
+    resource VARCHAR(500),
+    details JSONB
+);
+
+-- La consulta pagina por id descendente, con filtro opcional por tipo o usuario
+CREATE INDEX IF NOT EXISTS idx_auditoria_eventos_type_id ON auditoria_eventos(event_type, id DESC);
+CREATE INDEX IF NOT EXISTS idx_auditoria_eventos_user_id ON auditoria_eventos(user_id, id DESC);
+
+CREATE OR REPLACE FUNCTION auditoria_solo_anexar()
+RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'auditoria_eventos es de solo anexado';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_auditoria_solo_anexar ON auditoria_eventos;
+CREATE TRIGGER trg_auditoria_solo_anexar
+    BEFORE UPDATE OR DELETE ON auditoria_eventos
+    FOR EACH ROW EXECUTE FUNCTION auditoria_solo_anexar();
+
+-- Sharding por service_name (monitoreo.sharding): cada shard ejecuta este script. Al arrancar, la
+-- aplicación (ShardIdRangeInitializer) mueve eventos_monitoreo_id_seq al rango de ids del shard según
+-- su posición (0 = principal): [(posición + 1) * 2^48, (posición + 2) * 2^48). Los shards nuevos se
+-- añaden al final de monitoreo.sharding.shards para no cambiar la posición de los existentes.
+
 -- Crear usuario para la aplicación (opcional)
 -- CREATE USER monitoreo_user WITH PASSWORD 'monitoreo_password';
 -- GRANT ALL PRIVILEGES ON DATABASE monitoreo_db TO monitoreo_user;
@@ -110,6 +161,7 @@ $$ LANGUAGE plpgsql;
 
 -- Comentarios sobre las tablas y funciones
 COMMENT ON TABLE eventos_monitoreo IS 'Tabla para almacenar eventos generales de monitoreo del sistema';
+COMMENT ON TABLE auditoria_eventos IS 'Rastro de auditoría de datos sensibles (solo anexado)';
 COMMENT ON FUNCTION limpiar_eventos_antiguos IS 'Función para limpiar eventos antiguos según política de retención';
 COMMENT ON FUNCTION obtener_estadisticas_eventos IS 'Función para obtener estadísticas generales de eventos';
 
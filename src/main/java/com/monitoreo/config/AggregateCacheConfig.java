@@ -0,0 +1,12 @@
+package com.monitoreo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caché de resultados de los endpoints de agregados (AggregateResultCache)
+ */
+@Configuration
+@EnableConfigurationProperties(AggregateCacheProperties.class)
+public class AggregateCacheConfig {
+}
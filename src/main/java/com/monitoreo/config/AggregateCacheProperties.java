@@ -0,0 +1,27 @@
+package com.monitoreo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de la caché de resultados de los endpoints de agregados (monitoreo.cache-agregados)
+ */
+@Data
+@ConfigurationProperties(prefix = "monitoreo.cache-agregados")
+public class AggregateCacheProperties {
+
+    private boolean habilitado = true;
+
+    /** TTL de los endpoints sin TTL propio; también es el ancho de la cubeta de tiempo de la clave */
+    private long ttlSegundos = 5;
+
+    /** TTL por endpoint; 0 desactiva la caché de ese endpoint */
+    private Map<String, Long> ttlPorEndpoint = new HashMap<>();
+
+    public long ttlSegundos(String endpoint) {
+        return ttlPorEndpoint.getOrDefault(endpoint, ttlSegundos);
+    }
+}
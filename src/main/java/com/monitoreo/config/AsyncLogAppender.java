@@ -0,0 +1,248 @@
+package com.monitoreo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender asíncrono de Logback: el hilo que registra solo encola el evento y un hilo propio lo
+ * escribe en los appenders adjuntos. La cola no usa bloqueos (ConcurrentLinkedQueue con un contador
+ * de plazas reservadas por CAS) y está acotada. El descarte depende del nivel: por encima del
+ * porcentaje de descarte solo se admiten WARN y ERROR, y con la cola llena se descarta todo.
+ * Los eventos descartados se cuentan por nivel y se publican como métricas en AsyncLogMetrics.
+ * <p>
+ * Con bloqueante=true (auditoría, seguridad) no se descarta nada: todos los niveles usan la cola
+ * entera y, si está llena, el hilo que registra espera a que el volcado libere una plaza.
+ */
+public class AsyncLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    static final Level[] NIVELES = {Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR};
+
+    private static final long ESPERA_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final Queue<ILoggingEvent> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamano = new AtomicInteger();
+    private final LongAdder[] descartados = new LongAdder[NIVELES.length];
+
+    private int capacidad = 8192;
+    private int porcentajeDescarte = 80;
+    private int maxFlushMs = 1000;
+    private boolean bloqueante = false;
+    private int limiteDescarte;
+
+    private volatile Thread trabajador;
+    private volatile boolean esperando;
+
+    public AsyncLogAppender() {
+        for (int i = 0; i < descartados.length; i++) {
+            descartados[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (capacidad <= 0 || porcentajeDescarte < 0 || porcentajeDescarte > 100) {
+            addError("Configuración no válida del appender asíncrono " + getName());
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("El appender asíncrono " + getName() + " no tiene appenders adjuntos");
+            return;
+        }
+        limiteDescarte = bloqueante ? capacidad : (int) ((long) capacidad * porcentajeDescarte / 100);
+        super.start();
+        Thread hilo = new Thread(this::volcar, "log-async-" + getName());
+        hilo.setDaemon(true);
+        trabajador = hilo;
+        hilo.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        Thread hilo = trabajador;
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join(maxFlushMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hilo.isAlive()) {
+            addWarn("Appender asíncrono " + getName() + " detenido con " + tamano.get() + " eventos sin volcar");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        Level level = event.getLevel();
+        if (!reservar(level.isGreaterOrEqual(Level.WARN) ? capacidad : limiteDescarte) && !(bloqueante && esperarPlaza())) {
+            descartados[indice(level)].increment();
+            return;
+        }
+        // MDC, mensaje formateado y argumentos se fijan en el hilo que registra
+        try {
+            event.prepareForDeferredProcessing();
+        } catch (RuntimeException e) {
+            // La plaza reservada no llega a ocuparse
+            tamano.decrementAndGet();
+            throw e;
+        }
+        cola.offer(event);
+        if (esperando) {
+            LockSupport.unpark(trabajador);
+        }
+    }
+
+    private boolean reservar(int limite) {
+        while (true) {
+            int actual = tamano.get();
+            if (actual >= limite) {
+                return false;
+            }
+            if (tamano.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Espera a que quede una plaza libre; solo devuelve false si el appender se detiene mientras tanto
+     */
+    private boolean esperarPlaza() {
+        while (isStarted()) {
+            if (reservar(capacidad)) {
+                return true;
+            }
+            LockSupport.unpark(trabajador);
+            LockSupport.parkNanos(this, ESPERA_NANOS / 10);
+        }
+        return false;
+    }
+
+    private void volcar() {
+        while (true) {
+            ILoggingEvent event = cola.poll();
+            if (event == null) {
+                if (!isStarted()) {
+                    return;
+                }
+                esperando = true;
+                if (cola.isEmpty() && isStarted()) {
+                    LockSupport.parkNanos(this, ESPERA_NANOS);
+                }
+                esperando = false;
+                continue;
+            }
+            tamano.decrementAndGet();
+            try {
+                appenders.appendLoopOnAppenders(event);
+            } catch (RuntimeException e) {
+                addError("Error escribiendo un evento en el appender asíncrono " + getName(), e);
+            }
+        }
+    }
+
+    static int indice(Level level) {
+        return switch (level.toInt()) {
+            case Level.TRACE_INT -> 0;
+            case Level.DEBUG_INT -> 1;
+            case Level.INFO_INT -> 2;
+            case Level.WARN_INT -> 3;
+            default -> 4;
+        };
+    }
+
+    public int getProfundidad() {
+        return tamano.get();
+    }
+
+    public long getDescartados(Level level) {
+        return descartados[indice(level)].sum();
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public void setCapacidad(int capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    public int getPorcentajeDescarte() {
+        return porcentajeDescarte;
+    }
+
+    public void setPorcentajeDescarte(int porcentajeDescarte) {
+        this.porcentajeDescarte = porcentajeDescarte;
+    }
+
+    public boolean isBloqueante() {
+        return bloqueante;
+    }
+
+    public void setBloqueante(boolean bloqueante) {
+        this.bloqueante = bloqueante;
+    }
+
+    public int getMaxFlushMs() {
+        return maxFlushMs;
+    }
+
+    public void setMaxFlushMs(int maxFlushMs) {
+        this.maxFlushMs = maxFlushMs;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
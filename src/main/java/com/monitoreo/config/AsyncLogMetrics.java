@@ -0,0 +1,68 @@
+package com.monitoreo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Publica la profundidad de cola y los eventos descartados de cada AsyncLogAppender configurado
+ */
+@Component
+public class AsyncLogMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (factory instanceof LoggerContext loggerContext) {
+            appenders(loggerContext).values().forEach(appender -> registrar(appender, registry));
+        }
+    }
+
+    static void registrar(AsyncLogAppender appender, MeterRegistry registry) {
+        Gauge.builder("monitoreo.logs.cola.profundidad", appender, AsyncLogAppender::getProfundidad)
+                .description("Eventos de log pendientes de escribir en el appender asíncrono")
+                .tag("appender", appender.getName())
+                .register(registry);
+        Gauge.builder("monitoreo.logs.cola.capacidad", appender, AsyncLogAppender::getCapacidad)
+                .description("Capacidad de la cola del appender asíncrono")
+                .tag("appender", appender.getName())
+                .register(registry);
+        for (Level level : AsyncLogAppender.NIVELES) {
+            FunctionCounter.builder("monitoreo.logs.descartados", appender, a -> a.getDescartados(level))
+                    .description("Eventos de log descartados por la política de descarte del appender asíncrono")
+                    .tag("appender", appender.getName())
+                    .tag("nivel", level.toString().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Appenders asíncronos adjuntos a algún logger del contexto, por nombre
+     */
+    static Map<String, AsyncLogAppender> appenders(LoggerContext loggerContext) {
+        Map<String, AsyncLogAppender> encontrados = new LinkedHashMap<>();
+        for (Logger logger : loggerContext.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> iterador = logger.iteratorForAppenders();
+            while (iterador.hasNext()) {
+                if (iterador.next() instanceof AsyncLogAppender asincrono) {
+                    encontrados.putIfAbsent(asincrono.getName(), asincrono);
+                }
+            }
+        }
+        return encontrados;
+    }
+}
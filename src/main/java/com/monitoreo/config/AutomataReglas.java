@@ -0,0 +1,719 @@
+package com.monitoreo.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Autómata finito determinista que reconoce a la vez todas las reglas de enmascaramiento configuradas,
+ * de modo que añadir reglas no añade recorridos del texto.
+ * <p>
+ * Los patrones admiten literales, {@code .}, clases ({@code [a-z0-9]}, {@code [^...]}), {@code \d \w \s}
+ * y sus negaciones, grupos, alternativas y los cuantificadores {@code ? * + {n} {n,} {n,m}}.
+ * No admiten anclas, referencias, lookaround ni cuantificadores perezosos: eso no cabe en un DFA.
+ * Las reglas con límites de palabra exigen {@code \b} (ASCII) al principio y al final de la coincidencia.
+ * <p>
+ * Se enmascara la coincidencia más a la izquierda y más larga; a igual longitud gana la regla declarada antes.
+ * Las instancias son inmutables y se pueden compartir entre hilos.
+ */
+final class AutomataReglas {
+
+    static final int MAX_REGLAS = 64;
+    static final int MAX_ESTADOS = 20_000;
+    private static final int MAX_REPETICIONES = 256;
+    private static final int MUERTO = -1;
+    private static final int INFINITO = -1;
+
+    private final String[] nombres;
+    private final String[] mascaras;
+    private final long reglasSinLimite;
+
+    private final char[] extras;
+    private final int simboloOtro;
+    private final int alfabeto;
+    private final int[] transiciones;
+    private final long[] aceptadas;
+
+    private AutomataReglas(String[] nombres, String[] mascaras, long reglasSinLimite,
+                           char[] extras, int[] transiciones, long[] aceptadas) {
+        this.nombres = nombres;
+        this.mascaras = mascaras;
+        this.reglasSinLimite = reglasSinLimite;
+        this.extras = extras;
+        this.simboloOtro = 128 + extras.length;
+        this.alfabeto = simboloOtro + 1;
+        this.transiciones = transiciones;
+        this.aceptadas = aceptadas;
+    }
+
+    /**
+     * Compila las reglas en un único autómata
+     *
+     * @throws IllegalArgumentException si algún patrón no es válido o el autómata resultante es demasiado grande
+     */
+    static AutomataReglas compilar(List<ReglaEnmascaramiento> reglas) {
+        if (reglas.isEmpty() || reglas.size() > MAX_REGLAS) {
+            throw new IllegalArgumentException("Se admiten entre 1 y " + MAX_REGLAS + " reglas de enmascaramiento");
+        }
+        String[] nombres = new String[reglas.size()];
+        String[] mascaras = new String[reglas.size()];
+        List<Nodo> arboles = new ArrayList<>();
+        long reglasSinLimite = 0;
+        for (int r = 0; r < reglas.size(); r++) {
+            ReglaEnmascaramiento regla = reglas.get(r);
+            if (regla.getNombre() == null || regla.getNombre().isBlank() || regla.getPatron() == null
+                    || regla.getPatron().isEmpty() || regla.getMascara() == null) {
+                throw new IllegalArgumentException("La regla " + (r + 1) + " necesita nombre, patrón y máscara");
+            }
+            nombres[r] = regla.getNombre();
+            mascaras[r] = regla.getMascara();
+            if (!regla.isLimitesPalabra()) {
+                reglasSinLimite |= 1L << r;
+            }
+            try {
+                arboles.add(new Parser(regla.getPatron()).parsear());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Patrón inválido en la regla '" + regla.getNombre() + "': " + e.getMessage(), e);
+            }
+        }
+
+        // Alfabeto: ASCII, los caracteres no ASCII citados en los patrones y un símbolo para el resto
+        TreeSet<Character> noAscii = new TreeSet<>();
+        for (Nodo arbol : arboles) {
+            arbol.recogerNoAscii(noAscii);
+        }
+        char[] extras = new char[noAscii.size()];
+        int k = 0;
+        for (char c : noAscii) {
+            extras[k++] = c;
+        }
+
+        Nfa nfa = new Nfa(128 + extras.length + 1, extras);
+        int inicio = nfa.nuevoEstado();
+        for (int r = 0; r < arboles.size(); r++) {
+            int[] fragmento = arboles.get(r).construir(nfa);
+            nfa.epsilon(inicio, fragmento[0]);
+            nfa.aceptar(fragmento[1], r);
+        }
+
+        Dfa dfa = nfa.determinizar(inicio);
+        if (dfa.aceptadas[0] != 0) {
+            throw new IllegalArgumentException("La regla '" + nombres[Long.numberOfTrailingZeros(dfa.aceptadas[0])]
+                    + "' acepta el texto vacío");
+        }
+        return new AutomataReglas(nombres, mascaras, reglasSinLimite, extras, dfa.transiciones, dfa.aceptadas);
+    }
+
+    int getCantidadReglas() {
+        return nombres.length;
+    }
+
+    String getNombre(int regla) {
+        return nombres[regla];
+    }
+
+    int getCantidadEstados() {
+        return aceptadas.length;
+    }
+
+    /**
+     * Enmascara las coincidencias; devuelve la misma instancia si no hay ninguna
+     */
+    String enmascarar(String t, LongAdder[] coincidencias) {
+        int[] coincidencia = new int[2];
+        StringBuilder sb = null;
+        int copiado = 0;
+        int desde = 0;
+        int inicio;
+        while ((inicio = buscar(t, desde, coincidencia)) >= 0) {
+            if (sb == null) {
+                sb = new StringBuilder(t.length() + 16);
+            }
+            int regla = coincidencia[1];
+            sb.append(t, copiado, inicio).append(mascaras[regla]);
+            coincidencias[regla].increment();
+            copiado = coincidencia[0];
+            desde = copiado;
+        }
+        return sb == null ? t : sb.append(t, copiado, t.length()).toString();
+    }
+
+    /**
+     * Indica si alguna regla coincide; se detiene en la primera coincidencia
+     */
+    boolean contiene(String t) {
+        return buscar(t, 0, new int[2]) >= 0;
+    }
+
+    /**
+     * Busca la siguiente coincidencia desde la posición indicada. Devuelve su inicio, o -1,
+     * y deja en coincidencia el fin y la regla.
+     */
+    private int buscar(String t, int desde, int[] coincidencia) {
+        int n = t.length();
+        for (int i = desde; i < n; i++) {
+            int estado = transiciones[simbolo(t.charAt(i))];
+            if (estado == MUERTO) {
+                continue;
+            }
+            long candidatas = limite(t, i) ? ~0L : reglasSinLimite;
+            if (candidatas == 0) {
+                continue;
+            }
+            int fin = -1;
+            int regla = -1;
+            int j = i + 1;
+            while (true) {
+                long acepta = aceptadas[estado] & candidatas;
+                if (acepta != 0) {
+                    long validas = limite(t, j) ? acepta : acepta & reglasSinLimite;
+                    if (validas != 0) {
+                        fin = j;
+                        regla = Long.numberOfTrailingZeros(validas);
+                    }
+                }
+                if (j >= n) {
+                    break;
+                }
+                estado = transiciones[estado * alfabeto + simbolo(t.charAt(j))];
+                if (estado == MUERTO) {
+                    break;
+                }
+                j++;
+            }
+            if (fin >= 0) {
+                coincidencia[0] = fin;
+                coincidencia[1] = regla;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int simbolo(char c) {
+        if (c < 128) {
+            return c;
+        }
+        int k = Arrays.binarySearch(extras, c);
+        return k >= 0 ? 128 + k : simboloOtro;
+    }
+
+    private static boolean esPalabra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean limite(String t, int i) {
+        boolean antes = i > 0 && esPalabra(t.charAt(i - 1));
+        boolean despues = i < t.length() && esPalabra(t.charAt(i));
+        return antes != despues;
+    }
+
+    // ==================== PATRONES ====================
+
+    /**
+     * Árbol de un patrón; se puede instanciar varias veces en el NFA (cuantificadores con límites)
+     */
+    private interface Nodo {
+        int[] construir(Nfa nfa);
+
+        void recogerNoAscii(TreeSet<Character> destino);
+    }
+
+    /**
+     * Conjunto de caracteres: ASCII como bits y no ASCII enumerados; negado incluye todo lo demás
+     */
+    private record Conjunto(BitSet ascii, TreeSet<Character> noAscii, boolean negado) implements Nodo {
+
+        @Override
+        public int[] construir(Nfa nfa) {
+            int inicio = nfa.nuevoEstado();
+            int fin = nfa.nuevoEstado();
+            nfa.simbolos(inicio, this, fin);
+            return new int[]{inicio, fin};
+        }
+
+        @Override
+        public void recogerNoAscii(TreeSet<Character> destino) {
+            destino.addAll(noAscii);
+        }
+
+        boolean contiene(int simbolo, char[] extras) {
+            boolean dentro = simbolo < 128 ? ascii.get(simbolo)
+                    : simbolo < 128 + extras.length && noAscii.contains(extras[simbolo - 128]);
+            return dentro != negado;
+        }
+    }
+
+    private record Secuencia(List<Nodo> partes) implements Nodo {
+
+        @Override
+        public int[] construir(Nfa nfa) {
+            if (partes.isEmpty()) {
+                int estado = nfa.nuevoEstado();
+                return new int[]{estado, estado};
+            }
+            int[] total = partes.get(0).construir(nfa);
+            for (int p = 1; p < partes.size(); p++) {
+                int[] siguiente = partes.get(p).construir(nfa);
+                nfa.epsilon(total[1], siguiente[0]);
+                total[1] = siguiente[1];
+            }
+            return total;
+        }
+
+        @Override
+        public void recogerNoAscii(TreeSet<Character> destino) {
+            partes.forEach(parte -> parte.recogerNoAscii(destino));
+        }
+    }
+
+    private record Alternativa(List<Nodo> opciones) implements Nodo {
+
+        @Override
+        public int[] construir(Nfa nfa) {
+            int inicio = nfa.nuevoEstado();
+            int fin = nfa.nuevoEstado();
+            for (Nodo opcion : opciones) {
+                int[] fragmento = opcion.construir(nfa);
+                nfa.epsilon(inicio, fragmento[0]);
+                nfa.epsilon(fragmento[1], fin);
+            }
+            return new int[]{inicio, fin};
+        }
+
+        @Override
+        public void recogerNoAscii(TreeSet<Character> destino) {
+            opciones.forEach(opcion -> opcion.recogerNoAscii(destino));
+        }
+    }
+
+    private record Repeticion(Nodo nodo, int minimo, int maximo) implements Nodo {
+
+        @Override
+        public int[] construir(Nfa nfa) {
+            int inicio = nfa.nuevoEstado();
+            int fin = inicio;
+            for (int i = 0; i < minimo; i++) {
+                int[] copia = nodo.construir(nfa);
+                nfa.epsilon(fin, copia[0]);
+                fin = copia[1];
+            }
+            if (maximo == INFINITO) {
+                int[] copia = nodo.construir(nfa);
+                int salida = nfa.nuevoEstado();
+                nfa.epsilon(fin, copia[0]);
+                nfa.epsilon(fin, salida);
+                nfa.epsilon(copia[1], copia[0]);
+                nfa.epsilon(copia[1], salida);
+                return new int[]{inicio, salida};
+            }
+            int salida = nfa.nuevoEstado();
+            for (int i = minimo; i < maximo; i++) {
+                int[] copia = nodo.construir(nfa);
+                nfa.epsilon(fin, salida);
+                nfa.epsilon(fin, copia[0]);
+                fin = copia[1];
+            }
+            nfa.epsilon(fin, salida);
+            return new int[]{inicio, salida};
+        }
+
+        @Override
+        public void recogerNoAscii(TreeSet<Character> destino) {
+            nodo.recogerNoAscii(destino);
+        }
+    }
+
+    /**
+     * Analizador descendente del subconjunto de sintaxis de java.util.regex que admite el autómata
+     */
+    private static final class Parser {
+
+        private final String p;
+        private int pos;
+
+        Parser(String p) {
+            this.p = p;
+        }
+
+        Nodo parsear() {
+            Nodo nodo = alternativa();
+            if (pos < p.length()) {
+                throw error("')' sin '(' correspondiente");
+            }
+            return nodo;
+        }
+
+        private Nodo alternativa() {
+            List<Nodo> opciones = new ArrayList<>();
+            opciones.add(secuencia());
+            while (pos < p.length() && p.charAt(pos) == '|') {
+                pos++;
+                opciones.add(secuencia());
+            }
+            return opciones.size() == 1 ? opciones.get(0) : new Alternativa(opciones);
+        }
+
+        private Nodo secuencia() {
+            List<Nodo> partes = new ArrayList<>();
+            while (pos < p.length() && p.charAt(pos) != '|' && p.charAt(pos) != ')') {
+                partes.add(repeticion());
+            }
+            return partes.size() == 1 ? partes.get(0) : new Secuencia(partes);
+        }
+
+        private Nodo repeticion() {
+            Nodo nodo = atomo();
+            while (pos < p.length()) {
+                char c = p.charAt(pos);
+                int minimo;
+                int maximo;
+                if (c == '?') {
+                    minimo = 0;
+                    maximo = 1;
+                } else if (c == '*') {
+                    minimo = 0;
+                    maximo = INFINITO;
+                } else if (c == '+') {
+                    minimo = 1;
+                    maximo = INFINITO;
+                } else if (c == '{') {
+                    int[] limites = llaves();
+                    minimo = limites[0];
+                    maximo = limites[1];
+                } else {
+                    break;
+                }
+                pos++;
+                if (pos < p.length() && (p.charAt(pos) == '?' || p.charAt(pos) == '+')) {
+                    throw error("cuantificadores perezosos o posesivos no soportados");
+                }
+                nodo = new Repeticion(nodo, minimo, maximo);
+            }
+            return nodo;
+        }
+
+        /**
+         * {n}, {n,} o {n,m}; deja pos sobre la '}'
+         */
+        private int[] llaves() {
+            int cierre = p.indexOf('}', pos);
+            if (cierre < 0) {
+                throw error("'{' sin cerrar");
+            }
+            String contenido = p.substring(pos + 1, cierre);
+            int coma = contenido.indexOf(',');
+            int minimo;
+            int maximo;
+            try {
+                if (coma < 0) {
+                    minimo = Integer.parseInt(contenido.trim());
+                    maximo = minimo;
+                } else {
+                    minimo = Integer.parseInt(contenido.substring(0, coma).trim());
+                    String resto = contenido.substring(coma + 1).trim();
+                    maximo = resto.isEmpty() ? INFINITO : Integer.parseInt(resto);
+                }
+            } catch (NumberFormatException e) {
+                throw error("repetición inválida {" + contenido + "}");
+            }
+            if (minimo < 0 || minimo > MAX_REPETICIONES || (maximo != INFINITO && (maximo < minimo || maximo > MAX_REPETICIONES))) {
+                throw error("repetición fuera de rango {" + contenido + "} (máximo " + MAX_REPETICIONES + ")");
+            }
+            pos = cierre;
+            return new int[]{minimo, maximo};
+        }
+
+        private Nodo atomo() {
+            char c = p.charAt(pos++);
+            switch (c) {
+                case '(' -> {
+                    if (pos < p.length() && p.charAt(pos) == '?') {
+                        throw error("grupos especiales (?...) no soportados");
+                    }
+                    Nodo nodo = alternativa();
+                    if (pos >= p.length() || p.charAt(pos) != ')') {
+                        throw error("'(' sin cerrar");
+                    }
+                    pos++;
+                    return nodo;
+                }
+                case '[' -> {
+                    return clase();
+                }
+                case '.' -> {
+                    BitSet saltos = new BitSet(128);
+                    saltos.set('\n');
+                    saltos.set('\r');
+                    return new Conjunto(saltos, new TreeSet<>(), true);
+                }
+                case '\\' -> {
+                    return escape(false);
+                }
+                case '^', '$' -> throw error("anclas no soportadas; usar limites-palabra");
+                case '*', '+', '?', '{' -> throw error("cuantificador sin operando en la posición " + (pos - 1));
+                default -> {
+                    return literal(c);
+                }
+            }
+        }
+
+        private Nodo clase() {
+            boolean negada = pos < p.length() && p.charAt(pos) == '^';
+            if (negada) {
+                pos++;
+            }
+            BitSet ascii = new BitSet(128);
+            TreeSet<Character> noAscii = new TreeSet<>();
+            boolean primero = true;
+            while (true) {
+                if (pos >= p.length()) {
+                    throw error("'[' sin cerrar");
+                }
+                char c = p.charAt(pos++);
+                if (c == ']' && !primero) {
+                    break;
+                }
+                primero = false;
+                if (c == '[') {
+                    throw error("clases anidadas no soportadas");
+                }
+                if (c == '\\') {
+                    Conjunto escapado = (Conjunto) escape(true);
+                    if (escapado.ascii().cardinality() != 1 || !escapado.noAscii().isEmpty()) {
+                        ascii.or(escapado.ascii());
+                        noAscii.addAll(escapado.noAscii());
+                        continue;
+                    }
+                    c = (char) escapado.ascii().nextSetBit(0);
+                }
+                char hasta = c;
+                if (pos + 1 < p.length() && p.charAt(pos) == '-' && p.charAt(pos + 1) != ']') {
+                    pos++;
+                    hasta = p.charAt(pos++);
+                    if (hasta == '\\') {
+                        hasta = escapeLiteral();
+                    }
+                    if (hasta < c) {
+                        throw error("rango inverso " + c + "-" + hasta);
+                    }
+                    if (hasta >= 128 && hasta != c) {
+                        throw error("rangos con caracteres no ASCII no soportados");
+                    }
+                }
+                for (char x = c; x <= hasta; x++) {
+                    if (x < 128) {
+                        ascii.set(x);
+                    } else {
+                        noAscii.add(x);
+                    }
+                    if (x == Character.MAX_VALUE) {
+                        break;
+                    }
+                }
+            }
+            return new Conjunto(ascii, noAscii, negada);
+        }
+
+        private Nodo escape(boolean enClase) {
+            if (pos >= p.length()) {
+                throw error("'\\' al final del patrón");
+            }
+            char c = p.charAt(pos++);
+            BitSet conjunto = new BitSet(128);
+            switch (c) {
+                case 'd', 'D' -> conjunto.set('0', '9' + 1);
+                case 'w', 'W' -> {
+                    conjunto.set('a', 'z' + 1);
+                    conjunto.set('A', 'Z' + 1);
+                    conjunto.set('0', '9' + 1);
+                    conjunto.set('_');
+                }
+                case 's', 'S' -> {
+                    conjunto.set(' ');
+                    conjunto.set('\t', '\r' + 1);
+                }
+                default -> {
+                    pos--;
+                    return literal(escapeLiteral());
+                }
+            }
+            boolean negado = Character.isUpperCase(c);
+            if (negado && enClase) {
+                throw error("\\" + c + " no soportado dentro de clases");
+            }
+            return new Conjunto(conjunto, new TreeSet<>(), negado);
+        }
+
+        /**
+         * Carácter escapado que se toma literalmente (\t, \n, \r, \f y puntuación)
+         */
+        private char escapeLiteral() {
+            if (pos >= p.length()) {
+                throw error("'\\' al final del patrón");
+            }
+            char c = p.charAt(pos++);
+            return switch (c) {
+                case 't' -> '\t';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 'f' -> '\f';
+                default -> {
+                    if (Character.isLetterOrDigit(c)) {
+                        throw error("escape \\" + c + " no soportado");
+                    }
+                    yield c;
+                }
+            };
+        }
+
+        private static Conjunto literal(char c) {
+            BitSet ascii = new BitSet(128);
+            TreeSet<Character> noAscii = new TreeSet<>();
+            if (c < 128) {
+                ascii.set(c);
+            } else {
+                noAscii.add(c);
+            }
+            return new Conjunto(ascii, noAscii, false);
+        }
+
+        private IllegalArgumentException error(String mensaje) {
+            return new IllegalArgumentException(mensaje);
+        }
+    }
+
+    // ==================== CONSTRUCCIÓN ====================
+
+    /**
+     * NFA de Thompson: cada estado tiene a lo sumo una transición por conjunto de símbolos y varias épsilon
+     */
+    private static final class Nfa {
+
+        private final int alfabeto;
+        private final char[] extras;
+        private final List<Conjunto> conjuntos = new ArrayList<>();
+        private final List<Integer> destinos = new ArrayList<>();
+        private final List<List<Integer>> epsilons = new ArrayList<>();
+        private final Map<Integer, Integer> reglaAceptada = new HashMap<>();
+
+        Nfa(int alfabeto, char[] extras) {
+            this.alfabeto = alfabeto;
+            this.extras = extras;
+        }
+
+        int nuevoEstado() {
+            if (conjuntos.size() >= MAX_ESTADOS * 4) {
+                throw new IllegalArgumentException("Las reglas generan un autómata demasiado grande");
+            }
+            conjuntos.add(null);
+            destinos.add(-1);
+            epsilons.add(new ArrayList<>(2));
+            return conjuntos.size() - 1;
+        }
+
+        void epsilon(int desde, int hasta) {
+            epsilons.get(desde).add(hasta);
+        }
+
+        void simbolos(int desde, Conjunto conjunto, int hasta) {
+            conjuntos.set(desde, conjunto);
+            destinos.set(desde, hasta);
+        }
+
+        void aceptar(int estado, int regla) {
+            reglaAceptada.putIfAbsent(estado, regla);
+        }
+
+        private BitSet clausura(BitSet estados) {
+            BitSet resultado = (BitSet) estados.clone();
+            ArrayDeque<Integer> pendientes = new ArrayDeque<>();
+            estados.stream().forEach(pendientes::push);
+            while (!pendientes.isEmpty()) {
+                for (int siguiente : epsilons.get(pendientes.pop())) {
+                    if (!resultado.get(siguiente)) {
+                        resultado.set(siguiente);
+                        pendientes.push(siguiente);
+                    }
+                }
+            }
+            return resultado;
+        }
+
+        /**
+         * Construcción por subconjuntos; el estado 0 del DFA es el inicial
+         */
+        Dfa determinizar(int inicio) {
+            boolean[][] pertenencia = new boolean[conjuntos.size()][];
+            for (int q = 0; q < conjuntos.size(); q++) {
+                Conjunto conjunto = conjuntos.get(q);
+                if (conjunto != null) {
+                    pertenencia[q] = new boolean[alfabeto];
+                    for (int s = 0; s < alfabeto; s++) {
+                        pertenencia[q][s] = conjunto.contiene(s, extras);
+                    }
+                }
+            }
+
+            Map<BitSet, Integer> indices = new HashMap<>();
+            List<BitSet> estados = new ArrayList<>();
+            List<int[]> filas = new ArrayList<>();
+            BitSet inicial = new BitSet();
+            inicial.set(inicio);
+            inicial = clausura(inicial);
+            indices.put(inicial, 0);
+            estados.add(inicial);
+
+            for (int d = 0; d < estados.size(); d++) {
+                BitSet actual = estados.get(d);
+                int[] fila = new int[alfabeto];
+                for (int s = 0; s < alfabeto; s++) {
+                    BitSet movimiento = new BitSet();
+                    for (int q = actual.nextSetBit(0); q >= 0; q = actual.nextSetBit(q + 1)) {
+                        if (pertenencia[q] != null && pertenencia[q][s]) {
+                            movimiento.set(destinos.get(q));
+                        }
+                    }
+                    if (movimiento.isEmpty()) {
+                        fila[s] = MUERTO;
+                        continue;
+                    }
+                    BitSet destino = clausura(movimiento);
+                    Integer indice = indices.get(destino);
+                    if (indice == null) {
+                        if (estados.size() >= MAX_ESTADOS) {
+                            throw new IllegalArgumentException("Las reglas generan más de " + MAX_ESTADOS + " estados");
+                        }
+                        indice = estados.size();
+                        indices.put(destino, indice);
+                        estados.add(destino);
+                    }
+                    fila[s] = indice;
+                }
+                filas.add(fila);
+            }
+
+            int[] transiciones = new int[estados.size() * alfabeto];
+            long[] aceptadas = new long[estados.size()];
+            for (int d = 0; d < estados.size(); d++) {
+                System.arraycopy(filas.get(d), 0, transiciones, d * alfabeto, alfabeto);
+                BitSet conjunto = estados.get(d);
+                for (Map.Entry<Integer, Integer> aceptacion : reglaAceptada.entrySet()) {
+                    if (conjunto.get(aceptacion.getKey())) {
+                        aceptadas[d] |= 1L << aceptacion.getValue();
+                    }
+                }
+            }
+            return new Dfa(transiciones, aceptadas);
+        }
+    }
+
+    private record Dfa(int[] transiciones, long[] aceptadas) {
+    }
+}
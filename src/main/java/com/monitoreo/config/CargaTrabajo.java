@@ -0,0 +1,29 @@
+package com.monitoreo.config;
+
+/**
+ * Tipos de carga con pools y límites de concurrencia independientes
+ */
+public enum CargaTrabajo {
+
+    /** Camino de escritura: creación y modificación de eventos */
+    INGESTA("ingesta"),
+
+    /** Lecturas interactivas: listados, búsquedas y estadísticas */
+    CONSULTA("consulta"),
+
+    /** Trabajos de fondo: archivado, retención y borrados masivos */
+    SEGUNDO_PLANO("segundo-plano");
+
+    private final String nombre;
+
+    CargaTrabajo(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Nombre usado en métricas y en los pools de conexiones
+     */
+    public String getNombre() {
+        return nombre;
+    }
+}
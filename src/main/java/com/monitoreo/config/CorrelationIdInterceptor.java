@@ -26,14 +26,14 @@ public class CorrelationIdInterceptor implements ClientHttpRequestInterceptor {
             throws IOException {
         
         // Obtener correlation-id del MDC
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
-        String userId = CorrelationIdFilter.getCurrentUserId();
-        String sessionId = CorrelationIdFilter.getCurrentSessionId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
+        String userId = RequestContext.getCurrentUserId();
+        String sessionId = RequestContext.getCurrentSessionId();
         
         // Agregar headers de trazabilidad
         if (correlationId != null) {
-            request.getHeaders().add(CorrelationIdFilter.CORRELATION_ID_HEADER, correlationId);
+            request.getHeaders().add(RequestContext.CORRELATION_ID_HEADER, correlationId);
             logger.debug("Propagando correlation-id: {} en petición a: {}", correlationId, request.getURI());
         }
         
@@ -0,0 +1,35 @@
+package com.monitoreo.config;
+
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fuente de exemplars para el registro de Prometheus sin trazas distribuidas: el correlation-id
+ * del MDC hace de trace_id y el request-id de span_id, de modo que una muestra lenta del histograma
+ * lleva a los logs de esa petición. Spring Boot lo usa al crear el PrometheusMeterRegistry.
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.metricas.exemplars", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class CorrelationIdSpanContext implements SpanContext {
+
+    @Override
+    public String getCurrentTraceId() {
+        return RequestContext.getCurrentCorrelationId();
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        return RequestContext.getCurrentRequestId();
+    }
+
+    @Override
+    public boolean isCurrentSpanSampled() {
+        return RequestContext.getCurrentCorrelationId() != null && RequestContext.getCurrentRequestId() != null;
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+        // Sin tracer que anotar
+    }
+}
@@ -0,0 +1,150 @@
+package com.monitoreo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Enrutamiento de conexiones:
+ * - con monitoreo.carga.pools-separados=true cada carga de trabajo usa su propio pool a la primaria
+ * - con monitoreo.datasource.lectura.habilitado=true las transacciones readOnly van a una réplica
+ *   sana y al día, y las escrituras y todo lo demás a la primaria (spring.datasource)
+ * - con monitoreo.sharding.habilitado=true cada conexión va a la base del shard fijado en ShardContext;
+ *   lo anterior aplica al shard principal
+ */
+@Configuration
+@ConditionalOnExpression("${monitoreo.datasource.lectura.habilitado:false} or ${monitoreo.carga.pools-separados:false}"
+        + " or ${monitoreo.sharding.habilitado:false}")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class DataSourceRoutingConfig {
+
+    static final String ESCRITURA = "escritura";
+
+    @Bean
+    @Qualifier(ESCRITURA)
+    @ConditionalOnProperty(prefix = "monitoreo.carga", name = "pools-separados", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    /**
+     * Un pool a la primaria por carga, para que una ráfaga de consultas no deje sin conexiones a la ingesta
+     */
+    @Bean
+    @Qualifier(ESCRITURA)
+    @ConditionalOnProperty(prefix = "monitoreo.carga", name = "pools-separados", havingValue = "true")
+    public WorkloadRoutingDataSource workloadRoutingDataSource(DataSourceProperties properties,
+                                                               WorkloadProperties workloadProperties,
+                                                               MeterRegistry meterRegistry) {
+        Map<CargaTrabajo, DataSource> pools = new EnumMap<>(CargaTrabajo.class);
+        for (CargaTrabajo carga : CargaTrabajo.values()) {
+            WorkloadProperties.Carga configuracion = workloadProperties.get(carga);
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName(carga.getNombre());
+            pool.setMaximumPoolSize(configuracion.getMaximumPoolSize());
+            pool.setMinimumIdle(configuracion.getMinimumIdle());
+            pool.setConnectionTimeout(configuracion.getConnectionTimeout());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.put(carga, pool);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "monitoreo.datasource.lectura", name = "habilitado", havingValue = "true")
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(@Qualifier(ESCRITURA) DataSource primaryDataSource,
+                                                                     ReadReplicaProperties properties,
+                                                                     MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (ReadReplicaProperties.Replica replica : properties.getReplicas()) {
+            replicas.put(replica.getNombre(), crearPoolReplica(replica, meterRegistry));
+        }
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicas, properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "monitoreo.sharding", name = "habilitado", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(@Qualifier(ESCRITURA) DataSource primaryDataSource,
+                                                         ObjectProvider<ReadReplicaRoutingDataSource> readReplicaRoutingDataSource,
+                                                         ShardingProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        Map<String, DataSource> adicionales = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            adicionales.put(shard.getNombre(), crearPoolShard(shard, meterRegistry));
+        }
+        DataSource replicas = readReplicaRoutingDataSource.getIfAvailable();
+        DataSource principal = replicas != null ? replicas : primaryDataSource;
+        return new ShardRoutingDataSource(principal, adicionales, meterRegistry);
+    }
+
+    /**
+     * DataSource que usan JPA y el resto de la aplicación
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(ESCRITURA) DataSource primaryDataSource,
+                                 ObjectProvider<ReadReplicaRoutingDataSource> readReplicaRoutingDataSource,
+                                 ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource) {
+        // getIfAvailable(Supplier) exige un proveedor del tipo del bean: la cadena se resuelve a mano
+        DataSource destino = shardRoutingDataSource.getIfAvailable();
+        if (destino == null) {
+            destino = readReplicaRoutingDataSource.getIfAvailable();
+        }
+        if (destino == null) {
+            destino = primaryDataSource;
+        }
+        return new LazyConnectionDataSourceProxy(destino);
+    }
+
+    private static HikariDataSource crearPoolReplica(ReadReplicaProperties.Replica replica, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(replica.getNombre());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        if (replica.getDriverClassName() != null) {
+            dataSource.setDriverClassName(replica.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        // Timeout corto: una réplica caída no debe bloquear las lecturas hasta el siguiente chequeo
+        dataSource.setConnectionTimeout(replica.getConnectionTimeout());
+        dataSource.setReadOnly(true);
+        // El pool no es un bean, así que sus métricas de Hikari se registran aquí (etiqueta pool=nombre)
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    private static HikariDataSource crearPoolShard(ShardingProperties.Shard shard, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + shard.getNombre());
+        dataSource.setJdbcUrl(shard.getUrl());
+        dataSource.setUsername(shard.getUsername());
+        dataSource.setPassword(shard.getPassword());
+        if (shard.getDriverClassName() != null) {
+            dataSource.setDriverClassName(shard.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(shard.getConnectionTimeout());
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
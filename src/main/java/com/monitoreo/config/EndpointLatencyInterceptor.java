@@ -0,0 +1,80 @@
+package com.monitoreo.config;
+
+import com.monitoreo.controller.EventoMonitoreoController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mide la latencia de cada operación de EventoMonitoreoController con histograma de percentiles
+ * y los límites de SLO configurados. Con el registro de Prometheus, cada muestra puede llevar como
+ * exemplar el correlation-id de la petición (ver CorrelationIdSpanContext).
+ */
+@Component
+public class EndpointLatencyInterceptor implements HandlerInterceptor {
+
+    private static final String ATRIBUTO_MUESTRA = EndpointLatencyInterceptor.class.getName() + ".muestra";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] slo;
+    private final boolean histograma;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public EndpointLatencyInterceptor(MeterRegistry meterRegistry,
+                                      @Value("${monitoreo.metricas.endpoints.slo:50ms,100ms,250ms,500ms,1s,2s}") Duration[] slo,
+                                      @Value("${monitoreo.metricas.endpoints.histograma-percentiles:true}") boolean histograma) {
+        this.meterRegistry = meterRegistry;
+        this.slo = slo;
+        this.histograma = histograma;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && medir(handlerMethod)) {
+            request.setAttribute(ATRIBUTO_MUESTRA, Timer.start(meterRegistry));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ATRIBUTO_MUESTRA) instanceof Timer.Sample muestra) {
+            request.removeAttribute(ATRIBUTO_MUESTRA);
+            String operacion = ((HandlerMethod) handler).getMethod().getName();
+            muestra.stop(timer(operacion, estado(response.getStatus(), ex)));
+        }
+    }
+
+    private static boolean medir(HandlerMethod handlerMethod) {
+        return EventoMonitoreoController.class.isAssignableFrom(handlerMethod.getBeanType());
+    }
+
+    /**
+     * Familia del código de respuesta; una excepción sin resolver cuenta como 5xx
+     */
+    static String estado(int status, Exception ex) {
+        if (ex != null && status < 400) {
+            return "5xx";
+        }
+        return (status / 100) + "xx";
+    }
+
+    private Timer timer(String operacion, String estado) {
+        return timers.computeIfAbsent(operacion + ' ' + estado, clave -> Timer.builder("monitoreo.eventos.endpoint.tiempo")
+                .description("Latencia de las operaciones de eventos de monitoreo")
+                .tag("operacion", operacion)
+                .tag("estado", estado)
+                .publishPercentileHistogram(histograma)
+                .serviceLevelObjectives(slo)
+                .register(meterRegistry));
+    }
+}
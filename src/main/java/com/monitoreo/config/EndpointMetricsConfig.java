@@ -0,0 +1,23 @@
+package com.monitoreo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registra la medición de latencia por operación de los endpoints de eventos
+ */
+@Configuration
+public class EndpointMetricsConfig implements WebMvcConfigurer {
+
+    private final EndpointLatencyInterceptor endpointLatencyInterceptor;
+
+    public EndpointMetricsConfig(EndpointLatencyInterceptor endpointLatencyInterceptor) {
+        this.endpointLatencyInterceptor = endpointLatencyInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(endpointLatencyInterceptor).addPathPatterns("/api/monitoreo/eventos/**");
+    }
+}
@@ -0,0 +1,79 @@
+package com.monitoreo.config;
+
+import com.monitoreo.model.EventoMonitoreo;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enmascara cada evento al guardarlo y persiste el resultado junto con los indicadores de
+ * sensibilidad por campo, de modo que las lecturas sirven lo guardado sin volver a recorrer el texto.
+ * Cubre todas las rutas de escritura (API, lotes, réplica del WAL, cambios de shard).
+ * <p>
+ * La forma enmascarada replica la de DataMaskingService: el mensaje completo y los valores String
+ * de primer nivel de la metadata; la metadata se marca como sensible si algún valor, también anidado, lo es.
+ */
+public class EnmascaramientoEventoListener {
+
+    // Longitud de masked_message, la misma que la de message
+    static final int LONGITUD_MENSAJE = 1000;
+
+    @PrePersist
+    @PreUpdate
+    public void enmascarar(EventoMonitoreo evento) {
+        aplicar(evento);
+    }
+
+    /**
+     * Calcula el enmascaramiento del evento con las reglas vigentes
+     */
+    public static void aplicar(EventoMonitoreo evento) {
+        // Una sola instantánea de las reglas para que la versión guardada corresponda al resultado
+        SensitiveDataScanner.Reglas reglas = SensitiveDataScanner.reglasActivas();
+        String mensaje = evento.getMessage();
+        String mensajeEnmascarado = SensitiveDataScanner.mask(mensaje, reglas);
+        boolean mensajeSensible = mensajeEnmascarado != mensaje;
+        evento.setMessageSensitive(mensajeSensible);
+        // Las máscaras pueden alargar el texto: si no cabe en la columna no se guarda y la lectura lo recorre
+        evento.setMaskedMessage(mensajeSensible && mensajeEnmascarado.length() <= LONGITUD_MENSAJE ? mensajeEnmascarado : null);
+
+        boolean metadataSensible = contieneDatosSensibles(evento.getMetadata(), reglas);
+        evento.setMetadataSensitive(metadataSensible);
+        evento.setMaskedMetadata(metadataSensible ? enmascararMetadata(evento.getMetadata(), reglas) : null);
+
+        evento.setMaskingVersion(reglas.version);
+    }
+
+    /**
+     * Indica si el enmascaramiento persistido corresponde a las reglas vigentes
+     */
+    public static boolean estaVigente(EventoMonitoreo evento) {
+        Integer version = evento.getMaskingVersion();
+        return version != null && version == SensitiveDataScanner.versionReglas();
+    }
+
+    private static boolean contieneDatosSensibles(Object valor, SensitiveDataScanner.Reglas reglas) {
+        if (valor instanceof String texto) {
+            return SensitiveDataScanner.contains(texto, reglas);
+        }
+        if (valor instanceof Map<?, ?> mapa) {
+            for (Object anidado : mapa.values()) {
+                if (contieneDatosSensibles(anidado, reglas)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Object> enmascararMetadata(Map<String, Object> metadata, SensitiveDataScanner.Reglas reglas) {
+        Map<String, Object> enmascarada = new HashMap<>();
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            Object valor = entry.getValue();
+            enmascarada.put(entry.getKey(), valor instanceof String texto ? SensitiveDataScanner.mask(texto, reglas) : valor);
+        }
+        return enmascarada;
+    }
+}
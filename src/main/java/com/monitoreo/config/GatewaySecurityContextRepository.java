@@ -0,0 +1,99 @@
+package com.monitoreo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * Autenticación por el user-id que envía el Gateway (tras su JwtAuthFilter).
+ * En lugar de un filtro propio, el contexto de seguridad se carga desde el RequestContext ya
+ * analizado por MonitoreoRequestContextFilter; no se guarda nada entre peticiones.
+ */
+@Component
+public class GatewaySecurityContextRepository implements SecurityContextRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewaySecurityContextRepository.class);
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return cargar(requestResponseHolder.getRequest());
+    }
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        return new ContextoDiferido(request);
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        // Sin estado: cada petición trae su user-id
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return !excluida(request) && RequestContext.de(request).getGatewayUserId() != null;
+    }
+
+    SecurityContext cargar(HttpServletRequest request) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        if (excluida(request)) {
+            return context;
+        }
+
+        String userId = RequestContext.de(request).getGatewayUserId();
+        if (userId != null) {
+            context.setAuthentication(new UsernamePasswordAuthenticationToken(
+                    userId, null, Collections.singletonList(new SimpleGrantedAuthority("USER"))));
+            logger.debug("Autenticación establecida para usuario: {}", userId);
+        } else {
+            logger.warn("No se encontró user-id en el header");
+        }
+        return context;
+    }
+
+    /**
+     * Actuator y consola H2 no pasan por la autenticación del Gateway
+     */
+    private static boolean excluida(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/actuator/") || path.startsWith("/h2-console/");
+    }
+
+    /**
+     * Carga el contexto la primera vez que se consulta
+     */
+    private final class ContextoDiferido implements DeferredSecurityContext {
+
+        private final HttpServletRequest request;
+        private SecurityContext context;
+
+        ContextoDiferido(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public SecurityContext get() {
+            if (context == null) {
+                context = cargar(request);
+            }
+            return context;
+        }
+
+        @Override
+        public boolean isGenerated() {
+            return get().getAuthentication() == null;
+        }
+    }
+}
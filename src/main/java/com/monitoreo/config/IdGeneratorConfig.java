@@ -0,0 +1,46 @@
+package com.monitoreo.config;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Instala el generador de correlation-id y request-id con el nodo de esta instancia.
+ * El nodo sale de monitoreo.ids.nodo si está configurado; si no, del instance-id de Eureka
+ * (o de aplicación, host y puerto cuando Eureka no está activo).
+ */
+@Component
+public class IdGeneratorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    private final TimeSortableIdGenerator anterior = TimeSortableIdGenerator.compartido();
+
+    public IdGeneratorConfig(ObjectProvider<EurekaInstanceConfigBean> eurekaInstance,
+                             Environment environment,
+                             @Value("${monitoreo.ids.nodo:-1}") int nodoConfigurado) {
+        String instanceId = instanceId(eurekaInstance.getIfAvailable(), environment);
+        int nodo = nodoConfigurado >= 0 ? nodoConfigurado : TimeSortableIdGenerator.nodoPara(instanceId);
+        TimeSortableIdGenerator.instalar(new TimeSortableIdGenerator(nodo));
+        logger.info("Generador de identificadores instalado: nodo {} (instancia {})", nodo, instanceId);
+    }
+
+    private static String instanceId(EurekaInstanceConfigBean eurekaInstance, Environment environment) {
+        if (eurekaInstance != null && eurekaInstance.getInstanceId() != null) {
+            return eurekaInstance.getInstanceId();
+        }
+        return environment.getProperty("spring.application.name", "monitoreo") + ":"
+                + environment.getProperty("HOSTNAME", "localhost") + ":"
+                + environment.getProperty("server.port", "8080");
+    }
+
+    @PreDestroy
+    public void restaurar() {
+        TimeSortableIdGenerator.instalar(anterior);
+    }
+}
@@ -0,0 +1,509 @@
+package com.monitoreo.config;
+
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import com.monitoreo.repository.FormaConsulta;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Column;
+import jakarta.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Asesor de índices de eventos_monitoreo. Cruza las estadísticas de PostgreSQL (pg_stat_user_indexes,
+ * pg_statio_user_indexes y pg_stat_user_tables) con las formas de acceso de los métodos del repositorio
+ * y con cuántas veces se ha llamado a cada uno (métrica monitoreo.repositorio.tiempo). Informa de los
+ * índices sin uso, de los redundantes (prefijo de otro índice) y de las formas sin índice que las sirva,
+ * con una estimación del coste de escritura de cada índice a partir del ancho de sus columnas (pg_stats).
+ * Los métodos con @Query sin @FormaConsulta no tienen forma conocida: se avisan al arrancar y se listan
+ * en el informe.
+ * Las estadísticas son las del servidor al que se conecta el DataSource principal.
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.indices", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class IndexAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    private static final Set<Part.Type> IGUALDAD = EnumSet.of(Part.Type.SIMPLE_PROPERTY, Part.Type.IN,
+            Part.Type.IS_NULL, Part.Type.TRUE, Part.Type.FALSE);
+
+    private static final Pattern COLUMNA = Pattern.compile(
+            "\"?([a-z_][a-z0-9_]*)\"?(?:\\s+(ASC|DESC))?(?:\\s+NULLS\\s+(?:FIRST|LAST))?", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern METODO_ACCESO = Pattern.compile("\\sUSING\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private static final String SQL_INDICES = """
+            SELECT s.indexrelname, s.idx_scan, s.idx_tup_read, pg_relation_size(s.indexrelid) AS tamano,
+                   io.idx_blks_read, io.idx_blks_hit, i.indisunique, pg_get_indexdef(s.indexrelid) AS definicion
+            FROM pg_stat_user_indexes s
+            JOIN pg_statio_user_indexes io ON io.indexrelid = s.indexrelid
+            JOIN pg_index i ON i.indexrelid = s.indexrelid
+            WHERE s.relname = ?
+            """;
+
+    private static final String SQL_COLUMNAS = """
+            SELECT attname, avg_width, null_frac FROM pg_stats
+            WHERE schemaname = current_schema() AND tablename = ?
+            """;
+
+    // Columnas sin estadísticas (tabla sin ANALYZE): se supone el ancho de un bigint
+    static final double ANCHO_POR_DEFECTO = 8;
+
+    // Cabecera de la tupla de índice (IndexTupleData) y puntero de línea en la página
+    private static final int CABECERA_ENTRADA = 8;
+    private static final int PUNTERO_LINEA = 4;
+
+    private static final Pattern IDENTIFICADOR = Pattern.compile("[a-z_][a-z0-9_]*", Pattern.CASE_INSENSITIVE);
+
+    private static final String SQL_TABLA = """
+            SELECT n_tup_ins, n_tup_upd, n_tup_hot_upd, n_tup_del
+            FROM pg_stat_user_tables WHERE relname = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String tabla;
+    private final List<Forma> formas;
+    private final List<String> sinForma;
+
+    public IndexAdvisor(DataSource dataSource, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.meterRegistry = meterRegistry;
+        this.tabla = EventoMonitoreo.class.getAnnotation(Table.class).name();
+        this.formas = formas(EventoMonitoreoRepository.class, EventoMonitoreo.class);
+        this.sinForma = sinForma(EventoMonitoreoRepository.class, EventoMonitoreo.class);
+        if (!sinForma.isEmpty()) {
+            logger.warn("El asesor de índices no conoce la forma de acceso de {} de {}: añada @FormaConsulta",
+                    sinForma, EventoMonitoreoRepository.class.getSimpleName());
+        }
+    }
+
+    /**
+     * Informe de índices, o null si la base de datos no es PostgreSQL
+     */
+    public Informe informe() {
+        String producto = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(producto)) {
+            logger.debug("Asesor de índices no disponible para {}", producto);
+            return null;
+        }
+        List<Indice> indices = jdbcTemplate.query(SQL_INDICES, (fila, n) -> {
+            String definicion = fila.getString("definicion");
+            return new Indice(fila.getString("indexrelname"), metodoAcceso(definicion), columnas(definicion),
+                    fila.getBoolean("indisunique"), fila.getLong("idx_scan"), fila.getLong("idx_tup_read"),
+                    fila.getLong("tamano"), fila.getLong("idx_blks_read"), fila.getLong("idx_blks_hit"));
+        }, tabla);
+        List<Escrituras> escrituras = jdbcTemplate.query(SQL_TABLA, (fila, n) -> new Escrituras(fila.getLong("n_tup_ins"),
+                fila.getLong("n_tup_upd"), fila.getLong("n_tup_hot_upd"), fila.getLong("n_tup_del")), tabla);
+        Map<String, Double> anchos = new HashMap<>();
+        jdbcTemplate.query(SQL_COLUMNAS, fila -> {
+            anchos.put(fila.getString("attname"), fila.getInt("avg_width") * (1 - fila.getDouble("null_frac")));
+        }, tabla);
+        return analizar(tabla, indices, escrituras.isEmpty() ? new Escrituras(0, 0, 0, 0) : escrituras.get(0),
+                anchos, formas, sinForma, this::llamadas);
+    }
+
+    private long llamadas(String metodo) {
+        long total = 0;
+        for (Timer timer : meterRegistry.find("monitoreo.repositorio.tiempo")
+                .tag("repositorio", EventoMonitoreoRepository.class.getSimpleName())
+                .tag("metodo", metodo)
+                .timers()) {
+            total += timer.count();
+        }
+        return total;
+    }
+
+    static Informe analizar(String tabla, List<Indice> indices, Escrituras escrituras, Map<String, Double> anchos,
+                            List<Forma> formas, List<String> sinForma, ToLongFunction<String> llamadas) {
+        List<InformeIndice> informes = new ArrayList<>();
+        List<String> sinUso = new ArrayList<>();
+        Map<String, String> redundantes = new LinkedHashMap<>();
+        for (Indice indice : indices) {
+            String cubiertoPor = cubiertoPor(indice, indices);
+            if (cubiertoPor != null) {
+                redundantes.put(indice.nombre(), cubiertoPor);
+            }
+            boolean usado = indice.escaneos() > 0 || indice.unico();
+            if (!usado) {
+                sinUso.add(indice.nombre());
+            }
+            List<String> metodos = new ArrayList<>();
+            for (Forma forma : formas) {
+                if (soporta(indice, forma)) {
+                    metodos.add(forma.metodo());
+                }
+            }
+            long entradas = escrituras.versionesIndexadas();
+            int ancho = anchoEntrada(indice, anchos);
+            long bytesEscritos = entradas * ancho;
+            long bloques = indice.bloquesLeidos() + indice.bloquesCache();
+            informes.add(new InformeIndice(indice.nombre(), indice.metodoAcceso(), indice.descripcionColumnas(),
+                    indice.escaneos(), indice.tuplasLeidas(), indice.tamanoBytes(),
+                    bloques == 0 ? 1.0 : (double) indice.bloquesCache() / bloques,
+                    entradas, ancho, bytesEscritos, (double) bytesEscritos / Math.max(1, indice.escaneos()),
+                    metodos, cubiertoPor != null ? "redundante" : usado ? "en_uso" : "sin_uso", cubiertoPor));
+        }
+
+        List<UsoForma> usos = new ArrayList<>();
+        List<UsoForma> faltantes = new ArrayList<>();
+        for (Forma forma : formas) {
+            String indice = mejorIndice(forma, indices, redundantes.keySet());
+            UsoForma uso = new UsoForma(forma.metodo(), llamadas.applyAsLong(forma.metodo()), forma.columnas(), indice,
+                    indice == null && !forma.columnas().isEmpty() ? sugerencia(tabla, forma) : null);
+            usos.add(uso);
+            if (uso.sugerencia() != null) {
+                faltantes.add(uso);
+            }
+        }
+        Comparator<UsoForma> porLlamadas = Comparator.comparingLong(UsoForma::llamadas).reversed();
+        usos.sort(porLlamadas);
+        faltantes.sort(porLlamadas);
+        return new Informe(tabla, escrituras, informes, sinUso, redundantes, faltantes, usos, sinForma);
+    }
+
+    /**
+     * Bytes que ocupa en el índice la entrada de una fila: cabecera, columnas alineadas a 8 bytes y
+     * puntero de línea. El ancho de cada columna es el medio de pg_stats descontando los nulos; una
+     * expresión suma el de las columnas de la tabla que usa. En índices que no son B-tree (GIN) es
+     * una cota aproximada.
+     */
+    static int anchoEntrada(Indice indice, Map<String, Double> anchos) {
+        double datos = 0;
+        for (ColumnaIndice columna : indice.columnas()) {
+            datos += anchoColumna(columna.nombre(), anchos);
+        }
+        int alineado = (int) Math.ceil((CABECERA_ENTRADA + datos) / 8) * 8;
+        return alineado + PUNTERO_LINEA;
+    }
+
+    private static double anchoColumna(String columna, Map<String, Double> anchos) {
+        Double ancho = anchos.get(columna);
+        if (ancho != null) {
+            return ancho;
+        }
+        double expresion = 0;
+        boolean usaColumnas = false;
+        Matcher matcher = IDENTIFICADOR.matcher(columna);
+        while (matcher.find()) {
+            Double referenciada = anchos.get(matcher.group());
+            if (referenciada != null) {
+                expresion += referenciada;
+                usaColumnas = true;
+            }
+        }
+        return usaColumnas ? expresion : ANCHO_POR_DEFECTO;
+    }
+
+    /**
+     * Índice que mejor sirve la forma: se descartan los redundantes y se prefiere el que, tras las
+     * columnas de igualdad, sigue por la columna de orden (evita ordenar el resultado). A igualdad,
+     * el primero de la lista.
+     */
+    static String mejorIndice(Forma forma, List<Indice> indices, Set<String> redundantes) {
+        Indice mejor = null;
+        boolean mejorOrdena = false;
+        for (Indice candidato : indices) {
+            if (redundantes.contains(candidato.nombre()) || !soporta(candidato, forma)) {
+                continue;
+            }
+            boolean ordena = ordena(candidato, forma);
+            if (mejor == null || (ordena && !mejorOrdena)) {
+                mejor = candidato;
+                mejorOrdena = ordena;
+            }
+        }
+        return mejor == null ? null : mejor.nombre();
+    }
+
+    private static boolean ordena(Indice indice, Forma forma) {
+        int k = forma.igualdad().size();
+        return forma.orden() != null && indice.columnas().size() > k
+                && indice.columnas().get(k).nombre().equals(forma.orden());
+    }
+
+    /**
+     * Índice B-tree del que este es prefijo (mismas columnas y sentidos, o todos invertidos), o null
+     */
+    static String cubiertoPor(Indice indice, List<Indice> indices) {
+        if (!indice.esBtree() || indice.unico()) {
+            return null;
+        }
+        for (Indice otro : indices) {
+            if (otro == indice || !otro.esBtree() || otro.columnas().size() <= indice.columnas().size()) {
+                continue;
+            }
+            boolean mismos = true;
+            boolean invertidos = true;
+            for (int i = 0; i < indice.columnas().size() && (mismos || invertidos); i++) {
+                ColumnaIndice propia = indice.columnas().get(i);
+                ColumnaIndice ajena = otro.columnas().get(i);
+                if (!propia.nombre().equals(ajena.nombre())) {
+                    mismos = false;
+                    invertidos = false;
+                } else if (propia.descendente() == ajena.descendente()) {
+                    invertidos = false;
+                } else {
+                    mismos = false;
+                }
+            }
+            if (mismos || invertidos) {
+                return otro.nombre();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Un B-tree sirve una forma si sus primeras columnas son las de igualdad o, sin igualdad, si empieza
+     * por la columna de rango u orden
+     */
+    static boolean soporta(Indice indice, Forma forma) {
+        if (!indice.esBtree() || forma.columnas().isEmpty()) {
+            return false;
+        }
+        int k = forma.igualdad().size();
+        if (k == 0) {
+            return indice.columnas().get(0).nombre().equals(forma.orden());
+        }
+        if (indice.columnas().size() < k) {
+            return false;
+        }
+        Set<String> iniciales = new HashSet<>();
+        for (int i = 0; i < k; i++) {
+            iniciales.add(indice.columnas().get(i).nombre());
+        }
+        return iniciales.equals(new HashSet<>(forma.igualdad()));
+    }
+
+    private static String sugerencia(String tabla, Forma forma) {
+        return "CREATE INDEX CONCURRENTLY idx_" + tabla + "_" + String.join("_", forma.columnas())
+                + " ON " + tabla + "(" + String.join(", ", forma.columnas()) + ")";
+    }
+
+    /**
+     * Formas de acceso de los métodos declarados en el repositorio: las de @FormaConsulta o, en
+     * consultas derivadas, las del nombre del método
+     */
+    static List<Forma> formas(Class<?> repositorio, Class<?> entidad) {
+        List<Forma> formas = new ArrayList<>();
+        for (Method method : metodos(repositorio)) {
+            Forma forma = forma(method, entidad);
+            if (forma != null) {
+                formas.add(forma);
+            }
+        }
+        formas.sort(Comparator.comparing(Forma::metodo));
+        return formas;
+    }
+
+    /**
+     * Métodos del repositorio que el asesor no puede analizar: consultas @Query sin @FormaConsulta y
+     * nombres de los que no se deriva una consulta
+     */
+    static List<String> sinForma(Class<?> repositorio, Class<?> entidad) {
+        List<String> sinForma = new ArrayList<>();
+        for (Method method : metodos(repositorio)) {
+            if (forma(method, entidad) == null) {
+                sinForma.add(method.getName());
+            }
+        }
+        sinForma.sort(Comparator.naturalOrder());
+        return sinForma;
+    }
+
+    private static List<Method> metodos(Class<?> repositorio) {
+        List<Method> metodos = new ArrayList<>();
+        for (Method method : repositorio.getDeclaredMethods()) {
+            if (!method.isSynthetic() && !Modifier.isStatic(method.getModifiers())) {
+                metodos.add(method);
+            }
+        }
+        return metodos;
+    }
+
+    private static Forma forma(Method method, Class<?> entidad) {
+        FormaConsulta anotada = method.getAnnotation(FormaConsulta.class);
+        if (anotada != null) {
+            List<String> igualdad = new ArrayList<>();
+            for (String propiedad : anotada.igualdad()) {
+                igualdad.add(columna(entidad, propiedad));
+            }
+            String orden = anotada.orden().isEmpty() ? null : columna(entidad, anotada.orden());
+            return new Forma(method.getName(), igualdad, orden);
+        }
+        if (method.getAnnotation(Query.class) != null) {
+            return null;
+        }
+        return derivada(method.getName(), entidad);
+    }
+
+    private static Forma derivada(String metodo, Class<?> entidad) {
+        PartTree arbol;
+        try {
+            arbol = new PartTree(metodo, entidad);
+        } catch (RuntimeException e) {
+            logger.debug("No se pudo derivar la forma de {}: {}", metodo, e.getMessage());
+            return null;
+        }
+        List<String> igualdad = new ArrayList<>();
+        String orden = null;
+        for (Part parte : arbol.getParts()) {
+            String columna = columna(entidad, parte.getProperty().getSegment());
+            if (IGUALDAD.contains(parte.getType())) {
+                igualdad.add(columna);
+            } else if (orden == null) {
+                orden = columna;
+            }
+        }
+        if (orden == null) {
+            for (Sort.Order criterio : arbol.getSort()) {
+                orden = columna(entidad, criterio.getProperty());
+                break;
+            }
+        }
+        return new Forma(metodo, igualdad, orden);
+    }
+
+    private static String columna(Class<?> entidad, String propiedad) {
+        try {
+            Field campo = entidad.getDeclaredField(propiedad);
+            Column column = campo.getAnnotation(Column.class);
+            if (column != null && !column.name().isEmpty()) {
+                return column.name();
+            }
+        } catch (NoSuchFieldException e) {
+            logger.debug("Propiedad {} no encontrada en {}", propiedad, entidad.getSimpleName());
+        }
+        return propiedad.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+    static String metodoAcceso(String definicion) {
+        Matcher matcher = METODO_ACCESO.matcher(definicion);
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : "btree";
+    }
+
+    /**
+     * Columnas de la definición de pg_get_indexdef; las expresiones se conservan tal cual
+     */
+    static List<ColumnaIndice> columnas(String definicion) {
+        List<ColumnaIndice> columnas = new ArrayList<>();
+        int inicio = definicion.indexOf('(', Math.max(0, definicion.toUpperCase(Locale.ROOT).indexOf(" USING ")));
+        if (inicio < 0) {
+            return columnas;
+        }
+        int profundidad = 0;
+        int desde = inicio + 1;
+        for (int i = inicio; i < definicion.length(); i++) {
+            char c = definicion.charAt(i);
+            if (c == '(') {
+                profundidad++;
+            } else if (c == ')' && --profundidad == 0) {
+                columnas.add(columnaIndice(definicion.substring(desde, i).trim()));
+                break;
+            } else if (c == ',' && profundidad == 1) {
+                columnas.add(columnaIndice(definicion.substring(desde, i).trim()));
+                desde = i + 1;
+            }
+        }
+        return columnas;
+    }
+
+    private static ColumnaIndice columnaIndice(String parte) {
+        Matcher matcher = COLUMNA.matcher(parte);
+        if (matcher.matches()) {
+            return new ColumnaIndice(matcher.group(1), "DESC".equalsIgnoreCase(matcher.group(2)));
+        }
+        return new ColumnaIndice(parte, false);
+    }
+
+    record ColumnaIndice(String nombre, boolean descendente) {
+    }
+
+    record Indice(String nombre, String metodoAcceso, List<ColumnaIndice> columnas, boolean unico, long escaneos,
+                  long tuplasLeidas, long tamanoBytes, long bloquesLeidos, long bloquesCache) {
+
+        boolean esBtree() {
+            return "btree".equals(metodoAcceso) && !columnas.isEmpty();
+        }
+
+        List<String> descripcionColumnas() {
+            List<String> descripcion = new ArrayList<>();
+            for (ColumnaIndice columna : columnas) {
+                descripcion.add(columna.descendente() ? columna.nombre() + " DESC" : columna.nombre());
+            }
+            return descripcion;
+        }
+    }
+
+    /**
+     * Forma de acceso de un método: columnas de igualdad y columna de rango u orden (puede ser null)
+     */
+    record Forma(String metodo, List<String> igualdad, String orden) {
+
+        List<String> columnas() {
+            List<String> columnas = new ArrayList<>(igualdad);
+            if (orden != null && !columnas.contains(orden)) {
+                columnas.add(orden);
+            }
+            return columnas;
+        }
+    }
+
+    /**
+     * Filas escritas en la tabla desde el último reinicio de estadísticas. Cada inserción y cada
+     * actualización no HOT añade una entrada en todos los índices.
+     */
+    public record Escrituras(long inserciones, long actualizaciones, long actualizacionesHot, long borrados) {
+
+        public long versionesIndexadas() {
+            return inserciones + actualizaciones - actualizacionesHot;
+        }
+    }
+
+    /**
+     * Uso y coste de un índice. Todas las entradas escritas (inserciones y actualizaciones no HOT) llegan
+     * a todos los índices; lo que cambia de uno a otro es el ancho de la entrada y, con él, los bytes escritos.
+     */
+    public record InformeIndice(String nombre, String metodoAcceso, List<String> columnas, long escaneos,
+                                long tuplasLeidas, long tamanoBytes, double ratioCache, long entradasEscritas,
+                                int anchoEntradaBytes, long bytesEscritosEstimados, double bytesEscritosPorEscaneo,
+                                List<String> metodos, String diagnostico, String cubiertoPor) {
+    }
+
+    public record UsoForma(String metodo, long llamadas, List<String> columnas, String indice, String sugerencia) {
+    }
+
+    public record Informe(String tabla, Escrituras escrituras, List<InformeIndice> indices, List<String> sinUso,
+                          Map<String, String> redundantes, List<UsoForma> faltantes, List<UsoForma> formas,
+                          List<String> sinForma) {
+    }
+}
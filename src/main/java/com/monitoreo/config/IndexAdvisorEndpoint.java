@@ -0,0 +1,32 @@
+package com.monitoreo.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator /actuator/indices con el informe del asesor de índices
+ */
+@Component
+@Endpoint(id = "indices")
+@ConditionalOnProperty(prefix = "monitoreo.indices", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class IndexAdvisorEndpoint {
+
+    private final IndexAdvisor indexAdvisor;
+
+    public IndexAdvisorEndpoint(IndexAdvisor indexAdvisor) {
+        this.indexAdvisor = indexAdvisor;
+    }
+
+    @ReadOperation
+    public Object informe() {
+        IndexAdvisor.Informe informe = indexAdvisor.informe();
+        if (informe == null) {
+            return Map.of("soportado", false, "motivo", "El asesor de índices solo está disponible en PostgreSQL");
+        }
+        return informe;
+    }
+}
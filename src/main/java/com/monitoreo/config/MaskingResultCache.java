@@ -0,0 +1,246 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Caché acotada de resultados de enmascaramiento delante de SensitiveDataFilter.
+ * Guarda, para cada texto, si contiene datos sensibles y su versión enmascarada, de modo que
+ * los mensajes de log repetidos (mismas plantillas, mismos usuarios) no se vuelven a recorrer.
+ * <p>
+ * La clave es un hash de 64 bits del contenido y cada entrada conserva el texto original para
+ * confirmar la coincidencia: una colisión cuenta como fallo y nunca devuelve el resultado de otro texto.
+ * El tamaño se limita por caracteres retenidos (LRU por segmento) y los textos largos no se cachean.
+ * Cada entrada recuerda el conjunto de reglas con el que se calculó; tras una recarga de reglas
+ * las entradas anteriores cuentan como fallo y se sustituyen.
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.masking.cache", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class MaskingResultCache {
+
+    /** Coste fijo aproximado de una entrada (objetos y nodo del mapa) expresado en caracteres */
+    private static final int PESO_FIJO_ENTRADA = 48;
+
+    private final Segmento[] segmentos;
+    private final int longitudMaxima;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Counter omitidos;
+    private final Counter expulsiones;
+    private final DoubleAdder nanosAhorrados = new DoubleAdder();
+
+    /** Media móvil del coste de un recorrido completo, en nanosegundos por carácter */
+    private volatile double nanosPorCaracter;
+
+    public MaskingResultCache(MeterRegistry meterRegistry,
+                              @Value("${monitoreo.masking.cache.max-caracteres:4000000}") long maxCaracteres,
+                              @Value("${monitoreo.masking.cache.longitud-maxima:1024}") int longitudMaxima,
+                              @Value("${monitoreo.masking.cache.segmentos:16}") int numeroSegmentos) {
+        if (maxCaracteres <= 0 || longitudMaxima <= 0 || numeroSegmentos <= 0) {
+            throw new IllegalArgumentException("La configuración de la caché de enmascaramiento debe ser positiva");
+        }
+        this.longitudMaxima = longitudMaxima;
+        this.segmentos = new Segmento[numeroSegmentos];
+        for (int i = 0; i < numeroSegmentos; i++) {
+            segmentos[i] = new Segmento(Math.max(1, maxCaracteres / numeroSegmentos));
+        }
+
+        this.aciertos = consultas(meterRegistry, "acierto");
+        this.fallos = consultas(meterRegistry, "fallo");
+        this.omitidos = consultas(meterRegistry, "omitido");
+        this.expulsiones = Counter.builder("monitoreo.masking.cache.expulsiones")
+                .description("Entradas expulsadas de la caché de enmascaramiento por falta de espacio")
+                .register(meterRegistry);
+        FunctionCounter.builder("monitoreo.masking.cache.tiempo.ahorrado", nanosAhorrados, adder -> adder.sum() / 1_000_000_000d)
+                .description("Tiempo de recorrido estimado que se evitó gracias a los aciertos")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("monitoreo.masking.cache.tasa.aciertos", this, MaskingResultCache::getTasaAciertos)
+                .description("Proporción de consultas resueltas desde la caché")
+                .register(meterRegistry);
+        Gauge.builder("monitoreo.masking.cache.entradas", this, cache -> cache.getEntradas())
+                .description("Entradas en la caché de enmascaramiento")
+                .register(meterRegistry);
+        Gauge.builder("monitoreo.masking.cache.caracteres", this, cache -> cache.getCaracteres())
+                .description("Caracteres retenidos por la caché de enmascaramiento")
+                .register(meterRegistry);
+    }
+
+    private static Counter consultas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("monitoreo.masking.cache.consultas")
+                .description("Consultas a la caché de enmascaramiento")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el texto contiene datos sensibles
+     */
+    public boolean contiene(String texto) {
+        return resolver(texto).contiene;
+    }
+
+    /**
+     * Texto enmascarado; la misma instancia si no hay datos sensibles
+     */
+    public String enmascarar(String texto) {
+        Entrada entrada = resolver(texto);
+        return entrada.contiene ? entrada.enmascarado : texto;
+    }
+
+    private Entrada resolver(String texto) {
+        SensitiveDataScanner.Reglas reglas = SensitiveDataScanner.reglasActivas();
+        if (texto.length() > longitudMaxima) {
+            omitidos.increment();
+            return calcular(texto, reglas);
+        }
+
+        long hash = hash(texto);
+        Segmento segmento = segmentos[(int) Long.remainderUnsigned(hash >>> 32, segmentos.length)];
+        Entrada entrada = segmento.buscar(hash, texto, reglas);
+        if (entrada != null) {
+            aciertos.increment();
+            nanosAhorrados.add(nanosPorCaracter * texto.length());
+            return entrada;
+        }
+
+        fallos.increment();
+        long inicio = System.nanoTime();
+        entrada = calcular(texto, reglas);
+        registrarCoste(System.nanoTime() - inicio, texto.length());
+        expulsiones.increment(segmento.guardar(hash, entrada));
+        return entrada;
+    }
+
+    private static Entrada calcular(String texto, SensitiveDataScanner.Reglas reglas) {
+        String enmascarado = SensitiveDataScanner.mask(texto, reglas);
+        return enmascarado == texto ? new Entrada(texto, false, null, reglas) : new Entrada(texto, true, enmascarado, reglas);
+    }
+
+    private void registrarCoste(long nanos, int longitud) {
+        if (longitud > 0) {
+            double muestra = (double) nanos / longitud;
+            double actual = nanosPorCaracter;
+            nanosPorCaracter = actual == 0 ? muestra : actual + 0.05 * (muestra - actual);
+        }
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre los caracteres con mezclado final
+     */
+    static long hash(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            h ^= texto.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public double getTasaAciertos() {
+        double total = aciertos.count() + fallos.count();
+        return total == 0 ? 0 : aciertos.count() / total;
+    }
+
+    public long getEntradas() {
+        long total = 0;
+        for (Segmento segmento : segmentos) {
+            total += segmento.entradas();
+        }
+        return total;
+    }
+
+    public long getCaracteres() {
+        long total = 0;
+        for (Segmento segmento : segmentos) {
+            total += segmento.peso();
+        }
+        return total;
+    }
+
+    /**
+     * Resultado cacheado; enmascarado es null cuando el texto no contiene datos sensibles
+     */
+    private static final class Entrada {
+        final String original;
+        final boolean contiene;
+        final String enmascarado;
+        final SensitiveDataScanner.Reglas reglas;
+        final int peso;
+
+        Entrada(String original, boolean contiene, String enmascarado, SensitiveDataScanner.Reglas reglas) {
+            this.original = original;
+            this.contiene = contiene;
+            this.enmascarado = enmascarado;
+            this.reglas = reglas;
+            this.peso = PESO_FIJO_ENTRADA + original.length() + (enmascarado != null ? enmascarado.length() : 0);
+        }
+    }
+
+    /**
+     * Porción de la caché con su propio cerrojo, en orden de acceso y con presupuesto de caracteres
+     */
+    private static final class Segmento {
+        private final long pesoMaximo;
+        private final LinkedHashMap<Long, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true);
+        private long peso;
+
+        Segmento(long pesoMaximo) {
+            this.pesoMaximo = pesoMaximo;
+        }
+
+        synchronized Entrada buscar(long hash, String texto, SensitiveDataScanner.Reglas reglas) {
+            Entrada entrada = entradas.get(hash);
+            return entrada != null && entrada.reglas == reglas && entrada.original.equals(texto) ? entrada : null;
+        }
+
+        /**
+         * Guarda la entrada y devuelve cuántas se expulsaron para respetar el presupuesto
+         */
+        synchronized int guardar(long hash, Entrada entrada) {
+            if (entrada.peso > pesoMaximo) {
+                return 0;
+            }
+            Entrada anterior = entradas.put(hash, entrada);
+            if (anterior != null) {
+                peso -= anterior.peso;
+            }
+            peso += entrada.peso;
+
+            int expulsadas = 0;
+            Iterator<Map.Entry<Long, Entrada>> iterador = entradas.entrySet().iterator();
+            while (peso > pesoMaximo && iterador.hasNext()) {
+                Map.Entry<Long, Entrada> masAntigua = iterador.next();
+                if (masAntigua.getValue() == entrada) {
+                    continue;
+                }
+                peso -= masAntigua.getValue().peso;
+                iterador.remove();
+                expulsadas++;
+            }
+            return expulsadas;
+        }
+
+        synchronized int entradas() {
+            return entradas.size();
+        }
+
+        synchronized long peso() {
+            return peso;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motor de reglas de enmascaramiento: compila las reglas de monitoreo.masking.reglas en un autómata
+ * y lo instala en SensitiveDataScanner. Al cambiar la configuración (EnvironmentChangeEvent, por ejemplo
+ * tras /actuator/refresh) compila el nuevo conjunto aparte y lo sustituye de forma atómica; las
+ * peticiones en curso terminan con el anterior. Si el nuevo conjunto no compila se mantiene el vigente.
+ * <p>
+ * La versión de las reglas decide qué enmascaramientos persistidos siguen vigentes y cuáles reenmascara
+ * el backfill, y todas las instancias deben calcular la misma, así que sale de la configuración y no de
+ * un contador local: una recarga que cambia las reglas sin subir monitoreo.masking.reglas.version, o que
+ * la baja, se rechaza como una configuración inválida.
+ */
+@Component
+public class MaskingRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaskingRuleEngine.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    /** Contadores por nombre de regla; se conservan entre recargas para que las métricas sean acumulativas */
+    private final Map<String, LongAdder> coincidenciasPorRegla = new HashMap<>();
+
+    private final Counter recargasCorrectas;
+    private final Counter recargasFallidas;
+
+    private volatile int cantidadPersonalizadas;
+
+    /** Configuración del conjunto de reglas instalado */
+    private Huella huellaActiva;
+
+    public MaskingRuleEngine(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+
+        this.recargasCorrectas = recargas("correcta");
+        this.recargasFallidas = recargas("fallida");
+        FunctionCounter.builder("monitoreo.masking.escaneo.tiempo", this, motor -> SensitiveDataScanner.segundosEscaneo())
+                .description("Tiempo total dedicado a recorrer textos en busca de datos sensibles")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("monitoreo.masking.escaneos", this, motor -> SensitiveDataScanner.escaneos())
+                .description("Textos recorridos en busca de datos sensibles")
+                .register(meterRegistry);
+        Gauge.builder("monitoreo.masking.reglas.version", this, motor -> SensitiveDataScanner.versionReglas())
+                .description("Versión del conjunto de reglas de enmascaramiento activo")
+                .register(meterRegistry);
+        Gauge.builder("monitoreo.masking.reglas.personalizadas", this, motor -> motor.cantidadPersonalizadas)
+                .description("Reglas de enmascaramiento configuradas activas")
+                .register(meterRegistry);
+
+        // Una configuración inválida al arrancar impide el arranque
+        MaskingRulesProperties properties = leerPropiedades();
+        SensitiveDataScanner.instalar(compilar(properties));
+        huellaActiva = Huella.de(properties);
+    }
+
+    private Counter recargas(String resultado) {
+        return Counter.builder("monitoreo.masking.reglas.recargas")
+                .description("Recargas del conjunto de reglas de enmascaramiento")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void alCambiarConfiguracion(EnvironmentChangeEvent event) {
+        boolean afectaReglas = event.getKeys().stream().anyMatch(clave -> clave.startsWith(MaskingRulesProperties.PREFIJO));
+        if (afectaReglas) {
+            recargar();
+        }
+    }
+
+    /**
+     * Vuelve a leer la configuración y sustituye el conjunto de reglas activo
+     *
+     * @return true si el nuevo conjunto quedó instalado
+     */
+    public synchronized boolean recargar() {
+        try {
+            MaskingRulesProperties properties = leerPropiedades();
+            Huella nueva = Huella.de(properties);
+            comprobarVersion(nueva);
+            SensitiveDataScanner.Reglas nuevas = compilar(properties);
+            SensitiveDataScanner.instalar(nuevas);
+            huellaActiva = nueva;
+            recargasCorrectas.increment();
+            logger.info("Reglas de enmascaramiento recargadas: versión {}, {} reglas personalizadas",
+                    nuevas.version, cantidadPersonalizadas);
+            return true;
+        } catch (IllegalArgumentException e) {
+            recargasFallidas.increment();
+            logger.error("Reglas de enmascaramiento inválidas, se mantiene la versión {}: {}",
+                    SensitiveDataScanner.versionReglas(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Exige subir la versión cuando cambian las reglas: con la misma versión los eventos guardados
+     * conservarían el enmascaramiento de las reglas anteriores y el backfill no los revisaría
+     */
+    private void comprobarVersion(Huella nueva) {
+        if (nueva.version() < huellaActiva.version()) {
+            throw new IllegalArgumentException("monitoreo.masking.reglas.version no puede bajar de "
+                    + huellaActiva.version() + " a " + nueva.version());
+        }
+        if (nueva.version() == huellaActiva.version() && !nueva.mismasReglas(huellaActiva)) {
+            throw new IllegalArgumentException("las reglas cambiaron sin subir monitoreo.masking.reglas.version ("
+                    + nueva.version() + ")");
+        }
+    }
+
+    private MaskingRulesProperties leerPropiedades() {
+        return Binder.get(environment).bind(MaskingRulesProperties.PREFIJO, MaskingRulesProperties.class)
+                .orElseGet(MaskingRulesProperties::new);
+    }
+
+    /**
+     * Compila la configuración en un conjunto de reglas listo para instalar
+     */
+    synchronized SensitiveDataScanner.Reglas compilar(MaskingRulesProperties properties) {
+        List<ReglaEnmascaramiento> personalizadas = properties.getPersonalizadas();
+        AutomataReglas automata = personalizadas.isEmpty() ? null : AutomataReglas.compilar(personalizadas);
+
+        LongAdder[] predefinidas = new LongAdder[SensitiveDataScanner.NOMBRES_PREDEFINIDAS.length];
+        for (int i = 0; i < predefinidas.length; i++) {
+            predefinidas[i] = contador(SensitiveDataScanner.NOMBRES_PREDEFINIDAS[i]);
+        }
+        LongAdder[] configuradas = new LongAdder[personalizadas.size()];
+        for (int i = 0; i < configuradas.length; i++) {
+            configuradas[i] = contador(automata.getNombre(i));
+        }
+
+        cantidadPersonalizadas = configuradas.length;
+        if (automata != null) {
+            logger.debug("Autómata de enmascaramiento compilado: {} reglas, {} estados",
+                    automata.getCantidadReglas(), automata.getCantidadEstados());
+        }
+        return new SensitiveDataScanner.Reglas(properties.isPredefinidas(), automata,
+                SensitiveDataScanner.VERSION_REGLAS + properties.getVersion(), predefinidas, configuradas);
+    }
+
+    private LongAdder contador(String regla) {
+        return coincidenciasPorRegla.computeIfAbsent(regla, nombre -> {
+            LongAdder adder = new LongAdder();
+            FunctionCounter.builder("monitoreo.masking.reglas.coincidencias", adder, LongAdder::sum)
+                    .description("Coincidencias enmascaradas por regla")
+                    .tag("regla", nombre)
+                    .register(meterRegistry);
+            return adder;
+        });
+    }
+
+    @PreDestroy
+    public void restaurar() {
+        SensitiveDataScanner.instalar(SensitiveDataScanner.Reglas.porDefecto());
+    }
+
+    /**
+     * Versión y reglas de una configuración, copiadas para compararlas con la siguiente recarga
+     */
+    private record Huella(int version, boolean predefinidas, List<ReglaEnmascaramiento> personalizadas) {
+
+        static Huella de(MaskingRulesProperties properties) {
+            return new Huella(properties.getVersion(), properties.isPredefinidas(), properties.getPersonalizadas().stream()
+                    .map(regla -> new ReglaEnmascaramiento(regla.getNombre(), regla.getPatron(), regla.getMascara(),
+                            regla.isLimitesPalabra()))
+                    .toList());
+        }
+
+        boolean mismasReglas(Huella otra) {
+            return predefinidas == otra.predefinidas && Objects.equals(personalizadas, otra.personalizadas);
+        }
+    }
+}
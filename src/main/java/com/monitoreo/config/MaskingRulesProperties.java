@@ -0,0 +1,29 @@
+package com.monitoreo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reglas de enmascaramiento (monitoreo.masking.reglas). Se recargan en caliente al cambiar la configuración.
+ */
+@Data
+@ConfigurationProperties(prefix = "monitoreo.masking.reglas")
+public class MaskingRulesProperties {
+
+    static final String PREFIJO = "monitoreo.masking.reglas";
+
+    /**
+     * Versión de la configuración de reglas; se suma a la de las reglas predefinidas.
+     * Hay que subirla al cambiar las reglas (una recarga que no lo hace se rechaza); así el backfill
+     * vuelve a enmascarar los eventos guardados.
+     */
+    private int version = 0;
+
+    /** Aplicar las reglas predefinidas (email, teléfono, tarjeta, SSN, IP) */
+    private boolean predefinidas = true;
+
+    private List<ReglaEnmascaramiento> personalizadas = new ArrayList<>();
+}
@@ -0,0 +1,12 @@
+package com.monitoreo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Límites de los gauges dinámicos y de las métricas de ingesta (DynamicGaugeRegistry, MetricsService)
+ */
+@Configuration
+@EnableConfigurationProperties(MetricasProperties.class)
+public class MetricasConfig {
+}
@@ -0,0 +1,36 @@
+package com.monitoreo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Límites de las métricas fijadas desde el código (monitoreo.metricas): gauges dinámicos y tags de ingesta
+ */
+@Data
+@ConfigurationProperties(prefix = "monitoreo.metricas")
+public class MetricasProperties {
+
+    private Gauges gauges = new Gauges();
+
+    private Ingesta ingesta = new Ingesta();
+
+    @Data
+    public static class Gauges {
+
+        /** Series distintas como máximo; las nuevas por encima se rechazan */
+        private int maxSeries = 500;
+
+        /** Tiempo sin actualizarse tras el que una serie se retira del registro */
+        private long expiracionMs = 900_000;
+    }
+
+    @Data
+    public static class Ingesta {
+
+        /** Valores distintos del tag servicio; el resto se agrupa en "otros" */
+        private int maxServicios = 100;
+
+        /** Valores distintos del tag tipo_evento; el resto se agrupa en "otros" */
+        private int maxTiposEvento = 50;
+    }
+}
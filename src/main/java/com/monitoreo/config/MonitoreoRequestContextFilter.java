@@ -0,0 +1,65 @@
+package com.monitoreo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Filtro único de entrada: construye el RequestContext de la petición, lo vuelca en el MDC y
+ * devuelve el correlation-id en la respuesta. El resto de tareas por petición (enmascaramiento
+ * de logs, etc.) se enchufan como RequestContextPlugin; la autenticación del Gateway lee el mismo
+ * contexto desde GatewaySecurityContextRepository.
+ */
+@Component
+@Order(1)
+public class MonitoreoRequestContextFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitoreoRequestContextFilter.class);
+
+    private final RequestContextPlugin[] plugins;
+
+    public MonitoreoRequestContextFilter(List<RequestContextPlugin> plugins) {
+        this.plugins = plugins.toArray(new RequestContextPlugin[0]);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RequestContext contexto = RequestContext.de(request);
+        try {
+            contexto.aplicarEnMdc();
+            response.addHeader(RequestContext.CORRELATION_ID_HEADER, contexto.getCorrelationId());
+
+            HttpServletRequest peticion = request;
+            HttpServletResponse respuesta = response;
+            for (RequestContextPlugin plugin : plugins) {
+                peticion = plugin.envolverPeticion(contexto, peticion);
+                respuesta = plugin.envolverRespuesta(contexto, peticion, respuesta);
+            }
+
+            filterChain.doFilter(peticion, respuesta);
+
+            for (int i = plugins.length - 1; i >= 0; i--) {
+                plugins[i].alTerminar(contexto, peticion, respuesta);
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            logger.error("Error procesando la petición {} {}: {}", contexto.getMethod(), contexto.getUri(), e.getMessage());
+            throw e;
+        } finally {
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.monitoreo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de las réplicas de lectura (monitoreo.datasource.lectura)
+ */
+@Data
+@ConfigurationProperties(prefix = "monitoreo.datasource.lectura")
+public class ReadReplicaProperties {
+
+    /**
+     * Consulta de retraso por defecto para PostgreSQL: 0 en la primaria o si la réplica está al día
+     */
+    public static final String CONSULTA_RETRASO_POSTGRESQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+                    + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private boolean habilitado = false;
+
+    /** Retraso de replicación a partir del cual las lecturas vuelven a la primaria */
+    private double retrasoMaximoSegundos = 5;
+
+    private long intervaloChequeoMs = 5000;
+
+    private int timeoutChequeoSegundos = 2;
+
+    /** Consulta que devuelve el retraso de la réplica en segundos */
+    private String consultaRetraso = CONSULTA_RETRASO_POSTGRESQL;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String nombre;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+        private long connectionTimeout = 2000;
+    }
+}
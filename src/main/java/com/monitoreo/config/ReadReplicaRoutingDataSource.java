@@ -0,0 +1,189 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a una réplica sana y el resto a la primaria.
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión física se pide en la primera
+ * sentencia, cuando la transacción ya está marcada como readOnly.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    static final String PRIMARIA = "primaria";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger turno = new AtomicInteger();
+
+    private final double retrasoMaximoSegundos;
+    private final String consultaRetraso;
+    private final int timeoutChequeoSegundos;
+
+    private final Counter escriturasPrimariaCounter;
+    private final Counter lecturasPrimariaCounter;
+    private final Counter fallbackCounter;
+
+    public ReadReplicaRoutingDataSource(DataSource primaria, Map<String, DataSource> replicasPorNombre,
+                                        ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.retrasoMaximoSegundos = properties.getRetrasoMaximoSegundos();
+        this.consultaRetraso = properties.getConsultaRetraso();
+        this.timeoutChequeoSegundos = properties.getTimeoutChequeoSegundos();
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIA, primaria);
+        replicasPorNombre.forEach((nombre, dataSource) -> {
+            destinos.put(nombre, dataSource);
+            replicas.add(new Replica(nombre, dataSource, meterRegistry));
+        });
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primaria);
+        setLenientFallback(false);
+
+        this.escriturasPrimariaCounter = conexionesCounter(meterRegistry, PRIMARIA, "escritura");
+        this.lecturasPrimariaCounter = conexionesCounter(meterRegistry, PRIMARIA, "lectura");
+        this.fallbackCounter = Counter.builder("monitoreo.datasource.replica.fallback")
+                .description("Lecturas enviadas a la primaria por no haber réplicas sanas o al día")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // Las réplicas arrancan fuera de servicio hasta el primer chequeo
+        verificarReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Solo cuentan las transacciones reales: fuera de ellas también se piden conexiones
+            // (p. ej. la que abre LazyConnectionDataSourceProxy para leer los valores por defecto)
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                escriturasPrimariaCounter.increment();
+            }
+            return PRIMARIA;
+        }
+        Replica replica = seleccionarReplica();
+        if (replica == null) {
+            fallbackCounter.increment();
+            lecturasPrimariaCounter.increment();
+            return PRIMARIA;
+        }
+        replica.lecturasCounter.increment();
+        return replica.nombre;
+    }
+
+    /**
+     * Reparto round-robin entre las réplicas disponibles y dentro del retraso máximo
+     */
+    private Replica seleccionarReplica() {
+        int cantidad = replicas.size();
+        if (cantidad == 0) {
+            return null;
+        }
+        int inicio = Math.floorMod(turno.getAndIncrement(), cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Replica replica = replicas.get((inicio + i) % cantidad);
+            if (replica.disponible && replica.retrasoSegundos <= retrasoMaximoSegundos) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Chequeo periódico de salud y retraso de replicación de cada réplica
+     */
+    @Scheduled(fixedDelayString = "${monitoreo.datasource.lectura.intervalo-chequeo-ms:5000}")
+    public void verificarReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutChequeoSegundos);
+                try (ResultSet resultSet = statement.executeQuery(consultaRetraso)) {
+                    double retraso = resultSet.next() ? resultSet.getDouble(1) : 0;
+                    actualizarRetraso(replica, retraso);
+                }
+            } catch (SQLException e) {
+                if (replica.disponible) {
+                    logger.warn("Réplica {} no disponible, sus lecturas vuelven a la primaria: {}", replica.nombre, e.getMessage());
+                }
+                replica.disponible = false;
+            }
+        }
+    }
+
+    private void actualizarRetraso(Replica replica, double retraso) {
+        boolean eraApta = replica.disponible && replica.retrasoSegundos <= retrasoMaximoSegundos;
+        boolean esApta = retraso <= retrasoMaximoSegundos;
+        if (eraApta && !esApta) {
+            logger.warn("Réplica {} con retraso de {} s (máximo {} s), sus lecturas vuelven a la primaria",
+                    replica.nombre, retraso, retrasoMaximoSegundos);
+        } else if (!eraApta && esApta) {
+            logger.info("Réplica {} disponible para lecturas (retraso {} s)", replica.nombre, retraso);
+        }
+        replica.retrasoSegundos = retraso;
+        replica.disponible = true;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter conexionesCounter(MeterRegistry meterRegistry, String destino, String tipo) {
+        return Counter.builder("monitoreo.datasource.conexiones")
+                .description("Conexiones obtenidas por destino del enrutamiento")
+                .tag("destino", destino)
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        private final String nombre;
+        private final DataSource dataSource;
+        private final Counter lecturasCounter;
+        private volatile boolean disponible;
+        private volatile double retrasoSegundos;
+
+        private Replica(String nombre, DataSource dataSource, MeterRegistry meterRegistry) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+            this.lecturasCounter = conexionesCounter(meterRegistry, nombre, "lectura");
+
+            Gauge.builder("monitoreo.datasource.replica.disponible", this, replica -> replica.disponible ? 1 : 0)
+                    .description("Indica si la réplica responde al chequeo de salud")
+                    .tag("replica", nombre)
+                    .register(meterRegistry);
+
+            Gauge.builder("monitoreo.datasource.replica.retraso.segundos", this, replica -> replica.retrasoSegundos)
+                    .description("Retraso de replicación medido en la réplica")
+                    .tag("replica", nombre)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.monitoreo.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Regla de enmascaramiento configurable (monitoreo.masking.reglas.personalizadas)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReglaEnmascaramiento {
+
+    /** Identificador de la regla; etiqueta de sus métricas */
+    private String nombre;
+
+    /** Patrón en el subconjunto de sintaxis de expresiones regulares que admite AutomataReglas */
+    private String patron;
+
+    /** Texto que sustituye a cada coincidencia */
+    private String mascara = "***";
+
+    /** Exige límite de palabra al principio y al final de la coincidencia */
+    private boolean limitesPalabra = true;
+}
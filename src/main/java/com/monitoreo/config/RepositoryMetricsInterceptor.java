@@ -0,0 +1,147 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mide cada método de un repositorio de Spring Data: latencia, filas devueltas y, mientras dura
+ * la llamada, deja el método en el hilo para que la obtención de conexiones se etiquete con él.
+ * Se instala como primer advice del proxy del repositorio, antes de la transacción, de modo que
+ * la conexión que abre la transacción también se atribuye al método.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<Medidores> METODO_ACTUAL = new ThreadLocal<>();
+
+    private final String repositorio;
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final Map<Method, Medidores> medidores = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(String repositorio, Supplier<MeterRegistry> meterRegistry) {
+        this.repositorio = repositorio;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        Medidores medidoresMetodo = medidores.computeIfAbsent(method, m -> new Medidores(repositorio, m.getName(), meterRegistry.get()));
+
+        Medidores anterior = METODO_ACTUAL.get();
+        METODO_ACTUAL.set(medidoresMetodo);
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = invocation.proceed();
+            medidoresMetodo.exito.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            long filas = filas(resultado);
+            if (filas >= 0) {
+                medidoresMetodo.filas.record(filas);
+            }
+            return resultado;
+        } catch (Throwable e) {
+            medidoresMetodo.error.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            if (anterior != null) {
+                METODO_ACTUAL.set(anterior);
+            } else {
+                METODO_ACTUAL.remove();
+            }
+        }
+    }
+
+    /**
+     * Filas devueltas; -1 para resultados que no son filas (conteos, modificaciones, streams)
+     */
+    static long filas(Object resultado) {
+        if (resultado == null) {
+            return 0;
+        }
+        if (resultado instanceof Collection<?> coleccion) {
+            return coleccion.size();
+        }
+        if (resultado instanceof Slice<?> pagina) {
+            return pagina.getNumberOfElements();
+        }
+        if (resultado instanceof Optional<?> opcional) {
+            return opcional.isPresent() ? 1 : 0;
+        }
+        if (resultado instanceof Number || resultado instanceof Boolean || resultado instanceof java.util.stream.BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+
+    /**
+     * Método de repositorio en curso en el hilo ("Repositorio.metodo"), o null fuera de un repositorio
+     */
+    public static String metodoActual() {
+        Medidores actual = METODO_ACTUAL.get();
+        return actual != null ? actual.nombre : null;
+    }
+
+    /**
+     * Registra el tiempo de obtención de una conexión con el método de repositorio en curso
+     */
+    static void registrarObtencionConexion(MeterRegistry meterRegistry, long nanos) {
+        Medidores actual = METODO_ACTUAL.get();
+        if (actual != null) {
+            actual.conexion.record(nanos, TimeUnit.NANOSECONDS);
+        } else {
+            Timer.builder("monitoreo.repositorio.conexion.tiempo")
+                    .description("Tiempo de obtención de conexiones del pool por método de repositorio")
+                    .tag("repositorio", "ninguno")
+                    .tag("metodo", "ninguno")
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class Medidores {
+        private final String nombre;
+        private final Timer exito;
+        private final Timer error;
+        private final DistributionSummary filas;
+        private final Timer conexion;
+
+        Medidores(String repositorio, String metodo, MeterRegistry meterRegistry) {
+            this.nombre = repositorio + "." + metodo;
+            this.exito = tiempo(repositorio, metodo, "exito", meterRegistry);
+            this.error = tiempo(repositorio, metodo, "error", meterRegistry);
+            this.filas = DistributionSummary.builder("monitoreo.repositorio.filas")
+                    .description("Filas devueltas por método de repositorio")
+                    .tag("repositorio", repositorio)
+                    .tag("metodo", metodo)
+                    .register(meterRegistry);
+            this.conexion = Timer.builder("monitoreo.repositorio.conexion.tiempo")
+                    .description("Tiempo de obtención de conexiones del pool por método de repositorio")
+                    .tag("repositorio", repositorio)
+                    .tag("metodo", metodo)
+                    .register(meterRegistry);
+        }
+
+        private static Timer tiempo(String repositorio, String metodo, String resultado, MeterRegistry meterRegistry) {
+            return Timer.builder("monitoreo.repositorio.tiempo")
+                    .description("Latencia por método de repositorio")
+                    .tag("repositorio", repositorio)
+                    .tag("metodo", metodo)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Instrumenta los repositorios de Spring Data sin tocar sus llamadas: añade RepositoryMetricsInterceptor
+ * al proxy de cada repositorio y envuelve el DataSource principal para medir cuánto tarda cada
+ * obtención de conexión, atribuida al método de repositorio en curso.
+ * El MeterRegistry se resuelve al primer uso para no adelantar su creación.
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.metricas.repositorio", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_PRINCIPAL = "dataSource";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(0, new RepositoryMetricsInterceptor(
+                            information.getRepositoryInterface().getSimpleName(), meterRegistry::getObject))));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return envolverPrincipal(bean, beanName, MedicionConexionDataSource.class,
+                destino -> new MedicionConexionDataSource(destino, meterRegistry));
+    }
+
+    /**
+     * Envuelve el DataSource principal; si es un LazyConnectionDataSourceProxy envuelve su destino,
+     * que es donde se obtiene la conexión real en la primera sentencia
+     */
+    static Object envolverPrincipal(Object bean, String beanName, Class<? extends DataSource> tipo,
+                                    UnaryOperator<DataSource> envoltorio) {
+        if (!DATA_SOURCE_PRINCIPAL.equals(beanName) || !(bean instanceof DataSource dataSource) || tipo.isInstance(bean)) {
+            return bean;
+        }
+        if (bean instanceof LazyConnectionDataSourceProxy lazy) {
+            DataSource destino = lazy.getTargetDataSource();
+            if (destino != null && !tipo.isInstance(destino)) {
+                lazy.setTargetDataSource(envoltorio.apply(destino));
+            }
+            return bean;
+        }
+        return envoltorio.apply(dataSource);
+    }
+
+    /**
+     * DataSource que mide el tiempo de cada getConnection del destino (espera en el pool incluida)
+     */
+    static final class MedicionConexionDataSource extends DelegatingDataSource {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        MedicionConexionDataSource(DataSource destino, ObjectProvider<MeterRegistry> meterRegistry) {
+            super(destino);
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            long inicio = System.nanoTime();
+            try {
+                return super.getConnection();
+            } finally {
+                RepositoryMetricsInterceptor.registrarObtencionConexion(meterRegistry.getObject(), System.nanoTime() - inicio);
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            long inicio = System.nanoTime();
+            try {
+                return super.getConnection(username, password);
+            } finally {
+                RepositoryMetricsInterceptor.registrarObtencionConexion(meterRegistry.getObject(), System.nanoTime() - inicio);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.monitoreo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.MDC;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contexto inmutable de una petición HTTP: identificadores de trazabilidad, usuario y datos del cliente.
+ * Se construye una sola vez por petición leyendo cada cabecera una vez y queda guardado como atributo
+ * de la petición, de modo que el filtro, los plug-ins y la seguridad comparten el mismo análisis.
+ */
+public final class RequestContext {
+
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+    public static final String REQUEST_ID_HEADER = "X-Request-ID";
+    public static final String USER_ID_HEADER = "X-User-ID";
+    /** Cabecera que envía el Gateway tras validar el JWT */
+    public static final String GATEWAY_USER_ID_HEADER = "user-id";
+
+    public static final String CORRELATION_ID_MDC_KEY = "correlationId";
+    public static final String REQUEST_ID_MDC_KEY = "requestId";
+    public static final String USER_ID_MDC_KEY = "userId";
+    public static final String SESSION_ID_MDC_KEY = "sessionId";
+
+    /** Atributo de la petición donde se guarda el contexto */
+    public static final String ATRIBUTO = RequestContext.class.getName();
+
+    private final String correlationId;
+    private final String requestId;
+    private final String userId;
+    private final String gatewayUserId;
+    private final String sessionId;
+    private final String method;
+    private final String uri;
+    private final String queryString;
+    private final String remoteAddr;
+    private final String userAgent;
+
+    private RequestContext(HttpServletRequest request) {
+        String cabeceraUsuario = valor(request.getHeader(USER_ID_HEADER));
+        String cabeceraGateway = valor(request.getHeader(GATEWAY_USER_ID_HEADER));
+
+        HttpSession session = request.getSession(false);
+        String usuarioSesion = null;
+        if (session != null && cabeceraUsuario == null && cabeceraGateway == null
+                && session.getAttribute(USER_ID_MDC_KEY) instanceof String atributo) {
+            usuarioSesion = atributo;
+        }
+
+        String correlacion = valor(request.getHeader(CORRELATION_ID_HEADER));
+        String peticion = valor(request.getHeader(REQUEST_ID_HEADER));
+
+        TimeSortableIdGenerator generador = TimeSortableIdGenerator.compartido();
+        this.correlationId = correlacion != null ? correlacion : generador.siguiente("corr-");
+        this.requestId = peticion != null ? peticion : generador.siguiente("req-");
+        // Para trazas se prefiere X-User-ID; para autenticar, la cabecera del Gateway
+        this.userId = cabeceraUsuario != null ? cabeceraUsuario : cabeceraGateway != null ? cabeceraGateway : usuarioSesion;
+        this.gatewayUserId = cabeceraGateway != null ? cabeceraGateway : cabeceraUsuario;
+        this.sessionId = session != null ? session.getId() : null;
+        this.method = request.getMethod();
+        this.uri = request.getRequestURI();
+        this.queryString = request.getQueryString();
+        this.remoteAddr = direccionCliente(request);
+        this.userAgent = request.getHeader("User-Agent");
+    }
+
+    /**
+     * Devuelve el contexto de la petición, construyéndolo y guardándolo la primera vez
+     */
+    public static RequestContext de(HttpServletRequest request) {
+        if (request.getAttribute(ATRIBUTO) instanceof RequestContext contexto) {
+            return contexto;
+        }
+        RequestContext contexto = new RequestContext(request);
+        request.setAttribute(ATRIBUTO, contexto);
+        return contexto;
+    }
+
+    /**
+     * Vuelca los identificadores en el MDC de una sola vez, omitiendo los ausentes
+     */
+    public void aplicarEnMdc() {
+        Map<String, String> valores = new HashMap<>(16);
+        valores.put(CORRELATION_ID_MDC_KEY, correlationId);
+        valores.put(REQUEST_ID_MDC_KEY, requestId);
+        if (userId != null) {
+            valores.put(USER_ID_MDC_KEY, userId);
+        }
+        if (sessionId != null) {
+            valores.put(SESSION_ID_MDC_KEY, sessionId);
+        }
+        valores.put("method", method);
+        valores.put("uri", uri);
+        if (remoteAddr != null) {
+            valores.put("remoteAddr", remoteAddr);
+        }
+        if (userAgent != null) {
+            valores.put("userAgent", userAgent);
+        }
+        MDC.setContextMap(valores);
+    }
+
+    private static String valor(String cabecera) {
+        return cabecera == null || cabecera.isBlank() ? null : cabecera;
+    }
+
+    /**
+     * Obtiene la dirección IP real del cliente
+     */
+    private static String direccionCliente(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
+            int coma = xForwardedFor.indexOf(',');
+            return (coma < 0 ? xForwardedFor : xForwardedFor.substring(0, coma)).trim();
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
+            return xRealIp;
+        }
+
+        return request.getRemoteAddr();
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Usuario autenticado por el Gateway (user-id, o X-User-ID si falta)
+     */
+    public String getGatewayUserId() {
+        return gatewayUserId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public String getQueryString() {
+        return queryString;
+    }
+
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    /**
+     * Obtiene el correlation-id actual del MDC
+     */
+    public static String getCurrentCorrelationId() {
+        return MDC.get(CORRELATION_ID_MDC_KEY);
+    }
+
+    /**
+     * Obtiene el request-id actual del MDC
+     */
+    public static String getCurrentRequestId() {
+        return MDC.get(REQUEST_ID_MDC_KEY);
+    }
+
+    /**
+     * Obtiene el user-id actual del MDC
+     */
+    public static String getCurrentUserId() {
+        return MDC.get(USER_ID_MDC_KEY);
+    }
+
+    /**
+     * Obtiene el session-id actual del MDC
+     */
+    public static String getCurrentSessionId() {
+        return MDC.get(SESSION_ID_MDC_KEY);
+    }
+}
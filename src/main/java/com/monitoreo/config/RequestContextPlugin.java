@@ -0,0 +1,32 @@
+package com.monitoreo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Extensión del filtro de contexto de petición. Los plug-ins se ejecutan en el orden de @Order
+ * y reciben el contexto ya analizado, así que no deben volver a leer las cabeceras que contiene.
+ */
+public interface RequestContextPlugin {
+
+    /**
+     * Permite envolver la petición antes de continuar la cadena
+     */
+    default HttpServletRequest envolverPeticion(RequestContext contexto, HttpServletRequest request) {
+        return request;
+    }
+
+    /**
+     * Permite envolver la respuesta antes de continuar la cadena
+     */
+    default HttpServletResponse envolverRespuesta(RequestContext contexto, HttpServletRequest request,
+                                                  HttpServletResponse response) {
+        return response;
+    }
+
+    /**
+     * Se invoca al terminar la cadena sin errores, en orden inverso al de registro
+     */
+    default void alTerminar(RequestContext contexto, HttpServletRequest request, HttpServletResponse response) {
+    }
+}
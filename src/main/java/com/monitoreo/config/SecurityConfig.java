@@ -1,28 +1,62 @@
 package com.monitoreo.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /** Endpoints de Actuator con datos de las consultas (SQL y planes): solo administradores */
+    static final String[] ACTUATOR_ADMIN = {"/actuator/slowqueries", "/actuator/slowqueries/**"};
+
+    /**
+     * Actuator de administración con HTTP Basic. La clave va codificada con su prefijo ({bcrypt}...);
+     * sin clave configurada no hay administrador y el acceso se deniega a todos.
+     */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, GatewayAuthFilter gatewayAuthFilter) throws Exception {
+    @Order(1)
+    public SecurityFilterChain actuatorAdminFilterChain(HttpSecurity http,
+                                                        @Value("${monitoreo.seguridad.admin.usuario:admin}") String usuario,
+                                                        @Value("${monitoreo.seguridad.admin.clave:}") String clave) throws Exception {
+        InMemoryUserDetailsManager administradores = new InMemoryUserDetailsManager();
+        if (!clave.isBlank()) {
+            administradores.createUser(User.withUsername(usuario).password(clave).roles("ADMIN").build());
+        }
         http
+            .securityMatcher(ACTUATOR_ADMIN)
             .csrf(csrf -> csrf.disable())
-            .addFilterBefore(gatewayAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .userDetailsService(administradores)
+            .httpBasic(Customizer.withDefaults())
+            .authorizeHttpRequests(authz -> authz.anyRequest().hasRole("ADMIN"));
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityFilterChain filterChain(HttpSecurity http, GatewaySecurityContextRepository gatewaySecurityContextRepository) throws Exception {
+        http
+            .csrf(csrf -> csrf.disable())
+            // El usuario del Gateway se carga como contexto de seguridad desde el RequestContext de la petición
+            .securityContext(context -> context.securityContextRepository(gatewaySecurityContextRepository))
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .anyRequest().authenticated()
             )
             .headers(headers -> headers.frameOptions().disable()); // Para H2 console
-        
+
         return http.build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.monitoreo.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un campo cuyo valor se enmascara al serializar las respuestas JSON (SensitiveDataJacksonModule).
+ * En campos String se enmascara el texto; en mapas, los valores String de primer nivel.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SensitiveData {
+
+    Estrategia value() default Estrategia.TEXTO;
+
+    enum Estrategia {
+        /** Emails, teléfonos, tarjetas, SSN e IPs dentro del texto */
+        TEXTO,
+        /** Identificador de usuario completo (conserva los dos primeros y últimos caracteres) */
+        USUARIO
+    }
+}
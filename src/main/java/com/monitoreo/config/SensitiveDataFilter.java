@@ -6,10 +6,10 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.regex.Pattern;
 
 /**
  * Filtro para enmascarar datos sensibles en logs y respuestas.
@@ -20,47 +20,27 @@ public class SensitiveDataFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(SensitiveDataFilter.class);
     
-    // Patrones para identificar datos sensibles
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("\\b\\+?[1-9]\\d{1,14}\\b");
-    private static final Pattern CREDIT_CARD_PATTERN = Pattern.compile("\\b\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}\\b");
-    private static final Pattern SSN_PATTERN = Pattern.compile("\\b\\d{3}-\\d{2}-\\d{4}\\b");
-    private static final Pattern IP_PATTERN = Pattern.compile("\\b(?:\\d{1,3}\\.){3}\\d{1,3}\\b");
+    // Caché de resultados (ausente si monitoreo.masking.cache.habilitado=false o fuera de Spring)
+    @Autowired(required = false)
+    private MaskingResultCache maskingResultCache;
     
-    // Valores de reemplazo
-    private static final String EMAIL_MASK = "***@***.***";
-    private static final String PHONE_MASK = "***-***-****";
-    private static final String CREDIT_CARD_MASK = "****-****-****-****";
-    private static final String SSN_MASK = "***-**-****";
-    private static final String IP_MASK = "***.***.***.***";
+    // Valores de reemplazo (los de emails, teléfonos, tarjetas, SSN e IPs también los usa SensitiveDataScanner)
+    static final String EMAIL_MASK = "***@***.***";
+    static final String PHONE_MASK = "***-***-****";
+    static final String CREDIT_CARD_MASK = "****-****-****-****";
+    static final String SSN_MASK = "***-**-****";
+    static final String IP_MASK = "***.***.***.***";
     private static final String GENERIC_MASK = "***";
     
     /**
-     * Enmascara datos sensibles en un texto
+     * Enmascara datos sensibles en un texto (un único recorrido; sin coincidencias devuelve el mismo texto)
      */
     public String maskSensitiveData(String text) {
         if (text == null || text.isEmpty()) {
             return text;
         }
         
-        String masked = text;
-        
-        // Enmascarar emails
-        masked = EMAIL_PATTERN.matcher(masked).replaceAll(EMAIL_MASK);
-        
-        // Enmascarar teléfonos
-        masked = PHONE_PATTERN.matcher(masked).replaceAll(PHONE_MASK);
-        
-        // Enmascarar tarjetas de crédito
-        masked = CREDIT_CARD_PATTERN.matcher(masked).replaceAll(CREDIT_CARD_MASK);
-        
-        // Enmascarar SSN
-        masked = SSN_PATTERN.matcher(masked).replaceAll(SSN_MASK);
-        
-        // Enmascarar IPs
-        masked = IP_PATTERN.matcher(masked).replaceAll(IP_MASK);
-        
-        return masked;
+        return maskingResultCache != null ? maskingResultCache.enmascarar(text) : SensitiveDataScanner.mask(text);
     }
     
     /**
@@ -215,26 +195,19 @@ public class SensitiveDataFilter {
             return false;
         }
         
-        return EMAIL_PATTERN.matcher(text).find() ||
-               PHONE_PATTERN.matcher(text).find() ||
-               CREDIT_CARD_PATTERN.matcher(text).find() ||
-               SSN_PATTERN.matcher(text).find() ||
-               IP_PATTERN.matcher(text).find();
+        return maskingResultCache != null ? maskingResultCache.contiene(text) : SensitiveDataScanner.contains(text);
     }
     
     /**
-     * Serializador JSON personalizado para enmascarar datos sensibles
+     * Serializador JSON personalizado para enmascarar datos sensibles.
+     * Para las respuestas de la API se usa @SensitiveData con SensitiveDataJacksonModule, que comparte la caché.
      */
     public static class SensitiveDataSerializer extends JsonSerializer<String> {
-        private final SensitiveDataFilter filter = new SensitiveDataFilter();
         
         @Override
         public void serialize(String value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            if (value != null && filter.containsSensitiveData(value)) {
-                gen.writeString(filter.maskSensitiveData(value));
-            } else {
-                gen.writeString(value);
-            }
+            // mask devuelve el mismo texto si no hay nada que enmascarar
+            gen.writeString(SensitiveDataScanner.mask(value));
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.monitoreo.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.monitoreo.model.EventoMonitoreo;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Módulo Jackson que enmascara los campos marcados con {@link SensitiveData} mientras se escribe
+ * la respuesta, sin construir copias de las entidades ni de sus mapas de metadata.
+ * En EventoMonitoreo el mensaje y la metadata se sirven desde el enmascaramiento persistido al guardar
+ * (EnmascaramientoEventoListener) si corresponde a las reglas vigentes; si no, se recorren al escribir.
+ * Spring Boot lo registra en el ObjectMapper de la aplicación; los ObjectMapper propios
+ * (WAL, archivo frío) no lo usan y siguen guardando los valores originales.
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.masking.respuestas", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class SensitiveDataJacksonModule extends SimpleModule {
+
+    public SensitiveDataJacksonModule(SensitiveDataFilter sensitiveDataFilter) {
+        super("SensitiveDataJacksonModule");
+        setSerializerModifier(new EnmascaramientoSerializerModifier(sensitiveDataFilter));
+    }
+
+    /**
+     * Asigna los serializadores de enmascaramiento a las propiedades anotadas
+     */
+    static class EnmascaramientoSerializerModifier extends BeanSerializerModifier {
+
+        private final TextoEnmascaradoSerializer textoSerializer;
+        private final UsuarioEnmascaradoSerializer usuarioSerializer;
+        private final MetadataEnmascaradaSerializer metadataSerializer;
+        private final MensajePersistidoSerializer mensajePersistidoSerializer;
+        private final MetadataPersistidaSerializer metadataPersistidaSerializer;
+
+        EnmascaramientoSerializerModifier(SensitiveDataFilter filter) {
+            this.textoSerializer = new TextoEnmascaradoSerializer(filter);
+            this.usuarioSerializer = new UsuarioEnmascaradoSerializer(filter);
+            this.metadataSerializer = new MetadataEnmascaradaSerializer(filter);
+            this.mensajePersistidoSerializer = new MensajePersistidoSerializer(filter);
+            this.metadataPersistidaSerializer = new MetadataPersistidaSerializer(filter);
+        }
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                         List<BeanPropertyWriter> beanProperties) {
+            for (BeanPropertyWriter writer : beanProperties) {
+                SensitiveData sensitiveData = writer.getAnnotation(SensitiveData.class);
+                if (sensitiveData == null) {
+                    continue;
+                }
+                Class<?> tipo = writer.getType().getRawClass();
+                boolean evento = EventoMonitoreo.class.isAssignableFrom(beanDesc.getBeanClass());
+                if (evento && "message".equals(writer.getName())) {
+                    writer.assignSerializer(mensajePersistidoSerializer);
+                } else if (evento && "metadata".equals(writer.getName())) {
+                    writer.assignSerializer(metadataPersistidaSerializer);
+                } else if (Map.class.isAssignableFrom(tipo)) {
+                    writer.assignSerializer(metadataSerializer);
+                } else if (tipo == String.class) {
+                    writer.assignSerializer(sensitiveData.value() == SensitiveData.Estrategia.USUARIO
+                            ? usuarioSerializer : textoSerializer);
+                }
+            }
+            return beanProperties;
+        }
+    }
+
+    static class TextoEnmascaradoSerializer extends JsonSerializer<Object> {
+
+        private final SensitiveDataFilter filter;
+
+        TextoEnmascaradoSerializer(SensitiveDataFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeString(filter.maskSensitiveData((String) value));
+        }
+    }
+
+    /**
+     * Mensaje de EventoMonitoreo: el enmascarado persistido si está vigente, o el recorrido al escribir
+     */
+    static class MensajePersistidoSerializer extends TextoEnmascaradoSerializer {
+
+        MensajePersistidoSerializer(SensitiveDataFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            if (gen.currentValue() instanceof EventoMonitoreo evento && EnmascaramientoEventoListener.estaVigente(evento)) {
+                if (!Boolean.TRUE.equals(evento.getMessageSensitive())) {
+                    gen.writeString((String) value);
+                    return;
+                }
+                if (evento.getMaskedMessage() != null) {
+                    gen.writeString(evento.getMaskedMessage());
+                    return;
+                }
+            }
+            super.serialize(value, gen, serializers);
+        }
+    }
+
+    static class UsuarioEnmascaradoSerializer extends JsonSerializer<Object> {
+
+        private final SensitiveDataFilter filter;
+
+        UsuarioEnmascaradoSerializer(SensitiveDataFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeString(filter.maskUserId((String) value));
+        }
+    }
+
+    /**
+     * Escribe el mapa entrada a entrada enmascarando los valores String de primer nivel,
+     * igual que DataMaskingService.maskMetadataMap; el resto de valores se serializa sin cambios
+     */
+    static class MetadataEnmascaradaSerializer extends JsonSerializer<Object> {
+
+        private final SensitiveDataFilter filter;
+
+        MetadataEnmascaradaSerializer(SensitiveDataFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            Map<?, ?> mapa = (Map<?, ?>) value;
+            gen.writeStartObject(mapa, mapa.size());
+            for (Map.Entry<?, ?> entry : mapa.entrySet()) {
+                gen.writeFieldName(String.valueOf(entry.getKey()));
+                Object valor = entry.getValue();
+                if (valor instanceof String texto) {
+                    gen.writeString(filter.maskSensitiveData(texto));
+                } else {
+                    serializers.defaultSerializeValue(valor, gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Object value) {
+            return value == null || ((Map<?, ?>) value).isEmpty();
+        }
+    }
+
+    /**
+     * Metadata de EventoMonitoreo: la enmascarada persistida si está vigente, o la recorrida al escribir
+     */
+    static class MetadataPersistidaSerializer extends MetadataEnmascaradaSerializer {
+
+        MetadataPersistidaSerializer(SensitiveDataFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            if (gen.currentValue() instanceof EventoMonitoreo evento && EnmascaramientoEventoListener.estaVigente(evento)) {
+                serializers.defaultSerializeValue(Boolean.TRUE.equals(evento.getMetadataSensitive())
+                        ? evento.getMaskedMetadata() : value, gen);
+                return;
+            }
+            super.serialize(value, gen, serializers);
+        }
+    }
+}
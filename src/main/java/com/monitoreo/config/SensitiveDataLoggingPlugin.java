@@ -0,0 +1,376 @@
+package com.monitoreo.config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plug-in del filtro de contexto que enmascara datos sensibles en solicitudes y respuestas
+ * y registra ambas con los datos ya enmascarados.
+ * <p>
+ * El cuerpo de la respuesta solo se registra en DEBUG, así que solo se captura cuando ese nivel está
+ * activo y la respuesta entra en el muestreo; la captura se limita a los primeros bytes configurados.
+ * El resto de respuestas se escribe directamente sobre la respuesta original.
+ */
+@Component
+@Order(1)
+public class SensitiveDataLoggingPlugin implements RequestContextPlugin {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SensitiveDataLoggingPlugin.class);
+    
+    /** Atributo de la petición con el wrapper de captura, si la respuesta se inspecciona */
+    private static final String ATRIBUTO_CAPTURA = SensitiveDataLoggingPlugin.class.getName() + ".captura";
+    
+    @Autowired
+    private SensitiveDataFilter sensitiveDataFilter;
+    
+    // Bytes del cuerpo que se capturan como máximo para inspeccionarlos
+    @Value("${monitoreo.masking.http.captura-max-bytes:65536}")
+    private int capturaMaxBytes = 65536;
+    
+    // Fracción de respuestas cuyo cuerpo se inspecciona (0 = ninguna, 1 = todas)
+    @Value("${monitoreo.masking.http.muestreo:0.1}")
+    private double muestreo = 0.1;
+    
+    // Headers sensibles que deben ser enmascarados
+    private static final List<String> SENSITIVE_HEADERS = Arrays.asList(
+        "authorization",
+        "x-api-key",
+        "x-auth-token",
+        "cookie",
+        "set-cookie"
+    );
+    
+    // Parámetros de consulta sensibles
+    private static final List<String> SENSITIVE_QUERY_PARAMS = Arrays.asList(
+        "password",
+        "token",
+        "api_key",
+        "secret",
+        "key"
+    );
+    
+    // Rutas que contienen datos sensibles
+    private static final List<String> SENSITIVE_PATHS = Arrays.asList(
+        "/api/auth",
+        "/api/login",
+        "/api/register",
+        "/api/payment",
+        "/api/credit-card"
+    );
+    
+    @Override
+    public HttpServletRequest envolverPeticion(RequestContext contexto, HttpServletRequest request) {
+        logMaskedRequest(contexto, request);
+        return new SensitiveDataRequestWrapper(request, sensitiveDataFilter);
+    }
+    
+    @Override
+    public HttpServletResponse envolverRespuesta(RequestContext contexto, HttpServletRequest request,
+                                                 HttpServletResponse response) {
+        if (!inspeccionarRespuesta()) {
+            return response;
+        }
+        SensitiveDataResponseWrapper responseWrapper =
+                new SensitiveDataResponseWrapper(response, sensitiveDataFilter, capturaMaxBytes);
+        request.setAttribute(ATRIBUTO_CAPTURA, responseWrapper);
+        return responseWrapper;
+    }
+    
+    @Override
+    public void alTerminar(RequestContext contexto, HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(ATRIBUTO_CAPTURA) instanceof SensitiveDataResponseWrapper responseWrapper) {
+            responseWrapper.finalizarCaptura();
+            logMaskedResponse(responseWrapper);
+        } else {
+            logger.info("Respuesta HTTP: {} - Content-Type: {}", response.getStatus(), response.getContentType());
+        }
+    }
+    
+    /**
+     * Decide si se captura el cuerpo de esta respuesta
+     */
+    private boolean inspeccionarRespuesta() {
+        if (capturaMaxBytes <= 0 || muestreo <= 0 || !logger.isDebugEnabled()) {
+            return false;
+        }
+        return muestreo >= 1 || ThreadLocalRandom.current().nextDouble() < muestreo;
+    }
+    
+    /**
+     * Registra la solicitud con datos enmascarados
+     */
+    private void logMaskedRequest(RequestContext contexto, HttpServletRequest request) {
+        String queryString = contexto.getQueryString();
+        
+        // Enmascarar URI si contiene datos sensibles
+        String maskedUri = sensitiveDataFilter.maskSensitiveData(contexto.getUri());
+        String maskedQuery = queryString != null ? sensitiveDataFilter.maskSensitiveData(queryString) : null;
+        
+        logger.info("Solicitud HTTP: {} {} {}", contexto.getMethod(), maskedUri, 
+                   maskedQuery != null ? "?" + maskedQuery : "");
+        
+        // Log de headers sensibles (enmascarados); solo se leen si DEBUG está activo
+        if (logger.isDebugEnabled()) {
+            for (String headerName : SENSITIVE_HEADERS) {
+                String headerValue = request.getHeader(headerName);
+                if (headerValue != null) {
+                    logger.debug("Header {}: {}", headerName, sensitiveDataFilter.maskSensitiveData(headerValue));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Registra la respuesta con datos enmascarados
+     */
+    private void logMaskedResponse(SensitiveDataResponseWrapper responseWrapper) {
+        int status = responseWrapper.getStatus();
+        String contentType = responseWrapper.getContentType();
+        
+        logger.info("Respuesta HTTP: {} - Content-Type: {}", status, contentType);
+        
+        // Log del cuerpo de la respuesta si contiene datos sensibles
+        String responseBody = responseWrapper.getResponseBody();
+        // Un único recorrido: maskSensitiveData devuelve la misma instancia si no hay datos sensibles
+        String maskedBody = sensitiveDataFilter.maskSensitiveData(responseBody);
+        if (maskedBody != responseBody) {
+            if (responseWrapper.isTruncada()) {
+                logger.debug("Respuesta enmascarada (primeros {} bytes): {}", capturaMaxBytes, maskedBody);
+            } else {
+                logger.debug("Respuesta enmascarada: {}", maskedBody);
+            }
+        }
+    }
+    
+    /**
+     * Wrapper para enmascarar datos sensibles en solicitudes HTTP
+     */
+    public static class SensitiveDataRequestWrapper extends jakarta.servlet.http.HttpServletRequestWrapper {
+        
+        private final SensitiveDataFilter filter;
+        
+        public SensitiveDataRequestWrapper(HttpServletRequest request, SensitiveDataFilter filter) {
+            super(request);
+            this.filter = filter;
+        }
+        
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            if (value != null && SENSITIVE_HEADERS.contains(name.toLowerCase())) {
+                return filter.maskSensitiveData(value);
+            }
+            return value;
+        }
+        
+        @Override
+        public String getParameter(String name) {
+            String value = super.getParameter(name);
+            if (value != null && SENSITIVE_QUERY_PARAMS.contains(name.toLowerCase())) {
+                return filter.maskSensitiveData(value);
+            }
+            return value;
+        }
+        
+        @Override
+        public String[] getParameterValues(String name) {
+            String[] values = super.getParameterValues(name);
+            if (values != null && SENSITIVE_QUERY_PARAMS.contains(name.toLowerCase())) {
+                String[] maskedValues = new String[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    maskedValues[i] = filter.maskSensitiveData(values[i]);
+                }
+                return maskedValues;
+            }
+            return values;
+        }
+    }
+    
+    /**
+     * Wrapper que reenvía el cuerpo de la respuesta a la original y captura a la vez sus primeros bytes
+     * (hasta capturaMaxBytes) para inspeccionarlos. Las escrituras en bloque se reenvían en bloque.
+     */
+    public static class SensitiveDataResponseWrapper extends jakarta.servlet.http.HttpServletResponseWrapper {
+        
+        private static final byte[] VACIO = new byte[0];
+        
+        private final SensitiveDataFilter filter;
+        private final int capturaMaxBytes;
+        private byte[] captura = VACIO;
+        private int capturados;
+        private boolean truncada;
+        
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        
+        public SensitiveDataResponseWrapper(HttpServletResponse response, SensitiveDataFilter filter, int capturaMaxBytes) {
+            super(response);
+            this.filter = filter;
+            this.capturaMaxBytes = capturaMaxBytes;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() ya se ha llamado para esta respuesta");
+            }
+            return flujoCaptura();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() ya se ha llamado para esta respuesta");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(flujoCaptura(), charset()));
+            }
+            return writer;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+        
+        private ServletOutputStream flujoCaptura() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CapturaOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+        
+        /**
+         * Vacía el writer propio al terminar la petición, ya que el contenedor solo conoce el original
+         */
+        public void finalizarCaptura() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+        
+        private void capturar(int b) {
+            if (capturados >= capturaMaxBytes) {
+                truncada = true;
+                return;
+            }
+            asegurarCapacidad(capturados + 1);
+            captura[capturados++] = (byte) b;
+        }
+        
+        private void capturar(byte[] b, int off, int len) {
+            int cantidad = Math.min(len, capturaMaxBytes - capturados);
+            if (cantidad < len) {
+                truncada = true;
+            }
+            if (cantidad <= 0) {
+                return;
+            }
+            asegurarCapacidad(capturados + cantidad);
+            System.arraycopy(b, off, captura, capturados, cantidad);
+            capturados += cantidad;
+        }
+        
+        private void asegurarCapacidad(int necesaria) {
+            if (necesaria > captura.length) {
+                captura = Arrays.copyOf(captura, Math.min(capturaMaxBytes, Math.max(necesaria, Math.max(256, captura.length * 2))));
+            }
+        }
+        
+        private Charset charset() {
+            String encoding = getCharacterEncoding();
+            try {
+                return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        
+        /**
+         * Indica si el cuerpo superó el límite de captura
+         */
+        public boolean isTruncada() {
+            return truncada;
+        }
+        
+        /**
+         * Obtiene el cuerpo capturado de la respuesta
+         */
+        public String getResponseBody() {
+            return new String(captura, 0, capturados, charset());
+        }
+        
+        /**
+         * Obtiene el cuerpo capturado de la respuesta enmascarado
+         */
+        public String getMaskedResponseBody() {
+            return filter.maskSensitiveData(getResponseBody());
+        }
+        
+        /**
+         * Reenvía a la salida original y copia en la captura lo que quepa
+         */
+        private final class CapturaOutputStream extends ServletOutputStream {
+            
+            private final ServletOutputStream destino;
+            
+            CapturaOutputStream(ServletOutputStream destino) {
+                this.destino = destino;
+            }
+            
+            @Override
+            public void write(int b) throws IOException {
+                destino.write(b);
+                capturar(b);
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                destino.write(b, off, len);
+                capturar(b, off, len);
+            }
+            
+            @Override
+            public void flush() throws IOException {
+                destino.flush();
+            }
+            
+            @Override
+            public void close() throws IOException {
+                destino.close();
+            }
+            
+            @Override
+            public boolean isReady() {
+                return destino.isReady();
+            }
+            
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                destino.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package com.monitoreo.config;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detecta y enmascara emails, teléfonos, tarjetas, SSN e IPs en un único recorrido del texto.
+ * <p>
+ * El resultado es idéntico al de aplicar en orden los cinco patrones históricos de SensitiveDataFilter
+ * (email, teléfono, tarjeta, SSN, IP), cada uno sobre la salida del anterior. Eso incluye sus
+ * interacciones: un número que ya enmascaró una pasada anterior no está disponible para las siguientes.
+ * Por ejemplo, cada grupo de "1234-5678-9012-3456" es un teléfono, y "192.168.1.1" pierde sus octetos
+ * de 3 dígitos antes de llegar al patrón de IP. Los límites de palabra siguen la semántica de
+ * {@code \b} de java.util.regex en Java 21 (ASCII, con marcas combinantes unidas a su base).
+ * <p>
+ * Un texto sin '@' y con menos de dos dígitos no puede contener ningún patrón, así que se devuelve
+ * tras un recorrido mínimo sin reservar memoria.
+ * <p>
+ * Las reglas configuradas (MaskingRuleEngine) se aplican después en una única pasada de AutomataReglas.
+ * El conjunto de reglas activo es una instantánea inmutable que se sustituye de forma atómica:
+ * cada llamada trabaja de principio a fin con la instantánea que leyó al empezar.
+ */
+public final class SensitiveDataScanner {
+
+    /**
+     * Versión de las reglas predefinidas. Se incrementa al cambiarlas para que el backfill
+     * vuelva a enmascarar los eventos guardados con una versión anterior.
+     */
+    public static final int VERSION_REGLAS = 1;
+
+    /** Nombres de las reglas predefinidas, en el orden de sus tipos */
+    static final String[] NOMBRES_PREDEFINIDAS = {"email", "telefono", "tarjeta", "ssn", "ip"};
+
+    private static final LongAdder NANOS_ESCANEO = new LongAdder();
+    private static final LongAdder ESCANEOS = new LongAdder();
+
+    private static volatile Reglas reglas = Reglas.porDefecto();
+
+    private static final int EMAIL = 0;
+    private static final int TELEFONO = 1;
+    private static final int TARJETA = 2;
+    private static final int SSN = 3;
+    private static final int IP = 4;
+
+    private static final String[] MASCARAS = {
+            SensitiveDataFilter.EMAIL_MASK,
+            SensitiveDataFilter.PHONE_MASK,
+            SensitiveDataFilter.CREDIT_CARD_MASK,
+            SensitiveDataFilter.SSN_MASK,
+            SensitiveDataFilter.IP_MASK
+    };
+
+    private SensitiveDataScanner() {
+    }
+
+    /**
+     * Enmascara los datos sensibles; devuelve la misma instancia si no hay ninguno
+     */
+    public static String mask(String text) {
+        return mask(text, reglas);
+    }
+
+    /**
+     * Indica si el texto contiene algún dato sensible; se detiene en la primera coincidencia
+     */
+    public static boolean contains(String text) {
+        return contains(text, reglas);
+    }
+
+    /**
+     * Versión del conjunto de reglas activo (predefinidas más configuración)
+     */
+    public static int versionReglas() {
+        return reglas.version;
+    }
+
+    static Reglas reglasActivas() {
+        return reglas;
+    }
+
+    /**
+     * Sustituye el conjunto de reglas activo; las llamadas en curso terminan con el anterior
+     */
+    static void instalar(Reglas nuevas) {
+        reglas = nuevas;
+    }
+
+    static double segundosEscaneo() {
+        return NANOS_ESCANEO.sum() / 1_000_000_000d;
+    }
+
+    static long escaneos() {
+        return ESCANEOS.sum();
+    }
+
+    static String mask(String text, Reglas activas) {
+        if (text == null) {
+            return null;
+        }
+        long inicio = System.nanoTime();
+        String resultado = text;
+        if (activas.predefinidas && esCandidato(text)) {
+            Escaneo escaneo = new Escaneo(text, false);
+            escaneo.recorrer();
+            if (escaneo.cantidad > 0) {
+                for (int r = 0; r < escaneo.cantidad; r++) {
+                    activas.coincidenciasPredefinidas[escaneo.regiones[3 * r + 2]].increment();
+                }
+                resultado = escaneo.construir();
+            }
+        }
+        if (activas.automata != null) {
+            resultado = activas.automata.enmascarar(resultado, activas.coincidenciasConfiguradas);
+        }
+        registrarEscaneo(inicio);
+        return resultado;
+    }
+
+    static boolean contains(String text, Reglas activas) {
+        if (text == null) {
+            return false;
+        }
+        long inicio = System.nanoTime();
+        boolean contiene = false;
+        if (activas.predefinidas && esCandidato(text)) {
+            Escaneo escaneo = new Escaneo(text, true);
+            escaneo.recorrer();
+            contiene = escaneo.cantidad > 0;
+        }
+        if (!contiene && activas.automata != null) {
+            contiene = activas.automata.contiene(text);
+        }
+        registrarEscaneo(inicio);
+        return contiene;
+    }
+
+    private static void registrarEscaneo(long inicio) {
+        NANOS_ESCANEO.add(System.nanoTime() - inicio);
+        ESCANEOS.increment();
+    }
+
+    /**
+     * Prefiltro: todos los patrones necesitan una '@' o al menos dos dígitos.
+     * Las letras (por encima de '@') cuestan una sola comparación.
+     */
+    static boolean esCandidato(String text) {
+        int digitos = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c <= '@') {
+                if (c == '@') {
+                    return true;
+                }
+                if (c >= '0' && c <= '9' && ++digitos == 2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean esLetra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /** [A-Za-z0-9._%+-] */
+    private static boolean esLocal(char c) {
+        return esLetra(c) || esDigito(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    /** [A-Za-z0-9.-] */
+    private static boolean esDominio(char c) {
+        return esLetra(c) || esDigito(c) || c == '.' || c == '-';
+    }
+
+    /** [A-Z|a-z] */
+    private static boolean esTld(char c) {
+        return esLetra(c) || c == '|';
+    }
+
+    /** \s */
+    private static boolean esEspacio(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean esPalabraAscii(int cp) {
+        return cp < 128 && (esLetra((char) cp) || esDigito((char) cp) || cp == '_');
+    }
+
+    /**
+     * Conjunto de reglas instalado: las predefinidas (si están activas), el autómata de las configuradas
+     * y los contadores de coincidencias de cada regla
+     */
+    static final class Reglas {
+
+        final boolean predefinidas;
+        final AutomataReglas automata;
+        final int version;
+        final LongAdder[] coincidenciasPredefinidas;
+        final LongAdder[] coincidenciasConfiguradas;
+
+        Reglas(boolean predefinidas, AutomataReglas automata, int version,
+               LongAdder[] coincidenciasPredefinidas, LongAdder[] coincidenciasConfiguradas) {
+            this.predefinidas = predefinidas;
+            this.automata = automata;
+            this.version = version;
+            this.coincidenciasPredefinidas = coincidenciasPredefinidas;
+            this.coincidenciasConfiguradas = coincidenciasConfiguradas;
+        }
+
+        /**
+         * Solo las reglas predefinidas, con contadores propios
+         */
+        static Reglas porDefecto() {
+            LongAdder[] contadores = new LongAdder[NOMBRES_PREDEFINIDAS.length];
+            for (int i = 0; i < contadores.length; i++) {
+                contadores[i] = new LongAdder();
+            }
+            return new Reglas(true, null, VERSION_REGLAS, contadores, new LongAdder[0]);
+        }
+    }
+
+    /**
+     * Recorrido de un texto: acumula regiones (inicio, fin, tipo) ordenadas y sin solaparse
+     */
+    private static final class Escaneo {
+
+        private final String t;
+        private final int n;
+        private final boolean soloDetectar;
+        private int[] regiones = new int[12];
+        private int cantidad;
+
+        private int emailInicio;
+        private int emailFin;
+
+        Escaneo(String t, boolean soloDetectar) {
+            this.t = t;
+            this.n = t.length();
+            this.soloDetectar = soloDetectar;
+        }
+
+        void recorrer() {
+            int desde = 0;
+            while (true) {
+                boolean hayEmail = siguienteEmail(desde);
+                if (hayEmail && soloDetectar) {
+                    agregar(emailInicio, emailFin, EMAIL);
+                    return;
+                }
+                // Entre emails solo pueden aparecer los patrones numéricos
+                recorrerSegmento(desde, hayEmail ? emailInicio : n);
+                if (!hayEmail || (soloDetectar && cantidad > 0)) {
+                    return;
+                }
+                agregar(emailInicio, emailFin, EMAIL);
+                desde = emailFin;
+            }
+        }
+
+        String construir() {
+            StringBuilder sb = new StringBuilder(n + 16 * cantidad);
+            int copiado = 0;
+            for (int r = 0; r < cantidad; r++) {
+                int inicio = regiones[3 * r];
+                sb.append(t, copiado, inicio).append(MASCARAS[regiones[3 * r + 2]]);
+                copiado = regiones[3 * r + 1];
+            }
+            return sb.append(t, copiado, n).toString();
+        }
+
+        private void agregar(int inicio, int fin, int tipo) {
+            if (3 * cantidad + 3 > regiones.length) {
+                regiones = Arrays.copyOf(regiones, regiones.length * 2);
+            }
+            regiones[3 * cantidad] = inicio;
+            regiones[3 * cantidad + 1] = fin;
+            regiones[3 * cantidad + 2] = tipo;
+            cantidad++;
+        }
+
+        // ==================== LÍMITES DE PALABRA ====================
+
+        /** Lado izquierdo de \b en la posición i */
+        private boolean palabraAntes(int i) {
+            if (i <= 0) {
+                return false;
+            }
+            int cp = Character.codePointBefore(t, i);
+            return esPalabraAscii(cp) || (cp >= 128 && Character.getType(cp) == Character.NON_SPACING_MARK && tieneBase(i - 1));
+        }
+
+        /** Lado derecho de \b en la posición i */
+        private boolean palabraEn(int i) {
+            if (i >= n) {
+                return false;
+            }
+            int cp = Character.codePointAt(t, i);
+            return esPalabraAscii(cp) || (cp >= 128 && Character.getType(cp) == Character.NON_SPACING_MARK && tieneBase(i));
+        }
+
+        /** Una marca combinante cuenta como palabra si su carácter base es letra o dígito */
+        private boolean tieneBase(int x) {
+            for (; x >= 0; x--) {
+                int cp = Character.codePointAt(t, x);
+                if (Character.isLetterOrDigit(cp)) {
+                    return true;
+                }
+                if (Character.getType(cp) != Character.NON_SPACING_MARK) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private boolean limite(int i) {
+            return palabraAntes(i) != palabraEn(i);
+        }
+
+        // ==================== EMAIL ====================
+
+        /**
+         * Siguiente coincidencia de \b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Z|a-z]{2,}\b a partir de desde
+         */
+        private boolean siguienteEmail(int desde) {
+            int arroba = t.indexOf('@', desde);
+            while (arroba >= 0) {
+                // La parte local es el tramo de caracteres válidos que termina en la '@'
+                int tramo = arroba;
+                while (tramo > desde && esLocal(t.charAt(tramo - 1))) {
+                    tramo--;
+                }
+                int inicio = -1;
+                for (int i = tramo; i < arroba; i++) {
+                    if (limite(i)) {
+                        inicio = i;
+                        break;
+                    }
+                }
+                if (inicio >= 0) {
+                    int fin = finDominio(arroba + 1);
+                    if (fin >= 0) {
+                        emailInicio = inicio;
+                        emailFin = fin;
+                        return true;
+                    }
+                }
+                arroba = t.indexOf('@', arroba + 1);
+            }
+            return false;
+        }
+
+        /**
+         * Fin del dominio con el mismo orden de backtracking que el patrón: el último punto posible
+         * y, tras él, el TLD más largo que acabe en límite de palabra
+         */
+        private int finDominio(int desde) {
+            int fin = desde;
+            while (fin < n && esDominio(t.charAt(fin))) {
+                fin++;
+            }
+            for (int punto = fin - 1; punto > desde; punto--) {
+                if (t.charAt(punto) != '.') {
+                    continue;
+                }
+                int finTld = punto + 1;
+                while (finTld < n && esTld(t.charAt(finTld))) {
+                    finTld++;
+                }
+                for (int j = finTld; j >= punto + 3; j--) {
+                    if (limite(j)) {
+                        return j;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        // ==================== PATRONES NUMÉRICOS ====================
+
+        /**
+         * Recorre un tramo sin emails. En cada número que empieza palabra se prueban, en el orden
+         * de las pasadas originales, teléfono, tarjeta, SSN e IP.
+         */
+        private void recorrerSegmento(int inicio, int fin) {
+            int i = inicio;
+            while (i < fin) {
+                if (!esDigito(t.charAt(i)) || palabraAntes(i)) {
+                    i++;
+                    continue;
+                }
+                int finNumero = finDigitos(i, fin);
+                int finRegion;
+                if (esTelefono(i, finNumero)) {
+                    boolean conPrefijo = i - 2 >= inicio && t.charAt(i - 1) == '+' && palabraAntes(i - 1);
+                    agregar(conPrefijo ? i - 1 : i, finNumero, TELEFONO);
+                    finRegion = finNumero;
+                } else if ((finRegion = tarjeta(i, fin)) >= 0) {
+                    agregar(i, finRegion, TARJETA);
+                } else if ((finRegion = ssn(i, fin)) >= 0) {
+                    agregar(i, finRegion, SSN);
+                } else if ((finRegion = ip(i, fin)) >= 0) {
+                    agregar(i, finRegion, IP);
+                } else {
+                    i = finNumero;
+                    continue;
+                }
+                if (soloDetectar) {
+                    return;
+                }
+                i = finRegion;
+            }
+        }
+
+        private int finDigitos(int i, int fin) {
+            while (i < fin && esDigito(t.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        /**
+         * \b\+?[1-9]\d{1,14}\b: un número completo de 2 a 15 dígitos que no empieza por 0.
+         * También decide qué grupos quedan enmascarados antes de las pasadas siguientes.
+         */
+        private boolean esTelefono(int inicio, int fin) {
+            int longitud = fin - inicio;
+            return longitud >= 2 && longitud <= 15 && t.charAt(inicio) != '0' && !palabraEn(fin);
+        }
+
+        /**
+         * \b\d{4}[\s-]?\d{4}[\s-]?\d{4}[\s-]?\d{4}\b sobre el texto ya sin teléfonos
+         */
+        private int tarjeta(int inicio, int fin) {
+            int j = inicio;
+            for (int grupo = 0; grupo < 4; grupo++) {
+                if (grupo > 0 && j < fin && (esEspacio(t.charAt(j)) || t.charAt(j) == '-')) {
+                    j++;
+                }
+                if (j + 4 > fin) {
+                    return -1;
+                }
+                for (int k = j; k < j + 4; k++) {
+                    if (!esDigito(t.charAt(k))) {
+                        return -1;
+                    }
+                }
+                j += 4;
+            }
+            if (palabraEn(j)) {
+                return -1;
+            }
+            // Ningún número del tramo puede haber sido enmascarado como teléfono
+            int numero = inicio;
+            while (numero < j) {
+                int finNumero = finDigitos(numero, j);
+                if (esTelefono(numero, finNumero)) {
+                    return -1;
+                }
+                numero = finNumero + 1;
+            }
+            return j;
+        }
+
+        /**
+         * \b\d{3}-\d{2}-\d{4}\b sobre el texto ya sin teléfonos ni tarjetas
+         */
+        private int ssn(int inicio, int fin) {
+            int j = inicio + 11;
+            if (j > fin
+                    || !digitos(inicio, 3) || t.charAt(inicio + 3) != '-'
+                    || !digitos(inicio + 4, 2) || t.charAt(inicio + 6) != '-'
+                    || !digitos(inicio + 7, 4) || palabraEn(j)) {
+                return -1;
+            }
+            if (t.charAt(inicio) != '0' || t.charAt(inicio + 4) != '0' || t.charAt(inicio + 7) != '0') {
+                return -1;
+            }
+            // El último grupo puede iniciar una tarjeta, que tiene prioridad
+            return tarjeta(inicio + 7, fin) >= 0 ? -1 : j;
+        }
+
+        private boolean digitos(int desde, int cantidad) {
+            for (int k = desde; k < desde + cantidad; k++) {
+                if (!esDigito(t.charAt(k))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * \b(?:\d{1,3}\.){3}\d{1,3}\b sobre el texto ya sin teléfonos, tarjetas ni SSN
+         */
+        private int ip(int inicio, int fin) {
+            int j = inicio;
+            int ultimoGrupo = -1;
+            for (int grupo = 0; grupo < 4; grupo++) {
+                int finGrupo = finDigitos(j, fin);
+                int longitud = finGrupo - j;
+                if (longitud < 1 || longitud > 3) {
+                    return -1;
+                }
+                if (longitud > 1 && t.charAt(j) != '0') {
+                    return -1;
+                }
+                if (grupo < 3) {
+                    if (finGrupo >= fin || t.charAt(finGrupo) != '.') {
+                        return -1;
+                    }
+                    j = finGrupo + 1;
+                } else {
+                    if (palabraEn(finGrupo)) {
+                        return -1;
+                    }
+                    ultimoGrupo = j;
+                    j = finGrupo;
+                }
+            }
+            // El último octeto puede iniciar un SSN, que tiene prioridad
+            return ssn(ultimoGrupo, fin) >= 0 ? -1 : j;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.monitoreo.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard sobre el que trabaja el hilo actual, usado por ShardRoutingDataSource
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> SHARD_ACTUAL = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Shard del hilo actual, o null si no se ha fijado (se usa el principal)
+     */
+    public static String actual() {
+        return SHARD_ACTUAL.get();
+    }
+
+    /**
+     * Ejecuta la operación contra el shard indicado y restaura el shard anterior
+     */
+    public static <T> T ejecutarEn(String shard, Supplier<T> operacion) {
+        String anterior = SHARD_ACTUAL.get();
+        SHARD_ACTUAL.set(shard);
+        try {
+            return operacion.get();
+        } finally {
+            if (anterior == null) {
+                SHARD_ACTUAL.remove();
+            } else {
+                SHARD_ACTUAL.set(anterior);
+            }
+        }
+    }
+}
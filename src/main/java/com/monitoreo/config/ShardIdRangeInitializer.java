@@ -0,0 +1,77 @@
+package com.monitoreo.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Fija al arrancar el rango de ids de cada shard (ver ShardRouter) en la secuencia de eventos_monitoreo,
+ * para que dos shards nunca generen el mismo id. Una secuencia por debajo de su rango se reinicia al
+ * inicio del rango; una por encima es un error de configuración (shards reordenados) y aborta el arranque.
+ * Cada shard se ajusta en una transacción con un cerrojo consultivo, así que varias instancias pueden
+ * arrancar a la vez. Solo aplica a PostgreSQL.
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.sharding", name = "habilitado", havingValue = "true")
+public class ShardIdRangeInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardIdRangeInitializer.class);
+
+    static final String SECUENCIA = "eventos_monitoreo_id_seq";
+
+    // Clave del cerrojo consultivo (pg_advisory_xact_lock) que serializa el ajuste entre instancias
+    private static final long CERROJO = 0x6d6f6e69746f7265L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public ShardIdRangeInitializer(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                   ShardRouter shardRouter) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    @PostConstruct
+    public void fijarRangos() {
+        for (String shard : shardRouter.getShards()) {
+            ShardContext.ejecutarEn(shard, () -> {
+                String producto = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+                if (!"PostgreSQL".equalsIgnoreCase(producto)) {
+                    logger.warn("Shard {} en {}: el rango de ids no se fija automáticamente", shard, producto);
+                    return null;
+                }
+                transactionTemplate.executeWithoutResult(status -> fijarRango(shard));
+                return null;
+            });
+        }
+    }
+
+    private void fijarRango(String shard) {
+        long inicio = shardRouter.inicioRangoIds(shard);
+        long fin = shardRouter.finRangoIds(shard);
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, CERROJO);
+
+        Long ultimo = jdbcTemplate.queryForObject("SELECT last_value FROM " + SECUENCIA, Long.class);
+        if (ultimo != null && ultimo > fin) {
+            throw new IllegalStateException("La secuencia de ids del shard '" + shard + "' (" + ultimo
+                    + ") está por encima de su rango [" + inicio + ", " + fin + "]: ¿se cambió el orden de los shards?");
+        }
+        if (ultimo == null || ultimo < inicio) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + SECUENCIA + " MINVALUE " + inicio + " MAXVALUE " + fin
+                    + " RESTART WITH " + inicio);
+            logger.info("Shard {}: secuencia de ids movida al rango [{}, {}]", shard, inicio, fin);
+        } else {
+            jdbcTemplate.execute("ALTER SEQUENCE " + SECUENCIA + " MINVALUE " + inicio + " MAXVALUE " + fin);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.monitoreo.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Asigna cada serviceName a un shard mediante un anillo de hash consistente con nodos virtuales:
+ * al añadir un shard solo se mueve la fracción de servicios que le corresponde.
+ * <p>
+ * Cada shard genera ids en su propio rango: el shard en la posición i usa [(i + 1) * 2^48, (i + 2) * 2^48),
+ * así que el id indica el shard sin consultar. El rango 0 queda para los ids anteriores a los rangos,
+ * que pueden repetirse entre shards. Los shards nuevos se añaden al final para no cambiar posiciones.
+ */
+public class ShardRouter {
+
+    public static final String PRINCIPAL = "principal";
+
+    static final int BITS_RANGO_ID = 48;
+
+    private final List<String> shards;
+    private final TreeMap<Long, String> anillo = new TreeMap<>();
+
+    public ShardRouter(List<String> shards, int nodosVirtuales) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un shard");
+        }
+        if (nodosVirtuales <= 0) {
+            throw new IllegalArgumentException("El número de nodos virtuales debe ser positivo");
+        }
+        this.shards = List.copyOf(shards);
+        for (String shard : this.shards) {
+            for (int i = 0; i < nodosVirtuales; i++) {
+                anillo.put(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    /**
+     * Router de un único shard (sin reparto)
+     */
+    public static ShardRouter unico() {
+        return new ShardRouter(List.of(PRINCIPAL), 1);
+    }
+
+    /**
+     * Shard donde viven los eventos del servicio; los eventos sin servicio comparten un shard fijo
+     */
+    public String shardPara(String serviceName) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map.Entry<Long, String> entrada = anillo.ceilingEntry(hash(serviceName != null ? serviceName : ""));
+        return entrada != null ? entrada.getValue() : anillo.firstEntry().getValue();
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public boolean esUnico() {
+        return shards.size() == 1;
+    }
+
+    /**
+     * Primer id del rango del shard
+     */
+    public long inicioRangoIds(String shard) {
+        int indice = shards.indexOf(shard);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Shard desconocido: " + shard);
+        }
+        return (long) (indice + 1) << BITS_RANGO_ID;
+    }
+
+    /**
+     * Último id del rango del shard
+     */
+    public long finRangoIds(String shard) {
+        return inicioRangoIds(shard) + (1L << BITS_RANGO_ID) - 1;
+    }
+
+    /**
+     * Shard que generó el id, o null si el id es anterior a los rangos o no corresponde a ningún shard
+     */
+    public String shardDeId(long id) {
+        long rango = id >>> BITS_RANGO_ID;
+        if (rango == 0 || rango > shards.size()) {
+            return null;
+        }
+        return shards.get((int) rango - 1);
+    }
+
+    /**
+     * FNV-1a de 64 bits con el mezclado final de MurmurHash3, estable entre JVMs y reinicios
+     */
+    static long hash(String clave) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : clave.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardRouter" + new ArrayList<>(shards);
+    }
+}
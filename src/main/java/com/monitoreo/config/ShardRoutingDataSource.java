@@ -0,0 +1,60 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DataSource que envía cada conexión a la base del shard fijado en ShardContext.
+ * El principal es el DataSource existente (pools por carga y réplicas incluidos);
+ * los shards adicionales se cierran con este bean.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final Map<String, DataSource> adicionales;
+    private final Map<String, Counter> conexionesPorShard = new HashMap<>();
+
+    public ShardRoutingDataSource(DataSource principal, Map<String, DataSource> adicionales, MeterRegistry meterRegistry) {
+        this.adicionales = new LinkedHashMap<>(adicionales);
+        Map<Object, Object> destinos = new HashMap<>(adicionales);
+        destinos.put(ShardRouter.PRINCIPAL, principal);
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(principal);
+        setLenientFallback(false);
+
+        for (Object shard : destinos.keySet()) {
+            conexionesPorShard.put((String) shard, Counter.builder("monitoreo.sharding.conexiones")
+                    .description("Conexiones obtenidas por shard")
+                    .tag("shard", (String) shard)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.actual();
+        if (shard == null) {
+            shard = ShardRouter.PRINCIPAL;
+        }
+        Counter counter = conexionesPorShard.get(shard);
+        if (counter != null) {
+            counter.increment();
+        }
+        return shard;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : adicionales.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
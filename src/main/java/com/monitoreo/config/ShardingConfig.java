@@ -0,0 +1,40 @@
+package com.monitoreo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Router de shards y executor para las consultas que recorren todos los shards.
+ * Con el sharding deshabilitado hay un único shard (principal) y no se usa el executor.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        if (!properties.isHabilitado()) {
+            return ShardRouter.unico();
+        }
+        List<String> shards = new ArrayList<>();
+        shards.add(ShardRouter.PRINCIPAL);
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            shards.add(shard.getNombre());
+        }
+        return new ShardRouter(shards, properties.getNodosVirtuales());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor shardScatterExecutor(ShardingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getHilosScatter());
+        executor.setMaxPoolSize(properties.getHilosScatter());
+        executor.setThreadNamePrefix("shard-scatter-");
+        return executor;
+    }
+}
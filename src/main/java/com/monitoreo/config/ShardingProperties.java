@@ -0,0 +1,40 @@
+package com.monitoreo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del reparto de eventos entre bases de datos (monitoreo.sharding).
+ * La base de spring.datasource es siempre el shard "principal"; aquí se declaran los adicionales.
+ */
+@Data
+@ConfigurationProperties(prefix = "monitoreo.sharding")
+public class ShardingProperties {
+
+    private boolean habilitado = false;
+
+    /** Puntos por shard en el anillo de hash consistente */
+    private int nodosVirtuales = 128;
+
+    /** Hilos para consultar los shards en paralelo */
+    private int hilosScatter = 8;
+
+    /** Tiempo máximo de una consulta a todos los shards */
+    private long timeoutScatterMs = 10000;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String nombre;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+        private long connectionTimeout = 5000;
+    }
+}
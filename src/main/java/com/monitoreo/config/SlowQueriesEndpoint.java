@@ -0,0 +1,38 @@
+package com.monitoreo.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint de Actuator /actuator/slowqueries con las consultas lentas registradas y sus planes
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@ConditionalOnProperty(prefix = "monitoreo.consultas-lentas", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class SlowQueriesEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> consultas() {
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("umbralMs", slowQueryLog.getUmbralMs());
+        respuesta.put("consultas", slowQueryLog.consultas());
+        return respuesta;
+    }
+
+    @DeleteOperation
+    public void limpiar() {
+        slowQueryLog.limpiar();
+    }
+}
@@ -0,0 +1,157 @@
+package com.monitoreo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que cronometra cada ejecución de sentencia y entrega a SlowQueryLog las que superan
+ * el umbral. Las conexiones y sentencias se envuelven con proxies que guardan los parámetros
+ * enlazados con setXxx(índice, valor) para poder repetir la consulta en el EXPLAIN.
+ */
+final class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EJECUCIONES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final Supplier<SlowQueryLog> registro;
+
+    SlowQueryDataSource(DataSource destino, Supplier<SlowQueryLog> registro) {
+        super(destino);
+        this.registro = registro;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexion(super.getConnection(username, password));
+    }
+
+    private Connection conexion(Connection destino) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConexionHandler(destino));
+    }
+
+    private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConexionHandler implements InvocationHandler {
+
+        private final Connection destino;
+
+        ConexionHandler(Connection destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : destino.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || destino.isWrapperFor((Class<?>) args[0]);
+                default:
+                    break;
+            }
+            Object resultado = invocar(destino, method, args);
+            if (resultado instanceof Statement sentencia) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String texto ? texto : null;
+                Class<?> tipo = resultado instanceof CallableStatement ? CallableStatement.class
+                        : resultado instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{tipo},
+                        new SentenciaHandler(sentencia, sql, (Connection) proxy));
+            }
+            return resultado;
+        }
+    }
+
+    private final class SentenciaHandler implements InvocationHandler {
+
+        private static final Object[] SIN_PARAMETROS = new Object[0];
+
+        private final Statement destino;
+        private final String sql;
+        private final Connection conexion;
+        private Object[] parametros = SIN_PARAMETROS;
+        private int cantidad;
+
+        SentenciaHandler(Statement destino, String sql, Connection conexion) {
+            this.destino = destino;
+            this.sql = sql;
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            if (EJECUCIONES.contains(nombre)) {
+                return ejecutar(method, args);
+            }
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                enlazar(indice, "setNull".equals(nombre) ? null : args[1]);
+            } else if ("clearParameters".equals(nombre)) {
+                parametros = SIN_PARAMETROS;
+                cantidad = 0;
+            } else if ("getConnection".equals(nombre)) {
+                return conexion;
+            } else if ("equals".equals(nombre)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(nombre)) {
+                return System.identityHashCode(proxy);
+            } else if ("unwrap".equals(nombre) && ((Class<?>) args[0]).isInstance(proxy)) {
+                return proxy;
+            }
+            return invocar(destino, method, args);
+        }
+
+        private Object ejecutar(Method method, Object[] args) throws Throwable {
+            long inicio = System.nanoTime();
+            try {
+                return invocar(destino, method, args);
+            } finally {
+                long nanos = System.nanoTime() - inicio;
+                SlowQueryLog log = registro.get();
+                if (log != null && log.esLenta(nanos)) {
+                    String texto = args != null && args.length > 0 && args[0] instanceof String sqlDirecto ? sqlDirecto : sql;
+                    log.registrar(texto, Arrays.copyOf(parametros, cantidad), nanos, getTargetDataSource());
+                }
+            }
+        }
+
+        private void enlazar(int indice, Object valor) {
+            if (indice < 1) {
+                return;
+            }
+            if (indice > parametros.length) {
+                parametros = Arrays.copyOf(parametros, Math.max(indice, parametros.length * 2));
+            }
+            parametros[indice - 1] = valor;
+            cantidad = Math.max(cantidad, indice);
+        }
+    }
+}
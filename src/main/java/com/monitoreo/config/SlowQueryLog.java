@@ -0,0 +1,385 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de consultas lentas. Cada sentencia que supera el umbral se guarda en un anillo acotado
+ * en memoria con su SQL, la forma de sus parámetros (tipo y longitud, nunca el valor) y el método de
+ * repositorio que la lanzó. Para una muestra de las SELECT, limitada por minuto, se captura en segundo
+ * plano el plan con EXPLAIN (ANALYZE, BUFFERS) en una transacción que se deshace. El plan se guarda sin
+ * los literales de sus condiciones, que son los valores reales de los parámetros. Se consulta en el
+ * endpoint de Actuator "slowqueries", restringido a administradores (SecurityConfig).
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.consultas-lentas", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final int LONGITUD_MAXIMA_SQL = 4000;
+    private static final int LONGITUD_MAXIMA_PLAN = 16000;
+    private static final String SIN_METODO = "ninguno";
+
+    // Literales de texto del plan ('valor'::text) y constantes numéricas de las líneas de condición
+    private static final Pattern LITERAL_TEXTO = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern LITERAL_NUMERICO = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    private final long umbralNanos;
+    private final double muestreo;
+    private final int maxPlanesPorMinuto;
+    private final int capacidad;
+    private final boolean explain;
+    private final int timeoutExplainSegundos;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier reloj;
+
+    private final Deque<ConsultaLenta> anillo = new ArrayDeque<>();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+    private final ExecutorService explainExecutor;
+
+    private long minutoActual;
+    private int planesEnMinuto;
+
+    @Autowired
+    public SlowQueryLog(MeterRegistry meterRegistry,
+                        @Value("${monitoreo.consultas-lentas.umbral-ms:500}") long umbralMs,
+                        @Value("${monitoreo.consultas-lentas.muestreo:0.1}") double muestreo,
+                        @Value("${monitoreo.consultas-lentas.max-explain-por-minuto:6}") int maxPlanesPorMinuto,
+                        @Value("${monitoreo.consultas-lentas.capacidad:100}") int capacidad,
+                        @Value("${monitoreo.consultas-lentas.explain.habilitado:true}") boolean explain,
+                        @Value("${monitoreo.consultas-lentas.explain.timeout-segundos:10}") int timeoutExplainSegundos) {
+        this(meterRegistry, umbralMs, muestreo, maxPlanesPorMinuto, capacidad, explain, timeoutExplainSegundos,
+                System::currentTimeMillis);
+    }
+
+    SlowQueryLog(MeterRegistry meterRegistry, long umbralMs, double muestreo, int maxPlanesPorMinuto, int capacidad,
+                 boolean explain, int timeoutExplainSegundos, LongSupplier reloj) {
+        if (umbralMs < 0 || capacidad <= 0 || muestreo < 0 || muestreo > 1 || maxPlanesPorMinuto < 0) {
+            throw new IllegalArgumentException("Configuración de consultas lentas no válida");
+        }
+        this.meterRegistry = meterRegistry;
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.muestreo = muestreo;
+        this.maxPlanesPorMinuto = maxPlanesPorMinuto;
+        this.capacidad = capacidad;
+        this.explain = explain;
+        this.timeoutExplainSegundos = timeoutExplainSegundos;
+        this.reloj = reloj;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), tarea -> {
+            Thread hilo = new Thread(tarea, "consultas-lentas-explain");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Indica si una sentencia de esta duración debe registrarse
+     */
+    public boolean esLenta(long nanos) {
+        return nanos >= umbralNanos;
+    }
+
+    /**
+     * Registra una consulta lenta y, si entra en la muestra, programa la captura de su plan.
+     * Los valores de los parámetros solo se usan para el EXPLAIN y no se guardan.
+     *
+     * @param parametros copia de los valores enlazados, propiedad del registro a partir de aquí
+     * @param destino DataSource sin instrumentar contra el que se lanza el EXPLAIN
+     */
+    public ConsultaLenta registrar(String sql, Object[] parametros, long nanos, DataSource destino) {
+        String metodo = RepositoryMetricsInterceptor.metodoActual();
+        ConsultaLenta consulta = new ConsultaLenta(secuencia.incrementAndGet(), Instant.ofEpochMilli(reloj.getAsLong()),
+                recortar(sql, LONGITUD_MAXIMA_SQL), formas(parametros), TimeUnit.NANOSECONDS.toMillis(nanos),
+                metodo != null ? metodo : SIN_METODO, ShardContext.actual());
+        synchronized (anillo) {
+            if (anillo.size() >= capacidad) {
+                anillo.pollFirst();
+            }
+            anillo.addLast(consulta);
+        }
+        contadores.computeIfAbsent(consulta.getMetodo(), m -> Counter.builder("monitoreo.consultas.lentas")
+                .description("Sentencias SQL que superan el umbral de consulta lenta")
+                .tag("metodo", m)
+                .register(meterRegistry)).increment();
+        logger.warn("Consulta lenta ({} ms) en {}: {}", consulta.getDuracionMs(), consulta.getMetodo(), consulta.getSql());
+
+        consulta.estadoPlan = decidirPlan(sql, parametros);
+        if (ConsultaLenta.PENDIENTE.equals(consulta.estadoPlan)) {
+            programarPlan(consulta, sql, parametros, destino);
+        }
+        return consulta;
+    }
+
+    private String decidirPlan(String sql, Object[] parametros) {
+        if (!explain || noExplicable(sql, parametros)) {
+            return ConsultaLenta.NO_SOPORTADO;
+        }
+        if (muestreo < 1 && ThreadLocalRandom.current().nextDouble() >= muestreo) {
+            return ConsultaLenta.FUERA_DE_MUESTRA;
+        }
+        if (!reservarPlan()) {
+            return ConsultaLenta.LIMITADO;
+        }
+        return ConsultaLenta.PENDIENTE;
+    }
+
+    /**
+     * Solo se analizan lecturas sin bloqueo de filas y con parámetros que se pueden volver a enlazar
+     */
+    static boolean noExplicable(String sql, Object[] parametros) {
+        if (sql == null) {
+            return true;
+        }
+        String normalizado = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (!(normalizado.startsWith("select") || normalizado.startsWith("with"))
+                || normalizado.contains(" for update") || normalizado.contains(" for share")) {
+            return true;
+        }
+        for (Object parametro : parametros) {
+            if (parametro instanceof InputStream || parametro instanceof Reader
+                    || parametro instanceof Blob || parametro instanceof Clob) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized boolean reservarPlan() {
+        long minuto = reloj.getAsLong() / 60_000;
+        if (minuto != minutoActual) {
+            minutoActual = minuto;
+            planesEnMinuto = 0;
+        }
+        if (planesEnMinuto >= maxPlanesPorMinuto) {
+            return false;
+        }
+        planesEnMinuto++;
+        return true;
+    }
+
+    private void programarPlan(ConsultaLenta consulta, String sql, Object[] parametros, DataSource destino) {
+        String shard = ShardContext.actual();
+        try {
+            explainExecutor.execute(() -> {
+                WorkloadContext.establecer(CargaTrabajo.SEGUNDO_PLANO);
+                try {
+                    ShardContext.ejecutarEn(shard, () -> {
+                        capturarPlan(consulta, sql, parametros, destino);
+                        return null;
+                    });
+                } finally {
+                    WorkloadContext.limpiar();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            consulta.estadoPlan = ConsultaLenta.LIMITADO;
+        }
+    }
+
+    void capturarPlan(ConsultaLenta consulta, String sql, Object[] parametros, DataSource destino) {
+        try (Connection conexion = destino.getConnection()) {
+            if (!"PostgreSQL".equalsIgnoreCase(conexion.getMetaData().getDatabaseProductName())) {
+                consulta.estadoPlan = ConsultaLenta.NO_SOPORTADO;
+                return;
+            }
+            boolean autoCommit = conexion.getAutoCommit();
+            conexion.setAutoCommit(false);
+            try (PreparedStatement sentencia = conexion.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                sentencia.setQueryTimeout(timeoutExplainSegundos);
+                for (int i = 0; i < parametros.length; i++) {
+                    sentencia.setObject(i + 1, parametros[i]);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet filas = sentencia.executeQuery()) {
+                    while (filas.next()) {
+                        plan.append(filas.getString(1)).append('\n');
+                    }
+                }
+                consulta.plan = recortar(sinLiterales(plan.toString()), LONGITUD_MAXIMA_PLAN);
+                consulta.estadoPlan = ConsultaLenta.CAPTURADO;
+            } finally {
+                // ANALYZE ejecuta la consulta: nada de lo que haga debe confirmarse
+                conexion.rollback();
+                conexion.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | RuntimeException e) {
+            consulta.estadoPlan = ConsultaLenta.ERROR;
+            logger.debug("No se pudo capturar el plan de la consulta lenta {}: {}", consulta.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Consultas lentas registradas, de la más reciente a la más antigua
+     */
+    public List<ConsultaLenta> consultas() {
+        synchronized (anillo) {
+            List<ConsultaLenta> copia = new ArrayList<>(anillo);
+            Collections.reverse(copia);
+            return copia;
+        }
+    }
+
+    public void limpiar() {
+        synchronized (anillo) {
+            anillo.clear();
+        }
+    }
+
+    public long getUmbralMs() {
+        return TimeUnit.NANOSECONDS.toMillis(umbralNanos);
+    }
+
+    /**
+     * Forma de cada parámetro: tipo y, para textos y binarios, longitud
+     */
+    static List<String> formas(Object[] parametros) {
+        List<String> formas = new ArrayList<>(parametros.length);
+        for (Object parametro : parametros) {
+            if (parametro == null) {
+                formas.add("null");
+            } else if (parametro instanceof CharSequence texto) {
+                formas.add("String(" + texto.length() + ")");
+            } else if (parametro instanceof byte[] bytes) {
+                formas.add("byte[" + bytes.length + "]");
+            } else {
+                formas.add(parametro.getClass().getSimpleName());
+            }
+        }
+        return formas;
+    }
+
+    /**
+     * Sustituye por ? los literales del plan: todos los de texto y los numéricos de las líneas de condición
+     * (Index Cond, Filter, Hash Cond...), que además pasan por las reglas de enmascaramiento. Los costes,
+     * filas y tiempos del resto de líneas se conservan: las reglas los confundirían con teléfonos.
+     */
+    static String sinLiterales(String plan) {
+        String[] lineas = plan.split("\n", -1);
+        for (int i = 0; i < lineas.length; i++) {
+            lineas[i] = LITERAL_TEXTO.matcher(lineas[i]).replaceAll("'?'");
+            if (lineas[i].contains("Cond:") || lineas[i].contains("Filter:")) {
+                lineas[i] = SensitiveDataScanner.mask(LITERAL_NUMERICO.matcher(lineas[i]).replaceAll("?"));
+            }
+        }
+        return String.join("\n", lineas);
+    }
+
+    private static String recortar(String texto, int longitud) {
+        if (texto == null) {
+            return "";
+        }
+        return texto.length() <= longitud ? texto : texto.substring(0, longitud) + "...";
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        explainExecutor.shutdownNow();
+    }
+
+    /**
+     * Consulta lenta registrada; el plan se completa en segundo plano
+     */
+    public static final class ConsultaLenta {
+
+        public static final String PENDIENTE = "pendiente";
+        public static final String CAPTURADO = "capturado";
+        public static final String FUERA_DE_MUESTRA = "fuera_de_muestra";
+        public static final String LIMITADO = "limitado";
+        public static final String NO_SOPORTADO = "no_soportado";
+        public static final String ERROR = "error";
+
+        private final long id;
+        private final Instant instante;
+        private final String sql;
+        private final List<String> parametros;
+        private final long duracionMs;
+        private final String metodo;
+        private final String shard;
+        private volatile String estadoPlan = PENDIENTE;
+        private volatile String plan;
+
+        ConsultaLenta(long id, Instant instante, String sql, List<String> parametros, long duracionMs,
+                      String metodo, String shard) {
+            this.id = id;
+            this.instante = instante;
+            this.sql = sql;
+            this.parametros = List.copyOf(parametros);
+            this.duracionMs = duracionMs;
+            this.metodo = metodo;
+            this.shard = shard;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Instant getInstante() {
+            return instante;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<String> getParametros() {
+            return parametros;
+        }
+
+        public long getDuracionMs() {
+            return duracionMs;
+        }
+
+        public String getMetodo() {
+            return metodo;
+        }
+
+        public String getShard() {
+            return shard;
+        }
+
+        public String getEstadoPlan() {
+            return estadoPlan;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+    }
+}
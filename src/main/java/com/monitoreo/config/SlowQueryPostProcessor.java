@@ -0,0 +1,28 @@
+package com.monitoreo.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Envuelve el DataSource principal con SlowQueryDataSource. El registro de consultas lentas se
+ * resuelve al primer uso para no adelantar la creación del MeterRegistry.
+ */
+@Component
+@ConditionalOnProperty(prefix = "monitoreo.consultas-lentas", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class SlowQueryPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    public SlowQueryPostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return RepositoryMetricsPostProcessor.envolverPrincipal(bean, beanName, SlowQueryDataSource.class,
+                destino -> new SlowQueryDataSource(destino, slowQueryLog::getIfAvailable));
+    }
+}
@@ -0,0 +1,112 @@
+package com.monitoreo.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generador de identificadores de 64 bits ordenables por tiempo, al estilo Snowflake:
+ * 42 bits de milisegundos desde 2024-01-01, 12 bits de secuencia y 10 bits de nodo.
+ * <p>
+ * El par tiempo/secuencia vive en un único AtomicLong que solo avanza (sin cerrojos): si en un
+ * milisegundo se agota la secuencia, los siguientes identificadores toman prestado el milisegundo
+ * siguiente, y si el reloj retrocede se sigue desde el último valor. Así los identificadores de un
+ * nodo son estrictamente crecientes. Se codifican en 13 caracteres base32 (Crockford, minúsculas)
+ * de ancho fijo, por lo que el orden alfabético coincide con el de generación.
+ */
+public final class TimeSortableIdGenerator {
+
+    /** 2024-01-01T00:00:00Z */
+    static final long EPOCA = 1_704_067_200_000L;
+    static final int BITS_NODO = 10;
+    static final int BITS_SECUENCIA = 12;
+    public static final int MAX_NODO = (1 << BITS_NODO) - 1;
+    /** Caracteres del identificador codificado, sin prefijo */
+    public static final int LONGITUD = 13;
+
+    private static final char[] ALFABETO = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+
+    private static volatile TimeSortableIdGenerator compartido =
+            new TimeSortableIdGenerator(ThreadLocalRandom.current().nextInt(MAX_NODO + 1));
+
+    private final int nodo;
+    private final LongSupplier reloj;
+    private final AtomicLong estado = new AtomicLong();
+
+    public TimeSortableIdGenerator(int nodo) {
+        this(nodo, System::currentTimeMillis);
+    }
+
+    TimeSortableIdGenerator(int nodo, LongSupplier reloj) {
+        if (nodo < 0 || nodo > MAX_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODO + ": " + nodo);
+        }
+        this.nodo = nodo;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Generador usado por RequestContext; hasta que se instala el del nodo usa un nodo aleatorio
+     */
+    public static TimeSortableIdGenerator compartido() {
+        return compartido;
+    }
+
+    static void instalar(TimeSortableIdGenerator generador) {
+        compartido = generador;
+    }
+
+    /**
+     * Deriva un nodo estable a partir del identificador de instancia
+     */
+    public static int nodoPara(String instanceId) {
+        int h = instanceId.hashCode();
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return h & MAX_NODO;
+    }
+
+    /**
+     * Siguiente identificador numérico del nodo
+     */
+    public long siguienteValor() {
+        long ahora = Math.max(0, reloj.getAsLong() - EPOCA) << BITS_SECUENCIA;
+        long tiempoYSecuencia = estado.accumulateAndGet(ahora, (anterior, actual) -> Math.max(anterior + 1, actual));
+        return tiempoYSecuencia << BITS_NODO | nodo;
+    }
+
+    /**
+     * Siguiente identificador codificado tras el prefijo dado
+     */
+    public String siguiente(String prefijo) {
+        return codificar(prefijo, siguienteValor());
+    }
+
+    /**
+     * Escribe prefijo y valor en un único buffer del tamaño exacto, sin pasar por StringBuilder
+     */
+    static String codificar(String prefijo, long valor) {
+        int inicio = prefijo.length();
+        char[] buffer = new char[inicio + LONGITUD];
+        prefijo.getChars(0, inicio, buffer, 0);
+        for (int i = buffer.length - 1; i > inicio; i--) {
+            buffer[i] = ALFABETO[(int) (valor & 31)];
+            valor >>>= 5;
+        }
+        // Los 4 bits más altos
+        buffer[inicio] = ALFABETO[(int) (valor & 15)];
+        return new String(buffer);
+    }
+
+    /**
+     * Milisegundo epoch codificado en un identificador numérico
+     */
+    public static long instante(long valor) {
+        return (valor >>> (BITS_NODO + BITS_SECUENCIA)) + EPOCA;
+    }
+
+    public int getNodo() {
+        return nodo;
+    }
+}
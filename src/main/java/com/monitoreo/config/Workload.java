@@ -0,0 +1,19 @@
+package com.monitoreo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Asigna un método de controlador (o todo el controlador) a una carga de trabajo.
+ * Sin anotación, las peticiones GET y HEAD cuentan como CONSULTA y el resto como INGESTA.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+
+    CargaTrabajo value();
+}
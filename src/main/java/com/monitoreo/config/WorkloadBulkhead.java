@@ -0,0 +1,85 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compartimento estanco de una carga: limita sus peticiones concurrentes para que
+ * una ráfaga de consultas no ocupe los hilos y conexiones de la ingesta
+ */
+class WorkloadBulkhead {
+
+    private final CargaTrabajo carga;
+    private final int maxConcurrentes;
+    private final long esperaMaximaMs;
+    private final Semaphore permisos;
+
+    private final Timer esperaTimer;
+    private final Counter rechazadasCounter;
+
+    WorkloadBulkhead(CargaTrabajo carga, WorkloadProperties.Carga configuracion, MeterRegistry meterRegistry) {
+        this.carga = carga;
+        this.maxConcurrentes = configuracion.getMaxConcurrentes();
+        this.esperaMaximaMs = configuracion.getEsperaMaximaMs();
+        this.permisos = new Semaphore(maxConcurrentes, true);
+
+        this.esperaTimer = Timer.builder("monitoreo.carga.espera")
+                .description("Tiempo de espera por un hueco en el compartimento de la carga")
+                .tag("carga", carga.getNombre())
+                .register(meterRegistry);
+
+        this.rechazadasCounter = Counter.builder("monitoreo.carga.rechazadas")
+                .description("Peticiones rechazadas por saturación de la carga")
+                .tag("carga", carga.getNombre())
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.carga.activas", this, WorkloadBulkhead::getActivas)
+                .description("Peticiones en curso de la carga")
+                .tag("carga", carga.getNombre())
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.carga.encoladas", permisos, Semaphore::getQueueLength)
+                .description("Peticiones esperando un hueco en la carga")
+                .tag("carga", carga.getNombre())
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.carga.saturacion", this, WorkloadBulkhead::getSaturacion)
+                .description("Fracción del límite de concurrencia en uso (1 = saturado)")
+                .tag("carga", carga.getNombre())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Espera un hueco como máximo esperaMaximaMs; devuelve false si la carga sigue saturada
+     */
+    boolean adquirir() throws InterruptedException {
+        long inicio = System.nanoTime();
+        boolean adquirido = permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        esperaTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (!adquirido) {
+            rechazadasCounter.increment();
+        }
+        return adquirido;
+    }
+
+    void liberar() {
+        permisos.release();
+    }
+
+    CargaTrabajo getCarga() {
+        return carga;
+    }
+
+    int getActivas() {
+        return maxConcurrentes - permisos.availablePermits();
+    }
+
+    double getSaturacion() {
+        return maxConcurrentes == 0 ? 1.0 : (double) getActivas() / maxConcurrentes;
+    }
+}
@@ -0,0 +1,39 @@
+package com.monitoreo.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Separación de cargas de trabajo: compartimentos por método de controlador
+ * y planificador propio para los trabajos de fondo
+ */
+@Configuration
+@EnableConfigurationProperties(WorkloadProperties.class)
+public class WorkloadConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private WorkloadInterceptor workloadInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(workloadInterceptor);
+    }
+
+    /**
+     * Planificador de los @Scheduled (archivado, retención, chequeos): sus tareas
+     * corren como SEGUNDO_PLANO y usan ese pool de conexiones
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(WorkloadProperties properties) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.getHilosSegundoPlano());
+        scheduler.setThreadNamePrefix("segundo-plano-");
+        scheduler.setTaskDecorator(WorkloadContext.decorador(CargaTrabajo.SEGUNDO_PLANO));
+        return scheduler;
+    }
+}
@@ -0,0 +1,48 @@
+package com.monitoreo.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Carga de trabajo del hilo actual, usada para elegir el pool de conexiones
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<CargaTrabajo> CARGA_ACTUAL = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    /**
+     * Carga del hilo actual, o null si el hilo no está clasificado
+     */
+    public static CargaTrabajo actual() {
+        return CARGA_ACTUAL.get();
+    }
+
+    public static void establecer(CargaTrabajo carga) {
+        CARGA_ACTUAL.set(carga);
+    }
+
+    public static void limpiar() {
+        CARGA_ACTUAL.remove();
+    }
+
+    /**
+     * Decorador que ejecuta cada tarea de un executor con la carga indicada
+     */
+    public static TaskDecorator decorador(CargaTrabajo carga) {
+        return tarea -> () -> {
+            CargaTrabajo anterior = CARGA_ACTUAL.get();
+            CARGA_ACTUAL.set(carga);
+            try {
+                tarea.run();
+            } finally {
+                if (anterior == null) {
+                    CARGA_ACTUAL.remove();
+                } else {
+                    CARGA_ACTUAL.set(anterior);
+                }
+            }
+        };
+    }
+}
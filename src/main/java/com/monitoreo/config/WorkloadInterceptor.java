@@ -0,0 +1,82 @@
+package com.monitoreo.config;
+
+import com.monitoreo.exception.CargaSaturadaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Clasifica cada petición por el método de controlador que la atiende (@Workload),
+ * la hace pasar por el compartimento de su carga y deja la carga en el hilo
+ * para que el acceso a datos use el pool correspondiente
+ */
+@Component
+public class WorkloadInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadInterceptor.class);
+
+    private static final String ATRIBUTO_BULKHEAD = WorkloadInterceptor.class.getName() + ".bulkhead";
+
+    private final boolean habilitado;
+    private final Map<CargaTrabajo, WorkloadBulkhead> bulkheads = new EnumMap<>(CargaTrabajo.class);
+
+    public WorkloadInterceptor(WorkloadProperties properties, MeterRegistry meterRegistry) {
+        this.habilitado = properties.isHabilitado();
+        for (CargaTrabajo carga : CargaTrabajo.values()) {
+            bulkheads.put(carga, new WorkloadBulkhead(carga, properties.get(carga), meterRegistry));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        CargaTrabajo carga = resolverCarga(handlerMethod, request.getMethod());
+
+        if (habilitado) {
+            WorkloadBulkhead bulkhead = bulkheads.get(carga);
+            if (!bulkhead.adquirir()) {
+                logger.warn("Carga {} saturada, se rechaza {} {}", carga.getNombre(), request.getMethod(), request.getRequestURI());
+                throw new CargaSaturadaException(carga.getNombre());
+            }
+            request.setAttribute(ATRIBUTO_BULKHEAD, bulkhead);
+        }
+        WorkloadContext.establecer(carga);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        WorkloadContext.limpiar();
+        Object bulkhead = request.getAttribute(ATRIBUTO_BULKHEAD);
+        if (bulkhead != null) {
+            request.removeAttribute(ATRIBUTO_BULKHEAD);
+            ((WorkloadBulkhead) bulkhead).liberar();
+        }
+    }
+
+    static CargaTrabajo resolverCarga(HandlerMethod handlerMethod, String metodoHttp) {
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), Workload.class);
+        }
+        if (workload != null) {
+            return workload.value();
+        }
+        return "GET".equals(metodoHttp) || "HEAD".equals(metodoHttp) ? CargaTrabajo.CONSULTA : CargaTrabajo.INGESTA;
+    }
+
+    WorkloadBulkhead getBulkhead(CargaTrabajo carga) {
+        return bulkheads.get(carga);
+    }
+}
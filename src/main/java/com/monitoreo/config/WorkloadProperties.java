@@ -0,0 +1,62 @@
+package com.monitoreo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Límites por carga de trabajo (monitoreo.carga): concurrencia de peticiones y pool de conexiones
+ */
+@Data
+@ConfigurationProperties(prefix = "monitoreo.carga")
+public class WorkloadProperties {
+
+    /** Limita las peticiones concurrentes de cada carga en los controladores */
+    private boolean habilitado = true;
+
+    /** Un pool de conexiones a la primaria por carga en lugar de uno compartido */
+    private boolean poolsSeparados = false;
+
+    /** Hilos del planificador de trabajos de fondo (@Scheduled) */
+    private int hilosSegundoPlano = 2;
+
+    private Carga ingesta = new Carga(150, 1000, 12, 2, 2000);
+
+    private Carga consulta = new Carga(40, 2000, 6, 1, 5000);
+
+    private Carga segundoPlano = new Carga(2, 5000, 2, 0, 30000);
+
+    public Carga get(CargaTrabajo carga) {
+        return switch (carga) {
+            case INGESTA -> ingesta;
+            case CONSULTA -> consulta;
+            case SEGUNDO_PLANO -> segundoPlano;
+        };
+    }
+
+    @Data
+    public static class Carga {
+
+        /** Peticiones concurrentes admitidas antes de encolar */
+        private int maxConcurrentes;
+
+        /** Espera máxima por un hueco antes de responder 503 */
+        private long esperaMaximaMs;
+
+        private int maximumPoolSize;
+
+        private int minimumIdle;
+
+        private long connectionTimeout;
+
+        public Carga() {
+        }
+
+        Carga(int maxConcurrentes, long esperaMaximaMs, int maximumPoolSize, int minimumIdle, long connectionTimeout) {
+            this.maxConcurrentes = maxConcurrentes;
+            this.esperaMaximaMs = esperaMaximaMs;
+            this.maximumPoolSize = maximumPoolSize;
+            this.minimumIdle = minimumIdle;
+            this.connectionTimeout = connectionTimeout;
+        }
+    }
+}
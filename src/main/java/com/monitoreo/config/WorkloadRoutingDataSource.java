@@ -0,0 +1,44 @@
+package com.monitoreo.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DataSource que entrega a cada carga de trabajo conexiones de su propio pool.
+ * Los hilos sin carga asignada (arranque, tareas internas) usan el pool de segundo plano.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final Map<CargaTrabajo, DataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<CargaTrabajo, DataSource> pools) {
+        for (CargaTrabajo carga : CargaTrabajo.values()) {
+            if (!pools.containsKey(carga)) {
+                throw new IllegalArgumentException("Falta el pool de la carga " + carga.getNombre());
+            }
+        }
+        this.pools = pools;
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(CargaTrabajo.SEGUNDO_PLANO));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        CargaTrabajo carga = WorkloadContext.actual();
+        return carga != null ? carga : CargaTrabajo.SEGUNDO_PLANO;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource pool : pools.values()) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.monitoreo.controller;
+
+import com.monitoreo.config.CargaTrabajo;
+import com.monitoreo.config.Workload;
+import com.monitoreo.model.RegistroAuditoria;
+import com.monitoreo.service.AuditService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta del rastro de auditoría con paginación por clave: cada respuesta incluye el id
+ * a pasar como antesDe para obtener la página siguiente (más antigua)
+ */
+@RestController
+@RequestMapping("/api/monitoreo/auditoria")
+@CrossOrigin(origins = "*")
+@Workload(CargaTrabajo.CONSULTA)
+public class AuditoriaController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaController.class);
+
+    @Autowired
+    private AuditService auditService;
+
+    /**
+     * GET - Registros de auditoría del más reciente al más antiguo
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerRegistros(
+            @RequestParam(required = false) Long antesDe,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) String usuario,
+            @RequestParam(defaultValue = "50") int limite) {
+
+        logger.debug("Consultando auditoría antes de {} (tipo {}, límite {})", antesDe, tipo, limite);
+        if (limite <= 0 || (antesDe != null && antesDe <= 0)) {
+            throw new IllegalArgumentException("El límite y antesDe deben ser positivos");
+        }
+
+        List<RegistroAuditoria> registros = auditService.consultar(antesDe, tipo, usuario, limite);
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("registros", registros);
+        respuesta.put("siguiente", registros.size() < Math.min(limite, AuditService.LIMITE_MAXIMO)
+                ? null : registros.get(registros.size() - 1).getId());
+        return ResponseEntity.ok(respuesta);
+    }
+}
@@ -1,6 +1,6 @@
 package com.monitoreo.controller;
 
-import com.monitoreo.config.CorrelationIdFilter;
+import com.monitoreo.config.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,10 +29,10 @@ public class CorrelationTestController {
      */
     @GetMapping("/logs")
     public ResponseEntity<Map<String, Object>> testCorrelationInLogs() {
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
-        String userId = CorrelationIdFilter.getCurrentUserId();
-        String sessionId = CorrelationIdFilter.getCurrentSessionId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
+        String userId = RequestContext.getCurrentUserId();
+        String sessionId = RequestContext.getCurrentSessionId();
 
         logger.debug("Log de DEBUG - CorrelationId: {}, RequestId: {}", correlationId, requestId);
         logger.info("Log de INFO - CorrelationId: {}, RequestId: {}", correlationId, requestId);
@@ -57,8 +57,8 @@ public class CorrelationTestController {
     public ResponseEntity<Map<String, Object>> testCorrelationPropagation(
             @RequestParam(defaultValue = "http://localhost:8080") String targetUrl) {
         
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
 
         logger.info("Iniciando prueba de propagación - CorrelationId: {}, RequestId: {}, Target: {}", 
                    correlationId, requestId, targetUrl);
@@ -101,10 +101,10 @@ public class CorrelationTestController {
      */
     @GetMapping("/info")
     public ResponseEntity<Map<String, Object>> getCorrelationInfo() {
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
-        String userId = CorrelationIdFilter.getCurrentUserId();
-        String sessionId = CorrelationIdFilter.getCurrentSessionId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
+        String userId = RequestContext.getCurrentUserId();
+        String sessionId = RequestContext.getCurrentSessionId();
 
         Map<String, Object> info = new HashMap<>();
         info.put("correlationId", correlationId);
@@ -134,8 +134,8 @@ public class CorrelationTestController {
             @RequestParam(required = false) String requestId,
             @RequestParam(required = false) String userId) {
         
-        String currentCorrelationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String currentRequestId = CorrelationIdFilter.getCurrentRequestId();
+        String currentCorrelationId = RequestContext.getCurrentCorrelationId();
+        String currentRequestId = RequestContext.getCurrentRequestId();
 
         logger.info("Prueba con correlation personalizado - Current: {}, Custom: {}", 
                    currentCorrelationId, correlationId);
@@ -156,8 +156,8 @@ public class CorrelationTestController {
      */
     @GetMapping("/levels")
     public ResponseEntity<Map<String, Object>> testLogLevels() {
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
 
         // Generar logs con diferentes niveles
         logger.trace("TRACE - CorrelationId: {}, RequestId: {}", correlationId, requestId);
@@ -1,15 +1,25 @@
 package com.monitoreo.controller;
 
 import com.monitoreo.dto.EventoMonitoreoRequest;
+import com.monitoreo.exception.CambioShardException;
 import com.monitoreo.exception.EventoNotFoundException;
+import com.monitoreo.exception.IdAmbiguoException;
 import com.monitoreo.exception.InvalidEventoException;
 import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.service.AggregateResultCache;
 import com.monitoreo.repository.EventoMonitoreoRepository;
+import com.monitoreo.service.EventoArchiveService;
+import com.monitoreo.service.EventoWalService;
+import com.monitoreo.service.EventosHealthIndicator;
 import com.monitoreo.service.MonitoreoService;
+import com.monitoreo.service.ShardedEventoService;
+import com.monitoreo.service.SingleFlight;
 import com.monitoreo.validation.EventoMonitoreoValidator;
 import com.monitoreo.service.MetricsService;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,10 +30,13 @@ import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.monitoreo.config.CorrelationIdFilter;
+import com.monitoreo.config.CargaTrabajo;
+import com.monitoreo.config.RequestContext;
+import com.monitoreo.config.Workload;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,13 +49,11 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/api/monitoreo/eventos")
 @CrossOrigin(origins = "*")
+@Workload(CargaTrabajo.CONSULTA)
 public class EventoMonitoreoController {
 
     private static final Logger logger = LoggerFactory.getLogger(EventoMonitoreoController.class);
 
-    @Autowired
-    private EventoMonitoreoRepository eventoMonitoreoRepository;
-
     @Autowired
     private MonitoreoService monitoreoService;
 
@@ -55,15 +66,34 @@ public class EventoMonitoreoController {
     @Autowired
     private MetricsService metricsService;
 
+    @Autowired
+    private EventoArchiveService eventoArchiveService;
+
+    @Autowired
+    private EventoWalService eventoWalService;
+
+    @Autowired
+    private ShardedEventoService shardedEventoService;
+
+    @Autowired
+    private EventosHealthIndicator eventosHealthIndicator;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private AggregateResultCache aggregateResultCache;
+
     // ==================== CREATE ====================
 
     /**
      * POST - Crear un nuevo evento de monitoreo con validaciones mejoradas
      */
+    @Workload(CargaTrabajo.INGESTA)
     @PostMapping
     public ResponseEntity<EventoMonitoreo> crearEvento(@Valid @RequestBody EventoMonitoreoRequest request) {
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
         
         logger.info("Creando nuevo evento de monitoreo - CorrelationId: {}, RequestId: {}, EventType: {}", 
                    correlationId, requestId, request.getEventType());
@@ -89,7 +119,30 @@ public class EventoMonitoreoController {
                 evento.setMetadata(new HashMap<>());
             }
             
-            EventoMonitoreo eventoGuardado = eventoMonitoreoRepository.save(evento);
+            metricsService.registrarIngesta(evento);
+            
+            // El evento se hace durable en el WAL antes de tocar PostgreSQL
+            long secuenciaWal = eventoWalService.registrar(evento);
+            if (eventoWalService.hayPendientes()) {
+                // Hay eventos anteriores sin replicar: se respeta el orden y no se espera a la base de datos
+                eventoWalService.diferir(secuenciaWal);
+                return aceptarEventoDiferido(evento, correlationId, requestId);
+            }
+
+            EventoMonitoreo eventoGuardado;
+            try {
+                eventoGuardado = shardedEventoService.guardar(evento);
+            } catch (RuntimeException e) {
+                if (!EventoWalService.esFallaTransitoria(e)) {
+                    eventoWalService.descartar(secuenciaWal);
+                    throw e;
+                }
+                logger.warn("PostgreSQL no disponible, evento diferido al WAL - CorrelationId: {}, RequestId: {}, Error: {}",
+                           correlationId, requestId, e.getMessage());
+                eventoWalService.diferir(secuenciaWal);
+                return aceptarEventoDiferido(evento, correlationId, requestId);
+            }
+            eventoWalService.confirmar(secuenciaWal);
             
             // Registrar métricas
             metricsService.incrementarEventosCreados();
@@ -134,9 +187,37 @@ public class EventoMonitoreoController {
         }
     }
 
+    /**
+     * Respuesta 202 para un evento que ya es durable en el WAL pero aún no está en PostgreSQL
+     */
+    private ResponseEntity<EventoMonitoreo> aceptarEventoDiferido(EventoMonitoreo evento, String correlationId, String requestId) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("eventType", evento.getEventType());
+        metadata.put("serviceName", evento.getServiceName());
+        metadata.put("correlationId", correlationId);
+        metadata.put("requestId", requestId);
+
+        monitoreoService.logEvent("EVENTO_DIFERIDO", "Evento aceptado en el WAL, pendiente de replicación", metadata);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(evento);
+    }
+
+    /**
+     * Respuesta 202 para un lote que ya es durable en el WAL pero aún no está en PostgreSQL
+     */
+    private ResponseEntity<List<EventoMonitoreo>> aceptarLoteDiferido(List<EventoMonitoreo> eventos) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("cantidadEventos", eventos.size());
+
+        monitoreoService.logEvent("EVENTOS_BATCH_DIFERIDOS", "Lote aceptado en el WAL, pendiente de replicación", metadata);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(eventos);
+    }
+
     /**
      * POST - Crear múltiples eventos de monitoreo con validaciones
      */
+    @Workload(CargaTrabajo.INGESTA)
     @PostMapping("/batch")
     public ResponseEntity<List<EventoMonitoreo>> crearEventosBatch(@Valid @RequestBody List<EventoMonitoreoRequest> requests) {
         logger.info("Creando {} eventos de monitoreo en lote", requests.size());
@@ -168,8 +249,32 @@ public class EventoMonitoreoController {
                     return evento;
                 })
                 .toList();
+            eventos.forEach(metricsService::registrarIngesta);
+            
+            // Igual que en la creación individual: el lote es durable en el WAL antes de tocar PostgreSQL
+            List<Long> secuenciasWal = new ArrayList<>(eventos.size());
+            for (EventoMonitoreo evento : eventos) {
+                secuenciasWal.add(eventoWalService.registrar(evento));
+            }
+            if (eventoWalService.hayPendientes()) {
+                secuenciasWal.forEach(eventoWalService::diferir);
+                return aceptarLoteDiferido(eventos);
+            }
             
-            List<EventoMonitoreo> eventosGuardados = eventoMonitoreoRepository.saveAll(eventos);
+            List<EventoMonitoreo> eventosGuardados;
+            try {
+                eventosGuardados = shardedEventoService.guardarTodos(eventos);
+            } catch (RuntimeException e) {
+                if (!EventoWalService.esFallaTransitoria(e)) {
+                    secuenciasWal.forEach(eventoWalService::descartar);
+                    throw e;
+                }
+                // Con varios shards parte del lote pudo guardarse: el replicador lo repite (al menos una vez)
+                logger.warn("PostgreSQL no disponible, lote de {} eventos diferido al WAL: {}", eventos.size(), e.getMessage());
+                secuenciasWal.forEach(eventoWalService::diferir);
+                return aceptarLoteDiferido(eventos);
+            }
+            secuenciasWal.forEach(eventoWalService::confirmar);
             
             Map<String, Object> metadata = new HashMap<>();
             metadata.put("cantidadEventos", eventosGuardados.size());
@@ -198,8 +303,8 @@ public class EventoMonitoreoController {
             @RequestParam(defaultValue = "timestamp") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
         
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
         
         logger.info("Obteniendo eventos - CorrelationId: {}, RequestId: {}, Página: {}, Tamaño: {}, Ordenado por: {}", 
                    correlationId, requestId, page, size, sortBy);
@@ -219,7 +324,8 @@ public class EventoMonitoreoController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<EventoMonitoreo> eventos = eventoMonitoreoRepository.findAllByOrderByTimestampDesc(pageable);
+            Page<EventoMonitoreo> eventos = shardedEventoService.buscarPaginaEnTodos(pageable,
+                    EventoMonitoreoRepository::findAllByOrderByTimestampDesc);
             
             // Registrar métricas
             metricsService.incrementarEventosConsultados();
@@ -256,7 +362,7 @@ public class EventoMonitoreoController {
                 throw new IllegalArgumentException("El ID debe ser un número positivo");
             }
             
-            Optional<EventoMonitoreo> evento = eventoMonitoreoRepository.findById(id);
+            Optional<EventoMonitoreo> evento = shardedEventoService.buscarPorId(id);
             
             if (evento.isPresent()) {
                 return ResponseEntity.ok(evento.get());
@@ -266,7 +372,7 @@ public class EventoMonitoreoController {
         } catch (IllegalArgumentException e) {
             logger.warn("ID inválido: {}", e.getMessage());
             throw e;
-        } catch (EventoNotFoundException e) {
+        } catch (EventoNotFoundException | IdAmbiguoException e) {
             throw e;
         } catch (Exception e) {
             logger.error("Error al obtener evento por ID: {}", id, e);
@@ -298,7 +404,8 @@ public class EventoMonitoreoController {
             }
             
             Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-            Page<EventoMonitoreo> eventos = eventoMonitoreoRepository.findByEventTypeOrderByTimestampDesc(eventType, pageable);
+            Page<EventoMonitoreo> eventos = shardedEventoService.buscarPaginaEnTodos(pageable,
+                    (repository, pagina) -> repository.findByEventTypeOrderByTimestampDesc(eventType, pagina));
             
             return ResponseEntity.ok(eventos);
         } catch (IllegalArgumentException e) {
@@ -334,7 +441,9 @@ public class EventoMonitoreoController {
             }
             
             Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-            Page<EventoMonitoreo> eventos = eventoMonitoreoRepository.findByServiceNameOrderByTimestampDesc(serviceName, pageable);
+            // Todos los eventos de un servicio viven en su shard
+            Page<EventoMonitoreo> eventos = shardedEventoService.enShard(serviceName,
+                    repository -> repository.findByServiceNameOrderByTimestampDesc(serviceName, pageable));
             
             return ResponseEntity.ok(eventos);
         } catch (IllegalArgumentException e) {
@@ -371,7 +480,7 @@ public class EventoMonitoreoController {
                 throw new IllegalArgumentException("El nivel debe ser INFO, WARN, ERROR, DEBUG o TRACE");
             }
             
-            List<EventoMonitoreo> eventos = eventoMonitoreoRepository.findByLevel(level);
+            List<EventoMonitoreo> eventos = shardedEventoService.buscarEnTodos(repository -> repository.findByLevel(level));
             return ResponseEntity.ok(eventos);
         } catch (IllegalArgumentException e) {
             logger.warn("Nivel inválido: {}", e.getMessage());
@@ -390,7 +499,7 @@ public class EventoMonitoreoController {
         logger.info("Obteniendo eventos por usuario: {}", userId);
         
         try {
-            List<EventoMonitoreo> eventos = eventoMonitoreoRepository.findByUserId(userId);
+            List<EventoMonitoreo> eventos = shardedEventoService.buscarEnTodos(repository -> repository.findByUserId(userId));
             return ResponseEntity.ok(eventos);
         } catch (Exception e) {
             logger.error("Error al obtener eventos por usuario: {}", userId, e);
@@ -412,7 +521,9 @@ public class EventoMonitoreoController {
             LocalDateTime fechaInicio = LocalDateTime.parse(inicio);
             LocalDateTime fechaFin = LocalDateTime.parse(fin);
             
-            List<EventoMonitoreo> eventos = eventoMonitoreoRepository.findByTimestampBetween(fechaInicio, fechaFin);
+            List<EventoMonitoreo> eventos = shardedEventoService.buscarEnTodos(
+                    repository -> repository.findByTimestampBetween(fechaInicio, fechaFin));
+            eventos = eventoArchiveService.combinarConArchivo(eventos, fechaInicio, fechaFin);
             return ResponseEntity.ok(eventos);
         } catch (Exception e) {
             logger.error("Error al obtener eventos por fecha", e);
@@ -428,7 +539,8 @@ public class EventoMonitoreoController {
         logger.info("Obteniendo eventos críticos");
         
         try {
-            List<EventoMonitoreo> eventos = eventoMonitoreoRepository.findCriticalEvents();
+            List<EventoMonitoreo> eventos = singleFlight.ejecutar("criticos", Map.of(),
+                    () -> shardedEventoService.buscarEnTodos(EventoMonitoreoRepository::findCriticalEvents));
             return ResponseEntity.ok(eventos);
         } catch (Exception e) {
             logger.error("Error al obtener eventos críticos", e);
@@ -446,8 +558,11 @@ public class EventoMonitoreoController {
         logger.info("Obteniendo eventos de las últimas {} horas", horas);
         
         try {
-            LocalDateTime desde = LocalDateTime.now().minusHours(horas);
-            List<EventoMonitoreo> eventos = eventoMonitoreoRepository.findRecentEvents(desde);
+            List<EventoMonitoreo> eventos = singleFlight.ejecutar("recientes", Map.of("horas", horas), () -> {
+                LocalDateTime desde = LocalDateTime.now().minusHours(horas);
+                List<EventoMonitoreo> calientes = shardedEventoService.buscarEnTodos(repository -> repository.findRecentEvents(desde));
+                return eventoArchiveService.combinarConArchivo(calientes, desde, LocalDateTime.now());
+            });
             return ResponseEntity.ok(eventos);
         } catch (Exception e) {
             logger.error("Error al obtener eventos recientes", e);
@@ -460,6 +575,7 @@ public class EventoMonitoreoController {
     /**
      * PUT - Actualizar un evento completo
      */
+    @Workload(CargaTrabajo.INGESTA)
     @PutMapping("/{id}")
     public ResponseEntity<EventoMonitoreo> actualizarEvento(
             @PathVariable Long id, 
@@ -468,12 +584,13 @@ public class EventoMonitoreoController {
         logger.info("Actualizando evento con ID: {}", id);
         
         try {
-            if (!eventoMonitoreoRepository.existsById(id)) {
+            Optional<EventoMonitoreo> existente = shardedEventoService.buscarPorId(id);
+            if (existente.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
             evento.setId(id);
-            EventoMonitoreo eventoActualizado = eventoMonitoreoRepository.save(evento);
+            EventoMonitoreo eventoActualizado = shardedEventoService.actualizar(existente.get(), evento);
             
             // Registrar en el servicio de logging
             Map<String, Object> metadata = new HashMap<>();
@@ -483,6 +600,8 @@ public class EventoMonitoreoController {
             monitoreoService.logEvent("EVENTO_ACTUALIZADO", "Evento de monitoreo actualizado", metadata);
             
             return ResponseEntity.ok(eventoActualizado);
+        } catch (CambioShardException | IdAmbiguoException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error al actualizar evento con ID: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -492,6 +611,7 @@ public class EventoMonitoreoController {
     /**
      * PATCH - Actualizar parcialmente un evento
      */
+    @Workload(CargaTrabajo.INGESTA)
     @PatchMapping("/{id}")
     public ResponseEntity<EventoMonitoreo> actualizarEventoParcial(
             @PathVariable Long id, 
@@ -500,7 +620,7 @@ public class EventoMonitoreoController {
         logger.info("Actualizando parcialmente evento con ID: {}", id);
         
         try {
-            Optional<EventoMonitoreo> eventoOpt = eventoMonitoreoRepository.findById(id);
+            Optional<EventoMonitoreo> eventoOpt = shardedEventoService.buscarPorId(id);
             
             if (!eventoOpt.isPresent()) {
                 return ResponseEntity.notFound().build();
@@ -521,7 +641,7 @@ public class EventoMonitoreoController {
                 evento.setMetadata(metadata);
             }
             
-            EventoMonitoreo eventoActualizado = eventoMonitoreoRepository.save(evento);
+            EventoMonitoreo eventoActualizado = shardedEventoService.guardar(evento);
             
             // Registrar en el servicio de logging
             Map<String, Object> metadata = new HashMap<>();
@@ -531,6 +651,8 @@ public class EventoMonitoreoController {
             monitoreoService.logEvent("EVENTO_ACTUALIZADO_PARCIAL", "Evento de monitoreo actualizado parcialmente", metadata);
             
             return ResponseEntity.ok(eventoActualizado);
+        } catch (IdAmbiguoException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error al actualizar parcialmente evento con ID: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -542,10 +664,11 @@ public class EventoMonitoreoController {
     /**
      * DELETE - Eliminar un evento por ID
      */
+    @Workload(CargaTrabajo.INGESTA)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminarEvento(@PathVariable Long id) {
-        String correlationId = CorrelationIdFilter.getCurrentCorrelationId();
-        String requestId = CorrelationIdFilter.getCurrentRequestId();
+        String correlationId = RequestContext.getCurrentCorrelationId();
+        String requestId = RequestContext.getCurrentRequestId();
         
         logger.info("Eliminando evento - CorrelationId: {}, RequestId: {}, EventoId: {}", 
                    correlationId, requestId, id);
@@ -555,11 +678,7 @@ public class EventoMonitoreoController {
                 throw new IllegalArgumentException("El ID debe ser un número positivo");
             }
             
-            Optional<EventoMonitoreo> evento = eventoMonitoreoRepository.findById(id);
-            
-            if (evento.isPresent()) {
-                eventoMonitoreoRepository.deleteById(id);
-                
+            if (shardedEventoService.eliminarPorId(id)) {
                 // Registrar métricas
                 metricsService.incrementarEventosEliminados();
                 
@@ -574,7 +693,7 @@ public class EventoMonitoreoController {
                        correlationId, requestId, e.getMessage());
             metricsService.incrementarErroresValidacion();
             throw e;
-        } catch (EventoNotFoundException e) {
+        } catch (EventoNotFoundException | IdAmbiguoException e) {
             throw e;
         } catch (Exception e) {
             logger.error("Error al eliminar evento - CorrelationId: {}, RequestId: {}, EventoId: {}, Error: {}", 
@@ -587,15 +706,17 @@ public class EventoMonitoreoController {
     /**
      * DELETE - Eliminar eventos por tipo
      */
+    @Workload(CargaTrabajo.SEGUNDO_PLANO)
     @DeleteMapping("/tipo/{eventType}")
     public ResponseEntity<Map<String, Object>> eliminarEventosPorTipo(@PathVariable String eventType) {
         logger.info("Eliminando eventos por tipo: {}", eventType);
         
         try {
-            List<EventoMonitoreo> eventosAEliminar = eventoMonitoreoRepository.findByEventType(eventType);
-            long cantidadEliminados = eventosAEliminar.size();
-            
-            eventoMonitoreoRepository.deleteAll(eventosAEliminar);
+            long cantidadEliminados = shardedEventoService.eliminarEnTodos(repository -> {
+                List<EventoMonitoreo> eventosAEliminar = repository.findByEventType(eventType);
+                repository.deleteAll(eventosAEliminar);
+                return eventosAEliminar.size();
+            });
             
             // Registrar en el servicio de logging
             Map<String, Object> metadata = new HashMap<>();
@@ -619,6 +740,7 @@ public class EventoMonitoreoController {
     /**
      * DELETE - Eliminar eventos por rango de fechas
      */
+    @Workload(CargaTrabajo.SEGUNDO_PLANO)
     @DeleteMapping("/fecha")
     public ResponseEntity<Map<String, Object>> eliminarEventosPorFecha(
             @RequestParam String inicio,
@@ -630,10 +752,11 @@ public class EventoMonitoreoController {
             LocalDateTime fechaInicio = LocalDateTime.parse(inicio);
             LocalDateTime fechaFin = LocalDateTime.parse(fin);
             
-            List<EventoMonitoreo> eventosAEliminar = eventoMonitoreoRepository.findByTimestampBetween(fechaInicio, fechaFin);
-            long cantidadEliminados = eventosAEliminar.size();
-            
-            eventoMonitoreoRepository.deleteAll(eventosAEliminar);
+            long cantidadEliminados = shardedEventoService.eliminarEnTodos(repository -> {
+                List<EventoMonitoreo> eventosAEliminar = repository.findByTimestampBetween(fechaInicio, fechaFin);
+                repository.deleteAll(eventosAEliminar);
+                return eventosAEliminar.size();
+            });
             
             // Registrar en el servicio de logging
             Map<String, Object> metadata = new HashMap<>();
@@ -659,13 +782,17 @@ public class EventoMonitoreoController {
     /**
      * DELETE - Eliminar todos los eventos
      */
+    @Workload(CargaTrabajo.SEGUNDO_PLANO)
     @DeleteMapping("/todos")
     public ResponseEntity<Map<String, Object>> eliminarTodosLosEventos() {
         logger.warn("Eliminando TODOS los eventos de monitoreo");
         
         try {
-            long cantidadTotal = eventoMonitoreoRepository.count();
-            eventoMonitoreoRepository.deleteAll();
+            long cantidadTotal = shardedEventoService.eliminarEnTodos(repository -> {
+                long cantidad = repository.count();
+                repository.deleteAll();
+                return cantidad;
+            });
             
             // Registrar en el servicio de logging
             Map<String, Object> metadata = new HashMap<>();
@@ -694,42 +821,52 @@ public class EventoMonitoreoController {
         logger.info("Obteniendo estadísticas de eventos");
         
         try {
-            Map<String, Object> estadisticas = new HashMap<>();
-            estadisticas.put("totalEventos", eventoMonitoreoRepository.count());
-            estadisticas.put("eventosError", eventoMonitoreoRepository.countByLevel("ERROR"));
-            estadisticas.put("eventosInfo", eventoMonitoreoRepository.countByLevel("INFO"));
-            estadisticas.put("eventosWarning", eventoMonitoreoRepository.countByLevel("WARN"));
-            estadisticas.put("eventosCritical", eventoMonitoreoRepository.countByLevel("CRITICAL"));
-            estadisticas.put("timestamp", LocalDateTime.now());
-            
-            // Estadísticas por tipo de evento
-            List<Object[]> estadisticasPorTipo = eventoMonitoreoRepository.getEventTypeStatistics();
-            Map<String, Long> eventosPorTipo = new HashMap<>();
-            for (Object[] stat : estadisticasPorTipo) {
-                eventosPorTipo.put((String) stat[0], (Long) stat[1]);
-            }
-            estadisticas.put("eventosPorTipo", eventosPorTipo);
-            
-            return ResponseEntity.ok(estadisticas);
+            // Resultado de la cubeta de tiempo actual; los fallos concurrentes comparten un único cálculo
+            Map<String, Object> estadisticas = aggregateResultCache.obtener("estadisticas", Map.of(), this::calcularEstadisticas);
+            return ResponseEntity.ok()
+                    .cacheControl(aggregateResultCache.cacheControl("estadisticas"))
+                    .body(estadisticas);
         } catch (Exception e) {
             logger.error("Error al obtener estadísticas", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    private Map<String, Object> calcularEstadisticas() {
+        Map<String, Object> estadisticas = new HashMap<>();
+        // Cada shard calcula sus conteos en paralelo y aquí se suman
+        estadisticas.put("totalEventos", shardedEventoService.contarEnTodos(EventoMonitoreoRepository::count));
+        estadisticas.put("eventosError", shardedEventoService.contarEnTodos(repository -> repository.countByLevel("ERROR")));
+        estadisticas.put("eventosInfo", shardedEventoService.contarEnTodos(repository -> repository.countByLevel("INFO")));
+        estadisticas.put("eventosWarning", shardedEventoService.contarEnTodos(repository -> repository.countByLevel("WARN")));
+        estadisticas.put("eventosCritical", shardedEventoService.contarEnTodos(repository -> repository.countByLevel("CRITICAL")));
+        estadisticas.put("timestamp", LocalDateTime.now());
+        
+        // Estadísticas por tipo de evento
+        estadisticas.put("eventosPorTipo", aggregateResultCache.obtener("estadisticas-por-tipo", Map.of(),
+                shardedEventoService::estadisticasPorTipo));
+        return estadisticas;
+    }
+
     /**
      * GET - Health check específico para eventos
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
-        logger.info("Health check para eventos de monitoreo");
+        logger.debug("Health check para eventos de monitoreo");
         
+        // Instantánea refrescada en segundo plano: sin count() ni conexiones por petición
+        Health salud = eventosHealthIndicator.health();
         Map<String, Object> healthStatus = new HashMap<>();
-        healthStatus.put("status", "UP");
+        healthStatus.put("status", salud.getStatus().getCode());
         healthStatus.put("service", "eventos_monitoreo");
         healthStatus.put("timestamp", LocalDateTime.now());
-        healthStatus.put("totalEventos", eventoMonitoreoRepository.count());
+        healthStatus.put("totalEventos", salud.getDetails().get("filasAproximadas"));
+        healthStatus.put("totalAproximado", true);
+        healthStatus.put("actualizado", salud.getDetails().get("actualizado"));
         
-        return ResponseEntity.ok(healthStatus);
+        // Los balanceadores solo miran el código: cualquier estado distinto de UP responde 503
+        HttpStatus codigo = Status.UP.equals(salud.getStatus()) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(codigo).body(healthStatus);
     }
 } 
\ No newline at end of file
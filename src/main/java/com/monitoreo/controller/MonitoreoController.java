@@ -1,7 +1,9 @@
 package com.monitoreo.controller;
 
 import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.service.AggregateResultCache;
 import com.monitoreo.service.MonitoreoService;
+import com.monitoreo.service.ShardedEventoService;
 import com.monitoreo.repository.EventoMonitoreoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -32,7 +34,10 @@ public class MonitoreoController {
     private MonitoreoService monitoreoService;
 
     @Autowired
-    private EventoMonitoreoRepository eventoRepository;
+    private ShardedEventoService shardedEventoService;
+
+    @Autowired
+    private AggregateResultCache aggregateResultCache;
 
     /**
      * Endpoint de salud básico
@@ -79,7 +84,7 @@ public class MonitoreoController {
         evento.setServiceName("monitoreo_loggin");
         evento.setTimestamp(LocalDateTime.now());
         
-        EventoMonitoreo eventoGuardado = eventoRepository.save(evento);
+        EventoMonitoreo eventoGuardado = shardedEventoService.guardar(evento);
         
         // Registrar en el servicio de logging
         Map<String, Object> metadata = new HashMap<>();
@@ -102,7 +107,7 @@ public class MonitoreoController {
         
         logger.info("Obteniendo eventos - página: {}, tamaño: {}", page, size);
         Pageable pageable = PageRequest.of(page, size);
-        Page<EventoMonitoreo> eventos = eventoRepository.findAll(pageable);
+        Page<EventoMonitoreo> eventos = shardedEventoService.buscarPaginaEnTodos(pageable, EventoMonitoreoRepository::findAll);
         return ResponseEntity.ok(eventos);
     }
 
@@ -112,7 +117,7 @@ public class MonitoreoController {
     @GetMapping("/eventos-basicos/tipo/{eventType}")
     public ResponseEntity<List<EventoMonitoreo>> obtenerEventosPorTipo(@PathVariable String eventType) {
         logger.info("Obteniendo eventos por tipo: {}", eventType);
-        List<EventoMonitoreo> eventos = eventoRepository.findByEventType(eventType);
+        List<EventoMonitoreo> eventos = shardedEventoService.buscarEnTodos(repository -> repository.findByEventType(eventType));
         return ResponseEntity.ok(eventos);
     }
 
@@ -122,7 +127,7 @@ public class MonitoreoController {
     @GetMapping("/eventos-basicos/nivel/{level}")
     public ResponseEntity<List<EventoMonitoreo>> obtenerEventosPorNivel(@PathVariable String level) {
         logger.info("Obteniendo eventos por nivel: {}", level);
-        List<EventoMonitoreo> eventos = eventoRepository.findByLevel(level);
+        List<EventoMonitoreo> eventos = shardedEventoService.buscarEnTodos(repository -> repository.findByLevel(level));
         return ResponseEntity.ok(eventos);
     }
 
@@ -132,7 +137,7 @@ public class MonitoreoController {
     @GetMapping("/eventos-basicos/{id}")
     public ResponseEntity<EventoMonitoreo> obtenerEventoPorId(@PathVariable Long id) {
         logger.info("Obteniendo evento por ID: {}", id);
-        return eventoRepository.findById(id)
+        return shardedEventoService.buscarPorId(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -144,14 +149,19 @@ public class MonitoreoController {
     public ResponseEntity<Map<String, Object>> obtenerEstadisticas() {
         logger.info("Obteniendo estadísticas de eventos");
         
-        Map<String, Object> estadisticas = new HashMap<>();
-        estadisticas.put("totalEventos", eventoRepository.count());
-        estadisticas.put("eventosError", eventoRepository.countByLevel("ERROR"));
-        estadisticas.put("eventosInfo", eventoRepository.countByLevel("INFO"));
-        estadisticas.put("eventosWarning", eventoRepository.countByLevel("WARN"));
-        estadisticas.put("timestamp", LocalDateTime.now());
+        Map<String, Object> estadisticas = aggregateResultCache.obtener("eventos-basicos-estadisticas", Map.of(), () -> {
+            Map<String, Object> calculadas = new HashMap<>();
+            calculadas.put("totalEventos", shardedEventoService.contarEnTodos(EventoMonitoreoRepository::count));
+            calculadas.put("eventosError", shardedEventoService.contarEnTodos(repository -> repository.countByLevel("ERROR")));
+            calculadas.put("eventosInfo", shardedEventoService.contarEnTodos(repository -> repository.countByLevel("INFO")));
+            calculadas.put("eventosWarning", shardedEventoService.contarEnTodos(repository -> repository.countByLevel("WARN")));
+            calculadas.put("timestamp", LocalDateTime.now());
+            return calculadas;
+        });
         
-        return ResponseEntity.ok(estadisticas);
+        return ResponseEntity.ok()
+                .cacheControl(aggregateResultCache.cacheControl("eventos-basicos-estadisticas"))
+                .body(estadisticas);
     }
 
     /**
@@ -161,8 +171,7 @@ public class MonitoreoController {
     public ResponseEntity<Void> eliminarEvento(@PathVariable Long id) {
         logger.info("Eliminando evento con ID: {}", id);
         
-        if (eventoRepository.existsById(id)) {
-            eventoRepository.deleteById(id);
+        if (shardedEventoService.eliminarPorId(id)) {
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
@@ -0,0 +1,12 @@
+package com.monitoreo.exception;
+
+/**
+ * Excepción lanzada cuando una actualización movería el evento a otro shard
+ */
+public class CambioShardException extends MonitoreoException {
+
+    public CambioShardException(Long id, String shardActual, String shardNuevo) {
+        super("CAMBIO_DE_SHARD", "El evento " + id + " está en el shard '" + shardActual
+                + "' y el nuevo serviceName lo llevaría al shard '" + shardNuevo + "': cree un evento nuevo en su lugar");
+    }
+}
@@ -0,0 +1,18 @@
+package com.monitoreo.exception;
+
+/**
+ * Excepción lanzada cuando una carga de trabajo no admite más peticiones concurrentes
+ */
+public class CargaSaturadaException extends MonitoreoException {
+
+    private final String carga;
+
+    public CargaSaturadaException(String carga) {
+        super("CARGA_SATURADA", "La carga '" + carga + "' está saturada, reintente más tarde");
+        this.carga = carga;
+    }
+
+    public String getCarga() {
+        return carga;
+    }
+}
@@ -3,6 +3,7 @@ package com.monitoreo.exception;
 import com.monitoreo.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -106,6 +107,63 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    /**
+     * Maneja el rechazo por saturación de una carga de trabajo
+     */
+    @ExceptionHandler(CargaSaturadaException.class)
+    public ResponseEntity<ErrorResponse> handleCargaSaturadaException(
+            CargaSaturadaException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getErrorCode(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    /**
+     * Maneja las actualizaciones que moverían un evento a otro shard
+     */
+    @ExceptionHandler(CambioShardException.class)
+    public ResponseEntity<ErrorResponse> handleCambioShardException(
+            CambioShardException ex, WebRequest request) {
+
+        logger.warn("Actualización rechazada: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getErrorCode(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /**
+     * Maneja los ids antiguos que existen en más de un shard
+     */
+    @ExceptionHandler(IdAmbiguoException.class)
+    public ResponseEntity<ErrorResponse> handleIdAmbiguoException(
+            IdAmbiguoException ex, WebRequest request) {
+
+        logger.warn("Id ambiguo entre shards: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getErrorCode(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     /**
      * Maneja excepciones de IllegalArgumentException
      */
@@ -0,0 +1,12 @@
+package com.monitoreo.exception;
+
+/**
+ * Excepción lanzada cuando un id anterior a los rangos por shard existe en más de un shard
+ */
+public class IdAmbiguoException extends MonitoreoException {
+
+    public IdAmbiguoException(Long id, int shards) {
+        super("ID_AMBIGUO", "El evento " + id + " existe en " + shards
+                + " shards: es anterior a los rangos de ids por shard y no se puede resolver por id");
+    }
+}
@@ -0,0 +1,92 @@
+package com.monitoreo.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario de cadenas de baja cardinalidad (tipo de evento, servicio, nivel, claves de metadata).
+ * Asigna a cada valor distinto un código de 16 bits y conserva una única instancia canónica.
+ * Tiene capacidad fija para que valores de alta cardinalidad no lo hagan crecer sin límite.
+ */
+public final class DiccionarioCadenas {
+
+    /** Código reservado para null */
+    public static final char NULO = 0;
+
+    /** Código devuelto cuando el diccionario está lleno */
+    public static final char DESBORDADO = Character.MAX_VALUE;
+
+    private static final int CAPACIDAD_MAXIMA = Character.MAX_VALUE - 1;
+
+    private final int capacidad;
+    private final ConcurrentHashMap<String, Character> codigos = new ConcurrentHashMap<>();
+    private volatile String[] valores = new String[16];
+    private int siguiente = 1;
+
+    public DiccionarioCadenas(int capacidad) {
+        if (capacidad < 1 || capacidad > CAPACIDAD_MAXIMA) {
+            throw new IllegalArgumentException("Capacidad de diccionario fuera de rango: " + capacidad);
+        }
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Devuelve el código del valor, registrándolo si es nuevo
+     */
+    public char codificar(String valor) {
+        if (valor == null) {
+            return NULO;
+        }
+        Character codigo = codigos.get(valor);
+        if (codigo != null) {
+            return codigo;
+        }
+        return registrar(valor);
+    }
+
+    /**
+     * Devuelve el valor canónico de un código, o null para {@link #NULO}
+     */
+    public String decodificar(char codigo) {
+        if (codigo == NULO) {
+            return null;
+        }
+        String[] actuales = valores;
+        if (codigo >= actuales.length || actuales[codigo] == null) {
+            throw new IllegalArgumentException("Código de diccionario desconocido: " + (int) codigo);
+        }
+        return actuales[codigo];
+    }
+
+    /**
+     * Devuelve la instancia canónica del valor, o el propio valor si el diccionario está lleno
+     */
+    public String canonica(String valor) {
+        char codigo = codificar(valor);
+        return codigo == DESBORDADO ? valor : decodificar(codigo);
+    }
+
+    public int getTamano() {
+        return codigos.size();
+    }
+
+    private synchronized char registrar(String valor) {
+        Character existente = codigos.get(valor);
+        if (existente != null) {
+            return existente;
+        }
+        if (siguiente > capacidad) {
+            return DESBORDADO;
+        }
+        char codigo = (char) siguiente++;
+        String[] actuales = valores;
+        if (codigo >= actuales.length) {
+            actuales = Arrays.copyOf(actuales, Math.min(actuales.length * 2, capacidad + 1));
+        }
+        actuales[codigo] = valor;
+        // Se publica el arreglo antes que el código: un lector que vea el código ya ve el valor
+        valores = actuales;
+        codigos.put(valor, codigo);
+        return codigo;
+    }
+}
@@ -0,0 +1,201 @@
+package com.monitoreo.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Representación inmutable y compacta de un evento para lotes, buffers y cachés en memoria.
+ * <ul>
+ *   <li>eventType, serviceName y level se guardan como códigos de 16 bits de diccionarios compartidos</li>
+ *   <li>el timestamp se guarda como microsegundos epoch UTC (la misma precisión que PostgreSQL)</li>
+ *   <li>la metadata es un mapa inmutable compacto; sin metadata no se reserva ningún mapa</li>
+ *   <li>el enmascaramiento calculado al guardar (textos enmascarados, marcas de sensibilidad y versión de
+ *   las reglas) se conserva; las marcas van empaquetadas en un byte</li>
+ * </ul>
+ * No es una entidad JPA: se convierte con {@link #from(EventoMonitoreo)} y {@link #toEntity()}.
+ */
+public final class EventoCompacto {
+
+    private static final int CAPACIDAD_DICCIONARIO = 4096;
+
+    static final DiccionarioCadenas EVENT_TYPES = new DiccionarioCadenas(CAPACIDAD_DICCIONARIO);
+    static final DiccionarioCadenas SERVICIOS = new DiccionarioCadenas(CAPACIDAD_DICCIONARIO);
+    static final DiccionarioCadenas NIVELES = new DiccionarioCadenas(256);
+    static final DiccionarioCadenas CLAVES_METADATA = new DiccionarioCadenas(CAPACIDAD_DICCIONARIO);
+
+    private static final long SIN_VALOR = Long.MIN_VALUE;
+    private static final int SIN_VERSION = Integer.MIN_VALUE;
+
+    // Marcas de sensibilidad: 2 bits por marca (0 = null, 1 = false, 2 = true)
+    private static final int DESPLAZAMIENTO_METADATA = 2;
+
+    private final long id;
+    private final long timestampMicros;
+    private final String message;
+    private final String userId;
+    private final String sessionId;
+    private final Map<String, Object> metadata;
+    private final String maskedMessage;
+    // null si el enmascaramiento no se ha calculado, a diferencia de un mapa vacío
+    private final Map<String, Object> maskedMetadata;
+    private final int maskingVersion;
+    private final byte sensibilidad;
+    private final char eventTypeCodigo;
+    private final char serviceNameCodigo;
+    private final char levelCodigo;
+    // Solo se reserva si algún diccionario está lleno: {eventType, serviceName, level}
+    private final String[] desbordados;
+
+    private EventoCompacto(EventoMonitoreo evento) {
+        this.id = evento.getId() != null ? evento.getId() : SIN_VALOR;
+        this.timestampMicros = evento.getTimestamp() != null ? aMicros(evento.getTimestamp()) : SIN_VALOR;
+        this.message = evento.getMessage();
+        this.userId = evento.getUserId();
+        this.sessionId = evento.getSessionId();
+        this.metadata = MetadataCompacta.de(evento.getMetadata(), CLAVES_METADATA);
+        this.maskedMessage = evento.getMaskedMessage();
+        this.maskedMetadata = evento.getMaskedMetadata() != null
+                ? MetadataCompacta.de(evento.getMaskedMetadata(), CLAVES_METADATA) : null;
+        this.maskingVersion = evento.getMaskingVersion() != null ? evento.getMaskingVersion() : SIN_VERSION;
+        this.sensibilidad = (byte) (marca(evento.getMessageSensitive())
+                | marca(evento.getMetadataSensitive()) << DESPLAZAMIENTO_METADATA);
+        this.eventTypeCodigo = EVENT_TYPES.codificar(evento.getEventType());
+        this.serviceNameCodigo = SERVICIOS.codificar(evento.getServiceName());
+        this.levelCodigo = NIVELES.codificar(evento.getLevel());
+
+        if (eventTypeCodigo == DiccionarioCadenas.DESBORDADO
+                || serviceNameCodigo == DiccionarioCadenas.DESBORDADO
+                || levelCodigo == DiccionarioCadenas.DESBORDADO) {
+            this.desbordados = new String[]{evento.getEventType(), evento.getServiceName(), evento.getLevel()};
+        } else {
+            this.desbordados = null;
+        }
+    }
+
+    public static EventoCompacto from(EventoMonitoreo evento) {
+        return new EventoCompacto(evento);
+    }
+
+    /**
+     * Crea una entidad nueva con metadata mutable, lista para guardarse o serializarse
+     */
+    public EventoMonitoreo toEntity() {
+        EventoMonitoreo evento = new EventoMonitoreo();
+        evento.setId(getId());
+        evento.setEventType(getEventType());
+        evento.setMessage(message);
+        evento.setTimestamp(getTimestamp());
+        evento.setServiceName(getServiceName());
+        evento.setLevel(getLevel());
+        evento.setMetadata(new HashMap<>(metadata));
+        evento.setUserId(userId);
+        evento.setSessionId(sessionId);
+        evento.setMaskedMessage(maskedMessage);
+        evento.setMaskedMetadata(maskedMetadata != null ? new HashMap<>(maskedMetadata) : null);
+        evento.setMessageSensitive(getMessageSensitive());
+        evento.setMetadataSensitive(getMetadataSensitive());
+        evento.setMaskingVersion(getMaskingVersion());
+        return evento;
+    }
+
+    public Long getId() {
+        return id != SIN_VALOR ? id : null;
+    }
+
+    public String getEventType() {
+        return decodificar(EVENT_TYPES, eventTypeCodigo, 0);
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestampMicros != SIN_VALOR ? deMicros(timestampMicros) : null;
+    }
+
+    public String getServiceName() {
+        return decodificar(SERVICIOS, serviceNameCodigo, 1);
+    }
+
+    public String getLevel() {
+        return decodificar(NIVELES, levelCodigo, 2);
+    }
+
+    /**
+     * Metadata inmutable del evento
+     */
+    public Map<String, Object> getMetadata() {
+        return metadata;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getMaskedMessage() {
+        return maskedMessage;
+    }
+
+    /**
+     * Metadata enmascarada inmutable, o null si no se ha calculado
+     */
+    public Map<String, Object> getMaskedMetadata() {
+        return maskedMetadata;
+    }
+
+    public Boolean getMessageSensitive() {
+        return deMarca(sensibilidad);
+    }
+
+    public Boolean getMetadataSensitive() {
+        return deMarca(sensibilidad >> DESPLAZAMIENTO_METADATA);
+    }
+
+    public Integer getMaskingVersion() {
+        return maskingVersion != SIN_VERSION ? maskingVersion : null;
+    }
+
+    private static int marca(Boolean valor) {
+        return valor == null ? 0 : valor ? 2 : 1;
+    }
+
+    private static Boolean deMarca(int bits) {
+        return switch (bits & 0b11) {
+            case 1 -> Boolean.FALSE;
+            case 2 -> Boolean.TRUE;
+            default -> null;
+        };
+    }
+
+    private String decodificar(DiccionarioCadenas diccionario, char codigo, int posicionDesborde) {
+        return codigo == DiccionarioCadenas.DESBORDADO ? desbordados[posicionDesborde] : diccionario.decodificar(codigo);
+    }
+
+    private static long aMicros(LocalDateTime timestamp) {
+        return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                timestamp.getNano() / 1_000);
+    }
+
+    private static LocalDateTime deMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    @Override
+    public String toString() {
+        return "EventoCompacto{" +
+                "id=" + getId() +
+                ", eventType='" + getEventType() + '\'' +
+                ", timestamp=" + getTimestamp() +
+                ", serviceName='" + getServiceName() + '\'' +
+                ", level='" + getLevel() + '\'' +
+                '}';
+    }
+}
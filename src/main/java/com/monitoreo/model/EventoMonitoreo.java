@@ -3,13 +3,15 @@ package com.monitoreo.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.monitoreo.config.EnmascaramientoEventoListener;
+import com.monitoreo.config.SensitiveData;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.MapSerializer;
@@ -24,9 +26,9 @@ import java.util.HashMap;
  */
 @Entity
 @Table(name = "eventos_monitoreo")
+@EntityListeners(EnmascaramientoEventoListener.class)
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class EventoMonitoreo {
     
     @Id
@@ -38,6 +40,7 @@ public class EventoMonitoreo {
     private String eventType;
     
     @NotBlank(message = "El mensaje es obligatorio")
+    @SensitiveData
     @Column(name = "message", nullable = false, length = 1000)
     private String message;
     
@@ -51,17 +54,54 @@ public class EventoMonitoreo {
     @Column(name = "level", length = 20)
     private String level;
     
+    @SensitiveData
     @Column(name = "metadata", columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private Map<String, Object> metadata = new HashMap<>();
     
+    @SensitiveData(SensitiveData.Estrategia.USUARIO)
     @Column(name = "user_id", length = 100)
     private String userId;
     
     @Column(name = "session_id", length = 100)
     private String sessionId;
 
+    // Enmascaramiento calculado al guardar (EnmascaramientoEventoListener); no forma parte de la API
+    @JsonIgnore
+    @Column(name = "masked_message", length = 1000)
+    private String maskedMessage;
+
+    @JsonIgnore
+    @Column(name = "masked_metadata", columnDefinition = "jsonb")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> maskedMetadata;
+
+    @JsonIgnore
+    @Column(name = "message_sensitive")
+    private Boolean messageSensitive;
+
+    @JsonIgnore
+    @Column(name = "metadata_sensitive")
+    private Boolean metadataSensitive;
+
+    @JsonIgnore
+    @Column(name = "masking_version")
+    private Integer maskingVersion;
+
+    public EventoMonitoreo(Long id, String eventType, String message, LocalDateTime timestamp, String serviceName,
+                           String level, Map<String, Object> metadata, String userId, String sessionId) {
+        this.id = id;
+        this.eventType = eventType;
+        this.message = message;
+        this.timestamp = timestamp;
+        this.serviceName = serviceName;
+        this.level = level;
+        this.metadata = metadata;
+        this.userId = userId;
+        this.sessionId = sessionId;
+    }
+
     // Constructores adicionales
     public EventoMonitoreo(String eventType, String message) {
         this();
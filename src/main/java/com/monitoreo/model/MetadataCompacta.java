@@ -0,0 +1,104 @@
+package com.monitoreo.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Mapa inmutable de metadata sobre un único arreglo de claves y valores alternados.
+ * Las claves se comparten mediante un diccionario; el mapa vacío es una instancia única.
+ * La metadata de un evento tiene pocas entradas, así que la búsqueda lineal es suficiente.
+ */
+final class MetadataCompacta extends AbstractMap<String, Object> {
+
+    static final MetadataCompacta VACIA = new MetadataCompacta(new Object[0]);
+
+    private final Object[] entradas;
+
+    private MetadataCompacta(Object[] entradas) {
+        this.entradas = entradas;
+    }
+
+    static MetadataCompacta de(Map<String, Object> origen, DiccionarioCadenas claves) {
+        if (origen == null || origen.isEmpty()) {
+            return VACIA;
+        }
+        if (origen instanceof MetadataCompacta compacta) {
+            return compacta;
+        }
+        Object[] entradas = new Object[origen.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Object> entrada : origen.entrySet()) {
+            entradas[i++] = claves.canonica(entrada.getKey());
+            entradas[i++] = entrada.getValue();
+        }
+        return new MetadataCompacta(entradas);
+    }
+
+    @Override
+    public int size() {
+        return entradas.length / 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entradas.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object clave) {
+        return indice(clave) >= 0;
+    }
+
+    @Override
+    public Object get(Object clave) {
+        int indice = indice(clave);
+        return indice >= 0 ? entradas[indice + 1] : null;
+    }
+
+    private int indice(Object clave) {
+        for (int i = 0; i < entradas.length; i += 2) {
+            // Las claves canónicas suelen coincidir por referencia
+            if (entradas[i] == clave || Objects.equals(entradas[i], clave)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < entradas.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (i >= entradas.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, Object> entrada = new SimpleImmutableEntry<>((String) entradas[i], entradas[i + 1]);
+                        i += 2;
+                        return entrada;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entradas.length / 2;
+            }
+        };
+    }
+}
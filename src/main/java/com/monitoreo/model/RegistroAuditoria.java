@@ -0,0 +1,75 @@
+package com.monitoreo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro del rastro de auditoría (tabla de solo anexado auditoria_eventos).
+ * Los campos comunes a todos los eventos son columnas; el resto va en detalle.
+ * Los identificadores de usuario y los valores libres llegan ya enmascarados.
+ */
+@Entity
+@Table(name = "auditoria_eventos")
+@Data
+@NoArgsConstructor
+public class RegistroAuditoria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String tipoEvento;
+
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "severity", length = 20)
+    private String severidad;
+
+    @Column(name = "user_id", length = 100)
+    private String userId;
+
+    @Column(name = "session_id", length = 100)
+    private String sessionId;
+
+    @Column(name = "correlation_id", length = 100)
+    private String correlationId;
+
+    @Column(name = "data_type", length = 100)
+    private String tipoDato;
+
+    @Column(name = "source", length = 200)
+    private String origen;
+
+    @Column(name = "operation", length = 100)
+    private String operacion;
+
+    @Column(name = "resource", length = 500)
+    private String recurso;
+
+    @Column(name = "details", columnDefinition = "jsonb")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> detalle = new LinkedHashMap<>();
+
+    public RegistroAuditoria(String tipoEvento, String severidad) {
+        this.tipoEvento = tipoEvento;
+        this.severidad = severidad;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    /**
+     * Añade un campo al detalle y devuelve el propio registro
+     */
+    public RegistroAuditoria detalle(String clave, Object valor) {
+        detalle.put(clave, valor);
+        return this;
+    }
+}
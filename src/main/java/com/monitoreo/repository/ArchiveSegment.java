@@ -0,0 +1,578 @@
+package com.monitoreo.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoreo.model.EventoMonitoreo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento columnar comprimido de eventos archivados.
+ *
+ * Formato (versión 2):
+ * <pre>
+ * cabecera : magic, versión, shard de origen, filas, min/max de id y timestamp,
+ *            diccionarios de eventType, serviceName y level (sin comprimir)
+ * directorio: por columna -> id, offset, longitud comprimida, longitud original
+ * bloques  : una columna por bloque, comprimida con Deflate
+ * </pre>
+ * Los diccionarios y los min/max viven en la cabecera para poder descartar
+ * segmentos completos (predicate pushdown) sin descomprimir nada.
+ * La versión 2 añade el shard y las columnas del enmascaramiento persistido (mensaje y metadata
+ * enmascarados, indicadores de sensibilidad y versión de reglas); los segmentos de la versión 1
+ * se siguen leyendo, sin shard y sin enmascaramiento.
+ */
+final class ArchiveSegment {
+
+    static final String EXTENSION = ".evseg";
+
+    private static final int MAGIC = 0x45565347; // "EVSG"
+    private static final short VERSION = 2;
+    private static final short VERSION_SIN_ENMASCARAMIENTO = 1;
+
+    private static final byte COL_ID = 0;
+    private static final byte COL_TIMESTAMP = 1;
+    private static final byte COL_EVENT_TYPE = 2;
+    private static final byte COL_SERVICE_NAME = 3;
+    private static final byte COL_LEVEL = 4;
+    private static final byte COL_MESSAGE = 5;
+    private static final byte COL_USER_ID = 6;
+    private static final byte COL_SESSION_ID = 7;
+    private static final byte COL_METADATA = 8;
+    private static final byte COL_MASKED_MESSAGE = 9;
+    private static final byte COL_MASKED_METADATA = 10;
+    private static final byte COL_MESSAGE_SENSITIVE = 11;
+    private static final byte COL_METADATA_SENSITIVE = 12;
+    private static final byte COL_MASKING_VERSION = 13;
+    private static final int COLUMNAS = 14;
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+
+    private final Path archivo;
+    private final short version;
+    private final String shard;
+    private final int filas;
+    private final long minId;
+    private final long maxId;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final List<String> diccionarioEventType;
+    private final List<String> diccionarioServiceName;
+    private final List<String> diccionarioLevel;
+    private final int[] offsets;
+    private final int[] longitudesComprimidas;
+    private final int[] longitudesOriginales;
+
+    private ArchiveSegment(Path archivo, short version, String shard, int filas, long minId, long maxId, long minTimestamp, long maxTimestamp,
+                           List<String> diccionarioEventType, List<String> diccionarioServiceName,
+                           List<String> diccionarioLevel, int[] offsets, int[] longitudesComprimidas,
+                           int[] longitudesOriginales) {
+        this.archivo = archivo;
+        this.version = version;
+        this.shard = shard.isEmpty() ? null : shard;
+        this.filas = filas;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.diccionarioEventType = diccionarioEventType;
+        this.diccionarioServiceName = diccionarioServiceName;
+        this.diccionarioLevel = diccionarioLevel;
+        this.offsets = offsets;
+        this.longitudesComprimidas = longitudesComprimidas;
+        this.longitudesOriginales = longitudesOriginales;
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Serializa los eventos del shard en formato columnar y devuelve el contenido completo del segmento
+     */
+    static byte[] codificar(String shard, List<EventoMonitoreo> eventos, ObjectMapper objectMapper) throws IOException {
+        int filas = eventos.size();
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+
+        Map<String, Integer> dicEventType = new LinkedHashMap<>();
+        Map<String, Integer> dicServiceName = new LinkedHashMap<>();
+        Map<String, Integer> dicLevel = new LinkedHashMap<>();
+
+        Columna ids = new Columna();
+        Columna timestamps = new Columna();
+        Columna eventTypes = new Columna();
+        Columna serviceNames = new Columna();
+        Columna levels = new Columna();
+        Columna messages = new Columna();
+        Columna userIds = new Columna();
+        Columna sessionIds = new Columna();
+        Columna metadatas = new Columna();
+        Columna maskedMessages = new Columna();
+        Columna maskedMetadatas = new Columna();
+        Columna messageSensitives = new Columna();
+        Columna metadataSensitives = new Columna();
+        Columna maskingVersions = new Columna();
+
+        long idAnterior = 0;
+        long tsAnterior = 0;
+        for (EventoMonitoreo evento : eventos) {
+            long id = evento.getId() != null ? evento.getId() : 0L;
+            long ts = aMicros(evento.getTimestamp());
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+            minTs = Math.min(minTs, ts);
+            maxTs = Math.max(maxTs, ts);
+
+            ids.escribirZigZag(id - idAnterior);
+            timestamps.escribirZigZag(ts - tsAnterior);
+            idAnterior = id;
+            tsAnterior = ts;
+
+            eventTypes.escribirVarInt(codigoDiccionario(dicEventType, evento.getEventType()));
+            serviceNames.escribirVarInt(codigoDiccionario(dicServiceName, evento.getServiceName()));
+            levels.escribirVarInt(codigoDiccionario(dicLevel, evento.getLevel()));
+
+            messages.escribirCadena(evento.getMessage());
+            userIds.escribirCadena(evento.getUserId());
+            sessionIds.escribirCadena(evento.getSessionId());
+
+            Map<String, Object> metadata = evento.getMetadata();
+            metadatas.escribirCadena(metadata == null || metadata.isEmpty()
+                    ? null : objectMapper.writeValueAsString(metadata));
+
+            maskedMessages.escribirCadena(evento.getMaskedMessage());
+            maskedMetadatas.escribirCadena(evento.getMaskedMetadata() == null
+                    ? null : objectMapper.writeValueAsString(evento.getMaskedMetadata()));
+            messageSensitives.escribirIndicador(evento.getMessageSensitive());
+            metadataSensitives.escribirIndicador(evento.getMetadataSensitive());
+            maskingVersions.escribirVarInt(evento.getMaskingVersion() == null ? 0 : evento.getMaskingVersion() + 1L);
+        }
+
+        Columna[] columnas = {ids, timestamps, eventTypes, serviceNames, levels, messages, userIds, sessionIds, metadatas,
+                maskedMessages, maskedMetadatas, messageSensitives, metadataSensitives, maskingVersions};
+        byte[][] comprimidas = new byte[COLUMNAS][];
+        for (int i = 0; i < COLUMNAS; i++) {
+            comprimidas[i] = comprimir(columnas[i].toByteArray());
+        }
+
+        ByteArrayOutputStream cabeceraBytes = new ByteArrayOutputStream();
+        DataOutputStream cabecera = new DataOutputStream(cabeceraBytes);
+        cabecera.writeInt(MAGIC);
+        cabecera.writeShort(VERSION);
+        escribirTexto(cabecera, shard != null ? shard : "");
+        cabecera.writeInt(filas);
+        cabecera.writeLong(minId);
+        cabecera.writeLong(maxId);
+        cabecera.writeLong(minTs);
+        cabecera.writeLong(maxTs);
+        escribirDiccionario(cabecera, dicEventType);
+        escribirDiccionario(cabecera, dicServiceName);
+        escribirDiccionario(cabecera, dicLevel);
+        cabecera.writeShort(COLUMNAS);
+
+        // Tamaño del directorio: id (1) + offset (4) + comprimida (4) + original (4)
+        int offset = cabecera.size() + COLUMNAS * 13;
+        for (int i = 0; i < COLUMNAS; i++) {
+            cabecera.writeByte(i);
+            cabecera.writeInt(offset);
+            cabecera.writeInt(comprimidas[i].length);
+            cabecera.writeInt(columnas[i].size());
+            offset += comprimidas[i].length;
+        }
+        cabecera.flush();
+
+        ByteArrayOutputStream segmento = new ByteArrayOutputStream(offset);
+        cabeceraBytes.writeTo(segmento);
+        for (byte[] bloque : comprimidas) {
+            segmento.write(bloque);
+        }
+        return segmento.toByteArray();
+    }
+
+    private static int codigoDiccionario(Map<String, Integer> diccionario, String valor) {
+        if (valor == null) {
+            return 0;
+        }
+        return diccionario.computeIfAbsent(valor, v -> diccionario.size()) + 1;
+    }
+
+    private static void escribirDiccionario(DataOutputStream out, Map<String, Integer> diccionario) throws IOException {
+        out.writeInt(diccionario.size());
+        for (String valor : diccionario.keySet()) {
+            escribirTexto(out, valor);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream out, String valor) throws IOException {
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(datos);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, datos.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Lee solo la cabecera del segmento (estadísticas y diccionarios) mediante un mapeo en memoria
+     */
+    static ArchiveSegment abrir(Path archivo) throws IOException {
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Segmento de archivo inválido: " + archivo);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION && version != VERSION_SIN_ENMASCARAMIENTO) {
+                throw new IOException("Versión de segmento no soportada " + version + ": " + archivo);
+            }
+            String shard = version == VERSION ? leerTexto(buffer) : "";
+            int filas = buffer.getInt();
+            long minId = buffer.getLong();
+            long maxId = buffer.getLong();
+            long minTs = buffer.getLong();
+            long maxTs = buffer.getLong();
+            List<String> dicEventType = leerDiccionario(buffer);
+            List<String> dicServiceName = leerDiccionario(buffer);
+            List<String> dicLevel = leerDiccionario(buffer);
+
+            int columnas = buffer.getShort();
+            int[] offsets = new int[COLUMNAS];
+            int[] comprimidas = new int[COLUMNAS];
+            int[] originales = new int[COLUMNAS];
+            for (int i = 0; i < columnas; i++) {
+                int columna = buffer.get();
+                offsets[columna] = buffer.getInt();
+                comprimidas[columna] = buffer.getInt();
+                originales[columna] = buffer.getInt();
+            }
+            return new ArchiveSegment(archivo, version, shard, filas, minId, maxId, minTs, maxTs,
+                    dicEventType, dicServiceName, dicLevel, offsets, comprimidas, originales);
+        }
+    }
+
+    private static List<String> leerDiccionario(ByteBuffer buffer) {
+        int tamano = buffer.getInt();
+        List<String> valores = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            valores.add(leerTexto(buffer));
+        }
+        return List.copyOf(valores);
+    }
+
+    private static String leerTexto(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indica si el segmento puede contener filas que cumplan el filtro, usando solo la cabecera
+     */
+    boolean puedeContener(FiltroArchivo filtro) {
+        if (filtro.getHastaMicros() < minTimestamp || filtro.getDesdeMicros() > maxTimestamp) {
+            return false;
+        }
+        return (filtro.getEventType() == null || diccionarioEventType.contains(filtro.getEventType()))
+                && (filtro.getServiceName() == null || diccionarioServiceName.contains(filtro.getServiceName()))
+                && (filtro.getLevel() == null || diccionarioLevel.contains(filtro.getLevel()));
+    }
+
+    /**
+     * Escanea el segmento aplicando el filtro. Primero se decodifican las columnas del predicado
+     * y solo se materializan las filas seleccionadas del resto de columnas.
+     */
+    List<EventoMonitoreo> escanear(FiltroArchivo filtro, ObjectMapper objectMapper) throws IOException {
+        if (!puedeContener(filtro)) {
+            return List.of();
+        }
+
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer mapa = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            long[] timestamps = decodificarDeltas(mapa, COL_TIMESTAMP);
+            BitSet seleccion = new BitSet(filas);
+            for (int fila = 0; fila < filas; fila++) {
+                if (timestamps[fila] >= filtro.getDesdeMicros() && timestamps[fila] <= filtro.getHastaMicros()) {
+                    seleccion.set(fila);
+                }
+            }
+
+            int[] eventTypes = decodificarCodigos(mapa, COL_EVENT_TYPE);
+            int[] serviceNames = decodificarCodigos(mapa, COL_SERVICE_NAME);
+            int[] levels = decodificarCodigos(mapa, COL_LEVEL);
+            filtrarPorDiccionario(seleccion, eventTypes, diccionarioEventType, filtro.getEventType());
+            filtrarPorDiccionario(seleccion, serviceNames, diccionarioServiceName, filtro.getServiceName());
+            filtrarPorDiccionario(seleccion, levels, diccionarioLevel, filtro.getLevel());
+
+            if (seleccion.isEmpty()) {
+                return List.of();
+            }
+
+            long[] ids = decodificarDeltas(mapa, COL_ID);
+            String[] messages = decodificarCadenas(mapa, COL_MESSAGE, seleccion);
+            String[] userIds = decodificarCadenas(mapa, COL_USER_ID, seleccion);
+            String[] sessionIds = decodificarCadenas(mapa, COL_SESSION_ID, seleccion);
+            String[] metadatas = decodificarCadenas(mapa, COL_METADATA, seleccion);
+            boolean conEnmascaramiento = version == VERSION;
+            String[] maskedMessages = conEnmascaramiento ? decodificarCadenas(mapa, COL_MASKED_MESSAGE, seleccion) : null;
+            String[] maskedMetadatas = conEnmascaramiento ? decodificarCadenas(mapa, COL_MASKED_METADATA, seleccion) : null;
+            int[] messageSensitives = conEnmascaramiento ? decodificarCodigos(mapa, COL_MESSAGE_SENSITIVE) : null;
+            int[] metadataSensitives = conEnmascaramiento ? decodificarCodigos(mapa, COL_METADATA_SENSITIVE) : null;
+            int[] maskingVersions = conEnmascaramiento ? decodificarCodigos(mapa, COL_MASKING_VERSION) : null;
+
+            List<EventoMonitoreo> resultado = new ArrayList<>(seleccion.cardinality());
+            for (int fila = seleccion.nextSetBit(0); fila >= 0; fila = seleccion.nextSetBit(fila + 1)) {
+                EventoMonitoreo evento = new EventoMonitoreo();
+                evento.setId(ids[fila]);
+                evento.setTimestamp(deMicros(timestamps[fila]));
+                evento.setEventType(valorDiccionario(diccionarioEventType, eventTypes[fila]));
+                evento.setServiceName(valorDiccionario(diccionarioServiceName, serviceNames[fila]));
+                evento.setLevel(valorDiccionario(diccionarioLevel, levels[fila]));
+                evento.setMessage(messages[fila]);
+                evento.setUserId(userIds[fila]);
+                evento.setSessionId(sessionIds[fila]);
+                evento.setMetadata(metadatas[fila] != null
+                        ? objectMapper.readValue(metadatas[fila], METADATA_TYPE)
+                        : new HashMap<>());
+                if (conEnmascaramiento) {
+                    evento.setMaskedMessage(maskedMessages[fila]);
+                    evento.setMaskedMetadata(maskedMetadatas[fila] != null
+                            ? objectMapper.readValue(maskedMetadatas[fila], METADATA_TYPE) : null);
+                    evento.setMessageSensitive(indicador(messageSensitives[fila]));
+                    evento.setMetadataSensitive(indicador(metadataSensitives[fila]));
+                    evento.setMaskingVersion(maskingVersions[fila] == 0 ? null : maskingVersions[fila] - 1);
+                }
+                resultado.add(evento);
+            }
+            return resultado;
+        }
+    }
+
+    private static void filtrarPorDiccionario(BitSet seleccion, int[] codigos, List<String> diccionario, String valor) {
+        if (valor == null) {
+            return;
+        }
+        int codigo = diccionario.indexOf(valor) + 1;
+        for (int fila = seleccion.nextSetBit(0); fila >= 0; fila = seleccion.nextSetBit(fila + 1)) {
+            if (codigos[fila] != codigo) {
+                seleccion.clear(fila);
+            }
+        }
+    }
+
+    private static Boolean indicador(int codigo) {
+        return codigo == 0 ? null : codigo == 2;
+    }
+
+    private static String valorDiccionario(List<String> diccionario, int codigo) {
+        return codigo == 0 ? null : diccionario.get(codigo - 1);
+    }
+
+    private byte[] descomprimir(MappedByteBuffer mapa, byte columna) throws IOException {
+        ByteBuffer bloque = mapa.slice(offsets[columna], longitudesComprimidas[columna]);
+        byte[] salida = new byte[longitudesOriginales[columna]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bloque);
+            int leidos = 0;
+            while (leidos < salida.length && !inflater.finished()) {
+                int n = inflater.inflate(salida, leidos, salida.length - leidos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                leidos += n;
+            }
+            if (leidos != salida.length) {
+                throw new IOException("Columna " + columna + " truncada en " + archivo);
+            }
+            return salida;
+        } catch (DataFormatException e) {
+            throw new IOException("Columna " + columna + " corrupta en " + archivo, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private long[] decodificarDeltas(MappedByteBuffer mapa, byte columna) throws IOException {
+        Lector lector = new Lector(descomprimir(mapa, columna));
+        long[] valores = new long[filas];
+        long acumulado = 0;
+        for (int i = 0; i < filas; i++) {
+            acumulado += lector.leerZigZag();
+            valores[i] = acumulado;
+        }
+        return valores;
+    }
+
+    private int[] decodificarCodigos(MappedByteBuffer mapa, byte columna) throws IOException {
+        Lector lector = new Lector(descomprimir(mapa, columna));
+        int[] codigos = new int[filas];
+        for (int i = 0; i < filas; i++) {
+            codigos[i] = (int) lector.leerVarInt();
+        }
+        return codigos;
+    }
+
+    private String[] decodificarCadenas(MappedByteBuffer mapa, byte columna, BitSet seleccion) throws IOException {
+        Lector lector = new Lector(descomprimir(mapa, columna));
+        String[] valores = new String[filas];
+        for (int i = 0; i < filas; i++) {
+            valores[i] = lector.leerCadena(seleccion.get(i));
+        }
+        return valores;
+    }
+
+    // ==================== UTILIDADES ====================
+
+    static long aMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0L;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    static LocalDateTime deMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Shard del que se archivaron los eventos, o null en segmentos de la versión 1
+     */
+    String getShard() {
+        return shard;
+    }
+
+    int getFilas() {
+        return filas;
+    }
+
+    long getMinId() {
+        return minId;
+    }
+
+    long getMaxId() {
+        return maxId;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * Buffer de escritura de una columna con codificación varint
+     */
+    private static final class Columna extends ByteArrayOutputStream {
+
+        void escribirVarInt(long valor) {
+            while ((valor & ~0x7FL) != 0) {
+                write((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            write((int) valor);
+        }
+
+        void escribirZigZag(long valor) {
+            escribirVarInt((valor << 1) ^ (valor >> 63));
+        }
+
+        void escribirIndicador(Boolean valor) {
+            escribirVarInt(valor == null ? 0 : valor ? 2 : 1);
+        }
+
+        void escribirCadena(String valor) {
+            if (valor == null) {
+                escribirVarInt(0);
+                return;
+            }
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            escribirVarInt(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Lector secuencial de una columna ya descomprimida
+     */
+    private static final class Lector {
+
+        private final byte[] datos;
+        private int posicion;
+
+        Lector(byte[] datos) {
+            this.datos = datos;
+        }
+
+        long leerVarInt() {
+            long resultado = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos[posicion++];
+                resultado |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return resultado;
+        }
+
+        long leerZigZag() {
+            long valor = leerVarInt();
+            return (valor >>> 1) ^ -(valor & 1);
+        }
+
+        String leerCadena(boolean materializar) {
+            int longitud = (int) leerVarInt();
+            if (longitud == 0) {
+                return null;
+            }
+            int bytes = longitud - 1;
+            String valor = materializar ? new String(datos, posicion, bytes, StandardCharsets.UTF_8) : null;
+            posicion += bytes;
+            return valor;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.monitoreo.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.monitoreo.model.EventoMonitoreo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Almacén de eventos archivados en segmentos columnares sobre disco local.
+ * Mantiene en memoria solo las cabeceras de los segmentos para descartarlos sin abrirlos.
+ */
+@Repository
+public class EventoArchiveRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventoArchiveRepository.class);
+
+    // Mapper propio: el metadata archivado no debe pasar por los serializadores de la API
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final Path directorio;
+    private final List<ArchiveSegment> segmentos = new CopyOnWriteArrayList<>();
+    private final AtomicLong secuencia = new AtomicLong(System.currentTimeMillis());
+
+    public EventoArchiveRepository(@Value("${monitoreo.archivo.directorio:data/archivo}") String directorio) {
+        this.directorio = Paths.get(directorio);
+    }
+
+    /**
+     * Carga las cabeceras de los segmentos existentes
+     */
+    @PostConstruct
+    public void cargarSegmentos() {
+        if (!Files.isDirectory(directorio)) {
+            return;
+        }
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "*" + ArchiveSegment.EXTENSION)) {
+            for (Path archivo : archivos) {
+                try {
+                    segmentos.add(ArchiveSegment.abrir(archivo));
+                } catch (IOException e) {
+                    logger.error("Segmento de archivo ilegible, se ignora: {} - {}", archivo, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el directorio de archivo " + directorio, e);
+        }
+        segmentos.sort(Comparator.comparingLong(ArchiveSegment::getMinTimestamp));
+        logger.info("Archivo frío cargado: {} segmentos en {}", segmentos.size(), directorio);
+    }
+
+    /**
+     * Escribe un nuevo segmento con eventos del shard de forma atómica (archivo temporal + fsync + rename)
+     */
+    public void escribirSegmento(String shard, List<EventoMonitoreo> eventos) throws IOException {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directorio);
+        byte[] contenido = ArchiveSegment.codificar(shard, eventos, objectMapper);
+
+        String nombre = String.format("seg-%020d%s", secuencia.incrementAndGet(), ArchiveSegment.EXTENSION);
+        Path temporal = directorio.resolve(nombre + ".tmp");
+        Path destino = directorio.resolve(nombre);
+
+        try (FileChannel channel = FileChannel.open(temporal,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(contenido);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+
+        ArchiveSegment segmento = ArchiveSegment.abrir(destino);
+        segmentos.add(segmento);
+        logger.info("Segmento archivado: {} ({} eventos, {} bytes)", destino.getFileName(), eventos.size(), contenido.length);
+    }
+
+    /**
+     * Busca eventos archivados que cumplan el filtro
+     */
+    public List<EventoMonitoreo> buscar(FiltroArchivo filtro) {
+        List<EventoMonitoreo> resultado = new ArrayList<>();
+        buscarPorShard(filtro).values().forEach(resultado::addAll);
+        return resultado;
+    }
+
+    /**
+     * Busca eventos archivados que cumplan el filtro agrupados por el shard del que se archivaron.
+     * Los segmentos anteriores a registrar el shard se agrupan bajo la clave null.
+     */
+    public Map<String, List<EventoMonitoreo>> buscarPorShard(FiltroArchivo filtro) {
+        Map<String, List<EventoMonitoreo>> resultado = new LinkedHashMap<>();
+        for (ArchiveSegment segmento : segmentos) {
+            if (!segmento.puedeContener(filtro)) {
+                continue;
+            }
+            try {
+                List<EventoMonitoreo> eventos = segmento.escanear(filtro, objectMapper);
+                if (!eventos.isEmpty()) {
+                    resultado.computeIfAbsent(segmento.getShard(), shard -> new ArrayList<>()).addAll(eventos);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al escanear segmento " + segmento.getArchivo(), e);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Indica si algún segmento cubre parte del rango de fechas
+     */
+    public boolean cubreRango(FiltroArchivo filtro) {
+        for (ArchiveSegment segmento : segmentos) {
+            if (segmento.puedeContener(filtro)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getCantidadSegmentos() {
+        return segmentos.size();
+    }
+
+    public long getEventosArchivados() {
+        long total = 0;
+        for (ArchiveSegment segmento : segmentos) {
+            total += segmento.getFilas();
+        }
+        return total;
+    }
+}
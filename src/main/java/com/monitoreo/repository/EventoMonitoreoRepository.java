@@ -7,14 +7,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Repositorio JPA para eventos de monitoreo
+ * Repositorio JPA para eventos de monitoreo.
+ * Las consultas son de solo lectura (se enrutan a réplica si está configurada);
+ * los métodos de escritura heredados de JpaRepository mantienen su propia transacción.
  */
 @Repository
+@Transactional(readOnly = true)
 public interface EventoMonitoreoRepository extends JpaRepository<EventoMonitoreo, Long> {
     
     /**
@@ -42,6 +46,11 @@ public interface EventoMonitoreoRepository extends JpaRepository<EventoMonitoreo
      */
     List<EventoMonitoreo> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
     
+    /**
+     * Busca el lote más antiguo de eventos anteriores a una fecha (usado por el archivado)
+     */
+    List<EventoMonitoreo> findByTimestampBeforeOrderByTimestampAsc(LocalDateTime cutoff, Pageable pageable);
+    
     /**
      * Busca eventos por sesión
      */
@@ -80,28 +89,42 @@ public interface EventoMonitoreoRepository extends JpaRepository<EventoMonitoreo
     /**
      * Query personalizada para estadísticas
      */
+    @FormaConsulta(orden = "eventType")
     @Query("SELECT e.eventType, COUNT(e) FROM EventoMonitoreo e GROUP BY e.eventType")
     List<Object[]> getEventTypeStatistics();
     
     /**
      * Query personalizada para eventos recientes
      */
+    @FormaConsulta(orden = "timestamp")
     @Query("SELECT e FROM EventoMonitoreo e WHERE e.timestamp >= :since ORDER BY e.timestamp DESC")
     List<EventoMonitoreo> findRecentEvents(@Param("since") LocalDateTime since);
     
     /**
      * Query personalizada para eventos críticos
      */
+    @FormaConsulta(igualdad = "level", orden = "timestamp")
     @Query("SELECT e FROM EventoMonitoreo e WHERE e.level IN ('ERROR', 'CRITICAL') ORDER BY e.timestamp DESC")
     List<EventoMonitoreo> findCriticalEvents();
     
     /**
      * Query personalizada para eventos por usuario y rango de fechas
      */
+    @FormaConsulta(igualdad = "userId", orden = "timestamp")
     @Query("SELECT e FROM EventoMonitoreo e WHERE e.userId = :userId AND e.timestamp BETWEEN :start AND :end ORDER BY e.timestamp DESC")
     List<EventoMonitoreo> findByUserIdAndTimestampBetween(
         @Param("userId") String userId, 
         @Param("start") LocalDateTime start, 
         @Param("end") LocalDateTime end
     );
-} 
\ No newline at end of file
+
+    /**
+     * Eventos enmascarados con una versión anterior de las reglas (o nunca), en orden de id para paginar por clave
+     */
+    @FormaConsulta(orden = "id")
+    @Query("SELECT e FROM EventoMonitoreo e WHERE e.id > :desdeId "
+            + "AND (e.maskingVersion IS NULL OR e.maskingVersion < :version) ORDER BY e.id ASC")
+    List<EventoMonitoreo> findPendientesDeEnmascarar(@Param("desdeId") Long desdeId,
+                                                     @Param("version") int version,
+                                                     Pageable pageable);
+}
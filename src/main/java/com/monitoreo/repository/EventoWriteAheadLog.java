@@ -0,0 +1,565 @@
+package com.monitoreo.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Log de escritura anticipada (WAL) para la ingesta de eventos.
+ * Segmentos de tamaño fijo mapeados en memoria, solo de anexado. Cada registro lleva CRC32C
+ * para descartar escrituras incompletas tras una caída. Formato de registro:
+ * <pre>
+ * longitud total (4) | crc32c (4) | tipo (1) | secuencia (8) | timestamp epoch ms (8) | datos
+ * </pre>
+ * La longitud se escribe la última, por lo que un registro a medias tiene longitud 0 o CRC inválido.
+ */
+@Repository
+public class EventoWriteAheadLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventoWriteAheadLog.class);
+
+    /**
+     * Política de fsync: en cada escritura, agrupado por un hilo dedicado o delegado al sistema operativo
+     */
+    public enum PoliticaFsync { ALWAYS, GROUP, NONE }
+
+    static final String EXTENSION = ".wal";
+    static final int CABECERA = 25;
+    static final byte TIPO_DATOS = 1;
+    static final byte TIPO_CONFIRMACION = 2;
+    static final byte TIPO_PUNTO_CONTROL = 3;
+
+    private static final byte[] SIN_DATOS = new byte[0];
+    private static final long ESPERA_MAXIMA_FSYNC_MS = 10_000;
+
+    private final boolean habilitado;
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final PoliticaFsync politicaFsync;
+    private final long intervaloFsyncMs;
+
+    private final List<Segmento> segmentos = new CopyOnWriteArrayList<>();
+    // Eventos ya guardados en PostgreSQL por la vía directa, posteriores al punto de control
+    private final Set<Long> confirmados = ConcurrentHashMap.newKeySet();
+    // Eventos con un guardado directo en curso: el replicador no debe adelantarse
+    private final Set<Long> reservados = ConcurrentHashMap.newKeySet();
+
+    // Estado de escritura, protegido por el monitor de la instancia
+    private Segmento activo;
+    private volatile long ultimaSecuencia;
+
+    private volatile long puntoControl;
+    private volatile long secuenciaDurable;
+    private long secuenciaSolicitada;
+    private final Object monitorFsync = new Object();
+    private Thread hiloFsync;
+    private volatile boolean abierto;
+
+    // Cursor de replicación, usado solo por el hilo replicador
+    private Segmento segmentoCursor;
+    private int posicionCursor;
+
+    public EventoWriteAheadLog(@Value("${monitoreo.wal.habilitado:true}") boolean habilitado,
+                               @Value("${monitoreo.wal.directorio:data/wal}") String directorio,
+                               @Value("${monitoreo.wal.tamano-segmento:67108864}") int tamanoSegmento,
+                               @Value("${monitoreo.wal.fsync:GROUP}") PoliticaFsync politicaFsync,
+                               @Value("${monitoreo.wal.fsync-intervalo-ms:2}") long intervaloFsyncMs) {
+        if (tamanoSegmento < 4096) {
+            throw new IllegalArgumentException("El tamaño de segmento WAL debe ser de al menos 4096 bytes");
+        }
+        this.habilitado = habilitado;
+        this.directorio = Paths.get(directorio);
+        this.tamanoSegmento = tamanoSegmento;
+        this.politicaFsync = politicaFsync;
+        this.intervaloFsyncMs = intervaloFsyncMs;
+    }
+
+    /**
+     * Recupera los segmentos existentes y abre un segmento nuevo para escritura.
+     * La lectura de cada segmento se detiene en el primer registro incompleto o con CRC inválido.
+     */
+    @PostConstruct
+    public synchronized void abrir() throws IOException {
+        if (!habilitado || abierto) {
+            return;
+        }
+        Files.createDirectories(directorio);
+
+        List<Path> archivos = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directorio, "wal-*" + EXTENSION)) {
+            stream.forEach(archivos::add);
+        }
+        Collections.sort(archivos);
+
+        long maxSecuencia = 0;
+        long maxPuntoControl = 0;
+        long ultimoNumero = 0;
+        Set<Long> confirmacionesLeidas = new HashSet<>();
+
+        for (Path archivo : archivos) {
+            Segmento segmento = Segmento.abrir(archivo, numeroDe(archivo), (int) Files.size(archivo));
+            MappedByteBuffer buffer = segmento.buffer;
+            int posicion = 0;
+            while (posicion + CABECERA <= segmento.capacidad) {
+                int longitud = buffer.getInt(posicion);
+                if (longitud == 0) {
+                    break;
+                }
+                if (longitud < CABECERA || longitud > segmento.capacidad - posicion
+                        || buffer.getInt(posicion + 4) != crc(buffer, posicion, longitud)) {
+                    logger.warn("Registro WAL incompleto o corrupto en {} (posición {}), se descarta el resto del segmento",
+                            archivo.getFileName(), posicion);
+                    break;
+                }
+                long secuencia = buffer.getLong(posicion + 9);
+                switch (buffer.get(posicion + 8)) {
+                    case TIPO_DATOS -> maxSecuencia = Math.max(maxSecuencia, secuencia);
+                    case TIPO_CONFIRMACION -> confirmacionesLeidas.add(secuencia);
+                    case TIPO_PUNTO_CONTROL -> maxPuntoControl = Math.max(maxPuntoControl, secuencia);
+                    default -> logger.warn("Tipo de registro WAL desconocido en {} (posición {})", archivo.getFileName(), posicion);
+                }
+                posicion += longitud;
+            }
+            segmento.limite = posicion;
+            segmento.cerrado = true;
+            segmentos.add(segmento);
+            ultimoNumero = segmento.numero;
+        }
+
+        puntoControl = maxPuntoControl;
+        for (Long secuencia : confirmacionesLeidas) {
+            if (secuencia > maxPuntoControl) {
+                confirmados.add(secuencia);
+            }
+        }
+        ultimaSecuencia = Math.max(maxSecuencia, maxPuntoControl);
+        secuenciaDurable = ultimaSecuencia;
+
+        // Nunca se escribe detrás de un registro recuperado: el segmento activo siempre es nuevo
+        activo = crearSegmento(ultimoNumero + 1);
+        segmentoCursor = segmentos.get(0);
+        posicionCursor = 0;
+        abierto = true;
+
+        if (politicaFsync == PoliticaFsync.GROUP) {
+            hiloFsync = new Thread(this::ejecutarFsyncAgrupado, "wal-fsync");
+            hiloFsync.setDaemon(true);
+            hiloFsync.start();
+        }
+
+        logger.info("WAL abierto en {}: {} segmentos recuperados, {} eventos pendientes, fsync {}",
+                directorio, archivos.size(), getPendientes(), politicaFsync);
+    }
+
+    /**
+     * Anexa un evento serializado y espera a que sea durable según la política de fsync.
+     * El registro queda reservado hasta que se llame a {@link #confirmar(long)} o {@link #liberar(long)}.
+     */
+    public long anexar(byte[] datos) throws IOException {
+        long secuencia;
+        synchronized (this) {
+            verificarAbierto();
+            secuencia = ultimaSecuencia + 1;
+            reservados.add(secuencia);
+            try {
+                int posicion = escribir(TIPO_DATOS, secuencia, datos);
+                if (politicaFsync == PoliticaFsync.ALWAYS) {
+                    activo.buffer.force(posicion, activo.limite - posicion);
+                    secuenciaDurable = secuencia;
+                }
+            } catch (IOException | RuntimeException e) {
+                reservados.remove(secuencia);
+                throw e;
+            }
+            ultimaSecuencia = secuencia;
+        }
+        if (politicaFsync == PoliticaFsync.GROUP) {
+            esperarDurabilidad(secuencia);
+        }
+        return secuencia;
+    }
+
+    /**
+     * Marca un evento como guardado en PostgreSQL por la vía directa.
+     * La confirmación no espera al fsync: si se pierde, el evento se replica de nuevo (al menos una vez).
+     */
+    public void confirmar(long secuencia) throws IOException {
+        confirmados.add(secuencia);
+        reservados.remove(secuencia);
+        synchronized (this) {
+            verificarAbierto();
+            escribir(TIPO_CONFIRMACION, secuencia, SIN_DATOS);
+        }
+    }
+
+    /**
+     * Libera la reserva de un evento para que lo replique el hilo replicador
+     */
+    public void liberar(long secuencia) {
+        reservados.remove(secuencia);
+    }
+
+    /**
+     * Lee desde el cursor de replicación hasta {@code maximo} eventos pendientes, sin avanzar el cursor.
+     * Se detiene ante el primer evento reservado para respetar el orden de llegada.
+     */
+    public Lote leerPendientes(int maximo) {
+        List<RegistroWal> registros = new ArrayList<>();
+        Segmento segmento = segmentoCursor;
+        int posicion = posicionCursor;
+        long hastaSecuencia = -1;
+
+        while (registros.size() < maximo) {
+            // cerrado se lee antes que limite: un segmento cerrado ya no cambia su limite
+            boolean cerrado = segmento.cerrado;
+            int limite = segmento.limite;
+            if (posicion >= limite) {
+                Segmento siguiente = cerrado ? siguiente(segmento) : null;
+                if (siguiente == null) {
+                    break;
+                }
+                segmento = siguiente;
+                posicion = 0;
+                continue;
+            }
+
+            MappedByteBuffer buffer = segmento.buffer;
+            int longitud = buffer.getInt(posicion);
+            if (buffer.get(posicion + 8) == TIPO_DATOS) {
+                long secuencia = buffer.getLong(posicion + 9);
+                // reservados antes que confirmados: confirmar() añade a confirmados antes de quitar la reserva
+                if (reservados.contains(secuencia)) {
+                    break;
+                }
+                if (secuencia > puntoControl && !confirmados.contains(secuencia)) {
+                    byte[] datos = new byte[longitud - CABECERA];
+                    buffer.get(posicion + CABECERA, datos);
+                    registros.add(new RegistroWal(secuencia, buffer.getLong(posicion + 17), datos));
+                }
+                hastaSecuencia = secuencia;
+            }
+            posicion += longitud;
+        }
+        return new Lote(registros, hastaSecuencia, segmento, posicion,
+                segmento != segmentoCursor || posicion != posicionCursor);
+    }
+
+    /**
+     * Avanza el cursor tras replicar un lote: escribe un punto de control y borra los segmentos ya replicados
+     */
+    public void marcarReplicado(Lote lote) throws IOException {
+        if (lote.hastaSecuencia > puntoControl) {
+            synchronized (this) {
+                verificarAbierto();
+                escribir(TIPO_PUNTO_CONTROL, lote.hastaSecuencia, SIN_DATOS);
+            }
+            puntoControl = lote.hastaSecuencia;
+            confirmados.removeIf(secuencia -> secuencia <= lote.hastaSecuencia);
+        }
+        segmentoCursor = lote.segmento;
+        posicionCursor = lote.posicion;
+
+        for (Segmento segmento : segmentos) {
+            if (segmento == segmentoCursor) {
+                break;
+            }
+            segmentos.remove(segmento);
+            Files.deleteIfExists(segmento.archivo);
+            logger.debug("Segmento WAL replicado y eliminado: {}", segmento.archivo.getFileName());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        synchronized (this) {
+            if (!abierto) {
+                return;
+            }
+            abierto = false;
+            activo.buffer.force();
+            secuenciaDurable = ultimaSecuencia;
+        }
+        synchronized (monitorFsync) {
+            monitorFsync.notifyAll();
+        }
+        if (hiloFsync != null) {
+            hiloFsync.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        logger.info("WAL cerrado, última secuencia {}", ultimaSecuencia);
+    }
+
+    /**
+     * Escribe un registro en el segmento activo (con el monitor tomado) y devuelve su posición
+     */
+    private int escribir(byte tipo, long secuencia, byte[] datos) throws IOException {
+        int longitud = CABECERA + datos.length;
+        if (longitud > tamanoSegmento) {
+            throw new IOException("Registro de " + longitud + " bytes excede el tamaño de segmento WAL (" + tamanoSegmento + ")");
+        }
+        if (longitud > activo.capacidad - activo.limite) {
+            rotar();
+        }
+
+        MappedByteBuffer buffer = activo.buffer;
+        int posicion = activo.limite;
+        buffer.put(posicion + 8, tipo);
+        buffer.putLong(posicion + 9, secuencia);
+        buffer.putLong(posicion + 17, System.currentTimeMillis());
+        buffer.put(posicion + CABECERA, datos);
+        buffer.putInt(posicion + 4, crc(buffer, posicion, longitud));
+        buffer.putInt(posicion, longitud);
+        activo.limite = posicion + longitud;
+        return posicion;
+    }
+
+    /**
+     * Cierra el segmento activo (con fsync completo) y abre el siguiente
+     */
+    private void rotar() throws IOException {
+        Segmento anterior = activo;
+        anterior.buffer.force();
+        Segmento nuevo = crearSegmento(anterior.numero + 1);
+        anterior.cerrado = true;
+        activo = nuevo;
+    }
+
+    private Segmento crearSegmento(long numero) throws IOException {
+        Path archivo = directorio.resolve(String.format("wal-%020d%s", numero, EXTENSION));
+        Segmento segmento = Segmento.abrir(archivo, numero, tamanoSegmento);
+        segmentos.add(segmento);
+        return segmento;
+    }
+
+    private Segmento siguiente(Segmento segmento) {
+        boolean encontrado = false;
+        for (Segmento candidato : segmentos) {
+            if (encontrado) {
+                return candidato;
+            }
+            encontrado = candidato == segmento;
+        }
+        return null;
+    }
+
+    private void esperarDurabilidad(long secuencia) throws IOException {
+        synchronized (monitorFsync) {
+            if (secuencia > secuenciaSolicitada) {
+                secuenciaSolicitada = secuencia;
+                monitorFsync.notifyAll();
+            }
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_FSYNC_MS);
+            while (secuenciaDurable < secuencia) {
+                long restanteMs = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+                if (restanteMs <= 0 || !abierto) {
+                    throw new IOException("El WAL no pudo confirmar el fsync de la secuencia " + secuencia);
+                }
+                try {
+                    monitorFsync.wait(restanteMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrumpido esperando el fsync del WAL", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hilo de fsync agrupado: un único force cubre todas las escrituras acumuladas desde el anterior
+     */
+    private void ejecutarFsyncAgrupado() {
+        Segmento segmentoForzado = null;
+        int forzadoHasta = 0;
+        while (abierto) {
+            try {
+                synchronized (monitorFsync) {
+                    while (abierto && secuenciaSolicitada <= secuenciaDurable) {
+                        monitorFsync.wait();
+                    }
+                }
+                if (!abierto) {
+                    break;
+                }
+                if (intervaloFsyncMs > 0) {
+                    Thread.sleep(intervaloFsyncMs);
+                }
+
+                Segmento segmento;
+                int hasta;
+                long objetivo;
+                synchronized (this) {
+                    segmento = activo;
+                    hasta = activo.limite;
+                    objetivo = ultimaSecuencia;
+                }
+                int desde = segmento == segmentoForzado ? forzadoHasta : 0;
+                if (hasta > desde) {
+                    segmento.buffer.force(desde, hasta - desde);
+                }
+                segmentoForzado = segmento;
+                forzadoHasta = hasta;
+
+                synchronized (monitorFsync) {
+                    secuenciaDurable = Math.max(secuenciaDurable, objetivo);
+                    monitorFsync.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error en fsync agrupado del WAL: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void verificarAbierto() throws IOException {
+        if (!abierto) {
+            throw new IOException("El WAL de eventos no está abierto");
+        }
+    }
+
+    private static int crc(MappedByteBuffer buffer, int posicion, int longitud) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(posicion + 8, longitud - 8));
+        return (int) crc.getValue();
+    }
+
+    private static long numeroDe(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(4, nombre.length() - EXTENSION.length()));
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public PoliticaFsync getPoliticaFsync() {
+        return politicaFsync;
+    }
+
+    public int getTamanoSegmento() {
+        return tamanoSegmento;
+    }
+
+    public int getCantidadSegmentos() {
+        return segmentos.size();
+    }
+
+    public long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    /**
+     * Eventos del WAL aún no guardados en PostgreSQL (excluye los que tienen un guardado directo en curso)
+     */
+    public long getPendientes() {
+        return Math.max(0, ultimaSecuencia - puntoControl - confirmados.size() - reservados.size());
+    }
+
+    /**
+     * Evento leído del WAL
+     */
+    public static final class RegistroWal {
+        private final long secuencia;
+        private final long timestamp;
+        private final byte[] datos;
+
+        RegistroWal(long secuencia, long timestamp, byte[] datos) {
+            this.secuencia = secuencia;
+            this.timestamp = timestamp;
+            this.datos = datos;
+        }
+
+        public long getSecuencia() {
+            return secuencia;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public byte[] getDatos() {
+            return datos;
+        }
+    }
+
+    /**
+     * Lote de eventos pendientes junto con la posición del cursor tras leerlo
+     */
+    public static final class Lote {
+        private final List<RegistroWal> registros;
+        private final long hastaSecuencia;
+        private final Segmento segmento;
+        private final int posicion;
+        private final boolean avanza;
+
+        private Lote(List<RegistroWal> registros, long hastaSecuencia, Segmento segmento, int posicion, boolean avanza) {
+            this.registros = registros;
+            this.hastaSecuencia = hastaSecuencia;
+            this.segmento = segmento;
+            this.posicion = posicion;
+            this.avanza = avanza;
+        }
+
+        public List<RegistroWal> getRegistros() {
+            return registros;
+        }
+
+        /**
+         * Copia del lote que conserva solo la posición, para no retener los datos ya decodificados
+         */
+        public Lote sinDatos() {
+            return new Lote(List.of(), hastaSecuencia, segmento, posicion, avanza);
+        }
+
+        /**
+         * Indica si el cursor avanzaría al marcar el lote, aunque no tenga eventos que replicar
+         */
+        public boolean isAvanza() {
+            return avanza;
+        }
+    }
+
+    private static final class Segmento {
+        private final Path archivo;
+        private final long numero;
+        private final int capacidad;
+        private final MappedByteBuffer buffer;
+        private volatile int limite;
+        private volatile boolean cerrado;
+
+        private Segmento(Path archivo, long numero, int capacidad, MappedByteBuffer buffer) {
+            this.archivo = archivo;
+            this.numero = numero;
+            this.capacidad = capacidad;
+            this.buffer = buffer;
+        }
+
+        static Segmento abrir(Path archivo, long numero, int capacidad) throws IOException {
+            try (FileChannel channel = FileChannel.open(archivo,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segmento(archivo, numero, capacidad, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacidad));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.monitoreo.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Predicado que se empuja hasta los segmentos del archivo frío.
+ * El rango de fechas es obligatorio; los demás campos son opcionales.
+ */
+public final class FiltroArchivo {
+
+    private final LocalDateTime desde;
+    private final LocalDateTime hasta;
+    private final long desdeMicros;
+    private final long hastaMicros;
+    private final String eventType;
+    private final String serviceName;
+    private final String level;
+
+    private FiltroArchivo(LocalDateTime desde, LocalDateTime hasta, String eventType, String serviceName, String level) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.desdeMicros = desde != null ? ArchiveSegment.aMicros(desde) : Long.MIN_VALUE;
+        this.hastaMicros = hasta != null ? ArchiveSegment.aMicros(hasta) : Long.MAX_VALUE;
+        this.eventType = eventType;
+        this.serviceName = serviceName;
+        this.level = level;
+    }
+
+    /**
+     * Filtro por rango de fechas (ambos extremos inclusivos)
+     */
+    public static FiltroArchivo rango(LocalDateTime desde, LocalDateTime hasta) {
+        return new FiltroArchivo(desde, hasta, null, null, null);
+    }
+
+    public FiltroArchivo conEventType(String eventType) {
+        return new FiltroArchivo(desde, hasta, eventType, serviceName, level);
+    }
+
+    public FiltroArchivo conServiceName(String serviceName) {
+        return new FiltroArchivo(desde, hasta, eventType, serviceName, level);
+    }
+
+    public FiltroArchivo conLevel(String level) {
+        return new FiltroArchivo(desde, hasta, eventType, serviceName, level);
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    long getDesdeMicros() {
+        return desdeMicros;
+    }
+
+    long getHastaMicros() {
+        return hastaMicros;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+}
@@ -0,0 +1,28 @@
+package com.monitoreo.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Forma de acceso de una consulta con @Query, para el asesor de índices. Las consultas derivadas
+ * del nombre del método no la necesitan: su forma se obtiene del propio nombre.
+ * Los valores son propiedades de la entidad, no columnas.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FormaConsulta {
+
+    /**
+     * Propiedades comparadas por igualdad (o IN)
+     */
+    String[] igualdad() default {};
+
+    /**
+     * Propiedad de rango, orden o agrupación que recorre la consulta
+     */
+    String orden() default "";
+}
@@ -0,0 +1,32 @@
+package com.monitoreo.repository;
+
+import com.monitoreo.model.RegistroAuditoria;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Consulta del rastro de auditoría. Las escrituras las hace AuditTrailWriter en lotes;
+ * la tabla es de solo anexado.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface RegistroAuditoriaRepository extends JpaRepository<RegistroAuditoria, Long> {
+
+    /**
+     * Página por clave: registros con id menor que antesDe, del más reciente al más antiguo
+     */
+    @FormaConsulta(orden = "id")
+    @Query("SELECT r FROM RegistroAuditoria r WHERE r.id < :antesDe "
+            + "AND (:tipoEvento IS NULL OR r.tipoEvento = :tipoEvento) "
+            + "AND (:userId IS NULL OR r.userId = :userId) ORDER BY r.id DESC")
+    List<RegistroAuditoria> buscarAnteriores(@Param("antesDe") long antesDe,
+                                             @Param("tipoEvento") String tipoEvento,
+                                             @Param("userId") String userId,
+                                             Pageable pageable);
+}
@@ -0,0 +1,138 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.AggregateCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caché de corta duración de los resultados de endpoints de agregados y estadísticas.
+ * El tiempo se divide en cubetas del ancho del TTL del endpoint: una entrada vale mientras dure su
+ * cubeta y caduca sola al empezar la siguiente. Cada instancia desplaza sus cubetas una fracción
+ * aleatoria del TTL, de modo que las réplicas no caducan a la vez ni recalculan todas en el mismo instante.
+ * Los fallos de una misma cubeta se coalescen con SingleFlight, de modo que al caducar una entrada
+ * solo una petición recalcula (sin estampida). Cache-Control indica lo que queda de la cubeta.
+ * Las claves deben ser de baja cardinalidad y los resultados, que se comparten, no deben modificarse.
+ */
+@Component
+public class AggregateResultCache {
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<String, Medidores> medidores = new ConcurrentHashMap<>();
+    private final SingleFlight singleFlight;
+    private final AggregateCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier reloj;
+    private final double desfase;
+
+    @Autowired
+    public AggregateResultCache(SingleFlight singleFlight, AggregateCacheProperties properties, MeterRegistry meterRegistry) {
+        this(singleFlight, properties, meterRegistry, System::currentTimeMillis, ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * @param desfase fracción del TTL, en [0, 1), que esta instancia adelanta sus cubetas
+     */
+    AggregateResultCache(SingleFlight singleFlight, AggregateCacheProperties properties, MeterRegistry meterRegistry,
+                         LongSupplier reloj, double desfase) {
+        if (desfase < 0 || desfase >= 1) {
+            throw new IllegalArgumentException("El desfase de las cubetas debe estar en [0, 1)");
+        }
+        this.singleFlight = singleFlight;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.reloj = reloj;
+        this.desfase = desfase;
+
+        Gauge.builder("monitoreo.cache.agregados.entradas", entradas, Map::size)
+                .description("Entradas en la caché de agregados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resultado de la cubeta actual, calculándolo si aún no está
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String endpoint, Map<String, ?> parametros, Supplier<T> calculo) {
+        long ttlMs = ttlMs(endpoint);
+        if (ttlMs <= 0) {
+            return calculo.get();
+        }
+        long cubeta = instante(ttlMs) / ttlMs;
+        String clave = SingleFlight.clave(endpoint, parametros);
+        Medidores medidor = medidores.computeIfAbsent(endpoint, this::medidores);
+
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && entrada.cubeta() == cubeta) {
+            medidor.aciertos.increment();
+            return (T) entrada.valor();
+        }
+        medidor.fallos.increment();
+
+        Map<String, Object> parametrosCubeta = new LinkedHashMap<>(parametros);
+        parametrosCubeta.put("cubeta", cubeta);
+        return singleFlight.ejecutar(endpoint, parametrosCubeta, () -> {
+            // Otro cálculo de la misma cubeta pudo terminar justo antes de empezar este
+            Entrada reciente = entradas.get(clave);
+            if (reciente != null && reciente.cubeta() == cubeta) {
+                return (T) reciente.valor();
+            }
+            T valor = calculo.get();
+            entradas.merge(clave, new Entrada(cubeta, valor),
+                    (anterior, nueva) -> nueva.cubeta() >= anterior.cubeta() ? nueva : anterior);
+            return valor;
+        });
+    }
+
+    /**
+     * Cache-Control con el tiempo que le queda a la cubeta actual del endpoint
+     */
+    public CacheControl cacheControl(String endpoint) {
+        long ttlMs = ttlMs(endpoint);
+        if (ttlMs <= 0) {
+            return CacheControl.noCache();
+        }
+        long restanteMs = ttlMs - instante(ttlMs) % ttlMs;
+        return CacheControl.maxAge(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(restanteMs + 999)), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reloj desplazado con el desfase de la instancia, en la escala del TTL del endpoint
+     */
+    private long instante(long ttlMs) {
+        return reloj.getAsLong() + (long) (desfase * ttlMs);
+    }
+
+    private long ttlMs(String endpoint) {
+        return properties.isHabilitado() ? TimeUnit.SECONDS.toMillis(properties.ttlSegundos(endpoint)) : 0;
+    }
+
+    private Medidores medidores(String endpoint) {
+        return new Medidores(consultas(endpoint, "acierto"), consultas(endpoint, "fallo"));
+    }
+
+    private Counter consultas(String endpoint, String resultado) {
+        return Counter.builder("monitoreo.cache.agregados.consultas")
+                .description("Consultas a la caché de agregados por endpoint y resultado")
+                .tag("endpoint", endpoint)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private record Entrada(long cubeta, Object valor) {
+    }
+
+    private record Medidores(Counter aciertos, Counter fallos) {
+    }
+}
@@ -1,127 +1,117 @@
 package com.monitoreo.service;
 
+import com.monitoreo.config.RequestContext;
 import com.monitoreo.config.SensitiveDataFilter;
+import com.monitoreo.model.RegistroAuditoria;
+import com.monitoreo.repository.RegistroAuditoriaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * Servicio de auditoría para registrar eventos relacionados con datos sensibles.
  * Proporciona trazabilidad completa de las operaciones de enmascaramiento.
+ * Cada evento es un RegistroAuditoria que AuditTrailWriter guarda en lotes en auditoria_eventos;
+ * solo los accesos no autorizados y los errores de enmascaramiento se avisan además en el log de seguridad.
  */
 @Service
 public class AuditService {
     
-    private static final Logger auditLogger = LoggerFactory.getLogger("com.monitoreo.audit");
     private static final Logger securityLogger = LoggerFactory.getLogger("com.monitoreo.security");
+
+    /**
+     * Máximo de registros por página en la consulta del rastro
+     */
+    public static final int LIMITE_MAXIMO = 500;
     
     @Autowired
     private SensitiveDataFilter sensitiveDataFilter;
+
+    @Autowired
+    private AuditTrailWriter auditTrailWriter;
+
+    @Autowired
+    private RegistroAuditoriaRepository registroAuditoriaRepository;
     
     /**
      * Registra la detección de datos sensibles
      */
     public void logSensitiveDataDetected(String dataType, String source, String context) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "SENSITIVE_DATA_DETECTED");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("data_type", dataType);
-        auditEvent.put("source", source);
-        auditEvent.put("context", context);
-        auditEvent.put("severity", "MEDIUM");
-        
-        auditLogger.info("Datos sensibles detectados: {}", auditEvent);
-        securityLogger.warn("Datos sensibles detectados en {}: {}", source, dataType);
+        RegistroAuditoria registro = registro("SENSITIVE_DATA_DETECTED", "MEDIUM");
+        registro.setTipoDato(dataType);
+        registro.setOrigen(source);
+        registro.detalle("context", context);
+        auditTrailWriter.registrar(registro);
     }
     
     /**
      * Registra el enmascaramiento de datos sensibles
      */
     public void logDataMasked(String dataType, String originalValue, String maskedValue, String source) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "DATA_MASKED");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("data_type", dataType);
-        auditEvent.put("source", source);
-        auditEvent.put("original_length", originalValue != null ? originalValue.length() : 0);
-        auditEvent.put("masked_length", maskedValue != null ? maskedValue.length() : 0);
-        auditEvent.put("masking_applied", true);
-        
-        auditLogger.info("Datos enmascarados: {}", auditEvent);
-        securityLogger.debug("Datos enmascarados en {}: {} -> {}", source, dataType, maskedValue);
+        RegistroAuditoria registro = registro("DATA_MASKED", null);
+        registro.setTipoDato(dataType);
+        registro.setOrigen(source);
+        registro.detalle("original_length", originalValue != null ? originalValue.length() : 0)
+                .detalle("masked_length", maskedValue != null ? maskedValue.length() : 0)
+                .detalle("masking_applied", true);
+        auditTrailWriter.registrar(registro);
     }
     
     /**
      * Registra el acceso a datos sensibles
      */
     public void logSensitiveDataAccess(String userId, String dataType, String operation, String resource) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "SENSITIVE_DATA_ACCESS");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("user_id", sensitiveDataFilter.maskUserId(userId));
-        auditEvent.put("data_type", dataType);
-        auditEvent.put("operation", operation);
-        auditEvent.put("resource", resource);
-        auditEvent.put("access_granted", true);
-        
-        auditLogger.info("Acceso a datos sensibles: {}", auditEvent);
-        securityLogger.info("Usuario {} accedió a datos sensibles: {} en {}", 
-                           sensitiveDataFilter.maskUserId(userId), dataType, resource);
+        RegistroAuditoria registro = registro("SENSITIVE_DATA_ACCESS", null);
+        registro.setUserId(sensitiveDataFilter.maskUserId(userId));
+        registro.setTipoDato(dataType);
+        registro.setOperacion(operation);
+        registro.setRecurso(resource);
+        registro.detalle("access_granted", true);
+        auditTrailWriter.registrar(registro);
     }
     
     /**
      * Registra intentos de acceso no autorizado a datos sensibles
      */
     public void logUnauthorizedAccess(String userId, String dataType, String operation, String resource, String reason) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "UNAUTHORIZED_ACCESS_ATTEMPT");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("user_id", sensitiveDataFilter.maskUserId(userId));
-        auditEvent.put("data_type", dataType);
-        auditEvent.put("operation", operation);
-        auditEvent.put("resource", resource);
-        auditEvent.put("reason", reason);
-        auditEvent.put("access_granted", false);
-        auditEvent.put("severity", "HIGH");
-        
-        auditLogger.warn("Intento de acceso no autorizado: {}", auditEvent);
+        RegistroAuditoria registro = registro("UNAUTHORIZED_ACCESS_ATTEMPT", "HIGH");
+        registro.setUserId(sensitiveDataFilter.maskUserId(userId));
+        registro.setTipoDato(dataType);
+        registro.setOperacion(operation);
+        registro.setRecurso(resource);
+        registro.detalle("reason", reason)
+                .detalle("access_granted", false);
+        auditTrailWriter.registrar(registro);
+
         securityLogger.error("Intento de acceso no autorizado: Usuario {} intentó acceder a {} en {} - Razón: {}", 
-                            sensitiveDataFilter.maskUserId(userId), dataType, resource, reason);
+                            registro.getUserId(), dataType, resource, reason);
     }
     
     /**
      * Registra la configuración de enmascaramiento
      */
     public void logMaskingConfiguration(String configType, String value, boolean enabled) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "MASKING_CONFIGURATION");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("config_type", configType);
-        auditEvent.put("value", sensitiveDataFilter.maskSensitiveData(value));
-        auditEvent.put("enabled", enabled);
-        
-        auditLogger.info("Configuración de enmascaramiento: {}", auditEvent);
-        securityLogger.info("Configuración de enmascaramiento actualizada: {} = {}", configType, enabled);
+        RegistroAuditoria registro = registro("MASKING_CONFIGURATION", null);
+        registro.detalle("config_type", configType)
+                .detalle("value", sensitiveDataFilter.maskSensitiveData(value))
+                .detalle("enabled", enabled);
+        auditTrailWriter.registrar(registro);
     }
     
     /**
      * Registra errores en el proceso de enmascaramiento
      */
     public void logMaskingError(String dataType, String error, String source) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "MASKING_ERROR");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("data_type", dataType);
-        auditEvent.put("error", error);
-        auditEvent.put("source", source);
-        auditEvent.put("severity", "HIGH");
-        
-        auditLogger.error("Error en enmascaramiento: {}", auditEvent);
+        RegistroAuditoria registro = registro("MASKING_ERROR", "HIGH");
+        registro.setTipoDato(dataType);
+        registro.setOrigen(source);
+        registro.detalle("error", error);
+        auditTrailWriter.registrar(registro);
+
         securityLogger.error("Error en enmascaramiento de {} en {}: {}", dataType, source, error);
     }
     
@@ -129,64 +119,64 @@ public class AuditService {
      * Registra el inicio de una sesión de auditoría
      */
     public void logAuditSessionStart(String sessionId, String userId, String ipAddress) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "AUDIT_SESSION_START");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("session_id", sessionId);
-        auditEvent.put("user_id", sensitiveDataFilter.maskUserId(userId));
-        auditEvent.put("ip_address", sensitiveDataFilter.maskIP(ipAddress));
-        
-        auditLogger.info("Inicio de sesión de auditoría: {}", auditEvent);
-        securityLogger.info("Sesión de auditoría iniciada: {} para usuario {}", 
-                           sessionId, sensitiveDataFilter.maskUserId(userId));
+        RegistroAuditoria registro = registro("AUDIT_SESSION_START", null);
+        registro.setSessionId(sessionId);
+        registro.setUserId(sensitiveDataFilter.maskUserId(userId));
+        registro.detalle("ip_address", sensitiveDataFilter.maskIP(ipAddress));
+        auditTrailWriter.registrar(registro);
     }
     
     /**
      * Registra el fin de una sesión de auditoría
      */
     public void logAuditSessionEnd(String sessionId, String userId, long duration) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "AUDIT_SESSION_END");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("session_id", sessionId);
-        auditEvent.put("user_id", sensitiveDataFilter.maskUserId(userId));
-        auditEvent.put("duration_seconds", duration);
-        
-        auditLogger.info("Fin de sesión de auditoría: {}", auditEvent);
-        securityLogger.info("Sesión de auditoría finalizada: {} para usuario {} (duración: {}s)", 
-                           sessionId, sensitiveDataFilter.maskUserId(userId), duration);
+        RegistroAuditoria registro = registro("AUDIT_SESSION_END", null);
+        registro.setSessionId(sessionId);
+        registro.setUserId(sensitiveDataFilter.maskUserId(userId));
+        registro.detalle("duration_seconds", duration);
+        auditTrailWriter.registrar(registro);
     }
     
     /**
      * Registra eventos de cumplimiento normativo
      */
     public void logComplianceEvent(String regulation, String requirement, String action, String details) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "COMPLIANCE_EVENT");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("regulation", regulation);
-        auditEvent.put("requirement", requirement);
-        auditEvent.put("action", action);
-        auditEvent.put("details", sensitiveDataFilter.maskSensitiveData(details));
-        
-        auditLogger.info("Evento de cumplimiento: {}", auditEvent);
-        securityLogger.info("Cumplimiento normativo: {} - {} - {}", regulation, requirement, action);
+        RegistroAuditoria registro = registro("COMPLIANCE_EVENT", null);
+        registro.setOperacion(action);
+        registro.detalle("regulation", regulation)
+                .detalle("requirement", requirement)
+                .detalle("details", sensitiveDataFilter.maskSensitiveData(details));
+        auditTrailWriter.registrar(registro);
     }
     
     /**
      * Registra eventos de retención de datos
      */
     public void logDataRetentionEvent(String dataType, String action, String retentionPeriod, int recordCount) {
-        Map<String, Object> auditEvent = new HashMap<>();
-        auditEvent.put("event_type", "DATA_RETENTION_EVENT");
-        auditEvent.put("timestamp", LocalDateTime.now());
-        auditEvent.put("data_type", dataType);
-        auditEvent.put("action", action);
-        auditEvent.put("retention_period", retentionPeriod);
-        auditEvent.put("record_count", recordCount);
-        
-        auditLogger.info("Evento de retención de datos: {}", auditEvent);
-        securityLogger.info("Retención de datos: {} {} registros de {} (período: {})", 
-                           action, recordCount, dataType, retentionPeriod);
+        RegistroAuditoria registro = registro("DATA_RETENTION_EVENT", null);
+        registro.setTipoDato(dataType);
+        registro.setOperacion(action);
+        registro.detalle("retention_period", retentionPeriod)
+                .detalle("record_count", recordCount);
+        auditTrailWriter.registrar(registro);
+    }
+
+    /**
+     * Página del rastro de auditoría por clave: registros anteriores al id indicado (o los más
+     * recientes si es null), filtrados opcionalmente por tipo de evento y usuario
+     */
+    public List<RegistroAuditoria> consultar(Long antesDe, String tipoEvento, String userId, int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        // Los usuarios se guardan enmascarados: el filtro se compara con el mismo enmascarado
+        String usuario = userId != null && !userId.isBlank() ? sensitiveDataFilter.maskUserId(userId) : null;
+        String tipo = tipoEvento != null && !tipoEvento.isBlank() ? tipoEvento : null;
+        return registroAuditoriaRepository.buscarAnteriores(antesDe != null ? antesDe : Long.MAX_VALUE,
+                tipo, usuario, PageRequest.of(0, tamano));
+    }
+
+    private static RegistroAuditoria registro(String tipoEvento, String severidad) {
+        RegistroAuditoria registro = new RegistroAuditoria(tipoEvento, severidad);
+        registro.setCorrelationId(RequestContext.getCurrentCorrelationId());
+        return registro;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package com.monitoreo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.monitoreo.config.CargaTrabajo;
+import com.monitoreo.config.WorkloadContext;
+import com.monitoreo.model.RegistroAuditoria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritor del rastro de auditoría. AuditService solo encola el registro; un hilo propio lo
+ * inserta en auditoria_eventos en lotes, con un único commit por lote (group commit).
+ * El búfer está acotado: si se llena, o si un lote no se puede guardar, los registros se vuelcan
+ * al log de auditoría para no perderlos y se cuentan en las métricas.
+ */
+@Component
+public class AuditTrailWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTrailWriter.class);
+    private static final Logger auditLogger = LoggerFactory.getLogger("com.monitoreo.audit");
+
+    private static final String SQL_INSERCION = "INSERT INTO auditoria_eventos "
+            + "(event_type, timestamp, severity, user_id, session_id, correlation_id, data_type, source, operation, resource, details) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb))";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<RegistroAuditoria> buffer;
+    private final int tamanoLote;
+    private final long esperaMs;
+
+    private final Counter registrosEscritos;
+    private final Counter registrosDesbordados;
+    private final Counter registrosFallidos;
+    private final Timer loteTimer;
+
+    private volatile boolean activo;
+    private Thread escritor;
+
+    public AuditTrailWriter(DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${monitoreo.auditoria.capacidad:10000}") int capacidad,
+                            @Value("${monitoreo.auditoria.tamano-lote:200}") int tamanoLote,
+                            @Value("${monitoreo.auditoria.espera-ms:200}") long esperaMs) {
+        if (capacidad <= 0 || tamanoLote <= 0 || esperaMs <= 0) {
+            throw new IllegalArgumentException("La configuración del rastro de auditoría debe ser positiva");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(capacidad);
+        this.tamanoLote = tamanoLote;
+        this.esperaMs = esperaMs;
+
+        this.registrosEscritos = Counter.builder("monitoreo.auditoria.escritos")
+                .description("Registros de auditoría guardados en auditoria_eventos")
+                .register(meterRegistry);
+        this.registrosDesbordados = Counter.builder("monitoreo.auditoria.desbordados")
+                .description("Registros de auditoría volcados al log por búfer lleno")
+                .register(meterRegistry);
+        this.registrosFallidos = Counter.builder("monitoreo.auditoria.fallidos")
+                .description("Registros de auditoría volcados al log por error al guardar su lote")
+                .register(meterRegistry);
+        this.loteTimer = Timer.builder("monitoreo.auditoria.lote.tiempo")
+                .description("Tiempo de inserción y commit de un lote de auditoría")
+                .register(meterRegistry);
+        Gauge.builder("monitoreo.auditoria.pendientes", buffer, BlockingQueue::size)
+                .description("Registros de auditoría pendientes de guardar")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        activo = true;
+        escritor = new Thread(this::escribir, "auditoria-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (escritor != null) {
+            escritor.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Encola el registro sin bloquear; con el búfer lleno lo vuelca al log
+     */
+    public void registrar(RegistroAuditoria registro) {
+        if (!buffer.offer(registro)) {
+            registrosDesbordados.increment();
+            volcarAlLog(registro);
+        }
+    }
+
+    private void escribir() {
+        WorkloadContext.establecer(CargaTrabajo.SEGUNDO_PLANO);
+        List<RegistroAuditoria> lote = new ArrayList<>(tamanoLote);
+        try {
+            while (activo || !buffer.isEmpty()) {
+                RegistroAuditoria primero = buffer.poll(esperaMs, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                buffer.drainTo(lote, tamanoLote - 1);
+                guardar(lote);
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            WorkloadContext.limpiar();
+        }
+    }
+
+    /**
+     * Inserta el lote en una sola transacción
+     */
+    void guardar(List<RegistroAuditoria> lote) {
+        long inicio = System.nanoTime();
+        try {
+            List<Object[]> filas = new ArrayList<>(lote.size());
+            for (RegistroAuditoria registro : lote) {
+                filas.add(fila(registro));
+            }
+            transactionTemplate.executeWithoutResult(estado -> jdbcTemplate.batchUpdate(SQL_INSERCION, filas));
+            registrosEscritos.increment(lote.size());
+        } catch (DataAccessException | TransactionException e) {
+            logger.error("No se pudo guardar un lote de {} registros de auditoría: {}", lote.size(), e.getMessage());
+            registrosFallidos.increment(lote.size());
+            lote.forEach(this::volcarAlLog);
+        } finally {
+            loteTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Object[] fila(RegistroAuditoria registro) {
+        String detalle;
+        try {
+            detalle = objectMapper.writeValueAsString(registro.getDetalle());
+        } catch (JsonProcessingException e) {
+            logger.debug("Detalle de auditoría no serializable: {}", e.getMessage());
+            detalle = "{}";
+        }
+        return new Object[]{registro.getTipoEvento(), Timestamp.valueOf(registro.getTimestamp()), registro.getSeveridad(),
+                registro.getUserId(), registro.getSessionId(), registro.getCorrelationId(), registro.getTipoDato(),
+                registro.getOrigen(), registro.getOperacion(), registro.getRecurso(),
+                detalle};
+    }
+
+    private void volcarAlLog(RegistroAuditoria registro) {
+        auditLogger.warn("Registro de auditoría no persistido: tipo={} severidad={} usuario={} origen={} recurso={} detalle={}",
+                registro.getTipoEvento(), registro.getSeveridad(), registro.getUserId(), registro.getOrigen(),
+                registro.getRecurso(), registro.getDetalle());
+    }
+
+    public int getPendientes() {
+        return buffer.size();
+    }
+}
@@ -0,0 +1,175 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.MetricasProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Gauges cuyo valor se fija desde el código (métricas de rendimiento y de negocio).
+ * Cada serie (nombre + tags) se registra una sola vez con un contenedor reutilizable y las
+ * llamadas posteriores solo actualizan su valor. El número de series está limitado: las nuevas
+ * por encima del límite se rechazan y se cuentan. Las series que dejan de actualizarse se retiran
+ * del registro pasado el tiempo de expiración.
+ */
+@Service
+public class DynamicGaugeRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicGaugeRegistry.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxSeries;
+    private final long expiracionMs;
+    private final LongSupplier reloj;
+
+    private final Map<Clave, Serie> series = new ConcurrentHashMap<>();
+    private final AtomicInteger cantidad = new AtomicInteger();
+
+    private final Counter seriesRechazadas;
+    private final Counter seriesExpiradas;
+
+    @Autowired
+    public DynamicGaugeRegistry(MeterRegistry meterRegistry, MetricasProperties properties) {
+        this(meterRegistry, properties.getGauges().getMaxSeries(), properties.getGauges().getExpiracionMs(),
+                System::currentTimeMillis);
+    }
+
+    DynamicGaugeRegistry(MeterRegistry meterRegistry, int maxSeries, long expiracionMs, LongSupplier reloj) {
+        if (maxSeries <= 0 || expiracionMs <= 0) {
+            throw new IllegalArgumentException("La configuración de los gauges dinámicos debe ser positiva");
+        }
+        this.meterRegistry = meterRegistry;
+        this.maxSeries = maxSeries;
+        this.expiracionMs = expiracionMs;
+        this.reloj = reloj;
+
+        this.seriesRechazadas = Counter.builder("monitoreo.gauges.dinamicos.rechazados")
+                .description("Series de gauges dinámicos rechazadas por superar el límite de cardinalidad")
+                .register(meterRegistry);
+        this.seriesExpiradas = Counter.builder("monitoreo.gauges.dinamicos.expirados")
+                .description("Series de gauges dinámicos retiradas por no actualizarse")
+                .register(meterRegistry);
+        Gauge.builder("monitoreo.gauges.dinamicos.series", cantidad, AtomicInteger::get)
+                .description("Series de gauges dinámicos registradas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fija el valor de la serie, registrándola la primera vez
+     *
+     * @return false si la serie es nueva y se rechazó por el límite de cardinalidad
+     */
+    public boolean fijar(String nombre, String descripcion, Tags tags, double valor) {
+        Clave clave = new Clave(nombre, tags);
+        while (true) {
+            Serie serie = series.get(clave);
+            if (serie == null) {
+                serie = series.computeIfAbsent(clave, c -> registrar(c, descripcion));
+                if (serie == null) {
+                    seriesRechazadas.increment();
+                    logger.debug("Gauge {} {} rechazado: límite de {} series alcanzado", nombre, tags, maxSeries);
+                    return false;
+                }
+            }
+            serie.fijar(valor, reloj.getAsLong());
+            // Si la expiración la está retirando o ya la retiró, se vuelve a registrar
+            if (!serie.retirada) {
+                return true;
+            }
+        }
+    }
+
+    private Serie registrar(Clave clave, String descripcion) {
+        if (cantidad.incrementAndGet() > maxSeries) {
+            cantidad.decrementAndGet();
+            return null;
+        }
+        Serie serie = new Serie(reloj.getAsLong());
+        serie.gauge = Gauge.builder(clave.nombre, serie, Serie::valor)
+                .description(descripcion)
+                .tags(clave.tags)
+                .strongReference(true)
+                .register(meterRegistry);
+        return serie;
+    }
+
+    /**
+     * Retira del registro las series que no se han actualizado dentro del tiempo de expiración
+     */
+    @Scheduled(fixedDelayString = "${monitoreo.metricas.gauges.intervalo-expiracion-ms:60000}")
+    public int expirar() {
+        long limite = reloj.getAsLong() - expiracionMs;
+        int retiradas = 0;
+        for (Clave clave : series.keySet()) {
+            boolean[] retirada = {false};
+            // El gauge se quita del registro dentro del cómputo de la entrada: un fijar concurrente de la
+            // misma serie espera y vuelve a registrarla después, sin recibir el gauge que se está retirando.
+            // Se marca antes de comprobar de nuevo la fecha: o la expiración ve la escritura del fijar, o el
+            // fijar ve la marca y repite.
+            series.computeIfPresent(clave, (c, serie) -> {
+                if (serie.ultimaActualizacion >= limite) {
+                    return serie;
+                }
+                serie.retirada = true;
+                if (serie.ultimaActualizacion >= limite) {
+                    serie.retirada = false;
+                    return serie;
+                }
+                meterRegistry.remove(serie.gauge);
+                cantidad.decrementAndGet();
+                retirada[0] = true;
+                return null;
+            });
+            if (retirada[0]) {
+                retiradas++;
+            }
+        }
+        if (retiradas > 0) {
+            seriesExpiradas.increment(retiradas);
+            logger.debug("Gauges dinámicos expirados: {}", retiradas);
+        }
+        return retiradas;
+    }
+
+    public int getSeries() {
+        return cantidad.get();
+    }
+
+    private record Clave(String nombre, Tags tags) {
+    }
+
+    /**
+     * Contenedor del valor de una serie; el double se guarda como bits en un AtomicLong
+     */
+    private static final class Serie {
+        private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private volatile long ultimaActualizacion;
+        private volatile boolean retirada;
+        private Gauge gauge;
+
+        Serie(long ahora) {
+            this.ultimaActualizacion = ahora;
+        }
+
+        void fijar(double valor, long ahora) {
+            bits.set(Double.doubleToRawLongBits(valor));
+            ultimaActualizacion = ahora;
+        }
+
+        double valor() {
+            return Double.longBitsToDouble(bits.get());
+        }
+    }
+}
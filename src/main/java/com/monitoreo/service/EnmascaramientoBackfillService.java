@@ -0,0 +1,103 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.EnmascaramientoEventoListener;
+import com.monitoreo.config.SensitiveDataScanner;
+import com.monitoreo.config.ShardContext;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Vuelve a enmascarar los eventos guardados sin enmascaramiento o con una versión anterior
+ * de las reglas. Recorre cada shard por lotes ordenados por id; cada lote es una transacción.
+ */
+@Service
+public class EnmascaramientoBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnmascaramientoBackfillService.class);
+
+    private final EventoMonitoreoRepository eventoMonitoreoRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean habilitado;
+    private final int tamanoLote;
+
+    private final Counter eventosReenmascaradosCounter;
+
+    public EnmascaramientoBackfillService(EventoMonitoreoRepository eventoMonitoreoRepository,
+                                          ShardRouter shardRouter,
+                                          PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${monitoreo.masking.backfill.habilitado:true}") boolean habilitado,
+                                          @Value("${monitoreo.masking.backfill.tamano-lote:500}") int tamanoLote) {
+        this.eventoMonitoreoRepository = eventoMonitoreoRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.tamanoLote = tamanoLote;
+
+        this.eventosReenmascaradosCounter = Counter.builder("monitoreo.masking.backfill.eventos")
+                .description("Eventos enmascarados de nuevo por cambio de versión de las reglas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reenmascara los eventos pendientes de todos los shards
+     */
+    @Scheduled(fixedDelayString = "${monitoreo.masking.backfill.intervalo-ms:3600000}",
+            initialDelayString = "${monitoreo.masking.backfill.retraso-inicial-ms:60000}")
+    public void reenmascararPendientes() {
+        if (!habilitado) {
+            return;
+        }
+        long total = 0;
+        for (String shard : shardRouter.getShards()) {
+            total += ShardContext.ejecutarEn(shard, this::reenmascararShardActual);
+        }
+
+        if (total > 0) {
+            logger.info("Backfill de enmascaramiento completado: {} eventos actualizados a la versión {}",
+                    total, SensitiveDataScanner.versionReglas());
+        }
+    }
+
+    /**
+     * Reenmascara los eventos pendientes del shard fijado en ShardContext y devuelve cuántos actualizó
+     */
+    long reenmascararShardActual() {
+        long total = 0;
+        long ultimoId = 0;
+        while (true) {
+            long desdeId = ultimoId;
+            List<EventoMonitoreo> lote = transactionTemplate.execute(status -> {
+                List<EventoMonitoreo> pendientes = eventoMonitoreoRepository.findPendientesDeEnmascarar(
+                        desdeId, SensitiveDataScanner.versionReglas(), PageRequest.of(0, tamanoLote));
+                pendientes.forEach(EnmascaramientoEventoListener::aplicar);
+                return pendientes;
+            });
+            if (lote == null || lote.isEmpty()) {
+                break;
+            }
+            eventosReenmascaradosCounter.increment(lote.size());
+            total += lote.size();
+            ultimoId = lote.get(lote.size() - 1).getId();
+            if (lote.size() < tamanoLote) {
+                break;
+            }
+        }
+        return total;
+    }
+}
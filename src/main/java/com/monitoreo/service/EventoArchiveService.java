@@ -0,0 +1,158 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.ShardContext;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoArchiveRepository;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import com.monitoreo.repository.FiltroArchivo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio de archivado frío: mueve los eventos antiguos de la tabla caliente a segmentos
+ * columnares en disco y combina ambos niveles en las consultas por rango de fechas.
+ */
+@Service
+public class EventoArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventoArchiveService.class);
+
+    private final EventoMonitoreoRepository eventoMonitoreoRepository;
+    private final EventoArchiveRepository eventoArchiveRepository;
+    private final ShardRouter shardRouter;
+
+    private final boolean habilitado;
+    private final int diasCalientes;
+    private final int tamanoLote;
+
+    private final Counter eventosArchivadosCounter;
+    private final Timer escaneoArchivoTimer;
+
+    public EventoArchiveService(EventoMonitoreoRepository eventoMonitoreoRepository,
+                                EventoArchiveRepository eventoArchiveRepository,
+                                ShardRouter shardRouter,
+                                MeterRegistry meterRegistry,
+                                @Value("${monitoreo.archivo.habilitado:true}") boolean habilitado,
+                                @Value("${monitoreo.archivo.dias-calientes:7}") int diasCalientes,
+                                @Value("${monitoreo.archivo.tamano-lote:50000}") int tamanoLote) {
+        this.eventoMonitoreoRepository = eventoMonitoreoRepository;
+        this.eventoArchiveRepository = eventoArchiveRepository;
+        this.shardRouter = shardRouter;
+        this.habilitado = habilitado;
+        this.diasCalientes = diasCalientes;
+        this.tamanoLote = tamanoLote;
+
+        this.eventosArchivadosCounter = Counter.builder("monitoreo.archivo.eventos.archivados")
+                .description("Número total de eventos movidos al archivo frío")
+                .register(meterRegistry);
+
+        this.escaneoArchivoTimer = Timer.builder("monitoreo.archivo.escaneo.tiempo")
+                .description("Tiempo de escaneo de segmentos del archivo frío")
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.archivo.segmentos", eventoArchiveRepository, EventoArchiveRepository::getCantidadSegmentos)
+                .description("Número de segmentos en el archivo frío")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mueve al archivo frío los eventos más antiguos que la ventana caliente.
+     * El segmento se escribe (con fsync) antes de borrar las filas, por lo que una caída
+     * intermedia solo puede dejar duplicados, que la combinación de resultados descarta por (shard, id).
+     */
+    @Scheduled(cron = "${monitoreo.archivo.cron:0 15 3 * * *}")
+    public void archivarEventosAntiguos() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(diasCalientes);
+        long total = 0;
+        for (String shard : shardRouter.getShards()) {
+            total += ShardContext.ejecutarEn(shard, () -> archivarShardActual(cutoff));
+        }
+
+        if (total > 0) {
+            logger.info("Archivado completado: {} eventos anteriores a {}", total, cutoff);
+        }
+    }
+
+    /**
+     * Archiva los eventos antiguos del shard fijado en ShardContext y devuelve cuántos movió
+     */
+    private long archivarShardActual(LocalDateTime cutoff) {
+        long total = 0;
+        try {
+            List<EventoMonitoreo> lote;
+            do {
+                lote = eventoMonitoreoRepository.findByTimestampBeforeOrderByTimestampAsc(cutoff, PageRequest.of(0, tamanoLote));
+                if (lote.isEmpty()) {
+                    break;
+                }
+                eventoArchiveRepository.escribirSegmento(ShardContext.actual(), lote);
+                eventoMonitoreoRepository.deleteAllInBatch(lote);
+                eventosArchivadosCounter.increment(lote.size());
+                total += lote.size();
+            } while (lote.size() == tamanoLote);
+        } catch (IOException e) {
+            logger.error("Error al escribir segmento de archivo (shard {}), se reintentará en la próxima ejecución: {}",
+                    ShardContext.actual(), e.getMessage(), e);
+        }
+        return total;
+    }
+
+    /**
+     * Combina los resultados de la tabla caliente con los del archivo frío para un rango de fechas.
+     * Si el rango no toca ningún segmento se devuelven los resultados calientes sin modificar.
+     * Los ids solo son únicos dentro de un shard, así que los duplicados se detectan por (shard, id):
+     * el de un evento caliente es el de su servicio y el de uno archivado, el del segmento.
+     */
+    public List<EventoMonitoreo> combinarConArchivo(List<EventoMonitoreo> calientes, LocalDateTime desde, LocalDateTime hasta) {
+        FiltroArchivo filtro = FiltroArchivo.rango(desde, hasta);
+        if (!eventoArchiveRepository.cubreRango(filtro)) {
+            return calientes;
+        }
+
+        Map<String, List<EventoMonitoreo>> archivados = escaneoArchivoTimer.record(() -> eventoArchiveRepository.buscarPorShard(filtro));
+        if (archivados.isEmpty()) {
+            return calientes;
+        }
+
+        List<EventoMonitoreo> combinados = new ArrayList<>(calientes);
+        Set<ClaveEvento> claves = new HashSet<>();
+        for (EventoMonitoreo evento : calientes) {
+            claves.add(new ClaveEvento(shardRouter.shardPara(evento.getServiceName()), evento.getId()));
+        }
+        archivados.forEach((shard, eventos) -> {
+            for (EventoMonitoreo evento : eventos) {
+                // Segmentos sin shard registrado: se asume el que corresponde hoy a su servicio
+                String origen = shard != null ? shard : shardRouter.shardPara(evento.getServiceName());
+                if (claves.add(new ClaveEvento(origen, evento.getId()))) {
+                    combinados.add(evento);
+                }
+            }
+        });
+        combinados.sort(Comparator.comparing(EventoMonitoreo::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder())));
+        return combinados;
+    }
+
+    private record ClaveEvento(String shard, Long id) {
+    }
+}
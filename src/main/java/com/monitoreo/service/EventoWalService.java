@@ -0,0 +1,428 @@
+package com.monitoreo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.monitoreo.config.CargaTrabajo;
+import com.monitoreo.config.SensitiveDataFilter;
+import com.monitoreo.config.ShardContext;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.config.WorkloadContext;
+import com.monitoreo.model.EventoCompacto;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import com.monitoreo.repository.EventoWriteAheadLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingesta durable de eventos sobre el WAL local.
+ * Los eventos se anexan al WAL antes de guardarse; si PostgreSQL falla o va con retraso,
+ * un hilo replicador los mueve a la base de datos en lotes cuando vuelve a estar disponible.
+ * La entrega es de al menos una vez: una caída entre el guardado y la confirmación puede duplicar un evento.
+ * <p>
+ * El WAL vive en disco local, fuera de la base de datos, así que nunca guarda el evento en claro: con
+ * monitoreo.wal.cifrado.clave (AES de 128 o 256 bits en Base64) se cifra con AES-GCM; sin clave se guarda
+ * con mensaje, metadata y usuario enmascarados, y los eventos que se replican desde el WAL llegan así a PostgreSQL.
+ */
+@Service
+public class EventoWalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventoWalService.class);
+
+    /**
+     * Secuencia devuelta cuando el WAL está deshabilitado
+     */
+    public static final long SIN_WAL = -1;
+
+    // Primer byte de un registro cifrado; los registros en JSON empiezan por '{'
+    private static final byte REGISTRO_CIFRADO = 1;
+    private static final int LONGITUD_IV = 12;
+    private static final int LONGITUD_TAG_BITS = 128;
+
+    // Mapper propio: el WAL debe conservar todos los campos, sin los filtros de la API
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final EventoWriteAheadLog writeAheadLog;
+    private final EventoMonitoreoRepository eventoMonitoreoRepository;
+    private final ShardRouter shardRouter;
+    private final MetricsService metricsService;
+    private final SensitiveDataFilter sensitiveDataFilter;
+    private final SecretKeySpec claveCifrado;
+    private final SecureRandom aleatorio = new SecureRandom();
+
+    private final int tamanoLote;
+    private final long intervaloMs;
+    private final long esperaMaximaMs;
+
+    private final Counter eventosReplicadosCounter;
+    private final Counter eventosDiferidosCounter;
+    private final Counter eventosDescartadosCounter;
+    private final Timer replicacionLoteTimer;
+
+    private volatile long timestampPrimerPendiente;
+
+    // Lote leído y aún no guardado, usado solo por el hilo replicador
+    private EventoWriteAheadLog.Lote loteRetenido;
+    private List<EventoCompacto> eventosRetenidos;
+    private volatile boolean activo;
+    private Thread replicador;
+
+    public EventoWalService(EventoWriteAheadLog writeAheadLog,
+                            EventoMonitoreoRepository eventoMonitoreoRepository,
+                            ShardRouter shardRouter,
+                            MetricsService metricsService,
+                            SensitiveDataFilter sensitiveDataFilter,
+                            MeterRegistry meterRegistry,
+                            @Value("${monitoreo.wal.cifrado.clave:}") String claveCifrado,
+                            @Value("${monitoreo.wal.replay.tamano-lote:500}") int tamanoLote,
+                            @Value("${monitoreo.wal.replay.intervalo-ms:500}") long intervaloMs,
+                            @Value("${monitoreo.wal.replay.espera-maxima-ms:30000}") long esperaMaximaMs) {
+        this.writeAheadLog = writeAheadLog;
+        this.eventoMonitoreoRepository = eventoMonitoreoRepository;
+        this.shardRouter = shardRouter;
+        this.metricsService = metricsService;
+        this.sensitiveDataFilter = sensitiveDataFilter;
+        this.claveCifrado = claveCifrado.isBlank() ? null : new SecretKeySpec(Base64.getDecoder().decode(claveCifrado.trim()), "AES");
+        this.tamanoLote = tamanoLote;
+        this.intervaloMs = intervaloMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        this.eventosReplicadosCounter = Counter.builder("monitoreo.wal.eventos.replicados")
+                .description("Eventos replicados desde el WAL a PostgreSQL")
+                .register(meterRegistry);
+
+        this.eventosDiferidosCounter = Counter.builder("monitoreo.wal.eventos.diferidos")
+                .description("Eventos aceptados en el WAL sin poder guardarse en PostgreSQL")
+                .register(meterRegistry);
+
+        this.eventosDescartadosCounter = Counter.builder("monitoreo.wal.eventos.descartados")
+                .description("Eventos del WAL rechazados de forma definitiva por PostgreSQL")
+                .register(meterRegistry);
+
+        this.replicacionLoteTimer = Timer.builder("monitoreo.wal.replay.lote.tiempo")
+                .description("Tiempo de guardado de un lote replicado desde el WAL")
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.wal.eventos.pendientes", writeAheadLog, EventoWriteAheadLog::getPendientes)
+                .description("Eventos del WAL pendientes de replicar")
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.wal.replay.retraso.segundos", this, EventoWalService::getRetrasoReplicacionSegundos)
+                .description("Antigüedad del evento pendiente más antiguo del WAL")
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.wal.segmentos", writeAheadLog, EventoWriteAheadLog::getCantidadSegmentos)
+                .description("Segmentos del WAL en disco")
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.wal.segmento.tamano.bytes", writeAheadLog, EventoWriteAheadLog::getTamanoSegmento)
+                .description("Tamaño configurado de los segmentos del WAL")
+                .register(meterRegistry);
+
+        Gauge.builder("monitoreo.wal.fsync.politica", () -> 1)
+                .description("Política de fsync configurada para el WAL")
+                .tag("politica", writeAheadLog.getPoliticaFsync().name())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!writeAheadLog.isHabilitado()) {
+            logger.info("WAL de eventos deshabilitado, la ingesta escribe directamente en PostgreSQL");
+            return;
+        }
+        if (claveCifrado == null) {
+            logger.warn("WAL sin clave de cifrado (monitoreo.wal.cifrado.clave): los eventos se guardan enmascarados en disco "
+                    + "y los que se repliquen desde el WAL llegarán enmascarados a PostgreSQL");
+        }
+        activo = true;
+        replicador = new Thread(this::replicar, "wal-replicador");
+        replicador.setDaemon(true);
+        replicador.start();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (replicador != null) {
+            replicador.interrupt();
+            replicador.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Anexa el evento al WAL y reserva su secuencia para el guardado directo
+     */
+    public long registrar(EventoMonitoreo evento) throws IOException {
+        if (!writeAheadLog.isHabilitado()) {
+            return SIN_WAL;
+        }
+        return writeAheadLog.anexar(codificar(evento));
+    }
+
+    /**
+     * Contenido del registro: el evento cifrado o, sin clave, enmascarado
+     */
+    byte[] codificar(EventoMonitoreo evento) throws IOException {
+        if (claveCifrado == null) {
+            return objectMapper.writeValueAsBytes(enmascarar(objectMapper.valueToTree(evento)));
+        }
+        byte[] json = objectMapper.writeValueAsBytes(evento);
+        byte[] iv = new byte[LONGITUD_IV];
+        aleatorio.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, claveCifrado, new GCMParameterSpec(LONGITUD_TAG_BITS, iv));
+            byte[] cifrado = cipher.doFinal(json);
+            return ByteBuffer.allocate(1 + LONGITUD_IV + cifrado.length)
+                    .put(REGISTRO_CIFRADO).put(iv).put(cifrado).array();
+        } catch (GeneralSecurityException e) {
+            throw new IOException("No se pudo cifrar el evento para el WAL", e);
+        }
+    }
+
+    EventoMonitoreo decodificar(byte[] datos) throws IOException {
+        if (datos.length == 0 || datos[0] != REGISTRO_CIFRADO) {
+            return objectMapper.readValue(datos, EventoMonitoreo.class);
+        }
+        if (claveCifrado == null) {
+            throw new IOException("Evento cifrado en el WAL y sin clave de cifrado configurada");
+        }
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, claveCifrado, new GCMParameterSpec(LONGITUD_TAG_BITS, datos, 1, LONGITUD_IV));
+            byte[] json = cipher.doFinal(datos, 1 + LONGITUD_IV, datos.length - 1 - LONGITUD_IV);
+            return objectMapper.readValue(json, EventoMonitoreo.class);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("No se pudo descifrar el evento del WAL", e);
+        }
+    }
+
+    /**
+     * Enmascara los campos @SensitiveData del evento: mensaje, valores String de la metadata y usuario
+     */
+    private JsonNode enmascarar(ObjectNode evento) {
+        if (evento.hasNonNull("message")) {
+            evento.put("message", sensitiveDataFilter.maskSensitiveData(evento.get("message").asText()));
+        }
+        if (evento.hasNonNull("userId")) {
+            evento.put("userId", sensitiveDataFilter.maskUserId(evento.get("userId").asText()));
+        }
+        if (evento.get("metadata") instanceof ObjectNode metadata) {
+            for (Iterator<Map.Entry<String, JsonNode>> campos = metadata.fields(); campos.hasNext(); ) {
+                Map.Entry<String, JsonNode> campo = campos.next();
+                if (campo.getValue().isTextual()) {
+                    campo.setValue(metadata.textNode(sensitiveDataFilter.maskSensitiveData(campo.getValue().asText())));
+                }
+            }
+        }
+        return evento;
+    }
+
+    /**
+     * Confirma que el evento ya está en PostgreSQL
+     */
+    public void confirmar(long secuencia) {
+        if (secuencia == SIN_WAL) {
+            return;
+        }
+        try {
+            writeAheadLog.confirmar(secuencia);
+        } catch (IOException e) {
+            // Sin confirmación el evento se replicará de nuevo: duplicado, nunca pérdida
+            logger.warn("No se pudo registrar la confirmación {} en el WAL: {}", secuencia, e.getMessage());
+        }
+    }
+
+    /**
+     * Deja el evento en manos del replicador
+     */
+    public void diferir(long secuencia) {
+        if (secuencia == SIN_WAL) {
+            return;
+        }
+        writeAheadLog.liberar(secuencia);
+        eventosDiferidosCounter.increment();
+    }
+
+    /**
+     * Descarta un evento rechazado de forma definitiva para que no se reintente
+     */
+    public void descartar(long secuencia) {
+        confirmar(secuencia);
+    }
+
+    /**
+     * Indica si hay eventos esperando replicación; en ese caso la ingesta no debe adelantarse al replicador
+     */
+    public boolean hayPendientes() {
+        return writeAheadLog.isHabilitado() && writeAheadLog.getPendientes() > 0;
+    }
+
+    /**
+     * Errores que indican indisponibilidad de PostgreSQL y justifican reintentar más tarde
+     */
+    public static boolean esFallaTransitoria(Throwable e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    public double getRetrasoReplicacionSegundos() {
+        long timestamp = timestampPrimerPendiente;
+        return timestamp == 0 ? 0 : (System.currentTimeMillis() - timestamp) / 1000.0;
+    }
+
+    private void replicar() {
+        // La reinyección es camino de escritura: usa el pool de ingesta, no el de segundo plano
+        WorkloadContext.establecer(CargaTrabajo.INGESTA);
+        long espera = intervaloMs;
+        while (activo) {
+            try {
+                int replicados = replicarLote();
+                espera = intervaloMs;
+                if (replicados < tamanoLote) {
+                    Thread.sleep(intervaloMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.warn("No se pudo replicar el WAL a PostgreSQL, reintento en {} ms: {}", espera, e.getMessage());
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                espera = Math.min(espera * 2, esperaMaximaMs);
+            }
+        }
+    }
+
+    /**
+     * Replica un lote de eventos pendientes y devuelve cuántos se procesaron.
+     * Si PostgreSQL falla, el lote queda retenido en forma compacta hasta el siguiente reintento.
+     */
+    int replicarLote() throws IOException {
+        if (loteRetenido == null) {
+            EventoWriteAheadLog.Lote lote = writeAheadLog.leerPendientes(tamanoLote);
+            List<EventoWriteAheadLog.RegistroWal> registros = lote.getRegistros();
+            if (registros.isEmpty()) {
+                timestampPrimerPendiente = 0;
+                if (lote.isAvanza()) {
+                    writeAheadLog.marcarReplicado(lote);
+                }
+                return 0;
+            }
+            timestampPrimerPendiente = registros.get(0).getTimestamp();
+
+            List<EventoCompacto> eventos = new ArrayList<>(registros.size());
+            for (EventoWriteAheadLog.RegistroWal registro : registros) {
+                try {
+                    eventos.add(EventoCompacto.from(decodificar(registro.getDatos())));
+                } catch (IOException e) {
+                    logger.error("Evento ilegible en el WAL (secuencia {}), se descarta: {}", registro.getSecuencia(), e.getMessage());
+                    eventosDescartadosCounter.increment();
+                }
+            }
+            loteRetenido = lote.sinDatos();
+            eventosRetenidos = eventos;
+        }
+
+        // Un guardado por shard: si uno falla, los grupos ya escritos en otros shards no se repiten al reintentar
+        Map<String, List<EventoCompacto>> porShard = new LinkedHashMap<>();
+        for (EventoCompacto evento : eventosRetenidos) {
+            porShard.computeIfAbsent(shardRouter.shardPara(evento.getServiceName()), shard -> new ArrayList<>()).add(evento);
+        }
+        int procesados = eventosRetenidos.size();
+        int totalGuardados = 0;
+        for (Map.Entry<String, List<EventoCompacto>> grupo : porShard.entrySet()) {
+            // Entidades nuevas en cada intento: un guardado fallido puede haberles asignado id
+            List<EventoMonitoreo> entidades = new ArrayList<>(grupo.getValue().size());
+            for (EventoCompacto evento : grupo.getValue()) {
+                entidades.add(evento.toEntity());
+            }
+
+            int guardados = replicacionLoteTimer.record(() -> ShardContext.ejecutarEn(grupo.getKey(), () -> guardar(entidades)));
+            Set<EventoCompacto> escritos = Collections.newSetFromMap(new IdentityHashMap<>());
+            escritos.addAll(grupo.getValue());
+            eventosRetenidos.removeIf(escritos::contains);
+
+            totalGuardados += guardados;
+            eventosReplicadosCounter.increment(guardados);
+            for (int i = 0; i < guardados; i++) {
+                metricsService.incrementarEventosCreados();
+            }
+        }
+        writeAheadLog.marcarReplicado(loteRetenido);
+        loteRetenido = null;
+        eventosRetenidos = null;
+
+        logger.info("Replicados {} eventos desde el WAL", totalGuardados);
+        return procesados;
+    }
+
+    /**
+     * Guarda el lote completo; si PostgreSQL rechaza algún evento, reintenta uno a uno y descarta los inválidos
+     */
+    private int guardar(List<EventoMonitoreo> eventos) {
+        try {
+            eventoMonitoreoRepository.saveAll(eventos);
+            return eventos.size();
+        } catch (RuntimeException e) {
+            if (esFallaTransitoria(e)) {
+                throw e;
+            }
+            logger.warn("Lote del WAL rechazado, se reintenta evento a evento: {}", e.getMessage());
+        }
+
+        int guardados = 0;
+        for (EventoMonitoreo evento : eventos) {
+            try {
+                eventoMonitoreoRepository.save(evento);
+                guardados++;
+            } catch (RuntimeException e) {
+                if (esFallaTransitoria(e)) {
+                    throw e;
+                }
+                logger.error("Evento del WAL rechazado por PostgreSQL, se descarta: {} - {}", evento, e.getMessage());
+                eventosDescartadosCounter.increment();
+            }
+        }
+        return guardados;
+    }
+}
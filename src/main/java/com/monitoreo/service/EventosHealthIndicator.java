@@ -0,0 +1,207 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.ShardContext;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.model.EventoMonitoreo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Salud de la base de datos de eventos servida desde una instantánea. Un trabajo programado
+ * sondea cada shard con una consulta trivial (latencia) y lee el número aproximado de filas de
+ * pg_class.reltuples; /actuator/health y /api/monitoreo/eventos/health solo leen la instantánea,
+ * sin abrir conexiones ni recorrer la tabla. Una instantánea más antigua que la antigüedad máxima
+ * se informa como DOWN: el propio sondeo está bloqueado.
+ */
+@Component
+public class EventosHealthIndicator implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventosHealthIndicator.class);
+
+    private static final String SQL_SONDA = "SELECT 1";
+    private static final String SQL_FILAS = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final String tabla;
+    private final long antiguedadMaximaMs;
+    private final LongSupplier reloj;
+    private final Map<String, Timer> sondaPorShard = new HashMap<>();
+
+    private volatile Instantanea instantanea;
+
+    @Autowired
+    public EventosHealthIndicator(DataSource dataSource,
+                                  ShardRouter shardRouter,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${monitoreo.salud.timeout-segundos:2}") int timeoutSegundos,
+                                  @Value("${monitoreo.salud.antiguedad-maxima-ms:60000}") long antiguedadMaximaMs) {
+        this(dataSource, shardRouter, meterRegistry, timeoutSegundos, antiguedadMaximaMs, System::currentTimeMillis);
+    }
+
+    EventosHealthIndicator(DataSource dataSource, ShardRouter shardRouter, MeterRegistry meterRegistry,
+                           int timeoutSegundos, long antiguedadMaximaMs, LongSupplier reloj) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(timeoutSegundos);
+        this.shardRouter = shardRouter;
+        this.tabla = EventoMonitoreo.class.getAnnotation(Table.class).name();
+        this.antiguedadMaximaMs = antiguedadMaximaMs;
+        this.reloj = reloj;
+
+        for (String shard : shardRouter.getShards()) {
+            sondaPorShard.put(shard, Timer.builder("monitoreo.salud.sonda.tiempo")
+                    .description("Latencia de la consulta trivial de salud por shard")
+                    .tag("shard", shard)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("monitoreo.salud.antiguedad", this, indicador -> indicador.antiguedadMs() / 1000.0)
+                .description("Segundos desde la última instantánea de salud")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refresca la instantánea; corre en el planificador de segundo plano
+     */
+    @Scheduled(fixedDelayString = "${monitoreo.salud.intervalo-ms:10000}")
+    public void actualizar() {
+        Map<String, EstadoShard> shards = new LinkedHashMap<>();
+        for (String shard : shardRouter.getShards()) {
+            shards.put(shard, ShardContext.ejecutarEn(shard, () -> sondear(shard)));
+        }
+        Instantanea anterior = instantanea;
+        Instantanea nueva = new Instantanea(shards, reloj.getAsLong());
+        if (anterior != null && anterior.disponible() != nueva.disponible()) {
+            logger.warn("Salud de la base de datos de eventos: {}", nueva.disponible() ? "recuperada" : "no disponible");
+        }
+        instantanea = nueva;
+    }
+
+    private EstadoShard sondear(String shard) {
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<EstadoShard>) conexion -> {
+                long inicio = System.nanoTime();
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.setQueryTimeout(jdbcTemplate.getQueryTimeout());
+                    sentencia.execute(SQL_SONDA);
+                }
+                long nanos = System.nanoTime() - inicio;
+                sondaPorShard.get(shard).record(nanos, TimeUnit.NANOSECONDS);
+
+                Long filas = null;
+                if ("PostgreSQL".equalsIgnoreCase(conexion.getMetaData().getDatabaseProductName())) {
+                    try (PreparedStatement sentencia = conexion.prepareStatement(SQL_FILAS)) {
+                        sentencia.setQueryTimeout(jdbcTemplate.getQueryTimeout());
+                        sentencia.setString(1, tabla);
+                        try (ResultSet resultado = sentencia.executeQuery()) {
+                            // reltuples es -1 mientras la tabla no se ha analizado nunca
+                            if (resultado.next() && resultado.getLong(1) >= 0) {
+                                filas = resultado.getLong(1);
+                            }
+                        }
+                    }
+                }
+                return new EstadoShard(true, nanos / 1_000_000.0, filas, null);
+            });
+        } catch (DataAccessException e) {
+            logger.debug("Sonda de salud fallida en el shard {}: {}", shard, e.getMessage());
+            return new EstadoShard(false, null, null, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Estado desde la instantánea, sin acceder a la base de datos
+     */
+    @Override
+    public Health health() {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            return Health.unknown().withDetail("motivo", "Sin instantánea de salud todavía").build();
+        }
+        long antiguedad = reloj.getAsLong() - actual.tomadaEn();
+        Health.Builder builder = actual.disponible() ? Health.up() : Health.down();
+        if (antiguedad > antiguedadMaximaMs) {
+            builder = Health.down().withDetail("motivo", "Instantánea de salud obsoleta");
+        }
+        Map<String, Object> shards = new LinkedHashMap<>();
+        actual.shards().forEach((shard, estado) -> shards.put(shard, estado.detalle()));
+        builder.withDetail("actualizado", Instant.ofEpochMilli(actual.tomadaEn()).toString())
+                .withDetail("antiguedadMs", antiguedad)
+                .withDetail("shards", shards);
+        Long filas = actual.filasAproximadas();
+        if (filas != null) {
+            builder.withDetail("filasAproximadas", filas);
+        }
+        return builder.build();
+    }
+
+    private long antiguedadMs() {
+        Instantanea actual = instantanea;
+        return actual == null ? 0 : reloj.getAsLong() - actual.tomadaEn();
+    }
+
+    public Instantanea getInstantanea() {
+        return instantanea;
+    }
+
+    /**
+     * Resultado de la sonda en un shard; filasAproximadas es null fuera de PostgreSQL
+     */
+    public record EstadoShard(boolean disponible, Double latenciaMs, Long filasAproximadas, String error) {
+
+        Map<String, Object> detalle() {
+            Map<String, Object> detalle = new LinkedHashMap<>();
+            detalle.put("disponible", disponible);
+            detalle.put("latenciaMs", latenciaMs);
+            detalle.put("filasAproximadas", filasAproximadas);
+            if (error != null) {
+                detalle.put("error", error);
+            }
+            return detalle;
+        }
+    }
+
+    public record Instantanea(Map<String, EstadoShard> shards, long tomadaEn) {
+
+        public boolean disponible() {
+            return shards.values().stream().allMatch(EstadoShard::disponible);
+        }
+
+        /**
+         * Suma de las filas aproximadas de los shards que las conocen, o null si ninguno
+         */
+        public Long filasAproximadas() {
+            Long total = null;
+            for (EstadoShard estado : shards.values()) {
+                if (estado.filasAproximadas() != null) {
+                    total = (total == null ? 0 : total) + estado.filasAproximadas();
+                }
+            }
+            return total;
+        }
+    }
+}
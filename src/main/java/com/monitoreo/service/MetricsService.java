@@ -1,11 +1,16 @@
 package com.monitoreo.service;
 
+import com.monitoreo.config.MetricasProperties;
+import com.monitoreo.model.EventoMonitoreo;
 import io.micrometer.core.instrument.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -51,8 +56,19 @@ public class MetricsService {
     private final Counter errorLogsCounter;
     private final Counter debugLogsCounter;
 
-    public MetricsService(MeterRegistry meterRegistry) {
+    // Gauges de rendimiento y de negocio con valor fijado desde el código
+    private final DynamicGaugeRegistry dynamicGaugeRegistry;
+
+    // Ingesta por servicio y tipo de evento, con los valores de tag acotados
+    private final TagCardinalityLimiter serviciosIngesta;
+    private final TagCardinalityLimiter tiposIngesta;
+    private final Map<String, MedidoresIngesta> medidoresIngesta = new ConcurrentHashMap<>();
+
+    public MetricsService(MeterRegistry meterRegistry, DynamicGaugeRegistry dynamicGaugeRegistry, MetricasProperties properties) {
         this.meterRegistry = meterRegistry;
+        this.dynamicGaugeRegistry = dynamicGaugeRegistry;
+        this.serviciosIngesta = new TagCardinalityLimiter("servicio", properties.getIngesta().getMaxServicios(), meterRegistry);
+        this.tiposIngesta = new TagCardinalityLimiter("tipo_evento", properties.getIngesta().getMaxTiposEvento(), meterRegistry);
 
         // Inicializar contadores
         this.eventosCreadosCounter = Counter.builder("monitoreo.eventos.creados")
@@ -269,22 +285,106 @@ public class MetricsService {
 
     // Método para registrar métricas de rendimiento del sistema
     public void registrarMetricaRendimiento(String nombre, double valor, String unidad) {
-        Gauge.builder("monitoreo.rendimiento." + nombre, () -> valor)
-                .description("Métrica de rendimiento: " + nombre)
-                .tag("unidad", unidad)
-                .register(meterRegistry);
+        dynamicGaugeRegistry.fijar("monitoreo.rendimiento." + nombre, "Métrica de rendimiento: " + nombre,
+                Tags.of("unidad", unidad), valor);
         logger.debug("Métrica de rendimiento registrada: {} = {} {}", nombre, valor, unidad);
     }
 
     // Método para registrar métricas de negocio
     public void registrarMetricaNegocio(String nombre, double valor, String categoria) {
-        Gauge.builder("monitoreo.negocio." + nombre, () -> valor)
-                .description("Métrica de negocio: " + nombre)
-                .tag("categoria", categoria)
-                .register(meterRegistry);
+        dynamicGaugeRegistry.fijar("monitoreo.negocio." + nombre, "Métrica de negocio: " + nombre,
+                Tags.of("categoria", categoria), valor);
         logger.debug("Métrica de negocio registrada: {} = {} ({})", nombre, valor, categoria);
     }
 
+    /**
+     * Registra un evento recibido por servicio y tipo, con su tamaño aproximado en bytes
+     */
+    public void registrarIngesta(EventoMonitoreo evento) {
+        String servicio = serviciosIngesta.valor(evento.getServiceName());
+        String tipo = tiposIngesta.valor(evento.getEventType());
+        MedidoresIngesta medidores = medidoresIngesta.computeIfAbsent(servicio + '\u0000' + tipo,
+                clave -> new MedidoresIngesta(servicio, tipo));
+        medidores.eventos.increment();
+        medidores.bytes.record(tamanoEstimado(evento));
+    }
+
+    /**
+     * Bytes UTF-8 de los campos de texto y de la metadata del evento, sin serializarlo
+     */
+    static long tamanoEstimado(EventoMonitoreo evento) {
+        return bytes(evento.getEventType()) + bytes(evento.getMessage()) + bytes(evento.getServiceName())
+                + bytes(evento.getLevel()) + bytes(evento.getUserId()) + bytes(evento.getSessionId())
+                + bytesValor(evento.getMetadata());
+    }
+
+    private static long bytesValor(Object valor) {
+        if (valor == null) {
+            return 0;
+        }
+        if (valor instanceof CharSequence texto) {
+            return bytes(texto);
+        }
+        if (valor instanceof Map<?, ?> mapa) {
+            long total = 0;
+            for (Map.Entry<?, ?> entrada : mapa.entrySet()) {
+                total += bytesValor(entrada.getKey()) + bytesValor(entrada.getValue());
+            }
+            return total;
+        }
+        if (valor instanceof Collection<?> coleccion) {
+            long total = 0;
+            for (Object elemento : coleccion) {
+                total += bytesValor(elemento);
+            }
+            return total;
+        }
+        return bytes(String.valueOf(valor));
+    }
+
+    private static long bytes(CharSequence texto) {
+        if (texto == null) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                total++;
+            } else if (c < 0x800) {
+                total += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                total += 4;
+                i++;
+            } else {
+                total += 3;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Medidores de una combinación servicio/tipo ya acotada
+     */
+    private final class MedidoresIngesta {
+        private final Counter eventos;
+        private final DistributionSummary bytes;
+
+        MedidoresIngesta(String servicio, String tipo) {
+            this.eventos = Counter.builder("monitoreo.ingesta.eventos")
+                    .description("Eventos recibidos por servicio y tipo de evento")
+                    .tag("servicio", servicio)
+                    .tag("tipo_evento", tipo)
+                    .register(meterRegistry);
+            this.bytes = DistributionSummary.builder("monitoreo.ingesta.bytes")
+                    .description("Tamaño aproximado de los eventos recibidos por servicio y tipo de evento")
+                    .baseUnit("bytes")
+                    .tag("servicio", servicio)
+                    .tag("tipo_evento", tipo)
+                    .register(meterRegistry);
+        }
+    }
+
     // Método para obtener estadísticas resumidas
     public void registrarEstadisticasResumidas() {
         long eventosActivos = eventosActivosGauge.get();
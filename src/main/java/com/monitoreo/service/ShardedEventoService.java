@@ -0,0 +1,369 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.CargaTrabajo;
+import com.monitoreo.config.ShardContext;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.config.WorkloadContext;
+import com.monitoreo.exception.CambioShardException;
+import com.monitoreo.exception.IdAmbiguoException;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Acceso a eventos repartidos por serviceName entre varias bases de datos.
+ * Las escrituras y consultas de un servicio van a su shard; el resto consulta todos
+ * los shards en paralelo y combina los resultados por timestamp descendente.
+ * Con un único shard todas las operaciones se ejecutan directamente en el hilo llamante.
+ * <p>
+ * Las búsquedas y borrados por id van al shard que indica el rango del id (ShardRouter.shardDeId).
+ * Los borrados se ejecutan en una transacción por shard; un borrado masivo no es atómico entre shards.
+ */
+@Service
+public class ShardedEventoService {
+
+    /** Orden de los listados combinados: más recientes primero, sin fecha al final */
+    static final Comparator<EventoMonitoreo> POR_TIMESTAMP_DESC = Comparator.comparing(
+            EventoMonitoreo::getTimestamp, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).reversed();
+
+    private final EventoMonitoreoRepository eventoMonitoreoRepository;
+    private final ShardRouter shardRouter;
+    private final Executor scatterExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutScatterMs;
+
+    private final Timer scatterTimer;
+    private final Map<String, Counter> escriturasPorShard = new HashMap<>();
+
+    public ShardedEventoService(EventoMonitoreoRepository eventoMonitoreoRepository,
+                                ShardRouter shardRouter,
+                                @Qualifier("shardScatterExecutor") Executor scatterExecutor,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${monitoreo.sharding.timeout-scatter-ms:10000}") long timeoutScatterMs) {
+        this.eventoMonitoreoRepository = eventoMonitoreoRepository;
+        this.shardRouter = shardRouter;
+        this.scatterExecutor = scatterExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timeoutScatterMs = timeoutScatterMs;
+
+        this.scatterTimer = Timer.builder("monitoreo.sharding.scatter.tiempo")
+                .description("Tiempo de las consultas que recorren todos los shards")
+                .tag("shards", String.valueOf(shardRouter.getShards().size()))
+                .register(meterRegistry);
+
+        for (String shard : shardRouter.getShards()) {
+            escriturasPorShard.put(shard, Counter.builder("monitoreo.sharding.escrituras")
+                    .description("Eventos escritos por shard")
+                    .tag("shard", shard)
+                    .register(meterRegistry));
+        }
+    }
+
+    // ==================== UN SHARD ====================
+
+    /**
+     * Ejecuta una operación en el shard del servicio
+     */
+    public <T> T enShard(String serviceName, Function<EventoMonitoreoRepository, T> operacion) {
+        return ShardContext.ejecutarEn(shardRouter.shardPara(serviceName), () -> operacion.apply(eventoMonitoreoRepository));
+    }
+
+    public EventoMonitoreo guardar(EventoMonitoreo evento) {
+        String shard = shardRouter.shardPara(evento.getServiceName());
+        EventoMonitoreo guardado = ShardContext.ejecutarEn(shard, () -> eventoMonitoreoRepository.save(evento));
+        escriturasPorShard.get(shard).increment();
+        return guardado;
+    }
+
+    /**
+     * Guarda un lote agrupándolo por shard (un saveAll por shard, en paralelo si hay varios).
+     * Devuelve los eventos guardados en el orden de entrada.
+     */
+    public List<EventoMonitoreo> guardarTodos(List<EventoMonitoreo> eventos) {
+        if (shardRouter.esUnico()) {
+            List<EventoMonitoreo> guardados = eventoMonitoreoRepository.saveAll(eventos);
+            escriturasPorShard.get(ShardRouter.PRINCIPAL).increment(guardados.size());
+            return guardados;
+        }
+
+        Map<String, List<Integer>> indicesPorShard = new LinkedHashMap<>();
+        for (int i = 0; i < eventos.size(); i++) {
+            indicesPorShard.computeIfAbsent(shardRouter.shardPara(eventos.get(i).getServiceName()), s -> new ArrayList<>()).add(i);
+        }
+
+        List<String> shards = new ArrayList<>(indicesPorShard.keySet());
+        List<List<EventoMonitoreo>> guardadosPorShard = dispersar(shards, shard -> {
+            List<EventoMonitoreo> grupo = indicesPorShard.get(shard).stream().map(eventos::get).toList();
+            return eventoMonitoreoRepository.saveAll(grupo);
+        });
+
+        EventoMonitoreo[] resultado = new EventoMonitoreo[eventos.size()];
+        for (int s = 0; s < shards.size(); s++) {
+            List<Integer> indices = indicesPorShard.get(shards.get(s));
+            List<EventoMonitoreo> guardados = guardadosPorShard.get(s);
+            for (int i = 0; i < indices.size(); i++) {
+                resultado[indices.get(i)] = guardados.get(i);
+            }
+            escriturasPorShard.get(shards.get(s)).increment(guardados.size());
+        }
+        return List.of(resultado);
+    }
+
+    /**
+     * Guarda una versión modificada de un evento existente en su shard. Un cambio de servicio que
+     * llevaría el evento a otro shard se rechaza: moverlo exigiría un id nuevo y un insertar y borrar
+     * no atómicos entre dos bases de datos.
+     */
+    public EventoMonitoreo actualizar(EventoMonitoreo existente, EventoMonitoreo actualizado) {
+        String shardAnterior = shardRouter.shardPara(existente.getServiceName());
+        String shardNuevo = shardRouter.shardPara(actualizado.getServiceName());
+        if (!shardAnterior.equals(shardNuevo)) {
+            throw new CambioShardException(existente.getId(), shardAnterior, shardNuevo);
+        }
+        EventoMonitoreo guardado = ShardContext.ejecutarEn(shardNuevo, () -> eventoMonitoreoRepository.save(actualizado));
+        escriturasPorShard.get(shardNuevo).increment();
+        return guardado;
+    }
+
+    // ==================== TODOS LOS SHARDS ====================
+
+    /**
+     * Busca un evento por id en el shard de su rango
+     */
+    public Optional<EventoMonitoreo> buscarPorId(Long id) {
+        if (shardRouter.esUnico()) {
+            return eventoMonitoreoRepository.findById(id);
+        }
+        String shard = shardDeId(id);
+        if (shard == null) {
+            return Optional.empty();
+        }
+        return ShardContext.ejecutarEn(shard, () -> eventoMonitoreoRepository.findById(id));
+    }
+
+    /**
+     * Elimina un evento por id, comprobando y borrando en una transacción de su shard; devuelve false si no existe
+     */
+    public boolean eliminarPorId(Long id) {
+        if (shardRouter.esUnico()) {
+            return eliminarSiExiste(id);
+        }
+        String shard = shardDeId(id);
+        return shard != null && ShardContext.ejecutarEn(shard, () -> eliminarSiExiste(id));
+    }
+
+    private boolean eliminarSiExiste(Long id) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!eventoMonitoreoRepository.existsById(id)) {
+                return false;
+            }
+            eventoMonitoreoRepository.deleteById(id);
+            return true;
+        }));
+    }
+
+    /**
+     * Shard que contiene el id. Los ids anteriores a los rangos por shard se buscan en todos los shards
+     * (null si en ninguno) y, si aparecen en más de uno, no hay forma de saber a cuál se refieren.
+     */
+    private String shardDeId(Long id) {
+        String shard = shardRouter.shardDeId(id);
+        if (shard != null) {
+            return shard;
+        }
+        List<String> shards = shardRouter.getShards();
+        List<Boolean> existe = enTodos(repository -> repository.existsById(id));
+        List<String> conEvento = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (existe.get(i)) {
+                conEvento.add(shards.get(i));
+            }
+        }
+        if (conEvento.size() > 1) {
+            throw new IdAmbiguoException(id, conEvento.size());
+        }
+        return conEvento.isEmpty() ? null : conEvento.get(0);
+    }
+
+    /**
+     * Borrado masivo: la operación se ejecuta en cada shard en paralelo, en una transacción por shard,
+     * y devuelve la suma de eventos eliminados
+     */
+    public long eliminarEnTodos(ToLongFunction<EventoMonitoreoRepository> operacion) {
+        return contarEnTodos(repository -> Objects.requireNonNull(
+                transactionTemplate.execute(status -> operacion.applyAsLong(repository))));
+    }
+
+    /**
+     * Ejecuta la consulta en cada shard en paralelo y devuelve un resultado por shard
+     */
+    public <T> List<T> enTodos(Function<EventoMonitoreoRepository, T> consulta) {
+        return dispersar(shardRouter.getShards(), shard -> consulta.apply(eventoMonitoreoRepository));
+    }
+
+    /**
+     * Listado de todos los shards combinado por timestamp descendente
+     */
+    public List<EventoMonitoreo> buscarEnTodos(Function<EventoMonitoreoRepository, List<EventoMonitoreo>> consulta) {
+        if (shardRouter.esUnico()) {
+            return consulta.apply(eventoMonitoreoRepository);
+        }
+        return combinarPorTimestamp(enTodos(consulta));
+    }
+
+    /**
+     * Página global: cada shard devuelve sus primeros (página + 1) * tamaño eventos,
+     * se combinan por timestamp y se recorta la página pedida
+     */
+    public Page<EventoMonitoreo> buscarPaginaEnTodos(Pageable pageable,
+                                                     BiFunction<EventoMonitoreoRepository, Pageable, Page<EventoMonitoreo>> consulta) {
+        if (shardRouter.esUnico()) {
+            return consulta.apply(eventoMonitoreoRepository, pageable);
+        }
+        Pageable cabeza = PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()),
+                pageable.getSort());
+        List<Page<EventoMonitoreo>> paginas = enTodos(repository -> consulta.apply(repository, cabeza));
+
+        long total = paginas.stream().mapToLong(Page::getTotalElements).sum();
+        List<EventoMonitoreo> combinados = combinarPorTimestamp(paginas.stream().map(Page::getContent).toList());
+        int desde = (int) Math.min(pageable.getOffset(), combinados.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), combinados.size());
+        return new PageImpl<>(new ArrayList<>(combinados.subList(desde, hasta)), pageable, total);
+    }
+
+    public long contarEnTodos(ToLongFunction<EventoMonitoreoRepository> consulta) {
+        if (shardRouter.esUnico()) {
+            return consulta.applyAsLong(eventoMonitoreoRepository);
+        }
+        return enTodos(consulta::applyAsLong).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Conteo por tipo de evento sumado entre shards
+     */
+    public Map<String, Long> estadisticasPorTipo() {
+        Map<String, Long> eventosPorTipo = new HashMap<>();
+        for (List<Object[]> estadisticas : enTodos(EventoMonitoreoRepository::getEventTypeStatistics)) {
+            for (Object[] stat : estadisticas) {
+                eventosPorTipo.merge((String) stat[0], (Long) stat[1], Long::sum);
+            }
+        }
+        return eventosPorTipo;
+    }
+
+    /**
+     * Ejecuta la operación en cada shard, uno tras otro (trabajos de fondo)
+     */
+    public void paraCadaShard(Function<EventoMonitoreoRepository, ?> operacion) {
+        for (String shard : shardRouter.getShards()) {
+            ShardContext.ejecutarEn(shard, () -> operacion.apply(eventoMonitoreoRepository));
+        }
+    }
+
+    public List<String> getShards() {
+        return shardRouter.getShards();
+    }
+
+    /**
+     * Combina listados de varios shards en uno solo ordenado por timestamp descendente
+     */
+    static List<EventoMonitoreo> combinarPorTimestamp(List<List<EventoMonitoreo>> porShard) {
+        List<EventoMonitoreo> combinados = new ArrayList<>();
+        for (List<EventoMonitoreo> eventos : porShard) {
+            combinados.addAll(eventos);
+        }
+        combinados.sort(POR_TIMESTAMP_DESC);
+        return combinados;
+    }
+
+    /**
+     * Scatter-gather: una tarea por shard en el executor, con la carga de trabajo y el MDC del hilo llamante
+     */
+    private <T> List<T> dispersar(List<String> shards, Function<String, T> operacion) {
+        if (shards.size() == 1) {
+            String shard = shards.get(0);
+            return Collections.singletonList(ShardContext.ejecutarEn(shard, () -> operacion.apply(shard)));
+        }
+
+        CargaTrabajo carga = WorkloadContext.actual();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        long inicio = System.nanoTime();
+        List<CompletableFuture<T>> futuros = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            Supplier<T> tarea = () -> enHiloScatter(shard, carga, mdc, () -> operacion.apply(shard));
+            futuros.add(CompletableFuture.supplyAsync(tarea, scatterExecutor));
+        }
+
+        try {
+            long limite = inicio + TimeUnit.MILLISECONDS.toNanos(timeoutScatterMs);
+            List<T> resultados = new ArrayList<>(shards.size());
+            for (CompletableFuture<T> futuro : futuros) {
+                resultados.add(futuro.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return resultados;
+        } catch (TimeoutException e) {
+            futuros.forEach(futuro -> futuro.cancel(true));
+            throw new QueryTimeoutException("Consulta a " + shards.size() + " shards excedió " + timeoutScatterMs + " ms");
+        } catch (ExecutionException e) {
+            Throwable causa = Objects.requireNonNullElse(e.getCause(), e);
+            if (causa instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error consultando los shards", causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta a los shards interrumpida", e);
+        } finally {
+            scatterTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static <T> T enHiloScatter(String shard, CargaTrabajo carga, Map<String, String> mdc, Supplier<T> operacion) {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        if (carga != null) {
+            WorkloadContext.establecer(carga);
+        }
+        try {
+            return ShardContext.ejecutarEn(shard, operacion);
+        } finally {
+            WorkloadContext.limpiar();
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.monitoreo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia de lecturas costosas (single-flight): las peticiones concurrentes con la misma clave
+ * (endpoint y parámetros normalizados) comparten un único cálculo. La primera lo ejecuta en su hilo;
+ * las que llegan mientras está en curso esperan su resultado, o su excepción. Al terminar la clave se
+ * libera, así que no se guarda ningún resultado: una petición posterior calcula de nuevo.
+ * Los resultados compartidos se sirven a varias respuestas y no deben modificarse.
+ */
+@Component
+public class SingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final Map<String, Vuelo> enCurso = new ConcurrentHashMap<>();
+    private final Map<String, Medidores> medidores = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean habilitado;
+    private final long esperaMaximaMs;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${monitoreo.coalescencia.habilitado:true}") boolean habilitado,
+                        @Value("${monitoreo.coalescencia.espera-maxima-ms:30000}") long esperaMaximaMs) {
+        if (esperaMaximaMs <= 0) {
+            throw new IllegalArgumentException("La espera máxima de coalescencia debe ser positiva");
+        }
+        this.meterRegistry = meterRegistry;
+        this.habilitado = habilitado;
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        Gauge.builder("monitoreo.coalescencia.en.curso", enCurso, Map::size)
+                .description("Cálculos coalescidos en curso")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta el cálculo o se une al que ya está en curso para la misma clave
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String endpoint, Map<String, ?> parametros, Supplier<T> calculo) {
+        if (!habilitado) {
+            return calculo.get();
+        }
+        String clave = clave(endpoint, parametros);
+        Medidores medidor = medidores.computeIfAbsent(endpoint, this::medidores);
+        Vuelo propio = new Vuelo();
+        Vuelo vuelo = enCurso.putIfAbsent(clave, propio);
+        if (vuelo == null) {
+            return (T) liderar(clave, propio, medidor, calculo);
+        }
+
+        vuelo.esperando.incrementAndGet();
+        medidor.coalescidas.increment();
+        try {
+            return (T) vuelo.resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // El cálculo compartido no termina: esta petición no sigue esperando y calcula por su cuenta
+            medidor.expiradas.increment();
+            logger.warn("Cálculo coalescido de {} sin terminar tras {} ms, se calcula de nuevo", clave, esperaMaximaMs);
+            return calculo.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el cálculo coalescido de " + clave, e);
+        }
+    }
+
+    private Object liderar(String clave, Vuelo vuelo, Medidores medidor, Supplier<?> calculo) {
+        medidor.calculos.increment();
+        Object resultado;
+        try {
+            resultado = calculo.get();
+        } catch (RuntimeException | Error e) {
+            terminar(clave, vuelo, medidor);
+            vuelo.resultado.completeExceptionally(e);
+            throw e;
+        }
+        terminar(clave, vuelo, medidor);
+        vuelo.resultado.complete(resultado);
+        return resultado;
+    }
+
+    /**
+     * Libera la clave antes de publicar el resultado: quien llegue después inicia un cálculo nuevo
+     */
+    private void terminar(String clave, Vuelo vuelo, Medidores medidor) {
+        enCurso.remove(clave, vuelo);
+        medidor.esperandoPorCalculo.record(vuelo.esperando.get());
+    }
+
+    /**
+     * Clave normalizada: endpoint y parámetros ordenados por nombre, sin espacios alrededor de los valores
+     */
+    static String clave(String endpoint, Map<String, ?> parametros) {
+        if (parametros == null || parametros.isEmpty()) {
+            return endpoint;
+        }
+        StringBuilder clave = new StringBuilder(endpoint).append('?');
+        new TreeMap<>(parametros).forEach((nombre, valor) -> {
+            if (clave.charAt(clave.length() - 1) != '?') {
+                clave.append('&');
+            }
+            clave.append(nombre).append('=').append(valor == null ? "" : valor.toString().trim());
+        });
+        return clave.toString();
+    }
+
+    private Medidores medidores(String endpoint) {
+        return new Medidores(
+                Counter.builder("monitoreo.coalescencia.solicitudes")
+                        .description("Lecturas coalescibles por endpoint y resultado")
+                        .tag("endpoint", endpoint)
+                        .tag("resultado", "calculada")
+                        .register(meterRegistry),
+                Counter.builder("monitoreo.coalescencia.solicitudes")
+                        .description("Lecturas coalescibles por endpoint y resultado")
+                        .tag("endpoint", endpoint)
+                        .tag("resultado", "coalescida")
+                        .register(meterRegistry),
+                Counter.builder("monitoreo.coalescencia.solicitudes")
+                        .description("Lecturas coalescibles por endpoint y resultado")
+                        .tag("endpoint", endpoint)
+                        .tag("resultado", "expirada")
+                        .register(meterRegistry),
+                DistributionSummary.builder("monitoreo.coalescencia.esperando")
+                        .description("Peticiones que esperaron cada cálculo compartido")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry));
+    }
+
+    private static final class Vuelo {
+        final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        final AtomicInteger esperando = new AtomicInteger();
+    }
+
+    private record Medidores(Counter calculos, Counter coalescidas, Counter expiradas,
+                             DistributionSummary esperandoPorCalculo) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.monitoreo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limita los valores distintos que puede tomar un tag de métrica. Los primeros valores se admiten
+ * tal cual hasta alcanzar el máximo; a partir de ahí los valores nuevos se agrupan en "otros".
+ * Los valores vacíos cuentan como "desconocido" y los demasiado largos se agrupan siempre,
+ * de modo que un productor que envía valores arbitrarios no hace crecer el registro.
+ */
+public class TagCardinalityLimiter {
+
+    public static final String OTROS = "otros";
+    public static final String DESCONOCIDO = "desconocido";
+
+    private static final int LONGITUD_MAXIMA = 100;
+
+    private final int maxValores;
+    private final Set<String> admitidos = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger cantidad = new AtomicInteger();
+    private final Counter agrupados;
+
+    public TagCardinalityLimiter(String tag, int maxValores, MeterRegistry meterRegistry) {
+        if (maxValores <= 0) {
+            throw new IllegalArgumentException("El máximo de valores del tag " + tag + " debe ser positivo");
+        }
+        this.maxValores = maxValores;
+        this.agrupados = Counter.builder("monitoreo.metricas.tags.agrupados")
+                .description("Valores de tag agrupados en 'otros' por el límite de cardinalidad")
+                .tag("tag", tag)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Valor que debe usarse como tag para el valor recibido
+     */
+    public String valor(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return DESCONOCIDO;
+        }
+        if (admitidos.contains(valor)) {
+            return valor;
+        }
+        if (valor.length() <= LONGITUD_MAXIMA && reservar()) {
+            if (admitidos.add(valor)) {
+                return valor;
+            }
+            // Otro hilo lo admitió a la vez: se libera la plaza reservada
+            cantidad.decrementAndGet();
+            return valor;
+        }
+        agrupados.increment();
+        return OTROS;
+    }
+
+    private boolean reservar() {
+        while (true) {
+            int actual = cantidad.get();
+            if (actual >= maxValores) {
+                return false;
+            }
+            if (cantidad.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public int getAdmitidos() {
+        return cantidad.get();
+    }
+}
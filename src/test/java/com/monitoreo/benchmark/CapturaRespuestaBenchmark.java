@@ -0,0 +1,169 @@
+package com.monitoreo.benchmark;
+
+import com.monitoreo.config.SensitiveDataFilter;
+import com.monitoreo.config.SensitiveDataLoggingPlugin;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de pasar por SensitiveDataLoggingPlugin una página grande escrita en bloques de 8 KB, como la escribe Jackson:
+ * el wrapper anterior (byte a byte, cuerpo completo en un StringBuilder y recorrido completo), el actual con
+ * captura limitada a 64 KB y una respuesta que no entra en el muestreo. La respuesta original descarta los
+ * bytes para medir solo el filtro.
+ * <p>
+ * Ejecutar con: {@code java -cp target/test-classes:<classpath de test> com.monitoreo.benchmark.CapturaRespuestaBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CapturaRespuestaBenchmark {
+
+    private static final int BLOQUE = 8192;
+    private static final int CAPTURA_MAX_BYTES = 65536;
+
+    @Param({"100", "1000"})
+    public int eventosPorPagina;
+
+    private final SensitiveDataFilter filter = new SensitiveDataFilter();
+    private byte[] pagina;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < eventosPorPagina; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"eventType\":\"PAYMENT\",\"message\":\"Pago ").append(i)
+                    .append(" procesado correctamente por el servicio de pagos\",\"timestamp\":\"2024-05-01T10:30:00\",")
+                    .append("\"serviceName\":\"servicio-pagos\",\"level\":\"INFO\",\"userId\":\"us*******45\",")
+                    .append("\"metadata\":{\"origen\":\"api\",\"contacto\":\"***@***.***\",\"intentos\":").append(i % 3).append("}}");
+        }
+        pagina = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void escribir(ServletOutputStream salida) throws IOException {
+        for (int off = 0; off < pagina.length; off += BLOQUE) {
+            salida.write(pagina, off, Math.min(BLOQUE, pagina.length - off));
+        }
+    }
+
+    @Benchmark
+    public String wrapperAnterior() throws IOException {
+        WrapperAnterior wrapper = new WrapperAnterior(new RespuestaDescartada());
+        escribir(wrapper.getOutputStream());
+        return filter.maskSensitiveData(wrapper.getResponseBody());
+    }
+
+    @Benchmark
+    public String capturaLimitada() throws IOException {
+        SensitiveDataLoggingPlugin.SensitiveDataResponseWrapper wrapper =
+                new SensitiveDataLoggingPlugin.SensitiveDataResponseWrapper(new RespuestaDescartada(), filter, CAPTURA_MAX_BYTES);
+        escribir(wrapper.getOutputStream());
+        return filter.maskSensitiveData(wrapper.getResponseBody());
+    }
+
+    @Benchmark
+    public HttpServletResponse fueraDeMuestreo() throws IOException {
+        RespuestaDescartada respuesta = new RespuestaDescartada();
+        escribir(respuesta.getOutputStream());
+        return respuesta;
+    }
+
+    /**
+     * Respuesta cuya salida descarta los bytes
+     */
+    private static final class RespuestaDescartada extends MockHttpServletResponse {
+
+        private final ServletOutputStream salida = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return salida;
+        }
+    }
+
+    /**
+     * Réplica del wrapper anterior: un ServletOutputStream nuevo por llamada que copia y reenvía byte a byte
+     */
+    private static final class WrapperAnterior extends HttpServletResponseWrapper {
+
+        private final StringBuilder responseBody = new StringBuilder();
+        private final HttpServletResponse originalResponse;
+
+        WrapperAnterior(HttpServletResponse response) {
+            super(response);
+            this.originalResponse = response;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    responseBody.append((char) b);
+                    originalResponse.getOutputStream().write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+        }
+
+        String getResponseBody() {
+            return responseBody.toString();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CapturaRespuestaBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,52 @@
+package com.monitoreo.benchmark;
+
+import com.monitoreo.config.TimeSortableIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación de correlation-id con muchos hilos a la vez: el método anterior (UUID.randomUUID, que
+ * tira de SecureRandom, más toString/replace/substring) frente al generador ordenable por tiempo.
+ * Con 16 hilos todos compiten por el mismo AtomicLong, que es el peor caso del generador.
+ * <p>
+ * Ejecutar con: {@code java -cp target/test-classes:<classpath de test> com.monitoreo.benchmark.GeneradorIdsBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class GeneradorIdsBenchmark {
+
+    private final TimeSortableIdGenerator generador = new TimeSortableIdGenerator(7);
+
+    @Benchmark
+    public String uuidAnterior() {
+        return "corr-" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    }
+
+    @Benchmark
+    public String ordenablePorTiempo() {
+        return generador.siguiente("corr-");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GeneradorIdsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,71 @@
+package com.monitoreo.benchmark;
+
+import com.monitoreo.config.SensitiveDataRegexReferencia;
+import com.monitoreo.config.SensitiveDataScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de detectar y enmascarar un mensaje tal como lo hace DataMaskingService
+ * (containsSensitiveData y después maskSensitiveData): cinco expresiones regulares frente al escáner.
+ * Medir también con {@code -prof gc} para comparar la memoria reservada por operación.
+ * <p>
+ * Ejecutar con: {@code java -cp target/test-classes:<classpath de test> com.monitoreo.benchmark.SensitiveDataScannerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SensitiveDataScannerBenchmark {
+
+    @Param({"limpio", "numeros-sin-datos", "con-datos"})
+    public String tipoMensaje;
+
+    private String mensaje;
+
+    @Setup
+    public void setUp() {
+        mensaje = switch (tipoMensaje) {
+            case "limpio" -> "Evento de auditoría procesado correctamente por el servicio de pagos sin incidencias";
+            case "numeros-sin-datos" -> "Lote A17 procesado en la versión v2 del servicio de pagos sin incidencias registradas";
+            default -> "Usuario juan.perez@example.com pagó con 4111111111111111 desde 10.0.0.1, tel +34 612 345 678";
+        };
+    }
+
+    @Benchmark
+    public String regex() {
+        return SensitiveDataRegexReferencia.containsSensitiveData(mensaje)
+                ? SensitiveDataRegexReferencia.maskSensitiveData(mensaje)
+                : mensaje;
+    }
+
+    @Benchmark
+    public String escaner() {
+        return SensitiveDataScanner.contains(mensaje) ? SensitiveDataScanner.mask(mensaje) : mensaje;
+    }
+
+    @Benchmark
+    public String escanerUnaPasada() {
+        return SensitiveDataScanner.mask(mensaje);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SensitiveDataScannerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.monitoreo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.monitoreo.config.MetricasProperties;
+import com.monitoreo.config.SensitiveDataFilter;
+import com.monitoreo.config.SensitiveDataJacksonModule;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.service.DataMaskingService;
+import com.monitoreo.service.DynamicGaugeRegistry;
+import com.monitoreo.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de una página de 100 eventos: copias enmascaradas (maskEventoMonitoreo) y después
+ * ObjectMapper, frente al módulo que enmascara mientras escribe. La mitad de los eventos lleva datos sensibles
+ * y ninguno tiene enmascaramiento persistido, para comparar el recorrido completo en ambos casos.
+ * Medir también con {@code -prof gc} para comparar la memoria reservada por página.
+ * <p>
+ * Ejecutar con: {@code java -cp target/test-classes:<classpath de test> com.monitoreo.benchmark.SerializacionEnmascaradaBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionEnmascaradaBenchmark {
+
+    private static final int TAMANO_PAGINA = 100;
+
+    private final List<EventoMonitoreo> pagina = new ArrayList<>();
+    private DataMaskingService dataMaskingService;
+    private ObjectMapper mapperSinModulo;
+    private ObjectMapper mapperConModulo;
+
+    @Setup
+    public void setUp() {
+        SensitiveDataFilter filter = new SensitiveDataFilter();
+        dataMaskingService = new DataMaskingService();
+        ReflectionTestUtils.setField(dataMaskingService, "sensitiveDataFilter", filter);
+        ReflectionTestUtils.setField(dataMaskingService, "metricsService", metricsService());
+
+        mapperSinModulo = new ObjectMapper().registerModule(new JavaTimeModule());
+        mapperConModulo = new ObjectMapper().registerModule(new JavaTimeModule())
+                .registerModule(new SensitiveDataJacksonModule(filter));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < TAMANO_PAGINA; i++) {
+            String mensaje = i % 2 == 0
+                    ? "Pago " + i + " de juan.perez@example.com con 4111111111111111 desde 10.0.0." + (i % 255)
+                    : "Evento de auditoría procesado correctamente por el servicio de pagos sin incidencias";
+            EventoMonitoreo evento = new EventoMonitoreo((long) i, "PAYMENT", mensaje, ahora.minusSeconds(i),
+                    "servicio-pagos", "INFO", new HashMap<>(), "usuario-" + i, "sesion-" + i);
+            evento.getMetadata().put("origen", "api");
+            evento.getMetadata().put("contacto", i % 2 == 0 ? "ana@example.com" : "sin datos");
+            evento.getMetadata().put("intentos", i % 3);
+            pagina.add(evento);
+        }
+    }
+
+    @Benchmark
+    public byte[] copiarYSerializar() throws Exception {
+        List<EventoMonitoreo> copias = new ArrayList<>(pagina.size());
+        for (EventoMonitoreo evento : pagina) {
+            copias.add(dataMaskingService.maskEventoMonitoreo(evento));
+        }
+        return mapperSinModulo.writeValueAsBytes(copias);
+    }
+
+    @Benchmark
+    public byte[] enmascararAlSerializar() throws Exception {
+        return mapperConModulo.writeValueAsBytes(pagina);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializacionEnmascaradaBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static MetricsService metricsService() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricasProperties properties = new MetricasProperties();
+        return new MetricsService(meterRegistry, new DynamicGaugeRegistry(meterRegistry, properties), properties);
+    }
+}
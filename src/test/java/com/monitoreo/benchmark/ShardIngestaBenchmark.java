@@ -0,0 +1,154 @@
+package com.monitoreo.benchmark;
+
+import com.monitoreo.config.ShardContext;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.config.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput de ingesta con 1, 2 y 4 shards a través de ShardRoutingDataSource, con 16 escritores en paralelo.
+ * Cada shard es una base H2 en memoria independiente con su propio pool de tamaño fijo; los eventos
+ * llegan de 64 servicios repartidos por el anillo.
+ * <p>
+ * Todas las bases comparten proceso y CPU, así que con latenciaCommitUs=0 el límite es la CPU de la
+ * máquina y añadir shards no escala: mide solo el coste del enrutamiento. Con latenciaCommitUs &gt; 0 cada
+ * inserción retiene su conexión ese tiempo sin consumir CPU, como la ida y vuelta del commit a un servidor
+ * PostgreSQL propio; el techo pasa a ser conexiones por shard / latencia y debe crecer con el número de shards.
+ * <p>
+ * Ejecutar con: {@code java -cp target/test-classes:<classpath de test> com.monitoreo.benchmark.ShardIngestaBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class ShardIngestaBenchmark {
+
+    private static final String INSERT = "INSERT INTO eventos_monitoreo (event_type, message, timestamp, service_name, level) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    @Param({"4"})
+    public int conexionesPorShard;
+
+    @Param({"0", "1000"})
+    public long latenciaCommitUs;
+
+    private final String[] servicios = new String[64];
+    private final AtomicLong secuencia = new AtomicLong();
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ShardRouter shardRouter;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < servicios.length; i++) {
+            servicios[i] = "servicio-" + i;
+        }
+
+        List<String> nombres = new ArrayList<>();
+        Map<String, DataSource> adicionales = new LinkedHashMap<>();
+        DataSource principal = null;
+        for (int i = 0; i < shards; i++) {
+            String nombre = i == 0 ? ShardRouter.PRINCIPAL : "shard-" + i;
+            HikariDataSource pool = crearShard(nombre);
+            nombres.add(nombre);
+            if (i == 0) {
+                principal = pool;
+            } else {
+                adicionales.put(nombre, pool);
+            }
+        }
+
+        shardRouter = new ShardRouter(nombres, 128);
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(principal, adicionales, new SimpleMeterRegistry());
+        routingDataSource.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+    }
+
+    private HikariDataSource crearShard(String nombre) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(nombre);
+        pool.setJdbcUrl("jdbc:h2:mem:" + nombre + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(conexionesPorShard);
+        pools.add(pool);
+
+        new JdbcTemplate(pool).execute("CREATE TABLE eventos_monitoreo ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, event_type VARCHAR(100) NOT NULL, message VARCHAR(1000) NOT NULL, "
+                + "timestamp TIMESTAMP NOT NULL, service_name VARCHAR(100), level VARCHAR(20))");
+        new JdbcTemplate(pool).execute("CREATE INDEX idx_service_timestamp ON eventos_monitoreo(service_name, timestamp DESC)");
+        return pool;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (HikariDataSource pool : pools) {
+            new JdbcTemplate(pool).execute("SHUTDOWN");
+            pool.close();
+        }
+        pools.clear();
+    }
+
+    @Benchmark
+    public int ingestarEvento() {
+        long n = secuencia.getAndIncrement();
+        String servicio = servicios[(int) (n % servicios.length)];
+        return ShardContext.ejecutarEn(shardRouter.shardPara(servicio), () -> jdbcTemplate.execute((ConnectionCallback<Integer>) conexion -> {
+            try (PreparedStatement insert = conexion.prepareStatement(INSERT)) {
+                insert.setString(1, "USER_LOGIN");
+                insert.setString(2, "Evento de prueba " + n);
+                insert.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                insert.setString(4, servicio);
+                insert.setString(5, "INFO");
+                int filas = insert.executeUpdate();
+                if (latenciaCommitUs > 0) {
+                    // Commit remoto: la conexión sigue ocupada, la CPU no
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latenciaCommitUs));
+                }
+                return filas;
+            }
+        }));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ShardIngestaBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,177 @@
+package com.monitoreo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLogAppenderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger logger = loggerContext.getLogger("prueba");
+
+    @BeforeEach
+    void setUp() {
+        // prepareForDeferredProcessing copia el MDC y necesita el adaptador del contexto
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @Test
+    void descartaPorNivelSegunLaOcupacionYVuelcaLoAdmitidoAlParar() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<ILoggingEvent> escritos = new CopyOnWriteArrayList<>();
+        AsyncLogAppender appender = asincrono(10, 50, evento -> {
+            dentro.countDown();
+            esperar(liberar);
+            escritos.add(evento);
+        });
+
+        // El primer evento ocupa al hilo de volcado, que queda bloqueado
+        appender.doAppend(evento(Level.INFO));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 8; i++) {
+            appender.doAppend(evento(Level.DEBUG));
+        }
+        for (int i = 0; i < 6; i++) {
+            appender.doAppend(evento(Level.WARN));
+        }
+        appender.doAppend(evento(Level.ERROR));
+
+        // 5 plazas para DEBUG (50 %), el resto de la cola para WARN y ninguna para el ERROR final
+        assertEquals(10, appender.getProfundidad());
+        assertEquals(3, appender.getDescartados(Level.DEBUG));
+        assertEquals(1, appender.getDescartados(Level.WARN));
+        assertEquals(1, appender.getDescartados(Level.ERROR));
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        AsyncLogMetrics.registrar(appender, registry);
+        assertEquals(10.0, registry.get("monitoreo.logs.cola.profundidad").tag("appender", "ASYNC").gauge().value());
+        assertEquals(3.0, registry.get("monitoreo.logs.descartados").tag("nivel", "debug").functionCounter().count());
+
+        liberar.countDown();
+        appender.stop();
+        assertEquals(11, escritos.size());
+        assertEquals(0, appender.getProfundidad());
+    }
+
+    @Test
+    void unEventoQueNoSePuedePrepararNoOcupaPlaza() {
+        AsyncLogAppender appender = asincrono(4, 80, evento -> {
+        });
+        LoggingEvent roto = new LoggingEvent(AsyncLogAppenderTest.class.getName(), logger, Level.ERROR, "mensaje", null, null) {
+            @Override
+            public void prepareForDeferredProcessing() {
+                throw new IllegalStateException("Sin MDC");
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(roto);
+        }
+
+        assertEquals(0, appender.getProfundidad());
+        assertEquals(0, appender.getDescartados(Level.ERROR));
+        appender.stop();
+    }
+
+    @Test
+    void unAppenderBloqueanteEsperaEnLugarDeDescartar() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<ILoggingEvent> escritos = new CopyOnWriteArrayList<>();
+        AsyncLogAppender appender = asincrono(2, 100, true, evento -> {
+            dentro.countDown();
+            esperar(liberar);
+            escritos.add(evento);
+        });
+
+        appender.doAppend(evento(Level.INFO));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+        appender.doAppend(evento(Level.INFO));
+        appender.doAppend(evento(Level.INFO));
+
+        // Cola llena: el siguiente INFO espera hasta que el volcado avanza
+        CountDownLatch registrado = new CountDownLatch(1);
+        Thread productor = new Thread(() -> {
+            appender.doAppend(evento(Level.INFO));
+            registrado.countDown();
+        });
+        productor.start();
+        assertFalse(registrado.await(100, TimeUnit.MILLISECONDS));
+
+        liberar.countDown();
+        assertTrue(registrado.await(5, TimeUnit.SECONDS));
+        appender.stop();
+        assertEquals(4, escritos.size());
+        assertEquals(0, appender.getDescartados(Level.INFO));
+    }
+
+    @Test
+    void localizaLosAppendersAsincronosDelContexto() {
+        AsyncLogAppender appender = asincrono(4, 80, evento -> {
+        });
+        logger.addAppender(appender);
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+
+        assertEquals(List.of("ASYNC"), List.copyOf(AsyncLogMetrics.appenders(loggerContext).keySet()));
+        appender.stop();
+    }
+
+    private AsyncLogAppender asincrono(int capacidad, int porcentajeDescarte, Consumer<ILoggingEvent> destino) {
+        return asincrono(capacidad, porcentajeDescarte, false, destino);
+    }
+
+    private AsyncLogAppender asincrono(int capacidad, int porcentajeDescarte, boolean bloqueante, Consumer<ILoggingEvent> destino) {
+        AppenderBase<ILoggingEvent> sincrono = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent evento) {
+                destino.accept(evento);
+            }
+        };
+        sincrono.setContext(loggerContext);
+        sincrono.setName("DESTINO");
+        sincrono.start();
+
+        AsyncLogAppender appender = new AsyncLogAppender();
+        appender.setContext(loggerContext);
+        appender.setName("ASYNC");
+        appender.setCapacidad(capacidad);
+        appender.setPorcentajeDescarte(porcentajeDescarte);
+        appender.setBloqueante(bloqueante);
+        appender.setMaxFlushMs(5000);
+        appender.addAppender(sincrono);
+        appender.start();
+        return appender;
+    }
+
+    private LoggingEvent evento(Level level) {
+        return new LoggingEvent(AsyncLogAppenderTest.class.getName(), logger, level, "mensaje {}", null, new Object[]{1});
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
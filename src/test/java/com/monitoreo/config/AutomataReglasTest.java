@@ -0,0 +1,115 @@
+package com.monitoreo.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutomataReglasTest {
+
+    private static final String[] PATRONES = {
+            "\\d{8}[A-Z]", "[a-c]+x", "(ab|cd)\\d", "a.b", "[^0-9 ]{3}", "\\w+@\\w+", "x\\s?y{2,4}", "[A-Z]{2}\\d{2}(-\\d{3})?"
+    };
+
+    private static LongAdder[] contadores(int cantidad) {
+        LongAdder[] contadores = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+
+    private static AutomataReglas compilar(ReglaEnmascaramiento... reglas) {
+        return AutomataReglas.compilar(List.of(reglas));
+    }
+
+    @Test
+    void enmascaraVariasReglasEnUnaPasada() {
+        AutomataReglas automata = compilar(
+                new ReglaEnmascaramiento("dni", "\\d{8}[A-Z]", "[DNI]", true),
+                new ReglaEnmascaramiento("iban", "ES\\d{2}( ?\\d{4}){5}", "[IBAN]", true),
+                new ReglaEnmascaramiento("clave", "clave=[^ ,;]+", "clave=***", false));
+        LongAdder[] coincidencias = contadores(3);
+
+        String enmascarado = automata.enmascarar(
+                "DNI 12345678Z, cuenta ES91 2100 0418 4502 0005 1332 y url?clave=abc123;x", coincidencias);
+
+        assertEquals("DNI [DNI], cuenta [IBAN] y url?clave=***;x", enmascarado);
+        assertEquals(1, coincidencias[0].sum());
+        assertEquals(1, coincidencias[1].sum());
+        assertEquals(1, coincidencias[2].sum());
+    }
+
+    @Test
+    void sinCoincidenciasDevuelveLaMismaInstancia() {
+        AutomataReglas automata = compilar(new ReglaEnmascaramiento("dni", "\\d{8}[A-Z]", "[DNI]", true));
+        String texto = "Referencia x12345678Z pegada a una palabra";
+
+        assertSame(texto, automata.enmascarar(texto, contadores(1)));
+        assertFalse(automata.contiene(texto));
+    }
+
+    @Test
+    void ganaLaMasLargaYAIgualLongitudLaPrimera() {
+        AutomataReglas automata = compilar(
+                new ReglaEnmascaramiento("corta", "AB\\d{2}", "[CORTA]", true),
+                new ReglaEnmascaramiento("larga", "AB\\d{2}-\\d{3}", "[LARGA]", true),
+                new ReglaEnmascaramiento("repetida", "AB\\d{2}", "[REPETIDA]", true));
+
+        assertEquals("[LARGA] y [CORTA]", automata.enmascarar("AB12-345 y AB12", contadores(3)));
+    }
+
+    @Test
+    void admiteLiteralesNoAscii() {
+        // Los límites de palabra son ASCII: una regla que empieza por Ñ no los usa
+        AutomataReglas automata = compilar(new ReglaEnmascaramiento("nie", "[XYZ]\\d{7}[A-Z]|Ñ\\d{4}", "[ID]", false));
+
+        assertEquals("Señor [ID] y [ID]", automata.enmascarar("Señor X1234567L y Ñ1234", contadores(1)));
+        assertTrue(automata.contiene("código Ñ1234"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a*?", "^x", "x$", "(?i)x", "a{3,1}", "a{300}", "[z-a]", "[á-ú]", "(ab", "ab)", "\\q", "[\\D]", "x*", "a|"})
+    void rechazaPatronesNoSoportados(String patron) {
+        assertThrows(IllegalArgumentException.class,
+                () -> compilar(new ReglaEnmascaramiento("regla", patron, "***", true)));
+    }
+
+    /**
+     * Sobre texto ASCII el autómata debe coincidir con java.util.regex: sin límites con el patrón tal cual
+     * y con límites con \b(?:patrón)\b
+     */
+    @Test
+    void coincideConJavaUtilRegex() {
+        Random random = new Random(20240715L);
+        String alfabeto = "abcdxyABZ0123456789 @._-\n";
+        for (String patron : PATRONES) {
+            for (boolean limites : new boolean[]{false, true}) {
+                AutomataReglas automata = compilar(new ReglaEnmascaramiento("regla", patron, "#", limites));
+                Pattern referencia = Pattern.compile(limites ? "\\b(?:" + patron + ")\\b" : patron);
+                LongAdder[] coincidencias = contadores(1);
+                for (int k = 0; k < 20_000; k++) {
+                    StringBuilder texto = new StringBuilder();
+                    int longitud = random.nextInt(30);
+                    for (int i = 0; i < longitud; i++) {
+                        texto.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+                    }
+                    String entrada = texto.toString();
+                    assertEquals(referencia.matcher(entrada).replaceAll("#"), automata.enmascarar(entrada, coincidencias),
+                            patron + " sobre [" + entrada + "]");
+                    assertEquals(referencia.matcher(entrada).find(), automata.contiene(entrada), patron + " sobre [" + entrada + "]");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.monitoreo.config;
+
+import com.monitoreo.controller.EventoMonitoreoController;
+import com.monitoreo.controller.MetricsController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointLatencyInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EndpointLatencyInterceptor interceptor = new EndpointLatencyInterceptor(meterRegistry,
+            new Duration[] {Duration.ofMillis(100), Duration.ofSeconds(1)}, true);
+
+    @Test
+    void mideCadaOperacionConSusLimitesDeSlo() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new EventoMonitoreoController(), metodo(EventoMonitoreoController.class, "obtenerEventosCriticos"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/monitoreo/eventos/criticos");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        Timer timer = meterRegistry.get("monitoreo.eventos.endpoint.tiempo")
+                .tag("operacion", "obtenerEventosCriticos").tag("estado", "2xx").timer();
+        assertEquals(1, timer.count());
+        CountAtBucket[] buckets = timer.takeSnapshot().histogramCounts();
+        assertTrue(Arrays.stream(buckets).anyMatch(bucket -> bucket.bucket() == Duration.ofMillis(100).toNanos()));
+    }
+
+    @Test
+    void ignoraOtrosControladores() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new MetricsController(), metodo(MetricsController.class, "getCustomMetrics"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/metrics/custom");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler, null);
+
+        assertTrue(meterRegistry.find("monitoreo.eventos.endpoint.tiempo").timers().isEmpty());
+    }
+
+    @Test
+    void unaExcepcionSinResolverCuentaComoErrorDelServidor() {
+        assertEquals("5xx", EndpointLatencyInterceptor.estado(200, new IllegalStateException()));
+        assertEquals("4xx", EndpointLatencyInterceptor.estado(404, new IllegalStateException()));
+        assertEquals("2xx", EndpointLatencyInterceptor.estado(201, null));
+    }
+
+    private static Method metodo(Class<?> tipo, String nombre) {
+        return Arrays.stream(tipo.getMethods()).filter(m -> m.getName().equals(nombre)).findFirst().orElseThrow();
+    }
+}
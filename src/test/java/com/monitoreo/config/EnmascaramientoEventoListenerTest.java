@@ -0,0 +1,85 @@
+package com.monitoreo.config;
+
+import com.monitoreo.model.EventoMonitoreo;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnmascaramientoEventoListenerTest {
+
+    private final EnmascaramientoEventoListener listener = new EnmascaramientoEventoListener();
+
+    @Test
+    void guardaMensajeEnmascaradoYBanderas() {
+        EventoMonitoreo evento = new EventoMonitoreo("USER_LOGIN", "Login de juan.perez@example.com desde 10.0.0.1");
+        evento.getMetadata().put("email", "ana@example.com");
+        evento.getMetadata().put("intentos", 3);
+
+        listener.enmascarar(evento);
+
+        assertTrue(evento.getMessageSensitive());
+        assertEquals(SensitiveDataScanner.mask(evento.getMessage()), evento.getMaskedMessage());
+        assertTrue(evento.getMetadataSensitive());
+        assertEquals(SensitiveDataFilter.EMAIL_MASK, evento.getMaskedMetadata().get("email"));
+        assertEquals(3, evento.getMaskedMetadata().get("intentos"));
+        // El original no se modifica
+        assertEquals("ana@example.com", evento.getMetadata().get("email"));
+        assertEquals(SensitiveDataScanner.versionReglas(), evento.getMaskingVersion());
+        assertTrue(EnmascaramientoEventoListener.estaVigente(evento));
+    }
+
+    @Test
+    void eventoLimpioNoGuardaCopias() {
+        EventoMonitoreo evento = new EventoMonitoreo("SERVICE_START", "Servicio iniciado correctamente");
+        evento.getMetadata().put("modo", "normal");
+
+        listener.enmascarar(evento);
+
+        assertFalse(evento.getMessageSensitive());
+        assertNull(evento.getMaskedMessage());
+        assertFalse(evento.getMetadataSensitive());
+        assertNull(evento.getMaskedMetadata());
+        assertTrue(EnmascaramientoEventoListener.estaVigente(evento));
+    }
+
+    @Test
+    void metadataAnidadaMarcaSensibleComoDataMaskingService() {
+        Map<String, Object> cliente = new HashMap<>();
+        cliente.put("telefono", "555-123-4567");
+        EventoMonitoreo evento = new EventoMonitoreo("PAGO", "Pago procesado");
+        evento.getMetadata().put("cliente", cliente);
+
+        listener.enmascarar(evento);
+
+        assertTrue(evento.getMetadataSensitive());
+        // Solo se enmascaran los valores String de primer nivel
+        assertEquals(cliente, evento.getMaskedMetadata().get("cliente"));
+    }
+
+    @Test
+    void unMensajeEnmascaradoQueNoCabeNoSeGuarda() {
+        // Cada IP de 7 caracteres se convierte en una máscara de 15
+        EventoMonitoreo evento = new EventoMonitoreo("ACCESO", "1.1.1.1 ".repeat(125).trim());
+
+        listener.enmascarar(evento);
+
+        assertTrue(evento.getMessageSensitive());
+        assertNull(evento.getMaskedMessage());
+        assertTrue(EnmascaramientoEventoListener.estaVigente(evento));
+    }
+
+    @Test
+    void versionAnteriorNoEstaVigente() {
+        EventoMonitoreo evento = new EventoMonitoreo("USER_LOGIN", "Login correcto");
+        assertFalse(EnmascaramientoEventoListener.estaVigente(evento));
+
+        evento.setMaskingVersion(SensitiveDataScanner.versionReglas() - 1);
+        assertFalse(EnmascaramientoEventoListener.estaVigente(evento));
+    }
+}
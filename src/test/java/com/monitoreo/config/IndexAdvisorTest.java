@@ -0,0 +1,139 @@
+package com.monitoreo.config;
+
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import com.monitoreo.repository.FormaConsulta;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexAdvisorTest {
+
+    // Anchos medios de pg_stats ya descontados los nulos
+    private static final Map<String, Double> ANCHOS = Map.of("timestamp", 8.0, "service_name", 12.0, "message", 120.0);
+
+    private static final String PREFIJO = "CREATE INDEX %s ON public.eventos_monitoreo USING %s";
+
+    @Test
+    void interpretaLasDefinicionesDePgGetIndexdef() {
+        assertEquals(List.of(new IndexAdvisor.ColumnaIndice("service_name", false), new IndexAdvisor.ColumnaIndice("timestamp", true)),
+                IndexAdvisor.columnas(String.format(PREFIJO, "idx", "btree (service_name, \"timestamp\" DESC)")));
+        String gin = String.format(PREFIJO, "idx", "gin (to_tsvector('spanish'::regconfig, (message)::text))");
+        assertEquals("gin", IndexAdvisor.metodoAcceso(gin));
+        assertEquals(1, IndexAdvisor.columnas(gin).size());
+    }
+
+    @Test
+    void derivaLasFormasDelRepositorio() {
+        Map<String, IndexAdvisor.Forma> formas = porMetodo(IndexAdvisor.formas(EventoMonitoreoRepository.class, EventoMonitoreo.class));
+
+        assertEquals(new IndexAdvisor.Forma("findBySessionId", List.of("session_id"), null), formas.get("findBySessionId"));
+        assertEquals(new IndexAdvisor.Forma("findByServiceNameOrderByTimestampDesc", List.of("service_name"), "timestamp"),
+                formas.get("findByServiceNameOrderByTimestampDesc"));
+        assertEquals(new IndexAdvisor.Forma("findByTimestampBetween", List.of(), "timestamp"), formas.get("findByTimestampBetween"));
+        assertEquals(new IndexAdvisor.Forma("findCriticalEvents", List.of("level"), "timestamp"), formas.get("findCriticalEvents"));
+    }
+
+    @Test
+    void informaDeIndicesRedundantesSinUsoYFaltantes() {
+        List<IndexAdvisor.Indice> indices = List.of(
+                indice("eventos_monitoreo_pkey", "btree (id)", true, 0),
+                indice("idx_eventos_monitoreo_timestamp", "btree (\"timestamp\" DESC)", false, 40),
+                indice("idx_eventos_monitoreo_service_name", "btree (service_name)", false, 0),
+                indice("idx_eventos_monitoreo_service_timestamp", "btree (service_name, \"timestamp\" DESC)", false, 90),
+                indice("idx_eventos_monitoreo_message_gin", "gin (to_tsvector('spanish'::regconfig, (message)::text))", false, 0));
+        List<IndexAdvisor.Forma> formas = IndexAdvisor.formas(EventoMonitoreoRepository.class, EventoMonitoreo.class);
+
+        IndexAdvisor.Informe informe = IndexAdvisor.analizar("eventos_monitoreo", indices,
+                new IndexAdvisor.Escrituras(1000, 100, 60, 0), ANCHOS, formas, List.of(),
+                metodo -> "findBySessionId".equals(metodo) ? 25 : 0);
+
+        assertEquals(Map.of("idx_eventos_monitoreo_service_name", "idx_eventos_monitoreo_service_timestamp"), informe.redundantes());
+        assertEquals(List.of("idx_eventos_monitoreo_service_name", "idx_eventos_monitoreo_message_gin"), informe.sinUso());
+        IndexAdvisor.UsoForma sesion = informe.faltantes().get(0);
+        assertEquals("findBySessionId", sesion.metodo());
+        assertEquals(25, sesion.llamadas());
+        assertEquals("CREATE INDEX CONCURRENTLY idx_eventos_monitoreo_session_id ON eventos_monitoreo(session_id)", sesion.sugerencia());
+        assertTrue(informe.indices().stream().allMatch(i -> i.entradasEscritas() == 1040));
+        Map<String, Long> bytes = informe.indices().stream()
+                .collect(Collectors.toMap(IndexAdvisor.InformeIndice::nombre, IndexAdvisor.InformeIndice::bytesEscritosEstimados));
+        // (8 + 8) -> 16 + 4; (8 + 12) -> 24 + 4; (8 + 12 + 8) -> 32 + 4; (8 + 120) -> 128 + 4
+        assertEquals(1040 * 20, bytes.get("idx_eventos_monitoreo_timestamp"));
+        assertEquals(1040 * 28, bytes.get("idx_eventos_monitoreo_service_name"));
+        assertEquals(1040 * 36, bytes.get("idx_eventos_monitoreo_service_timestamp"));
+        assertEquals(1040 * 132, bytes.get("idx_eventos_monitoreo_message_gin"));
+
+        IndexAdvisor.UsoForma porServicio = informe.formas().stream()
+                .filter(f -> f.metodo().equals("findByServiceNameOrderByTimestampDesc")).findFirst().orElseThrow();
+        assertEquals("idx_eventos_monitoreo_service_timestamp", porServicio.indice());
+        IndexAdvisor.UsoForma todos = informe.formas().stream()
+                .filter(f -> f.metodo().equals("findAllByOrderByTimestampDesc")).findFirst().orElseThrow();
+        assertEquals("idx_eventos_monitoreo_timestamp", todos.indice());
+        assertNull(todos.sugerencia());
+    }
+
+    @Test
+    void elAnchoDeLaEntradaSaleDeLasColumnasDelIndice() {
+        // session_id tiene la mitad de nulos (40 * 0.5 = 20); sin estadísticas se suponen 8 bytes; la entrada se alinea a 8
+        Map<String, Double> anchos = Map.of("session_id", 20.0, "level", 5.0);
+
+        assertEquals(32 + 4, IndexAdvisor.anchoEntrada(indice("idx_sesion", "btree (session_id)", false, 0), anchos));
+        assertEquals(24 + 4, IndexAdvisor.anchoEntrada(indice("idx_nivel_x", "btree (level, desconocida)", false, 0), anchos));
+        assertEquals(16 + 4, IndexAdvisor.anchoEntrada(indice("idx_minusculas", "btree (lower((level)::text))", false, 0), anchos));
+    }
+
+    @Test
+    void listaLasConsultasSinFormaConocida() {
+        assertEquals(List.of(), IndexAdvisor.sinForma(EventoMonitoreoRepository.class, EventoMonitoreo.class));
+        assertEquals(List.of("contarPorServicio"), IndexAdvisor.sinForma(RepositorioDePrueba.class, EventoMonitoreo.class));
+        assertEquals(List.of("findByLevel", "recientes"), IndexAdvisor.formas(RepositorioDePrueba.class, EventoMonitoreo.class)
+                .stream().map(IndexAdvisor.Forma::metodo).toList());
+
+        IndexAdvisor.Informe informe = IndexAdvisor.analizar("eventos_monitoreo", List.of(), new IndexAdvisor.Escrituras(0, 0, 0, 0),
+                Map.of(), List.of(), List.of("contarPorServicio"), metodo -> 0);
+        assertEquals(List.of("contarPorServicio"), informe.sinForma());
+    }
+
+    @Test
+    void prefiereElIndiceQueSigueConLaColumnaDeOrden() {
+        List<IndexAdvisor.Indice> indices = List.of(
+                indice("idx_eventos_monitoreo_service_level", "btree (service_name, level)", false, 10),
+                indice("idx_eventos_monitoreo_service_timestamp", "btree (service_name, \"timestamp\" DESC)", false, 10));
+        IndexAdvisor.Forma forma = new IndexAdvisor.Forma("findByServiceNameOrderByTimestampDesc", List.of("service_name"), "timestamp");
+
+        assertEquals("idx_eventos_monitoreo_service_timestamp", IndexAdvisor.mejorIndice(forma, indices, Set.of()));
+        assertEquals("idx_eventos_monitoreo_service_level",
+                IndexAdvisor.mejorIndice(forma, indices, Set.of("idx_eventos_monitoreo_service_timestamp")));
+    }
+
+    interface RepositorioDePrueba extends Repository<EventoMonitoreo, Long> {
+
+        List<EventoMonitoreo> findByLevel(String level);
+
+        @FormaConsulta(orden = "timestamp")
+        @Query("SELECT e FROM EventoMonitoreo e ORDER BY e.timestamp DESC")
+        List<EventoMonitoreo> recientes();
+
+        @Query("SELECT COUNT(e) FROM EventoMonitoreo e WHERE e.serviceName = :servicio")
+        long contarPorServicio(String servicio);
+    }
+
+    private static IndexAdvisor.Indice indice(String nombre, String uso, boolean unico, long escaneos) {
+        String definicion = String.format(PREFIJO, nombre, uso);
+        return new IndexAdvisor.Indice(nombre, IndexAdvisor.metodoAcceso(definicion), IndexAdvisor.columnas(definicion),
+                unico, escaneos, escaneos * 10, 8192, 1, 9);
+    }
+
+    private static Map<String, IndexAdvisor.Forma> porMetodo(List<IndexAdvisor.Forma> formas) {
+        return formas.stream().collect(Collectors.toMap(IndexAdvisor.Forma::metodo, f -> f));
+    }
+}
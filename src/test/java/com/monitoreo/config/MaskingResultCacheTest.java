@@ -0,0 +1,90 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MaskingResultCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private MaskingResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new MaskingResultCache(meterRegistry, 10_000, 200, 1);
+    }
+
+    private double consultas(String resultado) {
+        return meterRegistry.get("monitoreo.masking.cache.consultas").tag("resultado", resultado).counter().count();
+    }
+
+    @Test
+    void guardaElVeredictoYElTextoEnmascarado() {
+        String mensaje = "Login de juan.perez@example.com desde 10.0.0.1";
+
+        assertTrue(cache.contiene(mensaje));
+        // Instancia nueva con el mismo contenido, como llegan los mensajes de log
+        String enmascarado = cache.enmascarar(new String(mensaje));
+
+        assertEquals(SensitiveDataScanner.mask(mensaje), enmascarado);
+        assertEquals(1.0, consultas("fallo"));
+        assertEquals(1.0, consultas("acierto"));
+        assertEquals(0.5, cache.getTasaAciertos());
+    }
+
+    @Test
+    void textoLimpioDevuelveLaInstanciaRecibida() {
+        String limpio = "Evento procesado en el lote A17";
+        assertFalse(cache.contiene(limpio));
+
+        String otraInstancia = new String(limpio);
+        assertSame(otraInstancia, cache.enmascarar(otraInstancia));
+        assertEquals(1.0, consultas("acierto"));
+    }
+
+    @Test
+    void textosLargosNoSeCachean() {
+        String largo = "x".repeat(300) + " tel 612345678";
+
+        cache.enmascarar(largo);
+        cache.enmascarar(largo);
+
+        assertEquals(2.0, consultas("omitido"));
+        assertEquals(0, cache.getEntradas());
+    }
+
+    @Test
+    void respetaElPresupuestoDeCaracteresExpulsandoLasMenosUsadas() {
+        MaskingResultCache pequena = new MaskingResultCache(meterRegistry, 1_000, 200, 1);
+        String frecuente = "Usuario 612345678 conectado";
+        pequena.enmascarar(frecuente);
+
+        for (int i = 0; i < 50; i++) {
+            pequena.enmascarar("Mensaje número " + i + " del usuario 61234" + i);
+            pequena.enmascarar(frecuente);
+        }
+
+        assertTrue(pequena.getCaracteres() <= 1_000);
+        assertTrue(meterRegistry.get("monitoreo.masking.cache.expulsiones").counter().count() > 0);
+        // La entrada consultada en cada vuelta nunca es la más antigua
+        assertEquals(50.0, consultas("acierto"));
+    }
+
+    @Test
+    void estimaElTiempoAhorrado() {
+        String mensaje = "Pago con tarjeta 4111111111111111 del usuario 612345678";
+        cache.enmascarar(mensaje);
+        for (int i = 0; i < 10; i++) {
+            cache.enmascarar(mensaje);
+        }
+
+        assertTrue(meterRegistry.get("monitoreo.masking.cache.tiempo.ahorrado").functionCounter().count() > 0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MaskingRuleEngineTest {
+
+    private MockEnvironment environment;
+    private MeterRegistry meterRegistry;
+    private MaskingRuleEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("monitoreo.masking.reglas.version", "1")
+                .withProperty("monitoreo.masking.reglas.personalizadas[0].nombre", "dni")
+                .withProperty("monitoreo.masking.reglas.personalizadas[0].patron", "\\d{8}[A-Z]")
+                .withProperty("monitoreo.masking.reglas.personalizadas[0].mascara", "[DNI]");
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new MaskingRuleEngine(environment, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.restaurar();
+    }
+
+    private double coincidencias(String regla) {
+        return meterRegistry.get("monitoreo.masking.reglas.coincidencias").tag("regla", regla).functionCounter().count();
+    }
+
+    @Test
+    void aplicaPredefinidasYPersonalizadasConMetricasPorRegla() {
+        String enmascarado = SensitiveDataScanner.mask("Cliente ana@example.com con DNI 12345678Z");
+
+        assertEquals("Cliente " + SensitiveDataFilter.EMAIL_MASK + " con DNI [DNI]", enmascarado);
+        assertTrue(SensitiveDataScanner.contains("DNI 12345678Z"));
+        assertEquals(1.0, coincidencias("email"));
+        assertEquals(1.0, coincidencias("dni"));
+        assertEquals(SensitiveDataScanner.VERSION_REGLAS + 1, SensitiveDataScanner.versionReglas());
+        assertTrue(meterRegistry.get("monitoreo.masking.escaneo.tiempo").functionCounter().count() > 0);
+    }
+
+    @Test
+    void recargaAlCambiarLaConfiguracion() {
+        environment.setProperty("monitoreo.masking.reglas.version", "2");
+        environment.setProperty("monitoreo.masking.reglas.personalizadas[1].nombre", "matricula");
+        environment.setProperty("monitoreo.masking.reglas.personalizadas[1].patron", "\\d{4}[B-Z]{3}");
+        environment.setProperty("monitoreo.masking.reglas.personalizadas[1].mascara", "[MATRICULA]");
+
+        engine.alCambiarConfiguracion(new EnvironmentChangeEvent(Set.of("monitoreo.masking.reglas.version")));
+
+        assertEquals("Coche [MATRICULA] de [DNI]", SensitiveDataScanner.mask("Coche 1234BCD de 12345678Z"));
+        assertEquals(SensitiveDataScanner.VERSION_REGLAS + 2, SensitiveDataScanner.versionReglas());
+        assertEquals(1.0, meterRegistry.get("monitoreo.masking.reglas.recargas").tag("resultado", "correcta").counter().count());
+    }
+
+    @Test
+    void ignoraCambiosDeOtrasPropiedades() {
+        environment.setProperty("monitoreo.masking.reglas.personalizadas[0].patron", "[");
+
+        engine.alCambiarConfiguracion(new EnvironmentChangeEvent(Set.of("monitoreo.sharding.habilitado")));
+
+        assertEquals(0.0, meterRegistry.get("monitoreo.masking.reglas.recargas").tag("resultado", "fallida").counter().count());
+    }
+
+    @Test
+    void conservaLasReglasVigentesSiLaNuevaConfiguracionEsInvalida() {
+        environment.setProperty("monitoreo.masking.reglas.version", "5");
+        environment.setProperty("monitoreo.masking.reglas.personalizadas[0].patron", "\\d{8}[A-Z");
+
+        assertFalse(engine.recargar());
+
+        assertEquals("DNI [DNI]", SensitiveDataScanner.mask("DNI 12345678Z"));
+        assertEquals(SensitiveDataScanner.VERSION_REGLAS + 1, SensitiveDataScanner.versionReglas());
+        assertEquals(1.0, meterRegistry.get("monitoreo.masking.reglas.recargas").tag("resultado", "fallida").counter().count());
+    }
+
+    @Test
+    void permiteDesactivarLasPredefinidas() {
+        environment.setProperty("monitoreo.masking.reglas.version", "2");
+        environment.setProperty("monitoreo.masking.reglas.predefinidas", "false");
+
+        assertTrue(engine.recargar());
+
+        assertEquals("ana@example.com y [DNI]", SensitiveDataScanner.mask("ana@example.com y 12345678Z"));
+    }
+
+    @Test
+    void rechazaCambiarLasReglasSinSubirLaVersion() {
+        environment.setProperty("monitoreo.masking.reglas.personalizadas[0].mascara", "[DOCUMENTO]");
+
+        assertFalse(engine.recargar());
+
+        assertEquals("DNI [DNI]", SensitiveDataScanner.mask("DNI 12345678Z"));
+        assertEquals(SensitiveDataScanner.VERSION_REGLAS + 1, SensitiveDataScanner.versionReglas());
+
+        environment.setProperty("monitoreo.masking.reglas.version", "2");
+        assertTrue(engine.recargar());
+        assertEquals("DNI [DOCUMENTO]", SensitiveDataScanner.mask("DNI 12345678Z"));
+        assertEquals(SensitiveDataScanner.VERSION_REGLAS + 2, SensitiveDataScanner.versionReglas());
+    }
+
+    @Test
+    void rechazaBajarLaVersionYAceptaRecargarLaMismaConfiguracion() {
+        assertTrue(engine.recargar());
+
+        environment.setProperty("monitoreo.masking.reglas.version", "0");
+        assertFalse(engine.recargar());
+        assertEquals(SensitiveDataScanner.VERSION_REGLAS + 1, SensitiveDataScanner.versionReglas());
+    }
+}
@@ -0,0 +1,110 @@
+package com.monitoreo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonitoreoRequestContextFilterTest {
+
+    @Test
+    void construyeElContextoUnaVezYLoVuelcaEnElMdc() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/eventos");
+        request.addHeader(RequestContext.CORRELATION_ID_HEADER, "corr-externo");
+        request.addHeader("user-id", "gateway-7");
+        request.addHeader("X-Forwarded-For", "10.0.0.1, 10.0.0.2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        AtomicReference<Map<String, String>> mdcEnCadena = new AtomicReference<>();
+        MonitoreoRequestContextFilter filtro = new MonitoreoRequestContextFilter(List.of());
+        filtro.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                mdcEnCadena.set(MDC.getCopyOfContextMap());
+            }
+        });
+
+        RequestContext contexto = RequestContext.de(request);
+        assertSame(contexto, request.getAttribute(RequestContext.ATRIBUTO));
+        assertEquals("corr-externo", response.getHeader(RequestContext.CORRELATION_ID_HEADER));
+        assertEquals("corr-externo", mdcEnCadena.get().get(RequestContext.CORRELATION_ID_MDC_KEY));
+        assertEquals(contexto.getRequestId(), mdcEnCadena.get().get(RequestContext.REQUEST_ID_MDC_KEY));
+        assertEquals("gateway-7", mdcEnCadena.get().get(RequestContext.USER_ID_MDC_KEY));
+        assertEquals("10.0.0.1", mdcEnCadena.get().get("remoteAddr"));
+        assertTrue(contexto.getRequestId().matches("req-[0-9a-z]{13}"));
+        assertNull(MDC.get(RequestContext.CORRELATION_ID_MDC_KEY));
+    }
+
+    @Test
+    void generaIdentificadoresYRespetaLaPrecedenciaDeUsuarios() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/eventos");
+        request.addHeader("X-User-ID", "cliente-1");
+        request.addHeader("user-id", "gateway-1");
+
+        RequestContext contexto = RequestContext.de(request);
+
+        assertTrue(contexto.getCorrelationId().matches("corr-[0-9a-z]{13}"));
+        assertEquals("cliente-1", contexto.getUserId());
+        assertEquals("gateway-1", contexto.getGatewayUserId());
+        assertNull(contexto.getSessionId());
+    }
+
+    @Test
+    void ejecutaLosPluginsEnOrdenYTerminaEnOrdenInverso() throws Exception {
+        List<String> llamadas = new ArrayList<>();
+        MonitoreoRequestContextFilter filtro = new MonitoreoRequestContextFilter(List.of(plugin("a", llamadas), plugin("b", llamadas)));
+
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/eventos"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(List.of("peticion-a", "respuesta-a", "peticion-b", "respuesta-b", "fin-b", "fin-a"), llamadas);
+    }
+
+    @Test
+    void autenticaConElUsuarioDelGateway() {
+        GatewaySecurityContextRepository repository = new GatewaySecurityContextRepository();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/eventos");
+        request.addHeader("user-id", "gateway-7");
+
+        SecurityContext context = repository.loadDeferredContext(request).get();
+
+        assertEquals("gateway-7", context.getAuthentication().getName());
+        assertTrue(repository.containsContext(request));
+        assertNull(repository.loadDeferredContext(new MockHttpServletRequest("GET", "/actuator/health")).get().getAuthentication());
+    }
+
+    private static RequestContextPlugin plugin(String nombre, List<String> llamadas) {
+        return new RequestContextPlugin() {
+            @Override
+            public HttpServletRequest envolverPeticion(RequestContext contexto, HttpServletRequest request) {
+                llamadas.add("peticion-" + nombre);
+                return request;
+            }
+
+            @Override
+            public HttpServletResponse envolverRespuesta(RequestContext contexto, HttpServletRequest request,
+                                                         HttpServletResponse response) {
+                llamadas.add("respuesta-" + nombre);
+                return response;
+            }
+
+            @Override
+            public void alTerminar(RequestContext contexto, HttpServletRequest request, HttpServletResponse response) {
+                llamadas.add("fin-" + nombre);
+            }
+        };
+    }
+}
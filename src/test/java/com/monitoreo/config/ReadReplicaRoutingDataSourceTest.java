@@ -0,0 +1,129 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Enrutamiento con dos bases H2 en memoria como primaria y réplica
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private MeterRegistry meterRegistry;
+    private JdbcTemplate primaria;
+    private JdbcTemplate replica;
+    private ReadReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate lectura;
+    private TransactionTemplate escritura;
+
+    private static DriverManagerDataSource h2(String nombre) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + nombre + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource primariaDataSource = h2("primaria");
+        DriverManagerDataSource replicaDataSource = h2("replica");
+        primaria = new JdbcTemplate(primariaDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        for (JdbcTemplate base : new JdbcTemplate[]{primaria, replica}) {
+            base.execute("CREATE TABLE origen (nombre VARCHAR(20))");
+            base.execute("CREATE TABLE estado_replica (retraso DOUBLE)");
+            base.update("INSERT INTO estado_replica VALUES (0)");
+        }
+        primaria.update("INSERT INTO origen VALUES ('primaria')");
+        replica.update("INSERT INTO origen VALUES ('replica')");
+
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setRetrasoMaximoSegundos(5);
+        properties.setConsultaRetraso("SELECT retraso FROM estado_replica");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replicaDataSource);
+
+        meterRegistry = new SimpleMeterRegistry();
+        routingDataSource = new ReadReplicaRoutingDataSource(primariaDataSource, replicas, properties, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        escritura = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaria.execute("SHUTDOWN");
+        try {
+            replica.execute("SHUTDOWN");
+        } catch (Exception ignored) {
+            // Algunos tests ya apagan la réplica
+        }
+    }
+
+    private String origenLectura() {
+        return lectura.execute(status -> jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class));
+    }
+
+    private double conexiones(String destino, String tipo) {
+        return meterRegistry.get("monitoreo.datasource.conexiones").tag("destino", destino).tag("tipo", tipo).counter().count();
+    }
+
+    @Test
+    void lecturasVanALaReplicaYEscriturasALaPrimaria() {
+        double escriturasIniciales = conexiones(ReadReplicaRoutingDataSource.PRIMARIA, "escritura");
+
+        assertEquals("replica", origenLectura());
+        assertEquals("primaria", escritura.execute(status -> jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class)));
+
+        escritura.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO origen VALUES ('nuevo')"));
+        assertEquals(2, primaria.queryForObject("SELECT COUNT(*) FROM origen", Integer.class));
+        assertEquals(1, replica.queryForObject("SELECT COUNT(*) FROM origen", Integer.class));
+
+        assertEquals(1.0, conexiones("replica-1", "lectura"));
+        assertEquals(escriturasIniciales + 2, conexiones(ReadReplicaRoutingDataSource.PRIMARIA, "escritura"));
+        assertEquals(1.0, meterRegistry.get("monitoreo.datasource.replica.disponible").tag("replica", "replica-1").gauge().value());
+    }
+
+    @Test
+    void replicaConRetrasoVuelveALaPrimaria() {
+        replica.update("UPDATE estado_replica SET retraso = 30");
+        routingDataSource.verificarReplicas();
+
+        assertEquals("primaria", origenLectura());
+        assertEquals(30.0, meterRegistry.get("monitoreo.datasource.replica.retraso.segundos").gauge().value());
+        assertEquals(1.0, meterRegistry.get("monitoreo.datasource.replica.fallback").counter().count());
+
+        replica.update("UPDATE estado_replica SET retraso = 1");
+        routingDataSource.verificarReplicas();
+
+        assertEquals("replica", origenLectura());
+    }
+
+    @Test
+    void replicaCaidaVuelveALaPrimaria() {
+        replica.execute("SHUTDOWN");
+        routingDataSource.verificarReplicas();
+
+        assertEquals("primaria", origenLectura());
+        assertEquals(0.0, meterRegistry.get("monitoreo.datasource.replica.disponible").gauge().value());
+        assertEquals(1.0, conexiones(ReadReplicaRoutingDataSource.PRIMARIA, "lectura"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RepositoryMetricsInterceptorTest {
+
+    interface RepositorioPrueba {
+        List<String> buscarTodos();
+
+        Page<String> buscarPagina();
+
+        long contar();
+
+        Optional<String> buscarUno();
+    }
+
+    private MeterRegistry meterRegistry;
+    private DataSource dataSource;
+    private RepositorioPrueba repositorio;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+
+        DataSource destino = mock(DataSource.class);
+        when(destino.getConnection()).thenReturn(mock(Connection.class));
+        dataSource = new RepositoryMetricsPostProcessor.MedicionConexionDataSource(destino, beanFactory.getBeanProvider(MeterRegistry.class));
+
+        RepositorioPrueba implementacion = new RepositorioPrueba() {
+            @Override
+            public List<String> buscarTodos() {
+                obtenerConexion();
+                return List.of("a", "b", "c");
+            }
+
+            @Override
+            public Page<String> buscarPagina() {
+                return new PageImpl<>(List.of("a", "b"));
+            }
+
+            @Override
+            public long contar() {
+                throw new IllegalStateException("sin conexión");
+            }
+
+            @Override
+            public Optional<String> buscarUno() {
+                return Optional.empty();
+            }
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(implementacion);
+        proxyFactory.addInterface(RepositorioPrueba.class);
+        proxyFactory.addAdvice(0, new RepositoryMetricsInterceptor("RepositorioPrueba", () -> meterRegistry));
+        repositorio = (RepositorioPrueba) proxyFactory.getProxy();
+    }
+
+    private void obtenerConexion() {
+        try {
+            dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void registraLatenciaFilasYConexionPorMetodo() {
+        repositorio.buscarTodos();
+        repositorio.buscarPagina();
+        repositorio.buscarUno();
+
+        assertEquals(1, meterRegistry.get("monitoreo.repositorio.tiempo")
+                .tags("repositorio", "RepositorioPrueba", "metodo", "buscarTodos", "resultado", "exito").timer().count());
+        assertEquals(3.0, meterRegistry.get("monitoreo.repositorio.filas").tag("metodo", "buscarTodos").summary().totalAmount());
+        assertEquals(2.0, meterRegistry.get("monitoreo.repositorio.filas").tag("metodo", "buscarPagina").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("monitoreo.repositorio.filas").tag("metodo", "buscarUno").summary().count());
+        assertEquals(1, meterRegistry.get("monitoreo.repositorio.conexion.tiempo").tag("metodo", "buscarTodos").timer().count());
+    }
+
+    @Test
+    void registraLosErroresYLasConexionesFueraDeRepositorio() {
+        assertThrows(IllegalStateException.class, repositorio::contar);
+        obtenerConexion();
+
+        assertEquals(1, meterRegistry.get("monitoreo.repositorio.tiempo")
+                .tags("metodo", "contar", "resultado", "error").timer().count());
+        assertEquals(0, meterRegistry.get("monitoreo.repositorio.filas").tag("metodo", "contar").summary().count());
+        assertEquals(1, meterRegistry.get("monitoreo.repositorio.conexion.tiempo").tag("metodo", "ninguno").timer().count());
+    }
+
+    @Test
+    void noCuentaFilasEnResultadosEscalares() {
+        assertEquals(-1, RepositoryMetricsInterceptor.filas(42L));
+        assertEquals(0, RepositoryMetricsInterceptor.filas(null));
+        assertEquals(1, RepositoryMetricsInterceptor.filas("entidad"));
+    }
+}
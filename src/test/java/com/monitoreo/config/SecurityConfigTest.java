@@ -0,0 +1,80 @@
+package com.monitoreo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints de Actuator con SQL y planes: solo el administrador, por HTTP Basic; el resto de Actuator sigue abierto
+ */
+@SpringJUnitWebConfig(SecurityConfigTest.Contexto.class)
+@TestPropertySource(properties = "monitoreo.seguridad.admin.clave={noop}secreto")
+class SecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void slowQueriesExigeAlAdministrador() throws Exception {
+        mockMvc.perform(get("/actuator/slowqueries")).andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/actuator/slowqueries")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/slowqueries").with(httpBasic("admin", "otra"))).andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/slowqueries").with(httpBasic("admin", "secreto"))).andExpect(status().isOk());
+        mockMvc.perform(delete("/actuator/slowqueries").with(httpBasic("admin", "secreto"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void elRestoDeActuatorNoCambia() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import({SecurityConfig.class, GatewaySecurityContextRepository.class})
+    static class Contexto {
+
+        @Bean
+        Endpoints endpoints() {
+            return new Endpoints();
+        }
+    }
+
+    @RestController
+    static class Endpoints {
+
+        @GetMapping({"/actuator/slowqueries", "/actuator/health"})
+        String leer() {
+            return "ok";
+        }
+
+        @DeleteMapping("/actuator/slowqueries")
+        void limpiar() {
+        }
+    }
+}
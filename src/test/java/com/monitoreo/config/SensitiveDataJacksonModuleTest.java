@@ -0,0 +1,117 @@
+package com.monitoreo.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.service.DataMaskingService;
+import com.monitoreo.service.DynamicGaugeRegistry;
+import com.monitoreo.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensitiveDataJacksonModuleTest {
+
+    private final SensitiveDataFilter filter = new SensitiveDataFilter();
+    private ObjectMapper mapperConModulo;
+    private ObjectMapper mapperSinModulo;
+
+    @BeforeEach
+    void setUp() {
+        mapperConModulo = new ObjectMapper().registerModule(new JavaTimeModule())
+                .registerModule(new SensitiveDataJacksonModule(filter));
+        mapperSinModulo = new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    private EventoMonitoreo evento(String mensaje, Map<String, Object> metadata) {
+        return new EventoMonitoreo(7L, "PAYMENT", mensaje, LocalDateTime.of(2024, 5, 1, 10, 30),
+                "servicio-pagos", "INFO", metadata, "usuario-12345", "sesion-1");
+    }
+
+    @Test
+    void enmascaraCamposAnotadosAlEscribir() throws Exception {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("contacto", "ana@example.com");
+        metadata.put("intentos", 3);
+
+        JsonNode json = mapperConModulo.readTree(mapperConModulo.writeValueAsString(
+                evento("Pago de juan.perez@example.com", metadata)));
+
+        assertEquals("Pago de " + SensitiveDataFilter.EMAIL_MASK, json.get("message").asText());
+        assertEquals(SensitiveDataFilter.EMAIL_MASK, json.get("metadata").get("contacto").asText());
+        assertEquals(3, json.get("metadata").get("intentos").asInt());
+        assertEquals(filter.maskUserId("usuario-12345"), json.get("userId").asText());
+        assertEquals("sesion-1", json.get("sessionId").asText());
+        // El evento original no se modifica
+        assertEquals("ana@example.com", metadata.get("contacto"));
+    }
+
+    @Test
+    void produceElMismoJsonQueLasCopiasEnmascaradas() throws Exception {
+        DataMaskingService dataMaskingService = new DataMaskingService();
+        ReflectionTestUtils.setField(dataMaskingService, "sensitiveDataFilter", filter);
+        ReflectionTestUtils.setField(dataMaskingService, "metricsService", metricsService());
+
+        Map<String, Object> anidada = new HashMap<>();
+        anidada.put("telefono", "555-123-4567");
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("cliente", anidada);
+        metadata.put("ip", "10.0.0.1");
+        List<EventoMonitoreo> pagina = List.of(
+                evento("Tarjeta 4111111111111111 desde 10.0.0.1", metadata),
+                evento("Servicio iniciado correctamente", new HashMap<>()),
+                evento("Sin metadata", null));
+
+        List<EventoMonitoreo> copias = pagina.stream().map(dataMaskingService::maskEventoMonitoreo).toList();
+
+        assertEquals(mapperSinModulo.readTree(mapperSinModulo.writeValueAsString(copias)),
+                mapperConModulo.readTree(mapperConModulo.writeValueAsString(pagina)));
+    }
+
+    @Test
+    void sirveElEnmascaramientoPersistidoSiEstaVigente() throws Exception {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("contacto", "ana@example.com");
+        EventoMonitoreo evento = evento("Pago de juan.perez@example.com", metadata);
+        EnmascaramientoEventoListener.aplicar(evento);
+        // Marcas para distinguir lo persistido de un recorrido al escribir
+        evento.setMaskedMessage("persistido");
+        evento.setMaskedMetadata(Map.of("contacto", "persistida"));
+
+        JsonNode vigente = mapperConModulo.readTree(mapperConModulo.writeValueAsString(evento));
+        assertEquals("persistido", vigente.get("message").asText());
+        assertEquals("persistida", vigente.get("metadata").get("contacto").asText());
+
+        evento.setMaskingVersion(SensitiveDataScanner.versionReglas() - 1);
+        JsonNode obsoleto = mapperConModulo.readTree(mapperConModulo.writeValueAsString(evento));
+        assertEquals("Pago de " + SensitiveDataFilter.EMAIL_MASK, obsoleto.get("message").asText());
+        assertEquals(SensitiveDataFilter.EMAIL_MASK, obsoleto.get("metadata").get("contacto").asText());
+    }
+
+    @Test
+    void noExponeElEnmascaramientoPersistido() throws Exception {
+        EventoMonitoreo evento = evento("Pago de juan.perez@example.com", new HashMap<>());
+        EnmascaramientoEventoListener.aplicar(evento);
+
+        JsonNode json = mapperConModulo.readTree(mapperConModulo.writeValueAsString(evento));
+
+        assertTrue(json.path("maskedMessage").isMissingNode());
+        assertTrue(json.path("maskingVersion").isMissingNode());
+    }
+
+    private static MetricsService metricsService() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricasProperties properties = new MetricasProperties();
+        return new MetricsService(meterRegistry, new DynamicGaugeRegistry(meterRegistry, properties), properties);
+    }
+}
@@ -0,0 +1,57 @@
+package com.monitoreo.config;
+
+import jakarta.servlet.ServletOutputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensitiveDataLoggingPluginTest {
+
+    private final SensitiveDataFilter filter = new SensitiveDataFilter();
+
+    @Test
+    void reenviaElCuerpoCompletoYCapturaHastaElLimite() throws Exception {
+        MockHttpServletResponse original = new MockHttpServletResponse();
+        SensitiveDataLoggingPlugin.SensitiveDataResponseWrapper wrapper =
+                new SensitiveDataLoggingPlugin.SensitiveDataResponseWrapper(original, filter, 16);
+        byte[] cuerpo = "{\"email\":\"ana@example.com\",\"total\":3}".getBytes(StandardCharsets.UTF_8);
+
+        ServletOutputStream salida = wrapper.getOutputStream();
+        salida.write(cuerpo, 0, 10);
+        salida.write(cuerpo[10]);
+        salida.write(cuerpo, 11, cuerpo.length - 11);
+
+        assertSame(salida, wrapper.getOutputStream());
+        assertArrayEquals(cuerpo, original.getContentAsByteArray());
+        assertEquals("{\"email\":\"ana@ex", wrapper.getResponseBody());
+        assertTrue(wrapper.isTruncada());
+    }
+
+    @Test
+    void capturaLoEscritoConElWriter() throws Exception {
+        MockHttpServletResponse original = new MockHttpServletResponse();
+        original.setCharacterEncoding("UTF-8");
+        SensitiveDataLoggingPlugin.SensitiveDataResponseWrapper wrapper =
+                new SensitiveDataLoggingPlugin.SensitiveDataResponseWrapper(original, filter, 1024);
+
+        PrintWriter writer = wrapper.getWriter();
+        writer.print("Señal de ana@example.com");
+        assertSame(writer, wrapper.getWriter());
+        wrapper.finalizarCaptura();
+
+        assertEquals("Señal de ana@example.com", original.getContentAsString());
+        assertEquals("Señal de ana@example.com", wrapper.getResponseBody());
+        assertEquals("Señal de " + SensitiveDataFilter.EMAIL_MASK, wrapper.getMaskedResponseBody());
+        assertFalse(wrapper.isTruncada());
+        assertThrows(IllegalStateException.class, wrapper::getOutputStream);
+    }
+}
@@ -0,0 +1,43 @@
+package com.monitoreo.config;
+
+import java.util.regex.Pattern;
+
+/**
+ * Implementación original de SensitiveDataFilter con cinco expresiones regulares,
+ * conservada como referencia para la prueba diferencial y el benchmark del escáner
+ */
+public final class SensitiveDataRegexReferencia {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b");
+    private static final Pattern PHONE_PATTERN = Pattern.compile("\\b\\+?[1-9]\\d{1,14}\\b");
+    private static final Pattern CREDIT_CARD_PATTERN = Pattern.compile("\\b\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}[\\s-]?\\d{4}\\b");
+    private static final Pattern SSN_PATTERN = Pattern.compile("\\b\\d{3}-\\d{2}-\\d{4}\\b");
+    private static final Pattern IP_PATTERN = Pattern.compile("\\b(?:\\d{1,3}\\.){3}\\d{1,3}\\b");
+
+    private SensitiveDataRegexReferencia() {
+    }
+
+    public static String maskSensitiveData(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String masked = text;
+        masked = EMAIL_PATTERN.matcher(masked).replaceAll(SensitiveDataFilter.EMAIL_MASK);
+        masked = PHONE_PATTERN.matcher(masked).replaceAll(SensitiveDataFilter.PHONE_MASK);
+        masked = CREDIT_CARD_PATTERN.matcher(masked).replaceAll(SensitiveDataFilter.CREDIT_CARD_MASK);
+        masked = SSN_PATTERN.matcher(masked).replaceAll(SensitiveDataFilter.SSN_MASK);
+        masked = IP_PATTERN.matcher(masked).replaceAll(SensitiveDataFilter.IP_MASK);
+        return masked;
+    }
+
+    public static boolean containsSensitiveData(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
+        }
+        return EMAIL_PATTERN.matcher(text).find() ||
+               PHONE_PATTERN.matcher(text).find() ||
+               CREDIT_CARD_PATTERN.matcher(text).find() ||
+               SSN_PATTERN.matcher(text).find() ||
+               IP_PATTERN.matcher(text).find();
+    }
+}
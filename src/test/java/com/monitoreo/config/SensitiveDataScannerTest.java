@@ -0,0 +1,80 @@
+package com.monitoreo.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Prueba diferencial: el escáner debe producir exactamente la salida de las cinco expresiones regulares
+ */
+class SensitiveDataScannerTest {
+
+    private static final String[] ALFABETOS = {
+            "0123456789 -.",
+            "0000000123456789.-+ @a",
+            "01.- \t+@ab|_x%\u0301",
+            "0123456789abcdefxyz.@-+_|% \n",
+            "00011.-@com|+ "
+    };
+
+    private static final String[] FRAGMENTOS = {
+            "a@b.com", "1234-5678-9012-3456", "0123 0456 0789 0123", "012-03-0456", "0.0.0.0",
+            "192.168.1.1", "+34612345678", "x@y.c||5", "0123456789012345", "user.name+tag@mail.example.org"
+    };
+
+    private static void assertMismoResultado(String texto) {
+        assertEquals(SensitiveDataRegexReferencia.maskSensitiveData(texto), SensitiveDataScanner.mask(texto), texto);
+        assertEquals(SensitiveDataRegexReferencia.containsSensitiveData(texto), SensitiveDataScanner.contains(texto), texto);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Usuario juan.perez@example.com inició sesión desde 192.168.1.100",
+            "Pago con tarjeta 4111111111111111 rechazado, tel +34 612 345 678",
+            "Tarjeta 1234-5678-9012-3456 y SSN 123-45-6789",
+            "Grupos con ceros 0123 0456 0789 0123 y 0123-0456-0789-0123",
+            "SSN con ceros 012-03-0456 y 012-03-0456-0789-0123-0456",
+            "IP 0.0.0.0, 1.0.0.1, 0.0.0.012-03-0456 y 10.0.0.1.5",
+            "a+34612345678 x@y.com+123 12+34 _+x@b.com",
+            "Dominio raro x@y.c||55 y a@b.cd.e@f.gh",
+            "Orden 9876543210123456789 sin separadores"
+    })
+    void mensajesConocidos(String texto) {
+        assertMismoResultado(texto);
+    }
+
+    @Test
+    void textosAleatorios() {
+        Random random = new Random(20240601L);
+        for (int k = 0; k < 200_000; k++) {
+            String alfabeto = ALFABETOS[random.nextInt(ALFABETOS.length)];
+            int longitud = random.nextInt(60);
+            StringBuilder texto = new StringBuilder(longitud);
+            for (int i = 0; i < longitud; i++) {
+                if (random.nextInt(10) == 0) {
+                    texto.append(FRAGMENTOS[random.nextInt(FRAGMENTOS.length)]);
+                } else {
+                    texto.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+                }
+            }
+            assertMismoResultado(texto.toString());
+        }
+    }
+
+    @Test
+    void textoLimpioDevuelveLaMismaInstancia() {
+        String limpio = "Evento procesado correctamente por el servicio de auditoría 1";
+        assertFalse(SensitiveDataScanner.esCandidato(limpio));
+        assertSame(limpio, SensitiveDataScanner.mask(limpio));
+
+        String sinCoincidencias = "Lote A17 de la versión v2";
+        assertSame(sinCoincidencias, SensitiveDataScanner.mask(sinCoincidencias));
+        assertFalse(SensitiveDataScanner.contains(sinCoincidencias));
+    }
+}
@@ -0,0 +1,82 @@
+package com.monitoreo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+    private static final int SERVICIOS = 10_000;
+
+    @Test
+    void asignacionDeterministaYEquilibrada() {
+        ShardRouter router = new ShardRouter(List.of("principal", "shard-1", "shard-2", "shard-3"), 128);
+        ShardRouter otro = new ShardRouter(List.of("principal", "shard-1", "shard-2", "shard-3"), 128);
+
+        Map<String, Integer> porShard = new HashMap<>();
+        for (int i = 0; i < SERVICIOS; i++) {
+            String servicio = "servicio-" + i;
+            assertEquals(router.shardPara(servicio), otro.shardPara(servicio));
+            porShard.merge(router.shardPara(servicio), 1, Integer::sum);
+        }
+
+        assertEquals(4, porShard.size());
+        for (int cantidad : porShard.values()) {
+            // Reparto ideal 2500 por shard; con 128 nodos virtuales la desviación es pequeña
+            assertTrue(cantidad > 1800 && cantidad < 3200, "Reparto desequilibrado: " + porShard);
+        }
+    }
+
+    @Test
+    void anadirUnShardSoloMueveServiciosAlNuevo() {
+        ShardRouter cuatro = new ShardRouter(List.of("principal", "shard-1", "shard-2", "shard-3"), 128);
+        ShardRouter cinco = new ShardRouter(List.of("principal", "shard-1", "shard-2", "shard-3", "shard-4"), 128);
+
+        int movidos = 0;
+        for (int i = 0; i < SERVICIOS; i++) {
+            String servicio = "servicio-" + i;
+            String antes = cuatro.shardPara(servicio);
+            String despues = cinco.shardPara(servicio);
+            if (!antes.equals(despues)) {
+                assertEquals("shard-4", despues);
+                movidos++;
+            }
+        }
+
+        // Aproximadamente 1/5 de los servicios cambia de shard
+        assertTrue(movidos > SERVICIOS / 10 && movidos < SERVICIOS * 3 / 10, "Servicios movidos: " + movidos);
+    }
+
+    @Test
+    void routerUnicoYServicioNulo() {
+        ShardRouter unico = ShardRouter.unico();
+        assertTrue(unico.esUnico());
+        assertEquals(ShardRouter.PRINCIPAL, unico.shardPara("cualquiera"));
+        assertEquals(ShardRouter.PRINCIPAL, unico.shardPara(null));
+
+        ShardRouter router = new ShardRouter(List.of("principal", "shard-1"), 16);
+        assertEquals(router.shardPara(""), router.shardPara(null));
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(List.of(), 16));
+    }
+
+    @Test
+    void elIdIndicaElShardQueLoGenero() {
+        ShardRouter router = new ShardRouter(List.of("principal", "shard-1", "shard-2"), 128);
+
+        for (String shard : router.getShards()) {
+            assertEquals(shard, router.shardDeId(router.inicioRangoIds(shard)));
+            assertEquals(shard, router.shardDeId(router.finRangoIds(shard)));
+        }
+        assertEquals(router.finRangoIds("principal") + 1, router.inicioRangoIds("shard-1"));
+        // Ids anteriores a los rangos y fuera de los shards configurados
+        assertNull(router.shardDeId(42L));
+        assertNull(router.shardDeId(router.finRangoIds("shard-2") + 1));
+    }
+}
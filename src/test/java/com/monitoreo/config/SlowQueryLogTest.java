@@ -0,0 +1,133 @@
+package com.monitoreo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTest {
+
+    private MeterRegistry meterRegistry;
+    private SlowQueryLog slowQueryLog;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:consultas-lentas;DB_CLOSE_DELAY=-1");
+        try (Connection conexion = h2.getConnection(); Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE TABLE IF NOT EXISTS sesiones (session_id VARCHAR(64), datos VARCHAR(64))");
+        }
+        // Umbral 0: todas las sentencias cuentan como lentas
+        slowQueryLog = new SlowQueryLog(meterRegistry, 0, 1.0, 1, 2, false, 10, System::currentTimeMillis);
+        dataSource = new SlowQueryDataSource(h2, () -> slowQueryLog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.cerrar();
+    }
+
+    @Test
+    void registraElSqlYLaFormaDeLosParametrosSinSusValores() throws Exception {
+        try (Connection conexion = dataSource.getConnection();
+             PreparedStatement sentencia = conexion.prepareStatement("SELECT * FROM sesiones WHERE session_id = ? AND datos = ?")) {
+            sentencia.setString(1, "abcde");
+            sentencia.setNull(2, java.sql.Types.VARCHAR);
+            try (ResultSet filas = sentencia.executeQuery()) {
+                assertFalse(filas.next());
+            }
+            assertEquals(conexion, sentencia.getConnection());
+        }
+
+        List<SlowQueryLog.ConsultaLenta> consultas = slowQueryLog.consultas();
+        assertEquals(1, consultas.size());
+        SlowQueryLog.ConsultaLenta consulta = consultas.get(0);
+        assertEquals("SELECT * FROM sesiones WHERE session_id = ? AND datos = ?", consulta.getSql());
+        assertEquals(List.of("String(5)", "null"), consulta.getParametros());
+        assertEquals("ninguno", consulta.getMetodo());
+        assertEquals(SlowQueryLog.ConsultaLenta.NO_SOPORTADO, consulta.getEstadoPlan());
+        assertEquals(1.0, meterRegistry.get("monitoreo.consultas.lentas").tag("metodo", "ninguno").counter().count());
+    }
+
+    @Test
+    void elAnilloConservaSoloLasMasRecientes() throws Exception {
+        try (Connection conexion = dataSource.getConnection(); Statement sentencia = conexion.createStatement()) {
+            sentencia.executeQuery("SELECT 1").close();
+            sentencia.executeQuery("SELECT 2").close();
+            sentencia.executeQuery("SELECT 3").close();
+        }
+
+        List<SlowQueryLog.ConsultaLenta> consultas = slowQueryLog.consultas();
+        assertEquals(2, consultas.size());
+        assertEquals("SELECT 3", consultas.get(0).getSql());
+        assertEquals("SELECT 2", consultas.get(1).getSql());
+    }
+
+    @Test
+    void limitaLosPlanesPorMinutoYNoCapturaEnUnaBaseQueNoEsPostgres() throws Exception {
+        SlowQueryLog conExplain = new SlowQueryLog(meterRegistry, 0, 1.0, 1, 10, true, 10, () -> 0L);
+        try {
+            DataSource h2 = ((SlowQueryDataSource) dataSource).getTargetDataSource();
+            SlowQueryLog.ConsultaLenta primera = conExplain.registrar("SELECT 1", new Object[0], 1, h2);
+            SlowQueryLog.ConsultaLenta segunda = conExplain.registrar("SELECT 2", new Object[0], 1, null);
+            assertEquals(SlowQueryLog.ConsultaLenta.LIMITADO, segunda.getEstadoPlan());
+
+            SlowQueryLog.ConsultaLenta directa = conExplain.registrar("UPDATE sesiones SET datos = ?", new Object[]{"x"}, 1, null);
+            assertEquals(SlowQueryLog.ConsultaLenta.NO_SOPORTADO, directa.getEstadoPlan());
+
+            long limite = System.currentTimeMillis() + 5000;
+            while (SlowQueryLog.ConsultaLenta.PENDIENTE.equals(primera.getEstadoPlan()) && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            assertEquals(SlowQueryLog.ConsultaLenta.NO_SOPORTADO, primera.getEstadoPlan());
+        } finally {
+            conExplain.cerrar();
+        }
+    }
+
+    @Test
+    void soloSeExplicanLecturasConParametrosReenlazables() {
+        assertFalse(SlowQueryLog.noExplicable("  select * from sesiones", new Object[]{"a", 1L}));
+        assertFalse(SlowQueryLog.noExplicable("WITH t AS (SELECT 1) SELECT * FROM t", new Object[0]));
+        assertTrue(SlowQueryLog.noExplicable("select * from sesiones for update", new Object[0]));
+        assertTrue(SlowQueryLog.noExplicable("delete from sesiones", new Object[0]));
+        assertTrue(SlowQueryLog.noExplicable("select ?", new Object[]{new ByteArrayInputStream(new byte[1])}));
+        assertEquals(List.of("Long", "byte[3]"), SlowQueryLog.formas(new Object[]{1L, new byte[3]}));
+    }
+
+    @Test
+    void elPlanSeGuardaSinLosLiteralesDeSusCondiciones() {
+        String plan = """
+                Index Scan using idx_user on eventos_monitoreo  (cost=0.29..8.31 rows=1 width=64) (actual time=0.020..0.021 rows=1 loops=1)
+                  Index Cond: ((user_id)::text = 'ana@example.com'::text)
+                  Filter: ((id > 1234) AND (level = 'O''Brien'::text) AND (service_name = $1))
+                Planning Time: 0.080 ms""";
+
+        String limpio = SlowQueryLog.sinLiterales(plan);
+
+        assertFalse(limpio.contains("ana@example.com"));
+        assertFalse(limpio.contains("Brien"));
+        assertFalse(limpio.contains("1234"));
+        assertTrue(limpio.contains("Index Cond: ((user_id)::text = '?'::text)"));
+        assertTrue(limpio.contains("(id > ?)"));
+        assertTrue(limpio.contains("(service_name = $1)"));
+        assertTrue(limpio.contains("(cost=0.29..8.31 rows=1 width=64)"));
+        assertTrue(limpio.contains("Planning Time: 0.080 ms"));
+    }
+}
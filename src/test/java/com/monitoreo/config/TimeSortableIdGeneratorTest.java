@@ -0,0 +1,85 @@
+package com.monitoreo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSortableIdGeneratorTest {
+
+    @Test
+    void codificaConAnchoFijoYOrdenAlfabeticoIgualAlNumerico() {
+        TimeSortableIdGenerator generador = new TimeSortableIdGenerator(5);
+        long anterior = generador.siguienteValor();
+        String anteriorCodificado = TimeSortableIdGenerator.codificar("corr-", anterior);
+        for (int i = 0; i < 10_000; i++) {
+            long valor = generador.siguienteValor();
+            String codificado = TimeSortableIdGenerator.codificar("corr-", valor);
+
+            assertTrue(valor > anterior);
+            assertEquals(5 + TimeSortableIdGenerator.LONGITUD, codificado.length());
+            assertTrue(codificado.compareTo(anteriorCodificado) > 0);
+            assertEquals(5, valor & TimeSortableIdGenerator.MAX_NODO);
+            anterior = valor;
+            anteriorCodificado = codificado;
+        }
+        assertEquals("req-0000000000000", TimeSortableIdGenerator.codificar("req-", 0));
+        assertEquals("req-fzzzzzzzzzzzz", TimeSortableIdGenerator.codificar("req-", -1L));
+    }
+
+    @Test
+    void siguieCreciendoSiElRelojRetrocedeOSeAgotaLaSecuencia() {
+        AtomicLong reloj = new AtomicLong(TimeSortableIdGenerator.EPOCA + 1_000);
+        TimeSortableIdGenerator generador = new TimeSortableIdGenerator(1, reloj::get);
+
+        long anterior = generador.siguienteValor();
+        assertEquals(reloj.get(), TimeSortableIdGenerator.instante(anterior));
+        for (int i = 0; i < 5_000; i++) {
+            if (i == 2_000) {
+                reloj.addAndGet(-500);
+            }
+            long valor = generador.siguienteValor();
+            assertTrue(valor > anterior);
+            anterior = valor;
+        }
+    }
+
+    @Test
+    void noRepiteIdentificadoresEntreHilos() throws Exception {
+        TimeSortableIdGenerator generador = new TimeSortableIdGenerator(TimeSortableIdGenerator.nodoPara("monitoreo:10.0.0.7:8080"));
+        ConcurrentLinkedQueue<Long> generados = new ConcurrentLinkedQueue<>();
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            Thread hilo = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    generados.add(generador.siguienteValor());
+                }
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        List<Long> ordenados = new ArrayList<>(generados);
+        Collections.sort(ordenados);
+        for (int i = 1; i < ordenados.size(); i++) {
+            assertTrue(ordenados.get(i) > ordenados.get(i - 1));
+        }
+        assertEquals(160_000, ordenados.size());
+    }
+
+    @Test
+    void rechazaNodosFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeSortableIdGenerator(TimeSortableIdGenerator.MAX_NODO + 1));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSortableIdGenerator(-1));
+    }
+}
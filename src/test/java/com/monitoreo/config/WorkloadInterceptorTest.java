@@ -0,0 +1,113 @@
+package com.monitoreo.config;
+
+import com.monitoreo.exception.CargaSaturadaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadInterceptorTest {
+
+    @Workload(CargaTrabajo.CONSULTA)
+    static class ControladorConsultas {
+
+        public void listar() {
+        }
+
+        @Workload(CargaTrabajo.INGESTA)
+        public void crear() {
+        }
+
+        @Workload(CargaTrabajo.SEGUNDO_PLANO)
+        public void purgar() {
+        }
+    }
+
+    static class ControladorSinAnotar {
+
+        public void operar() {
+        }
+    }
+
+    private MeterRegistry meterRegistry;
+    private WorkloadInterceptor interceptor;
+
+    private static HandlerMethod handler(Object controlador, String metodo) throws NoSuchMethodException {
+        return new HandlerMethod(controlador, metodo);
+    }
+
+    @BeforeEach
+    void setUp() {
+        WorkloadProperties properties = new WorkloadProperties();
+        properties.getConsulta().setMaxConcurrentes(1);
+        properties.getConsulta().setEsperaMaximaMs(10);
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new WorkloadInterceptor(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        WorkloadContext.limpiar();
+    }
+
+    @Test
+    void testResolverCargaPorMetodoClaseYVerbo() throws Exception {
+        ControladorConsultas consultas = new ControladorConsultas();
+        ControladorSinAnotar sinAnotar = new ControladorSinAnotar();
+
+        assertEquals(CargaTrabajo.CONSULTA, WorkloadInterceptor.resolverCarga(handler(consultas, "listar"), "GET"));
+        assertEquals(CargaTrabajo.INGESTA, WorkloadInterceptor.resolverCarga(handler(consultas, "crear"), "POST"));
+        assertEquals(CargaTrabajo.SEGUNDO_PLANO, WorkloadInterceptor.resolverCarga(handler(consultas, "purgar"), "DELETE"));
+        assertEquals(CargaTrabajo.CONSULTA, WorkloadInterceptor.resolverCarga(handler(sinAnotar, "operar"), "GET"));
+        assertEquals(CargaTrabajo.INGESTA, WorkloadInterceptor.resolverCarga(handler(sinAnotar, "operar"), "POST"));
+    }
+
+    @Test
+    void testCargaSaturadaNoAfectaAOtrasCargas() throws Exception {
+        HandlerMethod listar = handler(new ControladorConsultas(), "listar");
+        HandlerMethod crear = handler(new ControladorConsultas(), "crear");
+        MockHttpServletRequest primera = new MockHttpServletRequest("GET", "/api/monitoreo/eventos");
+        MockHttpServletRequest segunda = new MockHttpServletRequest("GET", "/api/monitoreo/eventos");
+        MockHttpServletRequest ingesta = new MockHttpServletRequest("POST", "/api/monitoreo/eventos");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(primera, response, listar));
+        assertEquals(CargaTrabajo.CONSULTA, WorkloadContext.actual());
+        assertEquals(1.0, interceptor.getBulkhead(CargaTrabajo.CONSULTA).getSaturacion());
+
+        // La consulta está llena: la segunda espera el máximo configurado y se rechaza
+        assertThrows(CargaSaturadaException.class, () -> interceptor.preHandle(segunda, response, listar));
+        assertEquals(1.0, meterRegistry.get("monitoreo.carga.rechazadas").tag("carga", "consulta").counter().count());
+
+        // La ingesta tiene su propio compartimento y no espera
+        assertTrue(interceptor.preHandle(ingesta, response, crear));
+        assertEquals(CargaTrabajo.INGESTA, WorkloadContext.actual());
+        interceptor.afterCompletion(ingesta, response, crear, null);
+
+        interceptor.afterCompletion(primera, response, listar, null);
+        assertNull(WorkloadContext.actual());
+        assertEquals(0, interceptor.getBulkhead(CargaTrabajo.CONSULTA).getActivas());
+        assertTrue(interceptor.preHandle(segunda, response, listar));
+        interceptor.afterCompletion(segunda, response, listar, null);
+
+        assertEquals(3, meterRegistry.get("monitoreo.carga.espera").tag("carga", "consulta").timer().count());
+    }
+
+    @Test
+    void testDeshabilitadoSoloClasifica() throws Exception {
+        WorkloadProperties properties = new WorkloadProperties();
+        properties.setHabilitado(false);
+        properties.getConsulta().setMaxConcurrentes(0);
+        WorkloadInterceptor sinLimites = new WorkloadInterceptor(properties, new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/monitoreo/eventos");
+
+        assertTrue(sinLimites.preHandle(request, new MockHttpServletResponse(), handler(new ControladorConsultas(), "listar")));
+        assertEquals(CargaTrabajo.CONSULTA, WorkloadContext.actual());
+    }
+}
@@ -0,0 +1,82 @@
+package com.monitoreo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Enrutamiento por carga con una base H2 en memoria por pool
+ */
+class WorkloadRoutingDataSourceTest {
+
+    private final Map<CargaTrabajo, DataSource> pools = new EnumMap<>(CargaTrabajo.class);
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (CargaTrabajo carga : CargaTrabajo.values()) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:" + carga.getNombre() + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate base = new JdbcTemplate(dataSource);
+            base.execute("CREATE TABLE origen (nombre VARCHAR(20))");
+            base.update("INSERT INTO origen VALUES (?)", carga.getNombre());
+            pools.put(carga, dataSource);
+        }
+        WorkloadRoutingDataSource routingDataSource = new WorkloadRoutingDataSource(pools);
+        routingDataSource.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        WorkloadContext.limpiar();
+        pools.values().forEach(dataSource -> new JdbcTemplate(dataSource).execute("SHUTDOWN"));
+    }
+
+    private String origen() {
+        return jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class);
+    }
+
+    @Test
+    void testCadaCargaUsaSuPool() {
+        for (CargaTrabajo carga : CargaTrabajo.values()) {
+            WorkloadContext.establecer(carga);
+            assertEquals(carga.getNombre(), origen());
+        }
+    }
+
+    @Test
+    void testHiloSinCargaUsaSegundoPlano() {
+        assertNull(WorkloadContext.actual());
+        assertEquals("segundo-plano", origen());
+    }
+
+    @Test
+    void testDecoradorDeExecutor() {
+        WorkloadContext.establecer(CargaTrabajo.INGESTA);
+        AtomicReference<String> resultado = new AtomicReference<>();
+
+        WorkloadContext.decorador(CargaTrabajo.SEGUNDO_PLANO).decorate(() -> resultado.set(origen())).run();
+
+        assertEquals("segundo-plano", resultado.get());
+        assertEquals(CargaTrabajo.INGESTA, WorkloadContext.actual());
+    }
+
+    @Test
+    void testFaltaUnPool() {
+        Map<CargaTrabajo, DataSource> incompletos = new EnumMap<>(pools);
+        incompletos.remove(CargaTrabajo.CONSULTA);
+
+        assertThrows(IllegalArgumentException.class, () -> new WorkloadRoutingDataSource(incompletos));
+    }
+}
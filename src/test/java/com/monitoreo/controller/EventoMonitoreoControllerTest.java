@@ -3,11 +3,19 @@ package com.monitoreo.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.monitoreo.dto.EventoMonitoreoRequest;
 import com.monitoreo.exception.InvalidEventoException;
+import com.monitoreo.config.AggregateCacheProperties;
+import com.monitoreo.config.ShardRouter;
 import com.monitoreo.model.EventoMonitoreo;
 import com.monitoreo.repository.EventoMonitoreoRepository;
+import com.monitoreo.service.AggregateResultCache;
+import com.monitoreo.service.EventoWalService;
+import com.monitoreo.service.EventosHealthIndicator;
 import com.monitoreo.service.MetricsService;
 import com.monitoreo.service.MonitoreoService;
+import com.monitoreo.service.ShardedEventoService;
+import com.monitoreo.service.SingleFlight;
 import com.monitoreo.validation.EventoMonitoreoValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,12 +23,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.monitoreo.exception.GlobalExceptionHandler;
 
@@ -29,13 +41,17 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 
 @ExtendWith(MockitoExtension.class)
 class EventoMonitoreoControllerTest {
@@ -57,11 +73,21 @@ class EventoMonitoreoControllerTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private EventoWalService eventoWalService;
+
+    @Mock
+    private EventosHealthIndicator eventosHealthIndicator;
+
     @InjectMocks
     private EventoMonitoreoController eventoMonitoreoController;
 
     @BeforeEach
     void setUp() {
+        // Un único shard: el servicio delega directamente en el repositorio simulado
+        ReflectionTestUtils.setField(eventoMonitoreoController, "shardedEventoService",
+                new ShardedEventoService(eventoMonitoreoRepository, ShardRouter.unico(), Runnable::run,
+                        mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 10000));
         mockMvc = MockMvcBuilders.standaloneSetup(eventoMonitoreoController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -95,6 +121,90 @@ class EventoMonitoreoControllerTest {
         verify(monitoreoService, times(1)).logEvent(any(), any(), any());
     }
 
+    @Test
+    void crearEvento_baseDeDatosNoDisponible_aceptadoEnWal() throws Exception {
+        EventoMonitoreoRequest request = new EventoMonitoreoRequest();
+        request.setEventType("TEST_EVENT");
+        request.setMessage("Test message");
+        request.setTimestamp(LocalDateTime.now());
+        request.setServiceName("test-service");
+
+        when(eventoWalService.registrar(any(EventoMonitoreo.class))).thenReturn(7L);
+        when(eventoMonitoreoRepository.save(any(EventoMonitoreo.class)))
+                .thenThrow(new CannotCreateTransactionException("Conexión rechazada"));
+
+        mockMvc.perform(post("/api/monitoreo/eventos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.eventType").value("TEST_EVENT"));
+
+        verify(eventoWalService).diferir(7L);
+        verify(eventoWalService, never()).confirmar(anyLong());
+        verify(metricsService, never()).incrementarEventosCreados();
+    }
+
+    @Test
+    void crearEvento_conPendientesEnWal_noEsperaABaseDeDatos() throws Exception {
+        EventoMonitoreoRequest request = new EventoMonitoreoRequest();
+        request.setEventType("TEST_EVENT");
+        request.setMessage("Test message");
+        request.setTimestamp(LocalDateTime.now());
+
+        when(eventoWalService.registrar(any(EventoMonitoreo.class))).thenReturn(8L);
+        when(eventoWalService.hayPendientes()).thenReturn(true);
+
+        mockMvc.perform(post("/api/monitoreo/eventos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted());
+
+        verify(eventoWalService).diferir(8L);
+        verify(eventoMonitoreoRepository, never()).save(any(EventoMonitoreo.class));
+    }
+
+    private EventoMonitoreoRequest peticion(String mensaje) {
+        EventoMonitoreoRequest request = new EventoMonitoreoRequest();
+        request.setEventType("TEST_EVENT");
+        request.setMessage(mensaje);
+        request.setTimestamp(LocalDateTime.now());
+        request.setServiceName("test-service");
+        return request;
+    }
+
+    @Test
+    void crearEventosBatch_pasaPorElWal() throws Exception {
+        when(eventoWalService.registrar(any(EventoMonitoreo.class))).thenReturn(1L, 2L);
+        when(eventoMonitoreoRepository.saveAll(anyList())).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        mockMvc.perform(post("/api/monitoreo/eventos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(peticion("Uno"), peticion("Dos")))))
+                .andExpect(status().isCreated());
+
+        verify(eventoWalService, times(2)).registrar(any(EventoMonitoreo.class));
+        verify(eventoWalService).confirmar(1L);
+        verify(eventoWalService).confirmar(2L);
+        verify(eventoWalService, never()).diferir(anyLong());
+    }
+
+    @Test
+    void crearEventosBatch_baseDeDatosNoDisponible_aceptadoEnWal() throws Exception {
+        when(eventoWalService.registrar(any(EventoMonitoreo.class))).thenReturn(3L, 4L);
+        when(eventoMonitoreoRepository.saveAll(anyList()))
+                .thenThrow(new CannotCreateTransactionException("Conexión rechazada"));
+
+        mockMvc.perform(post("/api/monitoreo/eventos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(peticion("Uno"), peticion("Dos")))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        verify(eventoWalService).diferir(3L);
+        verify(eventoWalService).diferir(4L);
+        verify(eventoWalService, never()).confirmar(anyLong());
+    }
+
     @Test
     void obtenerEventoPorId_success() throws Exception {
         EventoMonitoreo evento = new EventoMonitoreo();
@@ -119,7 +229,7 @@ class EventoMonitoreoControllerTest {
 
     @Test
     void eliminarEvento_success() throws Exception {
-        when(eventoMonitoreoRepository.findById(1L)).thenReturn(Optional.of(new EventoMonitoreo()));
+        when(eventoMonitoreoRepository.existsById(1L)).thenReturn(true);
 
         mockMvc.perform(delete("/api/monitoreo/eventos/1"))
                 .andExpect(status().isNoContent());
@@ -130,7 +240,7 @@ class EventoMonitoreoControllerTest {
 
     @Test
     void eliminarEvento_notFound() throws Exception {
-        when(eventoMonitoreoRepository.findById(1L)).thenReturn(Optional.empty());
+        when(eventoMonitoreoRepository.existsById(1L)).thenReturn(false);
 
         mockMvc.perform(delete("/api/monitoreo/eventos/1"))
                 .andExpect(status().isNotFound());
@@ -140,9 +250,56 @@ class EventoMonitoreoControllerTest {
 
     @Test
     void eliminarEvento_DebeRetornarNoContent() throws Exception {
-        when(eventoMonitoreoRepository.findById(1L)).thenReturn(Optional.of(new EventoMonitoreo()));
+        when(eventoMonitoreoRepository.existsById(1L)).thenReturn(true);
 
         mockMvc.perform(delete("/api/monitoreo/eventos/1"))
                 .andExpect(status().isNoContent());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void health_usaLaInstantaneaSinContar() throws Exception {
+        when(eventosHealthIndicator.health()).thenReturn(Health.up()
+                .withDetail("filasAproximadas", 1200L)
+                .withDetail("actualizado", "2024-01-01T12:00:00Z")
+                .build());
+
+        mockMvc.perform(get("/api/monitoreo/eventos/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.totalEventos").value(1200))
+                .andExpect(jsonPath("$.totalAproximado").value(true));
+
+        verify(eventoMonitoreoRepository, never()).count();
+    }
+
+    @Test
+    void health_caidoRespondeServiceUnavailable() throws Exception {
+        when(eventosHealthIndicator.health()).thenReturn(Health.down()
+                .withDetail("motivo", "Instantánea de salud obsoleta")
+                .build());
+
+        mockMvc.perform(get("/api/monitoreo/eventos/health"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("DOWN"));
+    }
+
+    @Test
+    void obtenerEstadisticas_seSirveDesdeLaCacheConCacheControl() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AggregateCacheProperties properties = new AggregateCacheProperties();
+        properties.setTtlSegundos(3600);
+        ReflectionTestUtils.setField(eventoMonitoreoController, "aggregateResultCache",
+                new AggregateResultCache(new SingleFlight(meterRegistry, true, 5000), properties, meterRegistry));
+        when(eventoMonitoreoRepository.count()).thenReturn(3L);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/monitoreo/eventos/estadisticas"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalEventos").value(3))
+                    .andExpect(header().string("Cache-Control", startsWith("max-age=")));
+        }
+
+        verify(eventoMonitoreoRepository, times(1)).count();
+        verify(eventoMonitoreoRepository, times(1)).getEventTypeStatistics();
+    }
+}
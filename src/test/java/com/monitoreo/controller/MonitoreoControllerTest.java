@@ -1,9 +1,12 @@
 package com.monitoreo.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoreo.config.ShardRouter;
 import com.monitoreo.model.EventoMonitoreo;
 import com.monitoreo.repository.EventoMonitoreoRepository;
 import com.monitoreo.service.MonitoreoService;
+import com.monitoreo.service.ShardedEventoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,8 +14,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.monitoreo.exception.GlobalExceptionHandler;
 
@@ -21,6 +26,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,6 +49,10 @@ class MonitoreoControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Un único shard: el servicio delega directamente en el repositorio simulado
+        ReflectionTestUtils.setField(monitoreoController, "shardedEventoService",
+                new ShardedEventoService(eventoRepository, ShardRouter.unico(), Runnable::run,
+                        mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 10000));
         mockMvc = MockMvcBuilders.standaloneSetup(monitoreoController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -0,0 +1,169 @@
+package com.monitoreo.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoCompactoTest {
+
+    private static final int EVENTOS = 10_000;
+
+    private static EventoMonitoreo crearEvento(int i, boolean conMetadata) {
+        EventoMonitoreo evento = new EventoMonitoreo();
+        evento.setId((long) i);
+        // Copias nuevas, como las que produce la deserialización JSON de cada petición
+        evento.setEventType(new String("USER_LOGIN"));
+        evento.setServiceName(new String("auth-service"));
+        evento.setLevel(new String("INFO"));
+        evento.setMessage("Usuario autenticado " + i);
+        evento.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 0).plusNanos(i * 1_000L));
+        evento.setUserId("user" + i);
+        evento.setSessionId("session-" + i);
+        if (conMetadata) {
+            evento.addMetadata(new String("ip"), "10.0.0." + (i % 255));
+            evento.addMetadata(new String("browser"), "Chrome");
+        }
+        return evento;
+    }
+
+    @Test
+    void testConversionIdaYVuelta() {
+        EventoMonitoreo original = crearEvento(42, true);
+
+        EventoMonitoreo convertido = EventoCompacto.from(original).toEntity();
+
+        assertEquals(original.getId(), convertido.getId());
+        assertEquals(original.getEventType(), convertido.getEventType());
+        assertEquals(original.getMessage(), convertido.getMessage());
+        assertEquals(original.getTimestamp(), convertido.getTimestamp());
+        assertEquals(original.getServiceName(), convertido.getServiceName());
+        assertEquals(original.getLevel(), convertido.getLevel());
+        assertEquals(original.getMetadata(), convertido.getMetadata());
+        assertEquals(original.getUserId(), convertido.getUserId());
+        assertEquals(original.getSessionId(), convertido.getSessionId());
+        assertNull(convertido.getMaskedMessage());
+        assertNull(convertido.getMaskedMetadata());
+        assertNull(convertido.getMessageSensitive());
+        assertNull(convertido.getMetadataSensitive());
+        assertNull(convertido.getMaskingVersion());
+
+        // La entidad reconstruida admite metadata mutable
+        convertido.addMetadata("nueva", "clave");
+        assertEquals(3, convertido.getMetadata().size());
+    }
+
+    @Test
+    void testConservaElEnmascaramiento() {
+        EventoMonitoreo original = crearEvento(7, true);
+        original.setMaskedMessage("Usuario autenticado ****");
+        original.setMaskedMetadata(new HashMap<>(Map.of("ip", "10.0.0.***", "browser", "Chrome")));
+        original.setMessageSensitive(true);
+        original.setMetadataSensitive(false);
+        original.setMaskingVersion(3);
+
+        EventoCompacto compacto = EventoCompacto.from(original);
+        EventoMonitoreo convertido = compacto.toEntity();
+
+        assertEquals("Usuario autenticado ****", convertido.getMaskedMessage());
+        assertEquals(original.getMaskedMetadata(), convertido.getMaskedMetadata());
+        assertEquals(Boolean.TRUE, convertido.getMessageSensitive());
+        assertEquals(Boolean.FALSE, convertido.getMetadataSensitive());
+        assertEquals(3, convertido.getMaskingVersion());
+        assertThrows(UnsupportedOperationException.class, () -> compacto.getMaskedMetadata().put("otra", "clave"));
+
+        // La metadata enmascarada vacía no es lo mismo que no calculada
+        original.setMaskedMetadata(new HashMap<>());
+        original.setMessageSensitive(null);
+        original.setMetadataSensitive(true);
+        EventoMonitoreo vacia = EventoCompacto.from(original).toEntity();
+        assertEquals(Map.of(), vacia.getMaskedMetadata());
+        assertNull(vacia.getMessageSensitive());
+        assertEquals(Boolean.TRUE, vacia.getMetadataSensitive());
+    }
+
+    @Test
+    void testCamposNulos() {
+        EventoMonitoreo original = new EventoMonitoreo();
+        original.setMetadata(null);
+
+        EventoCompacto compacto = EventoCompacto.from(original);
+
+        assertNull(compacto.getId());
+        assertNull(compacto.getEventType());
+        assertNull(compacto.getTimestamp());
+        assertNull(compacto.getServiceName());
+        assertNull(compacto.getLevel());
+        assertTrue(compacto.getMetadata().isEmpty());
+        assertSame(MetadataCompacta.VACIA, compacto.getMetadata());
+    }
+
+    @Test
+    void testCadenasCompartidas() {
+        EventoCompacto primero = EventoCompacto.from(crearEvento(1, true));
+        EventoCompacto segundo = EventoCompacto.from(crearEvento(2, true));
+
+        assertSame(primero.getEventType(), segundo.getEventType());
+        assertSame(primero.getServiceName(), segundo.getServiceName());
+        assertSame(primero.getLevel(), segundo.getLevel());
+        assertSame(primero.getMetadata().keySet().iterator().next(), segundo.getMetadata().keySet().iterator().next());
+    }
+
+    @Test
+    void testMetadataInmutable() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("ip", "10.0.0.1");
+        metadata.put("intentos", 3);
+        metadata.put("vacio", null);
+        EventoMonitoreo original = crearEvento(1, false);
+        original.setMetadata(metadata);
+
+        Map<String, Object> compacta = EventoCompacto.from(original).getMetadata();
+
+        assertEquals(metadata, compacta);
+        assertEquals(metadata.hashCode(), compacta.hashCode());
+        assertEquals(3, compacta.get("intentos"));
+        assertTrue(compacta.containsKey("vacio"));
+        assertThrows(UnsupportedOperationException.class, () -> compacta.put("otra", "clave"));
+    }
+
+    @Test
+    void testDiccionarioLleno() {
+        DiccionarioCadenas diccionario = new DiccionarioCadenas(2);
+
+        char primero = diccionario.codificar("A");
+        char segundo = diccionario.codificar("B");
+
+        assertEquals(primero, diccionario.codificar(new String("A")));
+        assertNotEquals(primero, segundo);
+        assertEquals(DiccionarioCadenas.DESBORDADO, diccionario.codificar("C"));
+        assertEquals(DiccionarioCadenas.NULO, diccionario.codificar(null));
+        assertEquals("C", diccionario.canonica("C"));
+        assertEquals(2, diccionario.getTamano());
+    }
+
+    @Test
+    void testOcupaMenosMemoriaQueLaEntidad() {
+        for (boolean conMetadata : new boolean[]{false, true}) {
+            List<EventoMonitoreo> entidades = new ArrayList<>(EVENTOS);
+            List<EventoCompacto> compactos = new ArrayList<>(EVENTOS);
+            for (int i = 0; i < EVENTOS; i++) {
+                entidades.add(crearEvento(i, conMetadata));
+                compactos.add(EventoCompacto.from(crearEvento(i, conMetadata)));
+            }
+
+            // Bytes retenidos por evento, incluidos los objetos alcanzables (cadenas, mapas, fechas)
+            long bytesEntidad = GraphLayout.parseInstance(entidades.toArray()).totalSize() / EVENTOS;
+            long bytesCompacto = GraphLayout.parseInstance(compactos.toArray()).totalSize() / EVENTOS;
+            assertTrue(bytesCompacto * 10 < bytesEntidad * 6,
+                    "EventoCompacto debería ocupar menos del 60% de EventoMonitoreo (" + (conMetadata ? "con" : "sin")
+                            + " metadata): " + bytesCompacto + " vs " + bytesEntidad);
+        }
+    }
+}
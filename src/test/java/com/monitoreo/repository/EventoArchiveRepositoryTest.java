@@ -0,0 +1,129 @@
+package com.monitoreo.repository;
+
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.model.EventoMonitoreo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoArchiveRepositoryTest {
+
+    @TempDir
+    Path directorio;
+
+    private EventoArchiveRepository repository;
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        repository = new EventoArchiveRepository(directorio.toString());
+        repository.cargarSegmentos();
+    }
+
+    private List<EventoMonitoreo> crearEventos(long primerId, int cantidad, LocalDateTime inicio) {
+        List<EventoMonitoreo> eventos = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Map<String, Object> metadata = new HashMap<>();
+            if (i % 2 == 0) {
+                metadata.put("ip", "10.0.0." + i);
+            }
+            eventos.add(new EventoMonitoreo(primerId + i, "TIPO_" + (i % 3), "Mensaje número " + i,
+                    inicio.plusMinutes(i), i % 2 == 0 ? "servicio-a" : "servicio-b",
+                    i % 5 == 0 ? "ERROR" : "INFO", metadata, i % 4 == 0 ? null : "user" + i, "session" + i));
+        }
+        return eventos;
+    }
+
+    @Test
+    void escribirYBuscarSegmento() throws Exception {
+        List<EventoMonitoreo> eventos = crearEventos(1L, 100, base);
+        repository.escribirSegmento(ShardRouter.PRINCIPAL, eventos);
+
+        List<EventoMonitoreo> resultado = repository.buscar(FiltroArchivo.rango(base, base.plusMinutes(99)));
+
+        assertEquals(100, resultado.size());
+        EventoMonitoreo original = eventos.get(10);
+        EventoMonitoreo leido = resultado.get(10);
+        assertEquals(original.getId(), leido.getId());
+        assertEquals(original.getEventType(), leido.getEventType());
+        assertEquals(original.getMessage(), leido.getMessage());
+        assertEquals(original.getTimestamp(), leido.getTimestamp());
+        assertEquals(original.getServiceName(), leido.getServiceName());
+        assertEquals(original.getLevel(), leido.getLevel());
+        assertEquals(original.getMetadata(), leido.getMetadata());
+        assertEquals(original.getUserId(), leido.getUserId());
+        assertEquals(original.getSessionId(), leido.getSessionId());
+        assertNull(resultado.get(0).getUserId());
+    }
+
+    @Test
+    void conservaElEnmascaramientoPersistidoYElShard() throws Exception {
+        List<EventoMonitoreo> eventos = crearEventos(1L, 2, base);
+        EventoMonitoreo sensible = eventos.get(0);
+        sensible.setMaskedMessage("Mensaje ***");
+        sensible.setMaskedMetadata(Map.of("ip", "***.***.***.***"));
+        sensible.setMessageSensitive(true);
+        sensible.setMetadataSensitive(true);
+        sensible.setMaskingVersion(7);
+        repository.escribirSegmento("shard-1", eventos);
+
+        Map<String, List<EventoMonitoreo>> porShard = repository.buscarPorShard(FiltroArchivo.rango(base, base.plusMinutes(1)));
+
+        assertEquals(List.of("shard-1"), List.copyOf(porShard.keySet()));
+        EventoMonitoreo leido = porShard.get("shard-1").get(0);
+        assertEquals("Mensaje ***", leido.getMaskedMessage());
+        assertEquals(Map.of("ip", "***.***.***.***"), leido.getMaskedMetadata());
+        assertTrue(leido.getMessageSensitive());
+        assertTrue(leido.getMetadataSensitive());
+        assertEquals(7, leido.getMaskingVersion());
+        EventoMonitoreo sinEnmascarar = porShard.get("shard-1").get(1);
+        assertNull(sinEnmascarar.getMaskedMessage());
+        assertNull(sinEnmascarar.getMaskedMetadata());
+        assertNull(sinEnmascarar.getMessageSensitive());
+        assertNull(sinEnmascarar.getMaskingVersion());
+    }
+
+    @Test
+    void buscarConFiltroDeColumnas() throws Exception {
+        repository.escribirSegmento(ShardRouter.PRINCIPAL, crearEventos(1L, 100, base));
+
+        List<EventoMonitoreo> resultado = repository.buscar(FiltroArchivo.rango(base.plusMinutes(10), base.plusMinutes(19))
+                .conServiceName("servicio-a")
+                .conLevel("ERROR"));
+
+        assertEquals(1, resultado.size());
+        assertEquals(11L, resultado.get(0).getId());
+    }
+
+    @Test
+    void descartarSegmentosFueraDeRango() throws Exception {
+        repository.escribirSegmento(ShardRouter.PRINCIPAL, crearEventos(1L, 10, base));
+
+        assertTrue(repository.cubreRango(FiltroArchivo.rango(base.plusMinutes(5), base.plusDays(1))));
+        assertFalse(repository.cubreRango(FiltroArchivo.rango(base.plusDays(1), base.plusDays(2))));
+        assertFalse(repository.cubreRango(FiltroArchivo.rango(base, base.plusDays(1)).conEventType("INEXISTENTE")));
+        assertTrue(repository.buscar(FiltroArchivo.rango(base.plusDays(1), base.plusDays(2))).isEmpty());
+    }
+
+    @Test
+    void cargarSegmentosExistentes() throws Exception {
+        repository.escribirSegmento(ShardRouter.PRINCIPAL, crearEventos(1L, 10, base));
+        repository.escribirSegmento(ShardRouter.PRINCIPAL, crearEventos(11L, 10, base.plusDays(1)));
+
+        EventoArchiveRepository recargado = new EventoArchiveRepository(directorio.toString());
+        recargado.cargarSegmentos();
+
+        assertEquals(2, recargado.getCantidadSegmentos());
+        assertEquals(20, recargado.getEventosArchivados());
+        assertEquals(10, recargado.buscar(FiltroArchivo.rango(base.plusDays(1), base.plusDays(2))).size());
+    }
+}
@@ -0,0 +1,201 @@
+package com.monitoreo.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoWriteAheadLogTest {
+
+    private static final int TAMANO_SEGMENTO = 64 * 1024;
+
+    @TempDir
+    Path directorio;
+
+    private final List<EventoWriteAheadLog> abiertos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (EventoWriteAheadLog wal : abiertos) {
+            wal.cerrar();
+        }
+    }
+
+    private EventoWriteAheadLog abrir(EventoWriteAheadLog.PoliticaFsync politica) throws Exception {
+        EventoWriteAheadLog wal = new EventoWriteAheadLog(true, directorio.toString(), TAMANO_SEGMENTO, politica, 0);
+        wal.abrir();
+        abiertos.add(wal);
+        return wal;
+    }
+
+    private static byte[] datos(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> textos(EventoWriteAheadLog.Lote lote) {
+        List<String> textos = new ArrayList<>();
+        for (EventoWriteAheadLog.RegistroWal registro : lote.getRegistros()) {
+            textos.add(new String(registro.getDatos(), StandardCharsets.UTF_8));
+        }
+        return textos;
+    }
+
+    @Test
+    void replicadorOmiteEventosConfirmadosYEsperaLosReservados() throws Exception {
+        EventoWriteAheadLog wal = abrir(EventoWriteAheadLog.PoliticaFsync.GROUP);
+
+        long primero = wal.anexar(datos("evento-1"));
+        long segundo = wal.anexar(datos("evento-2"));
+        long tercero = wal.anexar(datos("evento-3"));
+
+        // Todos reservados: guardado directo en curso
+        assertTrue(wal.leerPendientes(10).getRegistros().isEmpty());
+        assertEquals(0, wal.getPendientes());
+
+        wal.confirmar(primero);
+        wal.liberar(segundo);
+
+        EventoWriteAheadLog.Lote lote = wal.leerPendientes(10);
+        assertEquals(List.of("evento-2"), textos(lote));
+        assertEquals(1, wal.getPendientes());
+
+        wal.marcarReplicado(lote);
+        wal.liberar(tercero);
+        assertEquals(List.of("evento-3"), textos(wal.leerPendientes(10)));
+    }
+
+    @Test
+    void recuperaPendientesTrasReinicio() throws Exception {
+        EventoWriteAheadLog wal = abrir(EventoWriteAheadLog.PoliticaFsync.ALWAYS);
+        long primero = wal.anexar(datos("evento-1"));
+        long segundo = wal.anexar(datos("evento-2"));
+        wal.anexar(datos("evento-3"));
+        wal.confirmar(segundo);
+        wal.liberar(primero);
+        wal.marcarReplicado(wal.leerPendientes(1));
+        wal.cerrar();
+
+        EventoWriteAheadLog recuperado = abrir(EventoWriteAheadLog.PoliticaFsync.ALWAYS);
+
+        assertEquals(1, recuperado.getPendientes());
+        assertEquals(List.of("evento-3"), textos(recuperado.leerPendientes(10)));
+        assertEquals(4, recuperado.anexar(datos("evento-4")));
+    }
+
+    @Test
+    void rotaSegmentosYEliminaLosReplicados() throws Exception {
+        EventoWriteAheadLog wal = abrir(EventoWriteAheadLog.PoliticaFsync.NONE);
+        byte[] grande = new byte[8 * 1024];
+        for (int i = 0; i < 30; i++) {
+            wal.liberar(wal.anexar(grande));
+        }
+        assertTrue(wal.getCantidadSegmentos() > 3);
+
+        EventoWriteAheadLog.Lote lote;
+        int total = 0;
+        while (!(lote = wal.leerPendientes(7)).getRegistros().isEmpty()) {
+            total += lote.getRegistros().size();
+            wal.marcarReplicado(lote);
+        }
+
+        assertEquals(30, total);
+        assertEquals(0, wal.getPendientes());
+        assertEquals(1, wal.getCantidadSegmentos());
+    }
+
+    @Test
+    void descartaRegistroConCrcInvalido() throws Exception {
+        EventoWriteAheadLog wal = abrir(EventoWriteAheadLog.PoliticaFsync.ALWAYS);
+        wal.liberar(wal.anexar(datos("evento-1")));
+        wal.liberar(wal.anexar(datos("evento-2")));
+        wal.cerrar();
+
+        // Página parcialmente escrita: un byte del último registro no llegó a disco
+        Path segmento = segmentos().get(0);
+        int posicionUltimo = EventoWriteAheadLog.CABECERA + "evento-1".length();
+        try (FileChannel channel = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), posicionUltimo + EventoWriteAheadLog.CABECERA);
+        }
+
+        EventoWriteAheadLog recuperado = abrir(EventoWriteAheadLog.PoliticaFsync.ALWAYS);
+
+        assertEquals(List.of("evento-1"), textos(recuperado.leerPendientes(10)));
+        assertEquals(2, recuperado.anexar(datos("evento-2-reintento")));
+    }
+
+    @Test
+    void sobreviveKill9DuranteEscrituras() throws Exception {
+        Process proceso = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                EscritorContinuo.class.getName(), directorio.toString())
+                .redirectErrorStream(true)
+                .start();
+
+        long ultimaConfirmada = 0;
+        try (BufferedReader salida = new BufferedReader(new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while (ultimaConfirmada < 2000 && (linea = salida.readLine()) != null) {
+                if (linea.startsWith("ACK ")) {
+                    ultimaConfirmada = Long.parseLong(linea.substring(4));
+                }
+            }
+            // kill -9 en mitad de las escrituras
+            proceso.destroyForcibly();
+            assertTrue(proceso.waitFor(10, TimeUnit.SECONDS));
+        }
+        assertTrue(ultimaConfirmada >= 2000, "El proceso hijo no llegó a escribir");
+
+        EventoWriteAheadLog recuperado = abrir(EventoWriteAheadLog.PoliticaFsync.GROUP);
+
+        long esperada = 1;
+        EventoWriteAheadLog.Lote lote;
+        while (!(lote = recuperado.leerPendientes(500)).getRegistros().isEmpty()) {
+            for (EventoWriteAheadLog.RegistroWal registro : lote.getRegistros()) {
+                assertEquals(esperada, registro.getSecuencia());
+                assertEquals("evento-" + esperada, new String(registro.getDatos(), StandardCharsets.UTF_8));
+                esperada++;
+            }
+            recuperado.marcarReplicado(lote);
+        }
+        assertTrue(esperada - 1 >= ultimaConfirmada,
+                "Se perdieron eventos confirmados: recuperados " + (esperada - 1) + ", confirmados " + ultimaConfirmada);
+    }
+
+    private List<Path> segmentos() throws Exception {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(p -> p.toString().endsWith(EventoWriteAheadLog.EXTENSION)).sorted().toList();
+        }
+    }
+
+    /**
+     * Proceso hijo que escribe sin parar y publica cada secuencia confirmada por el WAL
+     */
+    public static final class EscritorContinuo {
+        public static void main(String[] args) throws Exception {
+            EventoWriteAheadLog wal = new EventoWriteAheadLog(true, args[0], TAMANO_SEGMENTO,
+                    EventoWriteAheadLog.PoliticaFsync.GROUP, 0);
+            wal.abrir();
+            for (long i = 1; ; i++) {
+                long secuencia = wal.anexar(datos("evento-" + i));
+                wal.liberar(secuencia);
+                System.out.println("ACK " + secuencia);
+            }
+        }
+    }
+}
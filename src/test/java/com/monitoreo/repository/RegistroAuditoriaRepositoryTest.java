@@ -0,0 +1,98 @@
+package com.monitoreo.repository;
+
+import com.monitoreo.model.RegistroAuditoria;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RegistroAuditoriaRepositoryTest {
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private JdbcTemplate jdbcTemplate;
+    private RegistroAuditoriaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:auditoria-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("CREATE DOMAIN IF NOT EXISTS jsonb AS VARCHAR");
+        jdbcTemplate.execute("CREATE TABLE auditoria_eventos (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "event_type VARCHAR(50) NOT NULL, timestamp TIMESTAMP NOT NULL, severity VARCHAR(20), "
+                + "user_id VARCHAR(100), session_id VARCHAR(100), correlation_id VARCHAR(100), data_type VARCHAR(100), "
+                + "source VARCHAR(200), operation VARCHAR(100), resource VARCHAR(500), details jsonb)");
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(h2);
+        entityManagerFactory.setManagedTypes(PersistenceManagedTypes.of(RegistroAuditoria.class.getName()));
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.afterPropertiesSet();
+
+        repository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject()))
+                .getRepository(RegistroAuditoriaRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.destroy();
+    }
+
+    @Test
+    void paginaPorClaveDelMasRecienteAlMasAntiguo() {
+        for (int i = 1; i <= 5; i++) {
+            insertar("SENSITIVE_DATA_ACCESS", "usuario-" + i);
+        }
+
+        List<RegistroAuditoria> primera = repository.buscarAnteriores(Long.MAX_VALUE, null, null, PageRequest.of(0, 2));
+        List<RegistroAuditoria> segunda = repository.buscarAnteriores(primera.get(1).getId(), null, null, PageRequest.of(0, 2));
+        List<RegistroAuditoria> ultima = repository.buscarAnteriores(segunda.get(1).getId(), null, null, PageRequest.of(0, 2));
+
+        assertEquals(List.of(5L, 4L), ids(primera));
+        assertEquals(List.of(3L, 2L), ids(segunda));
+        assertEquals(List.of(1L), ids(ultima));
+        assertEquals(List.of(), repository.buscarAnteriores(1L, null, null, PageRequest.of(0, 2)));
+        assertEquals(Map.of("origen", "usuario-5"), primera.get(0).getDetalle());
+    }
+
+    @Test
+    void filtraPorTipoDeEventoYPorUsuario() {
+        insertar("SENSITIVE_DATA_ACCESS", "usuario-a");
+        insertar("DATA_MASKED", "usuario-b");
+        insertar("SENSITIVE_DATA_ACCESS", "usuario-b");
+        insertar("DATA_MASKED", "usuario-a");
+        insertar("SENSITIVE_DATA_ACCESS", "usuario-a");
+
+        assertEquals(List.of(5L, 3L, 1L),
+                ids(repository.buscarAnteriores(Long.MAX_VALUE, "SENSITIVE_DATA_ACCESS", null, PageRequest.of(0, 10))));
+        assertEquals(List.of(4L, 1L),
+                ids(repository.buscarAnteriores(5L, null, "usuario-a", PageRequest.of(0, 10))));
+        assertEquals(List.of(3L),
+                ids(repository.buscarAnteriores(Long.MAX_VALUE, "SENSITIVE_DATA_ACCESS", "usuario-b", PageRequest.of(0, 10))));
+    }
+
+    private void insertar(String tipoEvento, String userId) {
+        jdbcTemplate.update("INSERT INTO auditoria_eventos (event_type, timestamp, severity, user_id, details) "
+                        + "VALUES (?, ?, 'INFO', ?, ?)", tipoEvento, Timestamp.valueOf(LocalDateTime.now()), userId,
+                "{\"origen\":\"" + userId + "\"}");
+    }
+
+    private static List<Long> ids(List<RegistroAuditoria> registros) {
+        return registros.stream().map(RegistroAuditoria::getId).toList();
+    }
+}
@@ -0,0 +1,118 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.AggregateCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AggregateResultCacheTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000);
+    private MeterRegistry meterRegistry;
+    private AggregateCacheProperties properties;
+    private AggregateResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AggregateCacheProperties();
+        properties.setTtlSegundos(5);
+        properties.getTtlPorEndpoint().put("estadisticas-por-tipo", 30L);
+        properties.getTtlPorEndpoint().put("sin-cache", 0L);
+        cache = new AggregateResultCache(new SingleFlight(meterRegistry, true, 5000), properties, meterRegistry, reloj::get, 0);
+    }
+
+    @Test
+    void dentroDeLaCubetaSeSirveElMismoResultado() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        int primero = cache.obtener("estadisticas", Map.of(), calculos::incrementAndGet);
+        reloj.addAndGet(3_999);
+        int segundo = cache.obtener("estadisticas", Map.of(), calculos::incrementAndGet);
+
+        assertEquals(1, primero);
+        assertEquals(1, segundo);
+        assertEquals(1, calculos.get());
+        assertEquals(1.0, aciertos("estadisticas"));
+        assertEquals(1.0, fallos("estadisticas"));
+    }
+
+    @Test
+    void laEntradaCaducaAlEmpezarLaCubetaSiguiente() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        cache.obtener("estadisticas", Map.of(), calculos::incrementAndGet);
+        // 1_000_000 abre una cubeta de 5 s y 1_005_000 la siguiente
+        reloj.set(1_005_000);
+        int recalculado = cache.obtener("estadisticas", Map.of(), calculos::incrementAndGet);
+
+        assertEquals(2, recalculado);
+        assertEquals(2.0, fallos("estadisticas"));
+    }
+
+    @Test
+    void elTtlEsPorEndpointYLosParametrosSeparanLasEntradas() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        cache.obtener("estadisticas-por-tipo", Map.of(), calculos::incrementAndGet);
+        reloj.addAndGet(15_000);
+        cache.obtener("estadisticas-por-tipo", Map.of(), calculos::incrementAndGet);
+        cache.obtener("estadisticas-por-tipo", Map.of("nivel", "ERROR"), calculos::incrementAndGet);
+
+        assertEquals(2, calculos.get());
+    }
+
+    @Test
+    void cacheControlIndicaLoQueQuedaDeLaCubeta() {
+        reloj.set(1_002_001);
+
+        assertEquals("max-age=3", cache.cacheControl("estadisticas").getHeaderValue());
+        assertEquals("max-age=18", cache.cacheControl("estadisticas-por-tipo").getHeaderValue());
+        assertEquals("no-cache", cache.cacheControl("sin-cache").getHeaderValue());
+    }
+
+    @Test
+    void elDesfaseDeLaInstanciaMueveElLimiteDeLaCubeta() {
+        // Con un desfase de 0,4 la cubeta de 5 s de esta instancia termina en 1_003_000 en lugar de 1_005_000
+        AggregateResultCache desfasada = new AggregateResultCache(new SingleFlight(meterRegistry, true, 5000),
+                properties, meterRegistry, reloj::get, 0.4);
+        AtomicInteger calculos = new AtomicInteger();
+
+        desfasada.obtener("estadisticas", Map.of(), calculos::incrementAndGet);
+        assertEquals("max-age=3", desfasada.cacheControl("estadisticas").getHeaderValue());
+        reloj.set(1_002_999);
+        desfasada.obtener("estadisticas", Map.of(), calculos::incrementAndGet);
+        reloj.set(1_003_000);
+        desfasada.obtener("estadisticas", Map.of(), calculos::incrementAndGet);
+
+        assertEquals(2, calculos.get());
+    }
+
+    @Test
+    void conTtlCeroCadaPeticionCalcula() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        cache.obtener("sin-cache", Map.of(), calculos::incrementAndGet);
+        cache.obtener("sin-cache", Map.of(), calculos::incrementAndGet);
+
+        assertEquals(2, calculos.get());
+        assertEquals(0.0, meterRegistry.get("monitoreo.cache.agregados.entradas").gauge().value());
+    }
+
+    private double aciertos(String endpoint) {
+        return meterRegistry.get("monitoreo.cache.agregados.consultas")
+                .tag("endpoint", endpoint).tag("resultado", "acierto").counter().count();
+    }
+
+    private double fallos(String endpoint) {
+        return meterRegistry.get("monitoreo.cache.agregados.consultas")
+                .tag("endpoint", endpoint).tag("resultado", "fallo").counter().count();
+    }
+}
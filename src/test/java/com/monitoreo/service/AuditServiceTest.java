@@ -1,13 +1,21 @@
 package com.monitoreo.service;
 
 import com.monitoreo.config.SensitiveDataFilter;
+import com.monitoreo.model.RegistroAuditoria;
+import com.monitoreo.repository.RegistroAuditoriaRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -16,6 +24,12 @@ class AuditServiceTest {
     @Mock
     private SensitiveDataFilter sensitiveDataFilter;
 
+    @Mock
+    private AuditTrailWriter auditTrailWriter;
+
+    @Mock
+    private RegistroAuditoriaRepository registroAuditoriaRepository;
+
     @InjectMocks
     private AuditService auditService;
 
@@ -35,7 +49,12 @@ class AuditServiceTest {
         
         assertDoesNotThrow(() -> auditService.logSensitiveDataAccess("user123", "PersonalInfo", "READ", "users/123"));
         
-        verify(sensitiveDataFilter, times(2)).maskUserId("user123");
+        verify(sensitiveDataFilter, times(1)).maskUserId("user123");
+        RegistroAuditoria registro = registrado();
+        assertEquals("SENSITIVE_DATA_ACCESS", registro.getTipoEvento());
+        assertEquals("masked_user", registro.getUserId());
+        assertEquals("users/123", registro.getRecurso());
+        assertEquals(true, registro.getDetalle().get("access_granted"));
     }
 
     @Test
@@ -44,7 +63,10 @@ class AuditServiceTest {
 
         assertDoesNotThrow(() -> auditService.logUnauthorizedAccess("user456", "AdminPanel", "UPDATE", "/admin", "Insufficient privileges"));
 
-        verify(sensitiveDataFilter, times(2)).maskUserId("user456");
+        verify(sensitiveDataFilter, times(1)).maskUserId("user456");
+        RegistroAuditoria registro = registrado();
+        assertEquals("HIGH", registro.getSeveridad());
+        assertEquals("Insufficient privileges", registro.getDetalle().get("reason"));
     }
 
     @Test
@@ -68,8 +90,9 @@ class AuditServiceTest {
 
         assertDoesNotThrow(() -> auditService.logAuditSessionStart("session_abc", "user789", "192.168.1.1"));
 
-        verify(sensitiveDataFilter, times(2)).maskUserId("user789");
+        verify(sensitiveDataFilter, times(1)).maskUserId("user789");
         verify(sensitiveDataFilter, times(1)).maskIP("192.168.1.1");
+        assertEquals("masked_ip", registrado().getDetalle().get("ip_address"));
     }
 
     @Test
@@ -78,7 +101,8 @@ class AuditServiceTest {
 
         assertDoesNotThrow(() -> auditService.logAuditSessionEnd("session_abc", "user789", 3600));
 
-        verify(sensitiveDataFilter, times(2)).maskUserId("user789");
+        verify(sensitiveDataFilter, times(1)).maskUserId("user789");
+        assertEquals(3600L, registrado().getDetalle().get("duration_seconds"));
     }
     
     @Test
@@ -94,4 +118,29 @@ class AuditServiceTest {
     void logDataRetentionEvent() {
         assertDoesNotThrow(() -> auditService.logDataRetentionEvent("access_logs", "ARCHIVED", "5 years", 10000));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void logDataMaskedNoGuardaLosValores() {
+        auditService.logDataMasked("Email", "test@example.com", "t***@example.com", "UserProfile");
+
+        RegistroAuditoria registro = registrado();
+        assertEquals(16, registro.getDetalle().get("original_length"));
+        assertNull(registro.getDetalle().get("original_value"));
+    }
+
+    @Test
+    void consultarPaginaPorClaveConElUsuarioEnmascarado() {
+        when(sensitiveDataFilter.maskUserId("user123")).thenReturn("us***23");
+        List<RegistroAuditoria> pagina = List.of(new RegistroAuditoria("DATA_MASKED", null));
+        when(registroAuditoriaRepository.buscarAnteriores(Long.MAX_VALUE, null, "us***23", PageRequest.of(0, AuditService.LIMITE_MAXIMO)))
+                .thenReturn(pagina);
+
+        assertEquals(pagina, auditService.consultar(null, " ", "user123", 10_000));
+    }
+
+    private RegistroAuditoria registrado() {
+        ArgumentCaptor<RegistroAuditoria> captor = ArgumentCaptor.forClass(RegistroAuditoria.class);
+        verify(auditTrailWriter).registrar(captor.capture());
+        return captor.getValue();
+    }
+}
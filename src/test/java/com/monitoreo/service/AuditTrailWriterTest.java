@@ -0,0 +1,186 @@
+package com.monitoreo.service;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.monitoreo.model.RegistroAuditoria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditTrailWriterTest {
+
+    /** Esquema de auditoria_eventos en H2; jsonb se declara como dominio de texto */
+    static final String[] ESQUEMA = {
+            "CREATE DOMAIN IF NOT EXISTS jsonb AS VARCHAR",
+            "CREATE TABLE auditoria_eventos (id BIGINT AUTO_INCREMENT PRIMARY KEY, event_type VARCHAR(50) NOT NULL, "
+                    + "timestamp TIMESTAMP NOT NULL, severity VARCHAR(20), user_id VARCHAR(100), session_id VARCHAR(100), "
+                    + "correlation_id VARCHAR(100), data_type VARCHAR(100), source VARCHAR(200), operation VARCHAR(100), "
+                    + "resource VARCHAR(500), details jsonb)"
+    };
+
+    private final AtomicInteger lotesEnviados = new AtomicInteger();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final ListAppender<ILoggingEvent> logAuditoria = new ListAppender<>();
+
+    private MeterRegistry meterRegistry;
+    private DataSource dataSource;
+    private DataSourceTransactionManager transactionManager;
+    private JdbcTemplate jdbcTemplate;
+    private AuditTrailWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:auditoria-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = contandoLotes(h2);
+        transactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                commits.incrementAndGet();
+                super.doCommit(status);
+            }
+        };
+        jdbcTemplate = new JdbcTemplate(h2);
+
+        logAuditoria.start();
+        ((Logger) LoggerFactory.getLogger("com.monitoreo.audit")).addAppender(logAuditoria);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (writer != null) {
+            writer.detener();
+        }
+        ((Logger) LoggerFactory.getLogger("com.monitoreo.audit")).detachAppender(logAuditoria);
+    }
+
+    @Test
+    void losRegistrosEncoladosSeGuardanEnUnSoloLoteYUnSoloCommit() throws Exception {
+        crearEsquema();
+        writer = new AuditTrailWriter(dataSource, transactionManager, meterRegistry, 100, 50, 20);
+        for (int i = 0; i < 10; i++) {
+            writer.registrar(registro("usuario-" + i));
+        }
+
+        // Con todo encolado antes de arrancar, el escritor lo vacía de una vez
+        writer.iniciar();
+        writer.detener();
+
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auditoria_eventos", Integer.class));
+        assertEquals(1, lotesEnviados.get());
+        assertEquals(1, commits.get());
+        assertEquals(10.0, meterRegistry.get("monitoreo.auditoria.escritos").counter().count());
+        assertEquals("{\"origen\":\"usuario-3\"}",
+                jdbcTemplate.queryForObject("SELECT details FROM auditoria_eventos WHERE user_id = 'usuario-3'", String.class));
+        assertTrue(logAuditoria.list.isEmpty());
+    }
+
+    @Test
+    void conElBufferLlenoElRegistroSeVuelcaAlLog() {
+        crearEsquema();
+        writer = new AuditTrailWriter(dataSource, transactionManager, meterRegistry, 2, 50, 20);
+
+        // Sin arrancar el escritor nada sale del búfer
+        writer.registrar(registro("usuario-1"));
+        writer.registrar(registro("usuario-2"));
+        writer.registrar(registro("usuario-3"));
+
+        assertEquals(2, writer.getPendientes());
+        assertEquals(1.0, meterRegistry.get("monitoreo.auditoria.desbordados").counter().count());
+        assertEquals(1, logAuditoria.list.size());
+        assertTrue(logAuditoria.list.get(0).getFormattedMessage().contains("usuario=usuario-3"));
+    }
+
+    @Test
+    void unLoteQueNoSePuedeGuardarSeVuelcaAlLog() {
+        // Sin la tabla, la inserción falla
+        writer = new AuditTrailWriter(dataSource, transactionManager, meterRegistry, 100, 50, 20);
+
+        writer.guardar(List.of(registro("usuario-1"), registro("usuario-2")));
+
+        assertEquals(2.0, meterRegistry.get("monitoreo.auditoria.fallidos").counter().count());
+        assertEquals(0.0, meterRegistry.get("monitoreo.auditoria.escritos").counter().count());
+        assertEquals(0, commits.get());
+        List<String> volcados = new ArrayList<>();
+        logAuditoria.list.forEach(evento -> volcados.add(evento.getFormattedMessage()));
+        assertEquals(2, volcados.size());
+        assertTrue(volcados.get(0).contains("usuario=usuario-1"));
+        assertTrue(volcados.get(1).contains("usuario=usuario-2"));
+    }
+
+    private void crearEsquema() {
+        for (String sentencia : ESQUEMA) {
+            jdbcTemplate.execute(sentencia);
+        }
+    }
+
+    static RegistroAuditoria registro(String userId) {
+        RegistroAuditoria registro = new RegistroAuditoria("SENSITIVE_DATA_ACCESS", "INFO");
+        registro.setUserId(userId);
+        registro.setRecurso("users/" + userId);
+        return registro.detalle("origen", userId);
+    }
+
+    /**
+     * Envuelve el DataSource para contar las llamadas a executeBatch
+     */
+    private DataSource contandoLotes(DataSource destino) {
+        return new DelegatingDataSource(destino) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection conexion = super.getConnection();
+                return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                        (proxy, metodo, args) -> {
+                            Object resultado = invocar(conexion, metodo, args);
+                            if (resultado instanceof PreparedStatement sentencia) {
+                                return contandoLotes(sentencia);
+                            }
+                            return resultado;
+                        });
+            }
+        };
+    }
+
+    private PreparedStatement contandoLotes(PreparedStatement sentencia) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().equals("executeBatch")) {
+                        lotesEnviados.incrementAndGet();
+                    }
+                    return invocar(sentencia, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.monitoreo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DynamicGaugeRegistryTest {
+
+    private MeterRegistry meterRegistry;
+    private AtomicLong reloj;
+    private DynamicGaugeRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reloj = new AtomicLong(1_000);
+        registry = new DynamicGaugeRegistry(meterRegistry, 2, 60_000, reloj::get);
+    }
+
+    @Test
+    void reutilizaLaSerieYActualizaSuValor() {
+        registry.fijar("monitoreo.rendimiento.cpu_usage", "CPU", Tags.of("unidad", "percentage"), 10);
+        Gauge gauge = meterRegistry.find("monitoreo.rendimiento.cpu_usage").tag("unidad", "percentage").gauge();
+
+        registry.fijar("monitoreo.rendimiento.cpu_usage", "CPU", Tags.of("unidad", "percentage"), 35);
+
+        assertSame(gauge, meterRegistry.find("monitoreo.rendimiento.cpu_usage").gauge());
+        assertEquals(35, gauge.value());
+        assertEquals(1, registry.getSeries());
+    }
+
+    @Test
+    void rechazaSeriesNuevasPorEncimaDelLimite() {
+        assertTrue(registry.fijar("monitoreo.negocio.a", "a", Tags.of("categoria", "x"), 1));
+        assertTrue(registry.fijar("monitoreo.negocio.a", "a", Tags.of("categoria", "y"), 2));
+
+        assertFalse(registry.fijar("monitoreo.negocio.a", "a", Tags.of("categoria", "z"), 3));
+        assertTrue(registry.fijar("monitoreo.negocio.a", "a", Tags.of("categoria", "x"), 4));
+
+        assertNull(meterRegistry.find("monitoreo.negocio.a").tag("categoria", "z").gauge());
+        assertEquals(1.0, meterRegistry.get("monitoreo.gauges.dinamicos.rechazados").counter().count());
+        assertEquals(2.0, meterRegistry.get("monitoreo.gauges.dinamicos.series").gauge().value());
+    }
+
+    @Test
+    void retiraLasSeriesQueNoSeActualizan() {
+        registry.fijar("monitoreo.negocio.a", "a", Tags.of("categoria", "x"), 1);
+        reloj.addAndGet(30_000);
+        registry.fijar("monitoreo.negocio.b", "b", Tags.of("categoria", "x"), 1);
+        reloj.addAndGet(40_000);
+
+        assertEquals(1, registry.expirar());
+
+        assertNull(meterRegistry.find("monitoreo.negocio.a").gauge());
+        assertEquals(1.0, meterRegistry.find("monitoreo.negocio.b").gauge().value());
+        assertEquals(1.0, meterRegistry.get("monitoreo.gauges.dinamicos.expirados").counter().count());
+
+        // Una serie expirada vuelve a registrarse si se actualiza de nuevo
+        assertTrue(registry.fijar("monitoreo.negocio.a", "a", Tags.of("categoria", "x"), 7));
+        assertEquals(7.0, meterRegistry.find("monitoreo.negocio.a").gauge().value());
+    }
+
+    @Test
+    void unFijarConcurrenteConLaExpiracionNoPierdeElGauge() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            double valor = i;
+            registry.fijar("monitoreo.negocio.activos", "Activos", Tags.empty(), -1);
+            reloj.addAndGet(120_000);
+
+            Thread expiracion = new Thread(registry::expirar);
+            Thread escritura = new Thread(() -> registry.fijar("monitoreo.negocio.activos", "Activos", Tags.empty(), valor));
+            expiracion.start();
+            escritura.start();
+            expiracion.join();
+            escritura.join();
+
+            // La serie que queda en el registro de gauges dinámicos siempre está publicada con el último valor
+            assertEquals(1, registry.getSeries());
+            Gauge gauge = meterRegistry.find("monitoreo.negocio.activos").gauge();
+            assertEquals(valor, gauge.value());
+        }
+    }
+}
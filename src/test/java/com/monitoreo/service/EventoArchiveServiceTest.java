@@ -0,0 +1,66 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoArchiveRepository;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+
+class EventoArchiveServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private final ShardRouter shardRouter = new ShardRouter(List.of("shard-0", "shard-1"), 128);
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private EventoArchiveRepository archiveRepository;
+    private EventoArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        archiveRepository = new EventoArchiveRepository(directorio.toString());
+        archiveRepository.cargarSegmentos();
+        service = new EventoArchiveService(mock(EventoMonitoreoRepository.class), archiveRepository, shardRouter,
+                new SimpleMeterRegistry(), true, 7, 1000);
+    }
+
+    private EventoMonitoreo evento(long id, String servicio, int minuto) {
+        return new EventoMonitoreo(id, "TIPO", "Mensaje " + id, base.plusMinutes(minuto), servicio, "INFO",
+                new HashMap<>(), null, null);
+    }
+
+    @Test
+    void losDuplicadosSeDetectanPorShardEId() throws Exception {
+        String servicioA = "servicio-0";
+        String servicioB = servicioA;
+        for (int i = 1; shardRouter.shardPara(servicioB).equals(shardRouter.shardPara(servicioA)); i++) {
+            servicioB = "servicio-" + i;
+        }
+        String shardA = shardRouter.shardPara(servicioA);
+        String shardB = shardRouter.shardPara(servicioB);
+        assertNotEquals(shardA, shardB);
+
+        // El id 5 existe en los dos shards: el de A está caliente y archivado a la vez, el de B solo archivado
+        EventoMonitoreo caliente = evento(5L, servicioA, 2);
+        archiveRepository.escribirSegmento(shardA, List.of(evento(5L, servicioA, 2)));
+        archiveRepository.escribirSegmento(shardB, List.of(evento(5L, servicioB, 1)));
+
+        List<EventoMonitoreo> combinados = service.combinarConArchivo(List.of(caliente), base, base.plusMinutes(10));
+
+        assertEquals(2, combinados.size());
+        assertEquals(caliente, combinados.get(0));
+        assertEquals(servicioB, combinados.get(1).getServiceName());
+    }
+}
@@ -0,0 +1,76 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.SensitiveDataFilter;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import com.monitoreo.repository.EventoWriteAheadLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventoWalServiceTest {
+
+    private static final String CLAVE = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private EventoWalService servicio(String clave) {
+        EventoWriteAheadLog writeAheadLog = mock(EventoWriteAheadLog.class);
+        when(writeAheadLog.getPoliticaFsync()).thenReturn(EventoWriteAheadLog.PoliticaFsync.GROUP);
+        return new EventoWalService(writeAheadLog, mock(EventoMonitoreoRepository.class),
+                ShardRouter.unico(), mock(MetricsService.class), new SensitiveDataFilter(), new SimpleMeterRegistry(),
+                clave, 500, 500, 30000);
+    }
+
+    private EventoMonitoreo evento() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("contacto", "ana@example.com");
+        metadata.put("intentos", 3);
+        return new EventoMonitoreo(null, "LOGIN", "Fallo de ana@example.com", LocalDateTime.of(2025, 1, 1, 0, 0),
+                "auth", "WARN", metadata, "usuario-12345", "sesion-1");
+    }
+
+    @Test
+    void conClaveElRegistroSeCifraYSeRecupera() throws Exception {
+        EventoWalService servicio = servicio(CLAVE);
+        EventoMonitoreo original = evento();
+
+        byte[] datos = servicio.codificar(original);
+
+        assertFalse(new String(datos, StandardCharsets.ISO_8859_1).contains("ana@example.com"));
+        EventoMonitoreo recuperado = servicio.decodificar(datos);
+        assertEquals(original.getMessage(), recuperado.getMessage());
+        assertEquals(original.getUserId(), recuperado.getUserId());
+        assertEquals("ana@example.com", recuperado.getMetadata().get("contacto"));
+    }
+
+    @Test
+    void sinClaveElRegistroSeGuardaEnmascarado() throws Exception {
+        EventoWalService servicio = servicio("");
+
+        byte[] datos = servicio.codificar(evento());
+
+        assertFalse(new String(datos, StandardCharsets.UTF_8).contains("ana@example.com"));
+        assertFalse(new String(datos, StandardCharsets.UTF_8).contains("usuario-12345"));
+        EventoMonitoreo recuperado = servicio.decodificar(datos);
+        assertEquals("auth", recuperado.getServiceName());
+        assertEquals(3, recuperado.getMetadata().get("intentos"));
+    }
+
+    @Test
+    void unRegistroCifradoSinClaveNoSeRecupera() throws Exception {
+        byte[] datos = servicio(CLAVE).codificar(evento());
+
+        assertThrows(java.io.IOException.class, () -> servicio("").decodificar(datos));
+    }
+}
@@ -0,0 +1,90 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventosHealthIndicatorTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000);
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private EventosHealthIndicator indicador(DataSource dataSource) {
+        return new EventosHealthIndicator(dataSource, ShardRouter.unico(), meterRegistry, 2, 30_000, reloj::get);
+    }
+
+    private static DataSource h2() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:salud-eventos;DB_CLOSE_DELAY=-1");
+        return h2;
+    }
+
+    @Test
+    void sinInstantaneaElEstadoEsDesconocido() {
+        assertEquals(Status.UNKNOWN, indicador(h2()).health().getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void laSaludSeSirveDesdeLaInstantanea() {
+        EventosHealthIndicator indicador = indicador(h2());
+        indicador.actualizar();
+
+        Health salud = indicador.health();
+        assertEquals(Status.UP, salud.getStatus());
+        Map<String, Object> principal = (Map<String, Object>) ((Map<String, Object>) salud.getDetails().get("shards"))
+                .get(ShardRouter.PRINCIPAL);
+        assertEquals(true, principal.get("disponible"));
+        assertNotNull(principal.get("latenciaMs"));
+        // Fuera de PostgreSQL no hay pg_class.reltuples
+        assertFalse(salud.getDetails().containsKey("filasAproximadas"));
+        assertEquals(1, meterRegistry.get("monitoreo.salud.sonda.tiempo").tag("shard", ShardRouter.PRINCIPAL).timer().count());
+    }
+
+    @Test
+    void unaInstantaneaObsoletaSeInformaCaida() {
+        EventosHealthIndicator indicador = indicador(h2());
+        indicador.actualizar();
+
+        reloj.addAndGet(30_001);
+
+        Health salud = indicador.health();
+        assertEquals(Status.DOWN, salud.getStatus());
+        assertEquals("Instantánea de salud obsoleta", salud.getDetails().get("motivo"));
+        assertEquals(30.001, meterRegistry.get("monitoreo.salud.antiguedad").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void unShardSinConexionDejaLaSaludCaida() throws Exception {
+        DataSource caida = mock(DataSource.class);
+        when(caida.getConnection()).thenThrow(new SQLException("Conexión rechazada"));
+        EventosHealthIndicator indicador = indicador(caida);
+        indicador.actualizar();
+
+        assertEquals(Status.DOWN, indicador.health().getStatus());
+        assertFalse(indicador.getInstantanea().disponible());
+        assertTrue(indicador.getInstantanea().shards().get(ShardRouter.PRINCIPAL).error().contains("Conexión rechazada"));
+    }
+}
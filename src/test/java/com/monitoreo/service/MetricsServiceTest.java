@@ -1,6 +1,9 @@
 package com.monitoreo.service;
 
+import com.monitoreo.config.MetricasProperties;
+import com.monitoreo.model.EventoMonitoreo;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -8,6 +11,8 @@ import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -19,7 +24,8 @@ class MetricsServiceTest {
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        metricsService = new MetricsService(meterRegistry);
+        MetricasProperties properties = new MetricasProperties();
+        metricsService = new MetricsService(meterRegistry, new DynamicGaugeRegistry(meterRegistry, properties), properties);
     }
 
     @Test
@@ -90,4 +96,29 @@ class MetricsServiceTest {
         assertNotNull(gauge);
         assertEquals(120.5, gauge.value());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void registrarMetricaRendimientoActualizaElMismoGauge() {
+        metricsService.registrarMetricaRendimiento("cpu_usage", 0.5, "percentage");
+        metricsService.registrarMetricaRendimiento("cpu_usage", 0.9, "percentage");
+
+        assertEquals(1, meterRegistry.find("monitoreo.rendimiento.cpu_usage").gauges().size());
+        assertEquals(0.9, meterRegistry.find("monitoreo.rendimiento.cpu_usage").gauge().value());
+    }
+
+    @Test
+    void registrarIngestaPorServicioYTipo() {
+        EventoMonitoreo evento = new EventoMonitoreo("PAGO", "Pago ñ", "INFO");
+        evento.setServiceName("pagos");
+        evento.setMetadata(Map.of("k", "v"));
+        metricsService.registrarIngesta(evento);
+        metricsService.registrarIngesta(evento);
+
+        Counter counter = meterRegistry.find("monitoreo.ingesta.eventos").tag("servicio", "pagos").tag("tipo_evento", "PAGO").counter();
+        DistributionSummary bytes = meterRegistry.find("monitoreo.ingesta.bytes").tag("servicio", "pagos").summary();
+        assertEquals(2.0, counter.count());
+        assertEquals(2, bytes.count());
+        // PAGO + "Pago ñ" (7 bytes) + pagos + INFO + metadata
+        assertEquals(4 + 7 + 5 + 4 + 2, bytes.max());
+    }
+}
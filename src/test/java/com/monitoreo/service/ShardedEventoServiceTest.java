@@ -0,0 +1,261 @@
+package com.monitoreo.service;
+
+import com.monitoreo.config.CargaTrabajo;
+import com.monitoreo.config.ShardContext;
+import com.monitoreo.config.ShardRouter;
+import com.monitoreo.config.WorkloadContext;
+import com.monitoreo.exception.CambioShardException;
+import com.monitoreo.exception.IdAmbiguoException;
+import com.monitoreo.model.EventoMonitoreo;
+import com.monitoreo.repository.EventoMonitoreoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reparto con dos shards; el repositorio simulado responde según el shard fijado en el hilo
+ */
+@ExtendWith(MockitoExtension.class)
+class ShardedEventoServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private EventoMonitoreoRepository eventoMonitoreoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executor;
+    private ShardRouter shardRouter;
+    private ShardedEventoService shardedEventoService;
+    private String servicioPrincipal;
+    private String servicioSecundario;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        shardRouter = new ShardRouter(List.of(ShardRouter.PRINCIPAL, "shard-1"), 64);
+        shardedEventoService = new ShardedEventoService(eventoMonitoreoRepository, shardRouter, executor,
+                transactionManager, new SimpleMeterRegistry(), 5000);
+
+        for (int i = 0; servicioPrincipal == null || servicioSecundario == null; i++) {
+            String servicio = "servicio-" + i;
+            if (shardRouter.shardPara(servicio).equals(ShardRouter.PRINCIPAL)) {
+                servicioPrincipal = servicioPrincipal != null ? servicioPrincipal : servicio;
+            } else {
+                servicioSecundario = servicioSecundario != null ? servicioSecundario : servicio;
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        WorkloadContext.limpiar();
+    }
+
+    private static EventoMonitoreo evento(String servicio, int minutos) {
+        EventoMonitoreo evento = new EventoMonitoreo("USER_LOGIN", "Evento " + minutos);
+        evento.setServiceName(servicio);
+        evento.setTimestamp(BASE.plusMinutes(minutos));
+        return evento;
+    }
+
+    @Test
+    void guardarTodosEscribeCadaEventoEnSuShardYConservaElOrden() {
+        List<String> shardsEscritos = Collections.synchronizedList(new ArrayList<>());
+        when(eventoMonitoreoRepository.saveAll(anyList())).thenAnswer(invocacion -> {
+            List<EventoMonitoreo> grupo = invocacion.getArgument(0);
+            for (EventoMonitoreo evento : grupo) {
+                assertEquals(shardRouter.shardPara(evento.getServiceName()), ShardContext.actual());
+                shardsEscritos.add(ShardContext.actual());
+            }
+            return grupo;
+        });
+
+        List<EventoMonitoreo> eventos = List.of(evento(servicioSecundario, 1), evento(servicioPrincipal, 2),
+                evento(servicioSecundario, 3), evento(servicioPrincipal, 4));
+        List<EventoMonitoreo> guardados = shardedEventoService.guardarTodos(eventos);
+
+        assertEquals(eventos, guardados);
+        assertEquals(4, shardsEscritos.size());
+        assertNull(ShardContext.actual());
+    }
+
+    @Test
+    void actualizarRechazaUnCambioDeServicioQueMueveElEventoDeShard() {
+        EventoMonitoreo existente = evento(servicioPrincipal, 1);
+        existente.setId(7L);
+        EventoMonitoreo actualizado = evento(servicioSecundario, 1);
+        actualizado.setId(7L);
+
+        assertThrows(CambioShardException.class, () -> shardedEventoService.actualizar(existente, actualizado));
+        verify(eventoMonitoreoRepository, never()).save(any());
+        verify(eventoMonitoreoRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void actualizarDentroDelMismoShardConservaElId() {
+        EventoMonitoreo existente = evento(servicioPrincipal, 1);
+        existente.setId(7L);
+        EventoMonitoreo actualizado = evento(servicioPrincipal, 2);
+        actualizado.setId(7L);
+        when(eventoMonitoreoRepository.save(actualizado)).thenAnswer(invocacion -> {
+            assertEquals(ShardRouter.PRINCIPAL, ShardContext.actual());
+            return actualizado;
+        });
+
+        assertEquals(7L, shardedEventoService.actualizar(existente, actualizado).getId());
+    }
+
+    @Test
+    void listadosDeTodosLosShardsSeCombinanPorTimestamp() {
+        when(eventoMonitoreoRepository.findByLevel("ERROR")).thenAnswer(invocacion ->
+                ShardRouter.PRINCIPAL.equals(ShardContext.actual())
+                        ? List.of(evento(servicioPrincipal, 9), evento(servicioPrincipal, 3))
+                        : List.of(evento(servicioSecundario, 7), evento(servicioSecundario, 1)));
+
+        List<EventoMonitoreo> combinados = shardedEventoService.buscarEnTodos(repository -> repository.findByLevel("ERROR"));
+
+        assertEquals(List.of(9, 7, 3, 1), combinados.stream().map(e -> e.getTimestamp().getMinute()).toList());
+    }
+
+    @Test
+    void paginaGlobalRecortaElResultadoCombinadoYSumaLosTotales() {
+        when(eventoMonitoreoRepository.findAllByOrderByTimestampDesc(any(Pageable.class))).thenAnswer(invocacion -> {
+            Pageable cabeza = invocacion.getArgument(0);
+            assertEquals(0, cabeza.getPageNumber());
+            assertEquals(4, cabeza.getPageSize());
+            List<EventoMonitoreo> eventos = ShardRouter.PRINCIPAL.equals(ShardContext.actual())
+                    ? List.of(evento(servicioPrincipal, 10), evento(servicioPrincipal, 8), evento(servicioPrincipal, 6), evento(servicioPrincipal, 4))
+                    : List.of(evento(servicioSecundario, 9), evento(servicioSecundario, 5), evento(servicioSecundario, 3), evento(servicioSecundario, 2));
+            return new PageImpl<>(eventos, cabeza, 20);
+        });
+
+        Page<EventoMonitoreo> pagina = shardedEventoService.buscarPaginaEnTodos(PageRequest.of(1, 2),
+                EventoMonitoreoRepository::findAllByOrderByTimestampDesc);
+
+        assertEquals(List.of(8, 6), pagina.getContent().stream().map(e -> e.getTimestamp().getMinute()).toList());
+        assertEquals(40, pagina.getTotalElements());
+    }
+
+    @Test
+    void estadisticasSeSumanEntreShards() {
+        when(eventoMonitoreoRepository.getEventTypeStatistics()).thenAnswer(invocacion ->
+                ShardRouter.PRINCIPAL.equals(ShardContext.actual())
+                        ? List.<Object[]>of(new Object[]{"USER_LOGIN", 3L}, new Object[]{"ERROR", 1L})
+                        : List.<Object[]>of(new Object[]{"USER_LOGIN", 2L}));
+
+        Map<String, Long> estadisticas = shardedEventoService.estadisticasPorTipo();
+
+        assertEquals(5L, estadisticas.get("USER_LOGIN"));
+        assertEquals(1L, estadisticas.get("ERROR"));
+    }
+
+    @Test
+    void laCargaDeTrabajoSePropagaALosHilosDeScatter() {
+        WorkloadContext.establecer(CargaTrabajo.CONSULTA);
+        when(eventoMonitoreoRepository.count()).thenAnswer(invocacion -> {
+            assertEquals(CargaTrabajo.CONSULTA, WorkloadContext.actual());
+            return 2L;
+        });
+
+        assertEquals(4L, shardedEventoService.contarEnTodos(EventoMonitoreoRepository::count));
+    }
+
+    @Test
+    void buscarPorIdConsultaSoloElShardDelRangoDelId() {
+        long id = shardRouter.inicioRangoIds("shard-1") + 5;
+        EventoMonitoreo encontrado = evento(servicioSecundario, 1);
+        when(eventoMonitoreoRepository.findById(id)).thenAnswer(invocacion -> {
+            assertEquals("shard-1", ShardContext.actual());
+            return Optional.of(encontrado);
+        });
+
+        assertEquals(Optional.of(encontrado), shardedEventoService.buscarPorId(id));
+        verify(eventoMonitoreoRepository, never()).existsById(any());
+    }
+
+    @Test
+    void unIdAntiguoPresenteEnVariosShardsEsAmbiguo() {
+        when(eventoMonitoreoRepository.existsById(42L)).thenReturn(true);
+
+        assertThrows(IdAmbiguoException.class, () -> shardedEventoService.buscarPorId(42L));
+        assertThrows(IdAmbiguoException.class, () -> shardedEventoService.eliminarPorId(42L));
+        verify(eventoMonitoreoRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void unIdAntiguoSeBuscaEnElUnicoShardQueLoTiene() {
+        EventoMonitoreo encontrado = evento(servicioSecundario, 1);
+        when(eventoMonitoreoRepository.existsById(42L)).thenAnswer(invocacion -> "shard-1".equals(ShardContext.actual()));
+        when(eventoMonitoreoRepository.findById(42L)).thenAnswer(invocacion -> {
+            assertEquals("shard-1", ShardContext.actual());
+            return Optional.of(encontrado);
+        });
+
+        assertEquals(Optional.of(encontrado), shardedEventoService.buscarPorId(42L));
+    }
+
+    @Test
+    void eliminarPorIdCompruebaYBorraEnUnaTransaccionDeSuShard() {
+        long id = shardRouter.inicioRangoIds(ShardRouter.PRINCIPAL) + 3;
+        when(eventoMonitoreoRepository.existsById(id)).thenAnswer(invocacion -> {
+            assertEquals(ShardRouter.PRINCIPAL, ShardContext.actual());
+            return true;
+        });
+
+        assertTrue(shardedEventoService.eliminarPorId(id));
+        verify(eventoMonitoreoRepository).deleteById(id);
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+
+        assertFalse(shardedEventoService.eliminarPorId(shardRouter.finRangoIds("shard-1") + 1));
+    }
+
+    @Test
+    void eliminarEnTodosUsaUnaTransaccionPorShard() {
+        when(eventoMonitoreoRepository.count()).thenReturn(3L);
+
+        long eliminados = shardedEventoService.eliminarEnTodos(repository -> {
+            long cantidad = repository.count();
+            repository.deleteAll();
+            return cantidad;
+        });
+
+        assertEquals(6L, eliminados);
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
@@ -0,0 +1,144 @@
+package com.monitoreo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private MeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry, true, 5000);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void lasPeticionesConcurrentesCompartenUnCalculo() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger calculos = new AtomicInteger();
+        Object resultado = new Object();
+
+        Future<Object> lider = executor.submit(() -> singleFlight.ejecutar("estadisticas", Map.of(), () -> {
+            calculos.incrementAndGet();
+            await(liberar);
+            return resultado;
+        }));
+        while (meterRegistry.get("monitoreo.coalescencia.en.curso").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        List<Future<Object>> esperando = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            esperando.add(executor.submit(() -> singleFlight.ejecutar("estadisticas", Map.of(), () -> {
+                calculos.incrementAndGet();
+                return new Object();
+            })));
+        }
+        while (meterRegistry.get("monitoreo.coalescencia.solicitudes").tag("resultado", "coalescida").counter().count() < 3) {
+            Thread.sleep(5);
+        }
+        liberar.countDown();
+
+        assertSame(resultado, lider.get(5, TimeUnit.SECONDS));
+        for (Future<Object> futuro : esperando) {
+            assertSame(resultado, futuro.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calculos.get());
+        assertEquals(1.0, meterRegistry.get("monitoreo.coalescencia.solicitudes")
+                .tag("endpoint", "estadisticas").tag("resultado", "calculada").counter().count());
+        assertEquals(3.0, meterRegistry.get("monitoreo.coalescencia.esperando").summary().totalAmount());
+        assertEquals(0.0, meterRegistry.get("monitoreo.coalescencia.en.curso").gauge().value());
+    }
+
+    @Test
+    void alTerminarLaClaveSeLiberaYSeCalculaDeNuevo() {
+        AtomicInteger calculos = new AtomicInteger();
+
+        singleFlight.ejecutar("criticos", Map.of(), calculos::incrementAndGet);
+        singleFlight.ejecutar("criticos", Map.of(), calculos::incrementAndGet);
+
+        assertEquals(2, calculos.get());
+    }
+
+    @Test
+    void losEsperandoRecibenLaExcepcionDelCalculo() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        Future<Object> lider = executor.submit(() -> singleFlight.ejecutar("recientes", Map.of("horas", 24), () -> {
+            await(liberar);
+            throw new IllegalStateException("Shard no disponible");
+        }));
+        while (meterRegistry.get("monitoreo.coalescencia.en.curso").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+        Future<Object> esperando = executor.submit(() -> singleFlight.ejecutar("recientes", Map.of("horas", 24), Object::new));
+        while (meterRegistry.get("monitoreo.coalescencia.solicitudes").tag("resultado", "coalescida").counter().count() < 1) {
+            Thread.sleep(5);
+        }
+        liberar.countDown();
+
+        ExecutionException errorLider = assertThrows(ExecutionException.class, () -> lider.get(5, TimeUnit.SECONDS));
+        ExecutionException errorEsperando = assertThrows(ExecutionException.class, () -> esperando.get(5, TimeUnit.SECONDS));
+        assertSame(errorLider.getCause(), errorEsperando.getCause());
+    }
+
+    @Test
+    void laClaveNormalizaElOrdenYLosEspacios() {
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        parametros.put("servicio", " auth ");
+        parametros.put("horas", 24);
+
+        assertEquals("recientes?horas=24&servicio=auth", SingleFlight.clave("recientes", parametros));
+        assertEquals("criticos", SingleFlight.clave("criticos", Map.of()));
+        assertTrue(SingleFlight.clave("recientes", Map.of("horas", 24))
+                .equals(SingleFlight.clave("recientes", Map.of("horas", "24 "))));
+    }
+
+    @Test
+    void deshabilitadoCadaPeticionCalcula() {
+        SingleFlight deshabilitado = new SingleFlight(meterRegistry, false, 5000);
+        AtomicInteger calculos = new AtomicInteger();
+
+        deshabilitado.ejecutar("criticos", Map.of(), calculos::incrementAndGet);
+
+        assertEquals(1, calculos.get());
+        assertTrue(meterRegistry.find("monitoreo.coalescencia.solicitudes").counters().isEmpty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
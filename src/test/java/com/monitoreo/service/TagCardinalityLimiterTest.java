@@ -0,0 +1,35 @@
+package com.monitoreo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TagCardinalityLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void agrupaLosValoresNuevosAlAlcanzarElLimite() {
+        TagCardinalityLimiter limiter = new TagCardinalityLimiter("servicio", 2, meterRegistry);
+
+        assertEquals("pagos", limiter.valor("pagos"));
+        assertEquals("usuarios", limiter.valor("usuarios"));
+        assertEquals(TagCardinalityLimiter.OTROS, limiter.valor("inventario"));
+        assertEquals("pagos", limiter.valor("pagos"));
+
+        assertEquals(2, limiter.getAdmitidos());
+        assertEquals(1.0, meterRegistry.get("monitoreo.metricas.tags.agrupados").tag("tag", "servicio").counter().count());
+    }
+
+    @Test
+    void tratanLosValoresVaciosYLargosAparte() {
+        TagCardinalityLimiter limiter = new TagCardinalityLimiter("tipo_evento", 10, meterRegistry);
+
+        assertEquals(TagCardinalityLimiter.DESCONOCIDO, limiter.valor(null));
+        assertEquals(TagCardinalityLimiter.DESCONOCIDO, limiter.valor("  "));
+        assertEquals(TagCardinalityLimiter.OTROS, limiter.valor("x".repeat(101)));
+        assertEquals(0, limiter.getAdmitidos());
+    }
+}